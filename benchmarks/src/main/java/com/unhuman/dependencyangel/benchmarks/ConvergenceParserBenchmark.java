@@ -0,0 +1,67 @@
+package com.unhuman.dependencyangel.benchmarks;
+
+import com.unhuman.dependencyangel.convergence.ConvergenceParser;
+import com.unhuman.dependencyangel.convergence.DependencyConflict;
+import com.unhuman.dependencyangel.session.AngelSession;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Parsing enforcer output (analyzeFull.txt has 5 conflicts - these logs are much larger)
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ConvergenceParserBenchmark {
+    @Param({"100", "2000"})
+    public int conflicts;
+
+    @Param({"4"})
+    public int pathsPerConflict;
+
+    @Param({"20"})
+    public int noiseLinesPerConflict;
+
+    // entered by each benchmark (see VersionBenchmark)
+    private final AngelSession session = new AngelSession(null);
+    private List<String> lines;
+
+    @Setup
+    public void setup() {
+        lines = SyntheticData.enforcerLog(conflicts, pathsPerConflict, noiseLinesPerConflict);
+    }
+
+    @Benchmark
+    public List<DependencyConflict> parse() {
+        try (AngelSession.Scope scope = session.enter()) {
+            return ConvergenceParser.from(lines).getDependencyConflicts();
+        }
+    }
+
+    @Benchmark
+    public List<DependencyConflict> parseStreaming() {
+        try (AngelSession.Scope scope = session.enter()) {
+            ConvergenceParser parser = ConvergenceParser.streaming();
+            for (String line : lines) {
+                parser.accept(line);
+            }
+            parser.complete();
+            return parser.getDependencyConflicts();
+        }
+    }
+}
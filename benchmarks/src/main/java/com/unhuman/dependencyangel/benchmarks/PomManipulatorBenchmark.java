@@ -0,0 +1,123 @@
+package com.unhuman.dependencyangel.benchmarks;
+
+import com.unhuman.dependencyangel.pom.PomManipulator;
+import com.unhuman.dependencyangel.pom.PomStreamEditor;
+import com.unhuman.dependencyangel.session.AngelSession;
+import com.unhuman.dependencyangel.versioning.Version;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Parsing, updating and saving a pom with a large dependencyManagement section
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PomManipulatorBenchmark {
+    // number of managed dependencies updated by the update benchmark
+    private static final int UPDATES = 100;
+
+    @Param({"1000", "5000"})
+    public int managedDependencies;
+
+    // entered by each benchmark (see VersionBenchmark)
+    private final AngelSession session = new AngelSession(null);
+    private Path directory;
+    private Path pomFile;
+    private PomManipulator pomManipulator;
+    private PomStreamEditor streamEditor;
+    private int saveCounter;
+    private int streamUpdateCounter;
+
+    @Setup
+    public void setup() throws IOException {
+        directory = Files.createTempDirectory("dependency-angel-benchmark");
+        pomFile = directory.resolve("pom.xml");
+        Files.writeString(pomFile, SyntheticData.pomWithManagedDependencies(managedDependencies));
+        try (AngelSession.Scope scope = session.enter()) {
+            pomManipulator = new PomManipulator(pomFile.toString());
+            streamEditor = new PomStreamEditor(pomFile.toString());
+        }
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        try (Stream<Path> paths = Files.walk(directory)) {
+            paths.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+        }
+    }
+
+    @Benchmark
+    public PomManipulator parse() {
+        try (AngelSession.Scope scope = session.enter()) {
+            return new PomManipulator(pomFile.toString());
+        }
+    }
+
+    @Benchmark
+    public int update() {
+        try (AngelSession.Scope scope = session.enter()) {
+            int found = 0;
+            int step = Math.max(1, managedDependencies / UPDATES);
+            for (int i = 0; i < managedDependencies; i += step) {
+                String groupId = String.format("org.bench.g%d", i % 50);
+                String artifactId = String.format("lib-%d", i);
+                if (pomManipulator.updateExplicitVersion(groupId, artifactId, null,
+                        Version.of(groupId, artifactId, "2.0.0"), null, null, null)) {
+                    found++;
+                }
+            }
+            return found;
+        }
+    }
+
+    @Benchmark
+    public int updateStream() {
+        try (AngelSession.Scope scope = session.enter()) {
+            // a different version each time, so every update edits the text
+            String version = "2.0." + (streamUpdateCounter++ % 10);
+            int found = 0;
+            int step = Math.max(1, managedDependencies / UPDATES);
+            for (int i = 0; i < managedDependencies; i += step) {
+                String groupId = String.format("org.bench.g%d", i % 50);
+                String artifactId = String.format("lib-%d", i);
+                if (streamEditor.updateExplicitVersion(groupId, artifactId, null,
+                        Version.of(groupId, artifactId, version), null, null, null)) {
+                    found++;
+                }
+            }
+            return found;
+        }
+    }
+
+    @Benchmark
+    public boolean save() {
+        try (AngelSession.Scope scope = session.enter()) {
+            // change something, so there is something to save
+            String version = "3.0." + (saveCounter++ % 10);
+            pomManipulator.updateExplicitVersion("org.bench.g0", "lib-0", null,
+                    Version.of("org.bench.g0", "lib-0", version), null, null, null);
+            return pomManipulator.saveFile(null, null);
+        }
+    }
+}
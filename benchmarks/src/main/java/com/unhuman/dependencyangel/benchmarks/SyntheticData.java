@@ -0,0 +1,125 @@
+package com.unhuman.dependencyangel.benchmarks;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Generates (reproducible) input data for benchmarks
+ */
+public class SyntheticData {
+    private static final String PROJECT = "+-com.unhuman:BenchmarkProject:jar:1.0.0-SNAPSHOT";
+    private static final String[] NOISE = {
+            "[INFO] Downloading from central: https://repo.maven.apache.org/maven2/org/example/example.pom",
+            "[INFO] --- maven-compiler-plugin:3.8.1:compile (default-compile) @ BenchmarkProject ---",
+            "[INFO] Nothing to compile - all classes are up to date",
+            "[WARNING] Using platform encoding (UTF-8 actually) to copy filtered resources",
+            "[INFO]",
+    };
+
+    private SyntheticData() { }
+
+    /**
+     * Maven enforcer (dependencyConvergence) output
+     * @param conflicts number of convergence errors
+     * @param pathsPerConflict number of paths reported for each error
+     * @param noiseLinesPerConflict number of unrelated output lines around each error
+     */
+    public static List<String> enforcerLog(int conflicts, int pathsPerConflict, int noiseLinesPerConflict) {
+        Random random = new Random(conflicts);
+        List<String> lines = new ArrayList<>();
+        lines.add("[INFO] Scanning for projects...");
+        lines.add("[INFO] --- maven-enforcer-plugin:3.0.0:enforce (enforce) @ BenchmarkProject ---");
+        for (int conflict = 0; conflict < conflicts; conflict++) {
+            for (int i = 0; i < noiseLinesPerConflict; i++) {
+                lines.add(NOISE[random.nextInt(NOISE.length)]);
+            }
+
+            String coordinates = String.format("org.bench.g%d:lib-%d", conflict % 50, conflict);
+            lines.add("[WARNING]");
+            lines.add(String.format("Dependency convergence error for %s:jar:%d.0.0:compile "
+                    + "paths to dependency are:", coordinates, pathsPerConflict));
+            for (int path = 0; path < pathsPerConflict; path++) {
+                if (path > 0) {
+                    lines.add("and");
+                }
+                lines.add(PROJECT);
+                String indent = "  ";
+                int depth = 1 + random.nextInt(4);
+                for (int level = 0; level < depth; level++) {
+                    lines.add(String.format("%s+-org.bench.intermediate:lib-%d-%d-%d:jar:1.%d.0:compile",
+                            indent, conflict, path, level, level));
+                    indent += "  ";
+                }
+                lines.add(String.format("%s+-%s:jar:%d.0.0:compile", indent, coordinates, path + 1));
+            }
+            lines.add("");
+        }
+        lines.add("[WARNING] Rule 0: org.apache.maven.plugins.enforcer.DependencyConvergence failed with message:");
+        lines.add("Failed while enforcing releasability. See above detailed error message.");
+        lines.add("[INFO] BUILD FAILURE");
+        return lines;
+    }
+
+    /**
+     * Version strings, in the mix seen in real projects (semantic, qualifiers, suffixes, short versions)
+     */
+    public static String[] versions(int count) {
+        Random random = new Random(count);
+        String[] versions = new String[count];
+        for (int i = 0; i < count; i++) {
+            switch (random.nextInt(5)) {
+                case 0:
+                    versions[i] = String.format("%d.%d", random.nextInt(10), random.nextInt(30));
+                    break;
+                case 1:
+                    versions[i] = String.format("%d.%d.%d-SNAPSHOT",
+                            random.nextInt(10), random.nextInt(30), random.nextInt(30));
+                    break;
+                case 2:
+                    versions[i] = String.format("%d.%d.%d.Final",
+                            random.nextInt(10), random.nextInt(30), random.nextInt(30));
+                    break;
+                case 3:
+                    versions[i] = String.format("%d.%d.%d.%d",
+                            random.nextInt(10), random.nextInt(30), random.nextInt(30), random.nextInt(5));
+                    break;
+                default:
+                    versions[i] = String.format("%d.%d.%d",
+                            random.nextInt(10), random.nextInt(30), random.nextInt(30));
+            }
+        }
+        return versions;
+    }
+
+    /**
+     * A pom with a large dependencyManagement section (versions stored in properties)
+     * @param managedDependencies number of managed dependencies
+     */
+    public static String pomWithManagedDependencies(int managedDependencies) {
+        StringBuilder properties = new StringBuilder();
+        StringBuilder dependencies = new StringBuilder();
+        for (int i = 0; i < managedDependencies; i++) {
+            String groupId = String.format("org.bench.g%d", i % 50);
+            String artifactId = String.format("lib-%d", i);
+            properties.append(String.format("        <%s-%s.version>1.%d.0</%s-%s.version>%n",
+                    groupId, artifactId, i % 20, groupId, artifactId));
+            dependencies.append(String.format("            <dependency>%n"
+                    + "                <groupId>%s</groupId>%n"
+                    + "                <artifactId>%s</artifactId>%n"
+                    + "                <version>${%s-%s.version}</version>%n"
+                    + "            </dependency>%n", groupId, artifactId, groupId, artifactId));
+        }
+        return String.format("<?xml version=\"1.0\" encoding=\"UTF-8\"?>%n"
+                + "<project xmlns=\"http://maven.apache.org/POM/4.0.0\">%n"
+                + "    <modelVersion>4.0.0</modelVersion>%n"
+                + "    <groupId>com.unhuman</groupId>%n"
+                + "    <artifactId>BenchmarkProject</artifactId>%n"
+                + "    <version>1.0.0-SNAPSHOT</version>%n"
+                + "    <packaging>pom</packaging>%n"
+                + "    <properties>%n%s    </properties>%n"
+                + "    <dependencyManagement>%n        <dependencies>%n%s        </dependencies>%n"
+                + "    </dependencyManagement>%n"
+                + "</project>%n", properties, dependencies);
+    }
+}
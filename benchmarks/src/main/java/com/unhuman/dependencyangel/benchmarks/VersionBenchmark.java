@@ -0,0 +1,111 @@
+package com.unhuman.dependencyangel.benchmarks;
+
+import com.unhuman.dependencyangel.session.AngelSession;
+import com.unhuman.dependencyangel.versioning.Version;
+import com.unhuman.dependencyangel.versioning.VersionHelper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.Arrays;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Version parsing and comparison, compared with the previous implementation (LegacyVersion)
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class VersionBenchmark {
+    private static final String GROUP_ID = "org.bench";
+    private static final String ARTIFACT_ID = "lib";
+
+    @Param({"1000"})
+    public int count;
+
+    // the run's session - entered by each benchmark, as JMH may call setup and benchmarks on different threads
+    private AngelSession session;
+    private String[] versionStrings;
+    private Version[] versions;
+    private LegacyVersion[] legacyVersions;
+
+    @Setup
+    public void setup() {
+        VersionHelper versionHelper = new VersionHelper(Set.of());
+        session = new AngelSession(versionHelper);
+        LegacyVersion.setVersionHelper(versionHelper);
+
+        versionStrings = SyntheticData.versions(count);
+        versions = new Version[count];
+        legacyVersions = new LegacyVersion[count];
+        for (int i = 0; i < count; i++) {
+            versions[i] = new Version(GROUP_ID, ARTIFACT_ID, versionStrings[i], versionHelper);
+            legacyVersions[i] = new LegacyVersion(GROUP_ID, ARTIFACT_ID, versionStrings[i]);
+        }
+    }
+
+    @Benchmark
+    public void parseLegacy(Blackhole blackhole) {
+        for (String versionString : versionStrings) {
+            blackhole.consume(new LegacyVersion(GROUP_ID, ARTIFACT_ID, versionString));
+        }
+    }
+
+    @Benchmark
+    public void parse(Blackhole blackhole) {
+        try (AngelSession.Scope scope = session.enter()) {
+            for (String versionString : versionStrings) {
+                blackhole.consume(new Version(GROUP_ID, ARTIFACT_ID, versionString));
+            }
+        }
+    }
+
+    @Benchmark
+    public void parseShared(Blackhole blackhole) {
+        try (AngelSession.Scope scope = session.enter()) {
+            for (String versionString : versionStrings) {
+                blackhole.consume(Version.of(GROUP_ID, ARTIFACT_ID, versionString));
+            }
+        }
+    }
+
+    @Benchmark
+    public LegacyVersion[] sortLegacy() {
+        LegacyVersion[] sorted = legacyVersions.clone();
+        Arrays.sort(sorted);
+        return sorted;
+    }
+
+    @Benchmark
+    public Version[] sort() {
+        Version[] sorted = versions.clone();
+        Arrays.sort(sorted);
+        return sorted;
+    }
+
+    @Benchmark
+    public int treeSetLegacy() {
+        TreeSet<LegacyVersion> treeSet = new TreeSet<>(Arrays.asList(legacyVersions));
+        return treeSet.size();
+    }
+
+    @Benchmark
+    public int treeSet() {
+        TreeSet<Version> treeSet = new TreeSet<>(Arrays.asList(versions));
+        return treeSet.size();
+    }
+}
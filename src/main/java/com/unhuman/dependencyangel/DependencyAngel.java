@@ -1,6 +1,14 @@
 package com.unhuman.dependencyangel;
 
-import com.unhuman.dependencyangel.convergence.ConvergenceParser;
+import com.unhuman.dependencyangel.analysis.AffectedModuleAnalysis;
+import com.unhuman.dependencyangel.analysis.CachingConvergenceAnalyzer;
+import com.unhuman.dependencyangel.analysis.ConvergenceAnalyzer;
+import com.unhuman.dependencyangel.analysis.EnforcerConvergenceAnalyzer;
+import com.unhuman.dependencyangel.analysis.MavenConvergenceAnalyzer;
+import com.unhuman.dependencyangel.analysis.NativeConvergenceAnalyzer;
+import com.unhuman.dependencyangel.analysis.TreeConvergenceAnalyzer;
+import com.unhuman.dependencyangel.convergence.ConflictPlanner;
+import com.unhuman.dependencyangel.convergence.ConvergenceMonitor;
 import com.unhuman.dependencyangel.convergence.DependencyConflict;
 import com.unhuman.dependencyangel.convergence.DependencyConflictData;
 import com.unhuman.dependencyangel.convergence.ResolvedDependencyDetails;
@@ -8,9 +16,25 @@ import com.unhuman.dependencyangel.convergence.ResolvedDependencyDetailsList;
 import com.unhuman.dependencyangel.dependency.ArtifactHelper;
 import com.unhuman.dependencyangel.dependency.Dependency;
 import com.unhuman.dependencyangel.exceptions.AngelException;
+import com.unhuman.dependencyangel.execution.BuildExecutor;
+import com.unhuman.dependencyangel.execution.ExecutionStatistics;
+import com.unhuman.dependencyangel.execution.MavenBuildExecutor;
+import com.unhuman.dependencyangel.execution.MavenDaemonBuildExecutor;
+import com.unhuman.dependencyangel.execution.ParallelTasks;
+import com.unhuman.dependencyangel.pom.ModuleFinder;
+import com.unhuman.dependencyangel.pom.PomCache;
+import com.unhuman.dependencyangel.pom.PomFlushResult;
+import com.unhuman.dependencyangel.pom.PomEditor;
 import com.unhuman.dependencyangel.pom.PomManipulator;
+import com.unhuman.dependencyangel.report.RunReport;
+import com.unhuman.dependencyangel.session.AngelCaches;
+import com.unhuman.dependencyangel.session.AngelSession;
+import com.unhuman.dependencyangel.resolution.LocalRepository;
+import com.unhuman.dependencyangel.resolution.PomModelResolver;
+import com.unhuman.dependencyangel.resolution.RawPom;
+import com.unhuman.dependencyangel.resolution.ReachableArtifacts;
+import com.unhuman.dependencyangel.resolution.Reactor;
 import com.unhuman.dependencyangel.versioning.Version;
-import com.unhuman.dependencyangel.versioning.VersionHelper;
 import org.w3c.dom.Node;
 import org.xml.sax.SAXException;
 
@@ -23,17 +47,16 @@ import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.util.ArrayList;
-import java.util.Arrays;
+import java.util.Collections;
 import java.util.HashSet;
-import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
-import java.util.concurrent.atomic.AtomicReference;
-import java.util.regex.Matcher;
+import java.util.concurrent.Callable;
+import java.util.concurrent.TimeUnit;
 import java.util.regex.Pattern;
 import java.util.stream.Collectors;
 
-import static com.unhuman.dependencyangel.convergence.ConvergenceParser.CONVERGE_ERROR;
 import static com.unhuman.dependencyangel.pom.PomManipulator.ARTIFACT_ID_TAG;
 import static com.unhuman.dependencyangel.pom.PomManipulator.CLASSIFIER_TAG;
 import static com.unhuman.dependencyangel.pom.PomManipulator.DEPENDENCY_TAG;
@@ -47,29 +70,43 @@ import static com.unhuman.dependencyangel.pom.PomManipulator.VERSION_TAG;
 import static java.lang.System.exit;
 
 public class DependencyAngel {
-    private static final boolean IS_WINDOWS = System.getProperty("os.name").toLowerCase().contains("win");
-    private static final String MVN_COMMAND = (IS_WINDOWS) ? "mvn.cmd" : "mvn";
-    private static final String TEMP_FILE_PREFIX = "dependency-angel-";
-    private static final String TEMP_FILE_SUFFIX = ".tmp";
     public static final Pattern BANNED_ERROR = Pattern.compile(
             "Found Banned Dependency: (.*?)");
-    private static final Pattern GENERATED_EXPECTED_FILE_LINE =
-            Pattern.compile(String.format("Wrote dependency tree to:.*%s.*%s",
-                    TEMP_FILE_PREFIX, TEMP_FILE_SUFFIX));
     private static final Pattern CONVERGENCE_EXPECTED_FILE_LINE =
             Pattern.compile("DependencyConvergence failed with message");
 
     DependencyAngelConfig config;
     List<File> nestedPoms;
+    BuildExecutor buildExecutor;
+    ConvergenceAnalyzer analyzer;
+    // Restricts analysis to modules affected by each iteration (null when every module is analyzed)
+    AffectedModuleAnalysis affectedModuleAnalysis;
+    // Every pom is parsed once and changes are written at the end of each phase
+    PomCache pomCache;
+    // Version policy, project artifacts and the run report - the angel must run within this session
+    AngelSession session;
+    // Phase timings and counters for the run
+    RunReport report;
 
     // Flag to track this so we don't prompt multiple times
     private boolean allowProcessing = false;
 
-    protected DependencyAngel(DependencyAngelConfig config) {
+    protected DependencyAngel(DependencyAngelConfig config, AngelSession session) {
         this.config = config;
+        this.session = session;
+        this.report = session.getReport();
+        this.buildExecutor = createBuildExecutor(config);
+        this.pomCache = new PomCache(report, config.getPomEditor() == DependencyAngelConfig.PomEditorType.Stream);
 
         // Determine nested poms
-        nestedPoms = findChildPomFiles(config.getDirectory(), config.getDirectory());
+        ModuleFinder moduleFinder = new ModuleFinder(config.getIgnoreDirectories());
+        nestedPoms = moduleFinder.findNestedPoms(new File(config.getDirectory()));
+        System.out.println(moduleFinder.getSummary(nestedPoms));
+
+        this.analyzer = createAnalyzer();
+        if (!config.isFullAnalysis() && !nestedPoms.isEmpty()) {
+            this.affectedModuleAnalysis = new AffectedModuleAnalysis(analyzer, getPomFiles());
+        }
     }
 
     private static String getPomFilePath(String directoryOrFile) {
@@ -98,6 +135,12 @@ public class DependencyAngel {
             return;
         }
 
+        try (RunReport.Timer timer = report.time("setup")) {
+            performSetup();
+        }
+    }
+
+    private void performSetup() {
         // Ensure we are in a valid place to start
         prepareOperation(config.getDirectory());
 
@@ -105,18 +148,13 @@ public class DependencyAngel {
         performPomCleanup(config.getDirectory());
 
         // Create a manipulator for the parent pom, so we can validate it correctly
-        PomManipulator parentPomManipulator = new PomManipulator(getPomFilePath(config.getDirectory()));
+        PomManipulator parentPomManipulator = pomCache.get(getPomFilePath(config.getDirectory()));
 
         // Update the config stored on disk - to be picked up later, perhaps
         config.writeConfig(config.getDirectory());
 
         parentPomManipulator.ensureDependencyManagement();
 
-        // build up a list of subdirectories with pom.xml in them
-        for (File nestedPom: nestedPoms) {
-            performPomCleanup(nestedPom.getAbsolutePath());
-        }
-
         // preserved exclusions and banned dependencies are both treated the same (skip existing exclusions)
         // TODO: this is duplicated in PomManipulator
         Set<String> preserveExclusions = new HashSet<>(
@@ -124,111 +162,136 @@ public class DependencyAngel {
         preserveExclusions.addAll(config.getBannedDependencies());
         preserveExclusions.addAll(config.getPreserveExclusions());
 
-        // in main pom.xml, validate / check dependency management
-        List<Dependency> dependenciesToManage = new ArrayList<>();
+        // Nested poms are independent until they are merged into the parent, so they are handled concurrently
+        List<Callable<List<Dependency>>> nestedPomTasks = new ArrayList<>(nestedPoms.size());
         for (File nestedPom: nestedPoms) {
-            PomManipulator nestedManipulator = new PomManipulator(nestedPom.getAbsolutePath());
+            nestedPomTasks.add(() -> setupNestedPom(nestedPom, preserveExclusions));
+        }
 
-            Node dependenciesNode = nestedManipulator.getDependenciesNode();
-            if (dependenciesNode == null) {
-                // nothing to do here
-                continue;
+        // in main pom.xml, validate / check dependency management (merged in the same order as nestedPoms)
+        List<Dependency> dependenciesToManage = new ArrayList<>();
+        for (List<Dependency> nestedDependencies: ParallelTasks.invokeAll("setup", nestedPomTasks)) {
+            dependenciesToManage.addAll(nestedDependencies);
+        }
+
+        // Now update the parent pom to have all the dependencies
+        for (Dependency dependency: dependenciesToManage) {
+            // Add or Update (handling version) the dependency
+            if (!parentPomManipulator.updateExplicitVersion(dependency)) {
+                parentPomManipulator.addDependencyNode(dependency);
             }
-            List<Node> dependencyNodes = nestedManipulator.findChildElements(dependenciesNode, DEPENDENCY_TAG);
-            for (Node dependencyNode : dependencyNodes) {
-                String groupId = nestedManipulator.getSingleNodeElement(dependencyNode, GROUP_ID_TAG, true)
-                        .getTextContent();
-                String artifactId = nestedManipulator.getSingleNodeElement(dependencyNode, ARTIFACT_ID_TAG, true)
-                        .getTextContent();
-
-                Version version = null;
-                Node versionNode = nestedManipulator.getSingleNodeElement(dependencyNode, VERSION_TAG, false);
-                Node versionPropertyNode = null;
-                if (versionNode != null) {
-                    String versionText = versionNode.getTextContent();
-                    // See if version is defined in properties
-                    Matcher propertiesVersionMatcher = PROPERTIES_VARIABLE.matcher(versionText);
-                    if (propertiesVersionMatcher.matches()) {
-                        versionPropertyNode = nestedManipulator.findSingleElement(versionText, false);
-
-                        // We have a version variable - ensure we can find it - otherwise, we do not process this
-                        if (versionPropertyNode == null) {
-                            continue;
-                        }
+        }
+        pomCache.flush("Dependency management handled");
+
+        // Happiness
+    }
 
-                        versionText = versionPropertyNode.getTextContent();
+    /**
+     * Cleans a nested pom and removes the versions of its dependencies (to be managed by the parent pom)
+     * This is run concurrently for all nested poms.
+     * @param nestedPom nested pom file
+     * @param preserveExclusions exclusions that are kept
+     * @return dependencies to be managed by the parent pom
+     */
+    private List<Dependency> setupNestedPom(File nestedPom, Set<String> preserveExclusions) {
+        PomManipulator nestedManipulator = pomCache.get(nestedPom);
+        // Other nested poms may read (inherited) properties of this pom while it is changed
+        synchronized (nestedManipulator) {
+            performPomCleanup(nestedPom.getAbsolutePath());
+            return extractManagedDependencies(nestedManipulator, preserveExclusions);
+        }
+    }
+
+    private List<Dependency> extractManagedDependencies(PomManipulator nestedManipulator,
+                                                        Set<String> preserveExclusions) {
+        List<Dependency> dependenciesToManage = new ArrayList<>();
 
-                        // If we find a version property, but can't lookup the value, then we can assume
-                        // this is a project-level dependency.
+        Node dependenciesNode = nestedManipulator.getDependenciesNode();
+        if (dependenciesNode == null) {
+            // nothing to do here
+            return dependenciesToManage;
+        }
+        List<Node> dependencyNodes = nestedManipulator.findChildElements(dependenciesNode, DEPENDENCY_TAG);
+        for (Node dependencyNode : dependencyNodes) {
+            String groupId = nestedManipulator.getSingleNodeElement(dependencyNode, GROUP_ID_TAG, true)
+                    .getTextContent();
+            String artifactId = nestedManipulator.getSingleNodeElement(dependencyNode, ARTIFACT_ID_TAG, true)
+                    .getTextContent();
+
+            Version version = null;
+            Node versionNode = nestedManipulator.getSingleNodeElement(dependencyNode, VERSION_TAG, false);
+            Set<String> versionProperties = Collections.emptySet();
+            if (versionNode != null) {
+                String versionText = versionNode.getTextContent().trim();
+                // See if version is defined in properties (possibly inherited or nested: ${a}.${b})
+                if (PROPERTIES_VARIABLE.matcher(versionText).find()) {
+                    versionProperties = PomManipulator.findPropertyReferences(versionText);
+                    versionText = nestedManipulator.resolveProperties(versionText);
+
+                    // If we find a version property, but can't lookup the value, then we can assume
+                    // this is a project-level dependency (ex: ${project.version}) - we do not process this
+                    if (versionText == null) {
+                        continue;
                     }
-                    version = (versionText != null) ? new Version(groupId, artifactId, versionText) : null;
                 }
+                version = Version.of(groupId, artifactId, versionText);
+            }
 
-                // No version - we don't process this
-                if (version == null) {
-                    continue;
-                }
+            // No version - we don't process this
+            if (version == null) {
+                continue;
+            }
 
-                Node classifierNode = nestedManipulator.getSingleNodeElement(dependencyNode, CLASSIFIER_TAG, false);
-                String classifier = (classifierNode != null) ? classifierNode.getTextContent() : null;
-
-                Node scopeNode = nestedManipulator.getSingleNodeElement(dependencyNode, SCOPE_TAG, false);
-                String scope = (scopeNode != null) ? scopeNode.getTextContent() : null;
-
-                Node typeNode = nestedManipulator.getSingleNodeElement(dependencyNode, TYPE_TAG, false);
-                String type = (typeNode != null) ? typeNode.getTextContent() : null;
-
-                // only strip exclusions whose parent node is a dependency
-                List<Dependency> exclusions = new ArrayList<>();
-                Node exclusionsNode =
-                        nestedManipulator.getSingleNodeElement(dependencyNode, EXCLUSIONS_TAG, false);
-                if (exclusionsNode != null) {
-                    List<Node> exclusionNodes =
-                            nestedManipulator.findChildElements(exclusionsNode, EXCLUSION_TAG);
-                    for (Node exclusionNode : exclusionNodes) {
-                        String exclusionGroupId = nestedManipulator.getSingleNodeElement
-                                (exclusionNode, GROUP_ID_TAG, true).getTextContent();
-                        String exclusionArtifactId = nestedManipulator.getSingleNodeElement
-                                (exclusionNode, ARTIFACT_ID_TAG, true).getTextContent();
-                        // This check will not miss if clean has occurred.
-                        if (preserveExclusions.contains(
-                                ArtifactHelper.getArtifactIdGroupIdString(exclusionGroupId, exclusionArtifactId))) {
-                            exclusions.add(new Dependency(exclusionGroupId, exclusionArtifactId));
-                        }
-                        // We delete all the exclusions below, so we don't need to do this.
-                        // nestedManipulator.deleteNode(exclusionNode, true);
+            Node classifierNode = nestedManipulator.getSingleNodeElement(dependencyNode, CLASSIFIER_TAG, false);
+            String classifier = (classifierNode != null) ? classifierNode.getTextContent() : null;
+
+            Node scopeNode = nestedManipulator.getSingleNodeElement(dependencyNode, SCOPE_TAG, false);
+            String scope = (scopeNode != null) ? scopeNode.getTextContent() : null;
+
+            Node typeNode = nestedManipulator.getSingleNodeElement(dependencyNode, TYPE_TAG, false);
+            String type = (typeNode != null) ? typeNode.getTextContent() : null;
+
+            // only strip exclusions whose parent node is a dependency
+            List<Dependency> exclusions = new ArrayList<>();
+            Node exclusionsNode =
+                    nestedManipulator.getSingleNodeElement(dependencyNode, EXCLUSIONS_TAG, false);
+            if (exclusionsNode != null) {
+                List<Node> exclusionNodes =
+                        nestedManipulator.findChildElements(exclusionsNode, EXCLUSION_TAG);
+                for (Node exclusionNode : exclusionNodes) {
+                    String exclusionGroupId = nestedManipulator.getSingleNodeElement
+                            (exclusionNode, GROUP_ID_TAG, true).getTextContent();
+                    String exclusionArtifactId = nestedManipulator.getSingleNodeElement
+                            (exclusionNode, ARTIFACT_ID_TAG, true).getTextContent();
+                    // This check will not miss if clean has occurred.
+                    if (preserveExclusions.contains(
+                            ArtifactHelper.getArtifactIdGroupIdString(exclusionGroupId, exclusionArtifactId))) {
+                        exclusions.add(new Dependency(exclusionGroupId, exclusionArtifactId));
                     }
+                    // We delete all the exclusions below, so we don't need to do this.
+                    // nestedManipulator.deleteNode(exclusionNode, true);
                 }
-                nestedManipulator.deleteNode(exclusionsNode, true);
-
-                // Create a dependency to update info and remove related child nodes from the document
-                Dependency dependency = new Dependency(groupId, artifactId, type, version, scope, classifier);
-                dependency.setExclusions(exclusions);
+            }
+            nestedManipulator.deleteNode(exclusionsNode, true);
 
-                dependenciesToManage.add(dependency);
+            // Create a dependency to update info and remove related child nodes from the document
+            Dependency dependency = new Dependency(groupId, artifactId, type, version, scope, classifier);
+            dependency.setExclusions(exclusions);
 
-                nestedManipulator.deleteNode(typeNode, true);
-                nestedManipulator.deleteNode(versionNode, true);
-                nestedManipulator.deleteNode(versionPropertyNode, true);
+            dependenciesToManage.add(dependency);
 
-                // We don't delete scope or classifier
-                // nestedManipulator.deleteNode(scopeNode, true);
-                // nestedManipulator.deleteNode(classifierNode, true);
+            nestedManipulator.deleteNode(typeNode, true);
+            nestedManipulator.deleteNode(versionNode, true);
+            for (String versionProperty : versionProperties) {
+                nestedManipulator.deleteUnreferencedProperty(versionProperty);
             }
 
-            nestedManipulator.saveFile(null, "Nested dependency management handled");
+            // We don't delete scope or classifier
+            // nestedManipulator.deleteNode(scopeNode, true);
+            // nestedManipulator.deleteNode(classifierNode, true);
         }
 
-        // Now update the parent pom to have all the dependencies
-        for (Dependency dependency: dependenciesToManage) {
-            // Add or Update (handling version) the dependency
-            if (!parentPomManipulator.updateExplicitVersion(dependency)) {
-                parentPomManipulator.addDependencyNode(dependency);
-            }
-        }
-        parentPomManipulator.saveFile(null, "Parent dependency management handled");
-
-        // Happiness
+        return dependenciesToManage;
     }
 
     protected void process() {
@@ -236,12 +299,16 @@ public class DependencyAngel {
             return;
         }
 
+        try (RunReport.Timer timer = report.time("process")) {
+            performProcess();
+        }
+    }
+
+    private void performProcess() {
         // Read in all the pom files to build up the static state of knowing internal artifacts
-        // TODO: Improve this!
-        new PomManipulator(getPomFilePath(config.getDirectory()));
-        // build up a list of subdirectories with pom.xml in them
+        pomCache.get(getPomFilePath(config.getDirectory()));
         for (File nestedPom: nestedPoms) {
-            new PomManipulator(nestedPom.getAbsolutePath());
+            pomCache.get(nestedPom);
         }
 
         File directoryFile = prepareOperation(config.getDirectory());
@@ -249,36 +316,53 @@ public class DependencyAngel {
         // this processing may take multiple iterations if there are nested dependencies
         List<DependencyConflict> conflicts;
         int iteration = 0;
-        AtomicReference<String> loopDetector = new AtomicReference<>();
+        ConvergenceMonitor convergenceMonitor = new ConvergenceMonitor(config.getConvergencePatience());
+        convergenceMonitor.recordInitialState(pomCache.getStateFingerprint());
         while (true) {
-            List<String> analyzeResults;
-            try {
-                analyzeResults = executeCommand(directoryFile, CONVERGE_ERROR, MVN_COMMAND,
-                        "dependency:analyze");
-            } catch (RuntimeException re) {
-                throw re;
-            } catch (Exception e) {
-                throw new RuntimeException("Problem with analyze", e);
+            long analysisStart = System.currentTimeMillis();
+            try (RunReport.Timer timer = report.time("analysis")) {
+                conflicts = new ArrayList<>((affectedModuleAnalysis != null)
+                        ? affectedModuleAnalysis.analyze(directoryFile) : analyzer.analyze(directoryFile));
             }
-
-            ConvergenceParser convergenceParser = ConvergenceParser.from(analyzeResults);
-            conflicts = new ArrayList<>(convergenceParser.getDependencyConflicts());
-            System.out.println(String.format("Iteration %d: %d conflicts remaining",
-                    ++iteration, conflicts.size()));
+            long analysisMillis = System.currentTimeMillis() - analysisStart;
+            System.out.println(String.format("Iteration %d: %d conflicts remaining (analysis took %s)",
+                    ++iteration, conflicts.size(), ExecutionStatistics.formatMillis(analysisMillis)));
 
             // We are done when there are no conflicts detected
             if (conflicts.size() == 0) {
+                report.addIteration(Map.of("conflicts", 0L, "analysisMillis", analysisMillis));
                 break;
             }
 
-            List<ResolvedDependencyDetailsList> workList = calculatePomChanges(conflicts, loopDetector);
-            updatePomFile(workList);
+            convergenceMonitor.recordConflicts(conflicts);
+
+            List<ResolvedDependencyDetailsList> workList;
+            try (RunReport.Timer timer = report.time("calculatePomChanges")) {
+                workList = calculatePomChanges(conflicts);
+            }
+            PomFlushResult writtenPoms;
+            try (RunReport.Timer timer = report.time("updatePomFile")) {
+                writtenPoms = updatePomFile(workList);
+            }
+            report.addIteration(Map.of("conflicts", (long) conflicts.size(),
+                    "plannedConflicts", (long) workList.size(), "analysisMillis", analysisMillis,
+                    "pomFilesWritten", (long) writtenPoms.getFiles().size(),
+                    "pomBytesWritten", writtenPoms.getBytes()));
+            // Stop if the poms returned to any earlier state
+            convergenceMonitor.recordState(pomCache.getStateFingerprint());
+            if (affectedModuleAnalysis != null) {
+                affectedModuleAnalysis.recordChanges(writtenPoms.getFiles(), getChangedDependencies(workList));
+            }
 
             if (config.performProcessSingleStep()) {
-                return;
+                break;
             }
         }
 
+        if (buildExecutor.getStatistics().getExecutionMillis().size() > 0) {
+            System.out.println(buildExecutor.getStatistics().getSummary());
+        }
+
         // Happiness
     }
 
@@ -287,111 +371,98 @@ public class DependencyAngel {
             return;
         }
 
+        try (RunReport.Timer timer = report.time("exclusionReduction")) {
+            performExclusionReduction();
+        }
+    }
+
+    private void performExclusionReduction() {
         // Update pom.xml
-        PomManipulator pomManipulator = new PomManipulator(getPomFilePath(config.getDirectory()));
+        PomManipulator pomManipulator = pomCache.get(getPomFilePath(config.getDirectory()));
 
         if (!pomManipulator.hasDependencyManagement()) {
             return;
         }
 
-        // Find all the items in dependencyManagement
-        List<Node> dependencyNodes =
-                pomManipulator.findChildElements(pomManipulator.getDependenciesNode(), DEPENDENCY_TAG);
-
-        // Create a list of all dependencies
-        List<Dependency> managedDependencies = new ArrayList<>(dependencyNodes.size());
-        for (Node dependencyNode: dependencyNodes) {
-            Dependency dependency = new Dependency(
-                    pomManipulator.getSingleNodeElement(dependencyNode, GROUP_ID_TAG, true).getTextContent(),
-                    pomManipulator.getSingleNodeElement(dependencyNode, ARTIFACT_ID_TAG, true).getTextContent());
-            managedDependencies.add(dependency);
-        }
+        // Exclusions (in dependencyManagement) of managed dependencies are redundant - the managed version is
+        // used anyway.  Only the root's dependencyManagement is reduced this way: exclusions in nested poms
+        // were added by users, and managing an artifact does not remove it from a module.
+        Set<String> managedArtifacts = new HashSet<>(pomManipulator.getDependencyKeys());
+        int removedManaged = pomManipulator.removeExclusions((groupId, artifactId, exclusion) ->
+                managedArtifacts.contains(exclusion));
 
-        // Check all other items for exclusion for that item (and remove it)
-        for (Node dependencyNode: dependencyNodes) {
-            Node exclusionsNode = pomManipulator.getSingleNodeElement(dependencyNode, EXCLUSIONS_TAG, false);
-            if (exclusionsNode == null) {
+        // Exclusions of artifacts that are no longer brought in at all are redundant, too (preserved
+        // exclusions and banned dependencies are kept)
+        Set<String> preserveExclusions = new HashSet<>(config.getPreserveExclusions());
+        preserveExclusions.addAll(config.getBannedDependencies());
+        PomModelResolver resolver = session.getResolver(LocalRepository.fromEnvironment());
+        List<File> pomFiles = getPomFiles();
+        Reactor reactor = new Reactor(pomFiles);
+
+        int removedUnreachable = 0;
+        for (File pomFile: pomFiles) {
+            ReachableArtifacts reachableArtifacts = findReachableArtifacts(resolver, reactor, pomFile);
+            if (reachableArtifacts == null) {
                 continue;
             }
-
-            List<Node> exclusionNodes =
-                    pomManipulator.findChildElements(exclusionsNode, EXCLUSION_TAG);
-
-            int counter = exclusionNodes.size();
-            for (Node exclusionNode: exclusionNodes) {
-                String exclusionGroupId =
-                        pomManipulator.getSingleNodeElement(exclusionNode, GROUP_ID_TAG, true).getTextContent();
-                String exclusionArtifactId =
-                        pomManipulator.getSingleNodeElement(exclusionNode, ARTIFACT_ID_TAG, true).getTextContent();
-
-                for (Dependency managedDependency: managedDependencies) {
-                    if (managedDependency.getGroupId().equals(exclusionGroupId)
-                            && managedDependency.getArtifactId().equals(exclusionArtifactId)) {
-                        // either delete the exclusion or exclusions node if nothing left
-                        if (--counter == 0) {
-                            pomManipulator.deleteNode(exclusionsNode, true);
-                        } else {
-                            pomManipulator.deleteNode(exclusionNode, true);
-                        }
-                    }
-                }
-            }
+            removedUnreachable += pomCache.get(pomFile).removeExclusions((groupId, artifactId, exclusion) ->
+                    !preserveExclusions.contains(exclusion)
+                            && reachableArtifacts.isUnreachable(groupId, artifactId, exclusion));
         }
+        report.increment("exclusionsRemovedManaged", removedManaged);
+        report.increment("exclusionsRemovedUnreachable", removedUnreachable);
 
-        pomManipulator.saveFile("No exclusion reduction required", "Exclusion reduction performed");
+        if (pomCache.flush("Exclusion reduction performed").isEmpty()) {
+            System.out.println("No exclusion reduction required: " + getPomFilePath(config.getDirectory()));
+        } else {
+            System.out.println(String.format("Removed %d exclusions of managed dependencies and %d of artifacts "
+                    + "no longer brought in", removedManaged, removedUnreachable));
+        }
 
         // Happiness
     }
 
     /**
-     *
-     * @param directoryName
-     * @param ignoreDirectoryName (don't find pom files for this directory (root)
-     * @return
+     * @return the artifacts the dependencies of a project pom bring in, or null if the pom can't be resolved
      */
-    private static List<File> findChildPomFiles(String directoryName, String ignoreDirectoryName) {
-        File directory = new File(directoryName);
-
-        List<File> childPoms = new ArrayList<>();
-
-        // get all the files from a directory
-        File[] checkFiles = directory.listFiles();
-        for (File checkFile: checkFiles) {
-            if (!directoryName.equals(ignoreDirectoryName) && checkFile.isFile() && checkFile.getName().equals("pom.xml")) {
-                childPoms.add(checkFile);
-            } else if (checkFile.isDirectory()) {
-                childPoms.addAll(findChildPomFiles(checkFile.getAbsolutePath(), ignoreDirectoryName));
-            }
+    private static ReachableArtifacts findReachableArtifacts(PomModelResolver resolver, Reactor reactor,
+                                                             File pomFile) {
+        RawPom pom = reactor.findPom(pomFile);
+        if (pom == null) {
+            return null;
+        }
+        try {
+            return new ReachableArtifacts(resolver, reactor, resolver.resolve(pom, reactor));
+        } catch (RuntimeException re) {
+            System.err.println("Could not resolve: " + pomFile + " - keeping exclusions of artifacts that may "
+                    + "be brought in: " + re.getMessage());
+            return null;
         }
-        return childPoms;
     }
 
     private void performPomCleanup(String directoryOrPomFilePath) {
         String pomFilePath = getPomFilePath(directoryOrPomFilePath);
-        PomManipulator pomManipulator = new PomManipulator(pomFilePath);
+        PomManipulator pomManipulator = pomCache.get(pomFilePath);
         pomManipulator.stripExclusions(config);
         pomManipulator.stripDependencyAngelDependencies(config);
-        pomManipulator.saveFile(null, "pom cleaned");
     }
 
     /**
-     * Calculate pom changes
+     * Calculate pom changes for the conflicts that can be resolved together (see ConflictPlanner)
      *
-     * @param conflicts - usage is destructive and will be altered
+     * @param conflicts - conflicts reported by analysis
      * @return
      */
-    private List<ResolvedDependencyDetailsList> calculatePomChanges(List<DependencyConflict> conflicts,
-                                                                    AtomicReference<String> loopDetector) {
-        // shallow copy the conflict locally so we can mutate the list
-        DependencyProcessState dependencyProcessState = new DependencyProcessState(conflicts);
+    private List<ResolvedDependencyDetailsList> calculatePomChanges(List<DependencyConflict> conflicts) {
+        ConflictPlanner planner = ConflictPlanner.plan(conflicts);
+        if (planner.getDeferredCount() > 0) {
+            System.out.println(String.format("Resolving %d conflicts (%d deferred to the next iteration)",
+                    planner.getPlannedConflicts().size(), planner.getDeferredCount()));
+        }
 
         List<ResolvedDependencyDetailsList> workList = new ArrayList<>();
 
-        String workProcessedCalculation = "";
-
-        while (dependencyProcessState.hasNext()) {
-            DependencyConflict currentConflict = dependencyProcessState.next();
-
+        for (DependencyConflict currentConflict: planner.getPlannedConflicts()) {
             // get all the conflicted versions
             Set<Version> conflictedVersions = currentConflict.getConflictedVersions();
             conflictedVersions.remove(currentConflict.getVersion());
@@ -403,7 +474,7 @@ public class DependencyAngel {
             Version useVersion = currentConflict.getVersion();
             if (forcedVersionString != null) {
                 Version previouslyForcedVersion =
-                        new Version(currentConflict.getGroupId(), currentConflict.getArtifactId(), forcedVersionString);
+                        Version.of(currentConflict.getGroupId(), currentConflict.getArtifactId(), forcedVersionString);
                 int comparison = currentConflict.getVersion().compareTo(previouslyForcedVersion);
                 if (comparison < 0) {
                     forcedVersionInfo = String.format(", calculated version %s", currentConflict.getVersion());
@@ -423,13 +494,6 @@ public class DependencyAngel {
 
             System.out.println(processingMessage);
 
-            // Detect a loop - and fail processing
-            workProcessedCalculation += processingMessage.hashCode();
-            if (workProcessedCalculation.equals(loopDetector.get())) {
-                throw new AngelException("Loop detected - stopping processing.",
-                        "Fix the loop and then use Continue or a Process mode.", null);
-            }
-
             // Determine actions to be performed
             ResolvedDependencyDetailsList workToDo = new ResolvedDependencyDetailsList();
             // Keep track if there's any weird things going on here - self references...
@@ -458,33 +522,30 @@ public class DependencyAngel {
             }
 
             workList.add(workToDo);
+        }
 
-            // don't process further if the next dependency includes anything changed by this one
-            // that'd be handled in the next iteration
-            if (dependencyProcessState.hasNext()) {
-                DependencyConflict nextConflict = dependencyProcessState.peekNext();
-
-                if (dependencyProcessState.hasHandledDependency(nextConflict)) {
-                    // clear any handled dependencies for the next iteration
-                    dependencyProcessState.resetHandledDependencies();
-                    break;
-                }
-            }
+        return workList;
+    }
 
-            // nothing handled indicates we need another cycle
-            if (!dependencyProcessState.hasHandledDependencies()) {
-                break;
+    /**
+     * @param workList - changes made by updatePomFile
+     * @return the dependencies (groupId / artifactId) updatePomFile may have changed
+     */
+    private static List<Dependency> getChangedDependencies(List<ResolvedDependencyDetailsList> workList) {
+        List<Dependency> changedDependencies = new ArrayList<>();
+        for (ResolvedDependencyDetailsList workItem: workList) {
+            changedDependencies.add(new Dependency(workItem.getGroup(), workItem.getArtifact()));
+            for (ResolvedDependencyDetails details: workItem) {
+                // explicit versions are updated, and exclusions added to, the initial dependencies
+                changedDependencies.add(details.getInitialDependency());
             }
         }
-
-        loopDetector.set(workProcessedCalculation);
-
-        return workList;
+        return changedDependencies;
     }
 
-    private void updatePomFile(List<ResolvedDependencyDetailsList> workList) {
+    private PomFlushResult updatePomFile(List<ResolvedDependencyDetailsList> workList) {
         // Update pom.xml
-        PomManipulator pomManipulator = new PomManipulator(getPomFilePath(config.getDirectory()));
+        PomEditor pomEditor = pomCache.getEditor(new File(getPomFilePath(config.getDirectory())));
 
         // Update dependencies
         for (ResolvedDependencyDetailsList workItem: workList) {
@@ -494,7 +555,7 @@ public class DependencyAngel {
             for (ResolvedDependencyDetails details: workItem) {
                 // if a top level dependency is this guy and is the latest version - it's our own, so - no version
                 // TODO: maybe we can check top level artifact, too
-                if (PomManipulator.isKnownArtifact(workItem.getGroup(), workItem.getArtifact())) {
+                if (session.isKnownArtifact(workItem.getGroup(), workItem.getArtifact())) {
                     circularDependency = true;
                 }
             }
@@ -510,7 +571,7 @@ public class DependencyAngel {
                         needsExplicitDependency = false;
                         System.out.println("Updating version: " + workItem.getArtifact());
                         // update the explicit dependency with version + scope
-                        pomManipulator.updateExplicitVersion(
+                        pomEditor.updateExplicitVersion(
                                 workDependency.getInitialDependency().getGroupId(),
                                 workDependency.getInitialDependency().getArtifactId(),
                                 workItem.getResolvedType(), workItem.getLatestVersion(),
@@ -520,7 +581,7 @@ public class DependencyAngel {
                         // exclude the dependency
                         System.out.println("Excluding: " + workItem.getArtifact() + " from: " +
                                         workDependency.getInitialDependency().getArtifactId());
-                        pomManipulator.addExclusion(workDependency.getInitialDependency().getGroupId(),
+                        pomEditor.addExclusion(workDependency.getInitialDependency().getGroupId(),
                                 workDependency.getInitialDependency().getArtifactId(),
                                 workItem.getGroup(), workItem.getArtifact());
                     }
@@ -529,31 +590,24 @@ public class DependencyAngel {
             }
 
             if (needsExplicitDependency) {
-                pomManipulator.forceVersionDependencyNode(workItem.getGroup(), workItem.getArtifact(),
+                pomEditor.forceVersionDependencyNode(workItem.getGroup(), workItem.getArtifact(),
                         workItem.getResolvedType(), workItem.getLatestVersion(), workItem.getResolvedScope(),
                         workItem.getResolvedClassifier(), null);
 
                 // Figure out if we had a conflicted item that brought in multiple versions of this dependency
                 // if we did, we need to explicitly add a dependency to any user of that library
                 for (File nestedPom : nestedPoms) {
-                    PomManipulator nestedManipulator = new PomManipulator(nestedPom.getAbsolutePath());
-
                     // Any place we find the dependency, we need to strip out the version
                     // Scan the child poms (maybe we can track those)
-                    Node dependencyNode = nestedManipulator.findDependency(workItem.getGroup(), workItem.getArtifact());
-                    if (dependencyNode != null) {
-                        List<Node> versionNodes = nestedManipulator.findChildElements(dependencyNode, VERSION_TAG);
-                        for (Node versionNode : versionNodes) {
-                            nestedManipulator.deleteNode(versionNode, true);
-                        }
-                    }
-
-                    nestedManipulator.saveFile(null, "updated nested pom file");
+                    pomCache.getEditor(nestedPom).removeDependencyVersions(workItem.getGroup(), workItem.getArtifact());
                 }
             }
         }
 
-        pomManipulator.saveFile(null, "updated pom file");
+        // Write everything touched by this iteration before the next analysis
+        PomFlushResult result = pomCache.flush("updated pom file");
+        System.out.println(result.getSummary());
+        return result;
     }
 
     /**
@@ -584,141 +638,127 @@ public class DependencyAngel {
         }
     }
 
+    private static BuildExecutor createBuildExecutor(DependencyAngelConfig config) {
+        switch (config.getExecutor()) {
+            case MavenDaemon:
+                return new MavenDaemonBuildExecutor(config);
+            case Maven:
+            default:
+                return new MavenBuildExecutor(config);
+        }
+    }
+
     /**
-     *
-     * @param directoryFile
-     * @param errorMatchForSuccess - search output for a pattern under error conditions - if found, treat as success
-     * @param commandAndParams
-     * @return list of data in the input
+     * @return the project's pom files (root first)
      */
-    protected List<String> executeCommand(File directoryFile, Pattern errorMatchForSuccess, String... commandAndParams) {
-        System.out.println("Executing: " + Arrays.stream(commandAndParams).collect(Collectors.joining(" ")));
-        List<String> output = new ArrayList<>(100);
-        try {
-            ProcessBuilder builder = new ProcessBuilder(commandAndParams);
-            //builder.inheritIO(); // TODO: Learn what this does - weird things with consuming output
-            builder.environment().putAll(config.getEnvironmentVars());
-            builder.directory(directoryFile);
-            Process process = builder.start();
-
-            BufferedReader outputReader = new BufferedReader(new InputStreamReader(process.getInputStream()));
-            BufferedReader errorReader = new BufferedReader(new InputStreamReader(process.getErrorStream()));
-
-            String line = "";
-            boolean foundDesiredValue = false;
-            List<String> allOutput = new ArrayList<>(1024);
-
-            // If there was an error exit value, search to see if we should treat it as success
-            if (errorMatchForSuccess != null) {
-                // output any errors we got
-                while (errorReader.ready() && (line = errorReader.readLine()) != null) {
-                    System.err.println(line);
-                }
-
-                // Process the data we had, too
-                while ((line = outputReader.readLine()) != null) {
-                    allOutput.add(line);
-                    if (config.isDisplayExecutionOutput()) {
-                        System.out.println(line);
-                    }
-                    if (!foundDesiredValue && errorMatchForSuccess.matcher(line).find()) {
-                        System.out.println("Found desired line: " + errorMatchForSuccess);
-                        foundDesiredValue = true;
-                    }
-                    output.add(line);
-                }
-            }
-
-            int processResult = process.waitFor();
+    private List<File> getPomFiles() {
+        List<File> pomFiles = new ArrayList<>(nestedPoms.size() + 1);
+        pomFiles.add(new File(getPomFilePath(config.getDirectory())));
+        pomFiles.addAll(nestedPoms);
+        return pomFiles;
+    }
 
-            if (processResult != 0 && !foundDesiredValue) {
-                for (String errLine: allOutput) {
-                    System.err.println(errLine);
-                }
-                throw new RuntimeException(String.format("Could not find desired value in output: [%s] status code: %d",
-                        errorMatchForSuccess, processResult));
-            }
-        } catch (Exception e) {
-            if (e instanceof RuntimeException) {
-                throw (RuntimeException) e;
-            }
-            throw new RuntimeException(e);
+    private ConvergenceAnalyzer createAnalyzer() {
+        ConvergenceAnalyzer analyzer;
+        // what (besides the poms) the analysis results depend on
+        List<String> configuration = new ArrayList<>();
+        configuration.add(config.getAnalyzer().name());
+        switch (config.getAnalyzer()) {
+            case Native:
+                LocalRepository repository = LocalRepository.fromEnvironment();
+                configuration.add(repository.getRoot().toString());
+                analyzer = new NativeConvergenceAnalyzer(getPomFiles(), session.getResolver(repository));
+                break;
+            case Tree:
+                addEnvironmentVars(configuration);
+                analyzer = new TreeConvergenceAnalyzer(buildExecutor, report);
+                break;
+            case Enforcer:
+                addEnvironmentVars(configuration);
+                analyzer = new EnforcerConvergenceAnalyzer(buildExecutor, report);
+                break;
+            case Maven:
+            default:
+                addEnvironmentVars(configuration);
+                analyzer = new MavenConvergenceAnalyzer(buildExecutor, report);
+                break;
         }
-        return output;
-    }
+        configuration.add(config.getNonSemanticVersioning().stream().sorted().collect(Collectors.joining(",")));
 
-    public static void main(String[] args) {
-        try {
-            DependencyAngelConfig config = new DependencyAngelConfig(args);
+        return (config.isNoAnalysisCache()) ? analyzer
+                : new CachingConvergenceAnalyzer(analyzer, getPomFiles(), String.join("\n", configuration), report);
+    }
 
-            // Setup non-semantic versioning handler
-            VersionHelper versionHelper = new VersionHelper(config.getNonSemanticVersioning());
-            Version.setVersionHelper(versionHelper);
+    private void addEnvironmentVars(List<String> configuration) {
+        config.getEnvironmentVars().entrySet().stream().sorted(Map.Entry.comparingByKey())
+                .forEach(entry -> configuration.add(entry.getKey() + "=" + entry.getValue()));
+    }
 
-            // Do stuff!
-            DependencyAngel angel = new DependencyAngel(config);
-            angel.setupDependencyManagement();
-            angel.process();
-            angel.exclusionReduction();
-        } catch (AngelException ae) {
-            System.err.println(ae.getMessage());
-            exit(-1);
-        } catch (Exception e) {
-            System.err.println("Error: " + e.getMessage());
-            e.printStackTrace(System.err);
-            exit(-1);
-        }
+    protected void close() {
+        buildExecutor.close();
     }
 
     /**
-     * Internal state for how we process dependencies
-     * This is destructive
+     * Write the run report (if requested)
      */
-    class DependencyProcessState implements Iterator<DependencyConflict> {
-        List<DependencyConflict> conflicts;
-        List<DependencyConflict> handledDependencies;
-
-        /**
-         * Manipulation of conflicts is destructive
-         * @param conflicts
-         */
-        DependencyProcessState(List conflicts) {
-            this.conflicts = conflicts;
-            handledDependencies = new ArrayList<>();
-        }
-
-        @Override
-        public boolean hasNext() {
-            return (conflicts.size() > 0);
+    protected void writeReport() {
+        if (config.getReportFile() == null) {
+            return;
         }
 
-        @Override
-        public DependencyConflict next() {
-            DependencyConflict conflict = conflicts.remove(0);
-            handledDependencies.add(conflict);
-            return conflict;
+        for (long executionMillis: buildExecutor.getStatistics().getExecutionMillis()) {
+            report.record("execute", TimeUnit.MILLISECONDS.toNanos(executionMillis), -1L);
         }
-
-        public DependencyConflict peekNext() {
-            return conflicts.get(0);
+        try {
+            report.write(new File(config.getReportFile()));
+            System.out.println("Run report written: " + config.getReportFile());
+        } catch (IOException ioe) {
+            System.err.println("Could not write run report: " + config.getReportFile() + ": " + ioe.getMessage());
         }
+    }
 
+    /**
+     * Process a project - setup, process and exclusion reduction (as configured), in a new session.
+     * @param config - configuration of the run
+     */
+    public static void run(DependencyAngelConfig config)
+            throws ParserConfigurationException, IOException, SAXException {
+        // Setup non-semantic versioning handler
+        run(config, new AngelCaches().createSession(config.getNonSemanticVersioning()));
+    }
 
-        public boolean hasHandledDependency(DependencyConflict check) {
-            for (DependencyConflict handledDependency: handledDependencies) {
-                if (check.containsDependency(handledDependency)) {
-                    return true;
-                }
+    /**
+     * Process a project in a session (see AngelCaches.createSession() to share caches with other runs).
+     * Runs may be performed concurrently (on separate threads, each in its own session) for different projects.
+     * @param config - configuration of the run
+     * @param session - session for the run
+     */
+    public static void run(DependencyAngelConfig config, AngelSession session)
+            throws ParserConfigurationException, IOException, SAXException {
+        try (AngelSession.Scope scope = session.enter()) {
+            // Do stuff!
+            DependencyAngel angel = new DependencyAngel(config, session);
+            try {
+                angel.setupDependencyManagement();
+                angel.process();
+                angel.exclusionReduction();
+            } finally {
+                angel.close();
+                angel.writeReport();
             }
-            return false;
-        }
-
-        public boolean hasHandledDependencies() {
-            return (handledDependencies.size() > 0);
         }
+    }
 
-        public void resetHandledDependencies() {
-            handledDependencies.clear();
+    public static void main(String[] args) {
+        try {
+            run(new DependencyAngelConfig(args));
+        } catch (AngelException ae) {
+            System.err.println(ae.getMessage());
+            exit(-1);
+        } catch (Exception e) {
+            System.err.println("Error: " + e.getMessage());
+            e.printStackTrace(System.err);
+            exit(-1);
         }
     }
 }
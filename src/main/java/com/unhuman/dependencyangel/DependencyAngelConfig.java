@@ -1,25 +1,59 @@
 package com.unhuman.dependencyangel;
 
+import com.unhuman.dependencyangel.analysis.CachingConvergenceAnalyzer;
+import com.unhuman.dependencyangel.convergence.ConvergenceMonitor;
 import net.sourceforge.argparse4j.ArgumentParsers;
 import net.sourceforge.argparse4j.impl.Arguments;
 import net.sourceforge.argparse4j.inf.ArgumentParser;
 import net.sourceforge.argparse4j.inf.ArgumentParserException;
 import net.sourceforge.argparse4j.inf.Namespace;
 
+import java.io.File;
 import java.util.HashMap;
 import java.util.Map;
 
 public class DependencyAngelConfig extends StorableAngelConfigData {
     public enum Mode { All, SetupOnly, Continue, ProcessOnly, ProcessSingleStep, ExclusionReduction }
+    public enum Executor { Maven, MavenDaemon }
+    public enum Analyzer { Maven, Native, Tree, Enforcer }
+    public enum PomEditorType { Dom, Stream }
 
     private String directory;
     private Map<String, String> environmentVars;
     private Mode mode;
+    private Executor executor;
+    private Analyzer analyzer;
+    private int timeoutMinutes;
+    private boolean fullAnalysis;
+    private boolean noAnalysisCache;
+    private PomEditorType pomEditor;
+    private int convergencePatience;
+    private String reportFile;
     private boolean skipPrompts;
     private boolean displayExecutionOutput;
 
     public DependencyAngelConfig(String[] args) {
         super();
+        try {
+            parse(args, null);
+        } catch (ArgumentParserException e) {
+            e.getParser().handleError(e);
+            System.exit(1);
+        }
+    }
+
+    /**
+     * Configuration for a run on behalf of another process (see AngelServer)
+     * @param args - arguments
+     * @param workingDirectory - working directory of the requester (relative paths are resolved against it)
+     * @throws ArgumentParserException - invalid arguments (or help requested)
+     */
+    public DependencyAngelConfig(String[] args, File workingDirectory) throws ArgumentParserException {
+        super();
+        parse(args, workingDirectory);
+    }
+
+    private void parse(String[] args, File workingDirectory) throws ArgumentParserException {
         this.directory = null;
         this.environmentVars = new HashMap<>();
         this.skipPrompts = false;
@@ -29,11 +63,25 @@ public class DependencyAngelConfig extends StorableAngelConfigData {
                 .description("Resolve conflicting dependencies (exclusions)." +
                         "\nThis is a destructive process.  Have backups!" +
                         "\nSee: https://github.com/unhuman/DependencyAngel");
+        parser.addArgument("-a", "--analyzer")
+                .type(Analyzer.class)
+                .required(false)
+                .setDefault(Analyzer.Maven)
+                .help("How convergence is analyzed (Maven: mvn dependency:analyze, " +
+                        "Native: in process using poms from the local repository, " +
+                        "Tree: from mvn dependency:tree output files, " +
+                        "Enforcer: mvn enforcer:enforce with only dependencyConvergence, no compilation).");
         parser.addArgument("-b", "--banned")
                 .type(String.class)
                 .metavar("<groupId:artifactId,...>")
                 .required(false)
                 .help("Banned dependencies.  Processing preserves exclusions.");
+        parser.addArgument("-c", "--convergencePatience")
+                .type(Integer.class)
+                .metavar("<iterations>")
+                .required(false)
+                .setDefault(ConvergenceMonitor.DEFAULT_PATIENCE)
+                .help("Stop processing when conflicts have not decreased for this many iterations (0 = never).");
         parser.addArgument("-d", "--displayExecutionOutput")
                 .type(Boolean.class)
                 .required(false)
@@ -44,12 +92,41 @@ public class DependencyAngelConfig extends StorableAngelConfigData {
                 .metavar("<key:value,...>")
                 .required(false)
                 .help("Specify environment variables.");
+        parser.addArgument("-f", "--fullAnalysis")
+                .type(Boolean.class)
+                .required(false)
+                .action(Arguments.storeTrue())
+                .help("Analyze every module each iteration (otherwise only modules affected by the " +
+                        "previous iteration are re-analyzed).");
+        parser.addArgument("-i", "--ignoreDirectories")
+                .type(String.class)
+                .metavar("<glob,...>")
+                .required(false)
+                .help("Directories to skip when searching for nested poms (name or relative path globs).");
+        parser.addArgument("-k", "--noAnalysisCache")
+                .type(Boolean.class)
+                .required(false)
+                .action(Arguments.storeTrue())
+                .help("Always analyze, rather than reusing results cached (in " +
+                        CachingConvergenceAnalyzer.CACHE_DIRECTORY + ") for unchanged poms.");
         parser.addArgument("-m", "--mode")
                 .type(Mode.class)
                 .required(false)
                 .setDefault(Mode.All)
                 .help("Mode how to operate (All, SetupOnly, Continue, " +
                         "ProcessOnly, ProcessSingleStep, or ExclusionReduction).");
+        parser.addArgument("-o", "--pomEditor")
+                .type(PomEditorType.class)
+                .required(false)
+                .setDefault(PomEditorType.Dom)
+                .help("How poms are edited while processing (Dom: parsed and re-serialized, " +
+                        "Stream: targeted text edits that leave the rest of the file untouched).");
+        parser.addArgument("-x", "--executor")
+                .type(Executor.class)
+                .required(false)
+                .setDefault(Executor.Maven)
+                .help("How Maven is executed (Maven: new process each iteration, " +
+                        "MavenDaemon: reuse a warm mvnd daemon).");
         parser.addArgument("-n", "--nonSemanticVersioning")
                 .type(String.class)
                 .metavar("<groupId:artifactId,...>")
@@ -60,33 +137,54 @@ public class DependencyAngelConfig extends StorableAngelConfigData {
                 .metavar("<groupId:artifactId,...>")
                 .required(false)
                 .help("Existing exclusions to preserve.");
+        parser.addArgument("-r", "--report")
+                .type(String.class)
+                .metavar("<file>")
+                .required(false)
+                .help("Write a JSON run report (phase timings, counters and iterations) to this file.");
         parser.addArgument("-s", "--skipPrompts")
                 .type(Boolean.class)
                 .action(Arguments.storeTrue())
                 .help("Specify to skip any prompts.");
+        parser.addArgument("-t", "--timeout")
+                .type(Integer.class)
+                .metavar("<minutes>")
+                .required(false)
+                .setDefault(0)
+                .help("Maximum minutes for each Maven execution before it is killed (0 = no limit).");
         parser.addArgument("directory")
                 .type(String.class)
                 .required(true)
                 .help("Directory of project to modify.");
-        Namespace ns = null;
-        try {
-            ns = parser.parseArgs(args);
-
-            directory = ns.getString("directory");
-            environmentVars.putAll(getEnvParameterMap(ns.getString("env")));
-            // Add JAVA_HOME if it doesn't exist in the environment
-            if (!environmentVars.containsKey("JAVA_HOME") && System.getenv("JAVA_HOME") != null) {
-                environmentVars.put("JAVA_HOME", System.getenv("JAVA_HOME"));
-            }
-            mode = ns.get("mode");
-            skipPrompts = ns.getBoolean("skipPrompts");
-            displayExecutionOutput = ns.get("displayExecutionOutput");
+        Namespace ns = parser.parseArgs(args);
 
-            super.setup(ns, directory);
-        } catch (ArgumentParserException e) {
-            parser.handleError(e);
-            System.exit(1);
+        directory = resolve(workingDirectory, ns.getString("directory"));
+        environmentVars.putAll(getEnvParameterMap(ns.getString("env")));
+        // Add JAVA_HOME if it doesn't exist in the environment
+        if (!environmentVars.containsKey("JAVA_HOME") && System.getenv("JAVA_HOME") != null) {
+            environmentVars.put("JAVA_HOME", System.getenv("JAVA_HOME"));
         }
+        mode = ns.get("mode");
+        executor = ns.get("executor");
+        analyzer = ns.get("analyzer");
+        skipPrompts = ns.getBoolean("skipPrompts");
+        timeoutMinutes = ns.getInt("timeout");
+        fullAnalysis = ns.getBoolean("fullAnalysis");
+        noAnalysisCache = ns.getBoolean("noAnalysisCache");
+        pomEditor = ns.get("pomEditor");
+        convergencePatience = ns.getInt("convergencePatience");
+        reportFile = resolve(workingDirectory, ns.getString("report"));
+        displayExecutionOutput = ns.get("displayExecutionOutput");
+
+        super.setup(ns, directory);
+    }
+
+    /**
+     * @return path resolved against the working directory (if there is one)
+     */
+    private static String resolve(File workingDirectory, String path) {
+        return (workingDirectory == null || path == null || new File(path).isAbsolute())
+                ? path : new File(workingDirectory, path).getPath();
     }
 
     public String getDirectory() {
@@ -114,6 +212,38 @@ public class DependencyAngelConfig extends StorableAngelConfigData {
         return Mode.All.equals(mode) || Mode.Continue.equals(mode) || Mode.ExclusionReduction.equals(mode);
     }
 
+    public Executor getExecutor() {
+        return executor;
+    }
+
+    public Analyzer getAnalyzer() {
+        return analyzer;
+    }
+
+    public int getTimeoutMinutes() {
+        return timeoutMinutes;
+    }
+
+    public boolean isFullAnalysis() {
+        return fullAnalysis;
+    }
+
+    public boolean isNoAnalysisCache() {
+        return noAnalysisCache;
+    }
+
+    public PomEditorType getPomEditor() {
+        return pomEditor;
+    }
+
+    public int getConvergencePatience() {
+        return convergencePatience;
+    }
+
+    public String getReportFile() {
+        return reportFile;
+    }
+
     public boolean isSkipPrompts() {
         return skipPrompts;
     }
@@ -18,12 +18,14 @@ public class StorableAngelConfigData {
     private Set<String> bannedDependencies;
     private Set<String> preserveExclusions;
     private Set<String> nonSemanticVersioning;
+    private Set<String> ignoreDirectories;
     private Map<String, String> trackedVersions;
 
     protected StorableAngelConfigData() {
         this.bannedDependencies = Collections.emptySet();
         this.preserveExclusions = Collections.emptySet();
         this.nonSemanticVersioning = Collections.emptySet();
+        this.ignoreDirectories = Collections.emptySet();
         this.trackedVersions = new HashMap<>();
     }
 
@@ -31,6 +33,7 @@ public class StorableAngelConfigData {
         this.bannedDependencies = copy.bannedDependencies;
         this.preserveExclusions = copy.preserveExclusions;
         this.nonSemanticVersioning = copy.nonSemanticVersioning;
+        this.ignoreDirectories = copy.ignoreDirectories;
         this.trackedVersions = copy.trackedVersions;
     }
 
@@ -38,12 +41,14 @@ public class StorableAngelConfigData {
         bannedDependencies = getDependenciesSet(ns, "banned");
         preserveExclusions = getDependenciesSet(ns, "preserveExclusions");
         nonSemanticVersioning = getDependenciesSet(ns, "nonSemanticVersioning");
+        ignoreDirectories = getValuesSet(ns, "ignoreDirectories");
 
         StorableAngelConfigData fileConfig = loadConfig(projectDirectory);
         if (fileConfig != null) {
             bannedDependencies.addAll(fileConfig.getBannedDependencies());
             preserveExclusions.addAll(fileConfig.getPreserveExclusions());
             nonSemanticVersioning.addAll(fileConfig.getNonSemanticVersioning());
+            ignoreDirectories.addAll(fileConfig.getIgnoreDirectories());
             trackedVersions.putAll(fileConfig.getTrackedVersions());
         }
 
@@ -71,11 +76,15 @@ public class StorableAngelConfigData {
         return Collections.unmodifiableSet(nonSemanticVersioning);
     }
 
-    public void trackVersion(String versionName, String version) {
+    public Set<String> getIgnoreDirectories() {
+        return Collections.unmodifiableSet(ignoreDirectories);
+    }
+
+    public synchronized void trackVersion(String versionName, String version) {
         trackedVersions.put(versionName, version);
     }
 
-    public String getTrackedVersion(String groupId, String artifactId) {
+    public synchronized String getTrackedVersion(String groupId, String artifactId) {
         String key = String.format("%s-%s.version", groupId, artifactId);
         return trackedVersions.get(key);
     }
@@ -97,6 +106,19 @@ public class StorableAngelConfigData {
         return dependencies;
     }
 
+    private Set<String> getValuesSet(Namespace ns, String itemExtract) {
+        String data = ns.getString(itemExtract);
+        Set<String> values = new HashSet<>();
+        if (data != null) {
+            for (String item : data.split("[,]+")) {
+                if (!item.isBlank()) {
+                    values.add(item.trim());
+                }
+            }
+        }
+        return values;
+    }
+
     public void writeConfig(String projectDirectory) {
         String configFilePath = getConfigFilePath(projectDirectory);
         try {
@@ -0,0 +1,214 @@
+package com.unhuman.dependencyangel.analysis;
+
+import com.unhuman.dependencyangel.convergence.DependencyConflict;
+import com.unhuman.dependencyangel.convergence.DependencyConflictData;
+import com.unhuman.dependencyangel.dependency.ArtifactHelper;
+import com.unhuman.dependencyangel.dependency.Dependency;
+import com.unhuman.dependencyangel.resolution.PomDependency;
+import com.unhuman.dependencyangel.resolution.RawPom;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Re-analyzes only the modules affected by the previous iteration's changes.
+ *
+ * The first analysis covers every module.  Conflicts are attributed to the module at the top of their
+ * paths and cached per module.  After poms are updated, the affected modules are:
+ * - nested modules whose pom was written
+ * - modules whose cached conflicts include a changed dependency (the root pom is written every iteration,
+ *   so its changes are narrowed to the modules using what changed)
+ * - modules depending on, or inheriting from, an affected module (transitively)
+ * Only those modules are analyzed next, and the cached conflicts of the other modules are merged in.
+ *
+ * A module without conflicts could gain one from a change it didn't previously use, so when the merged
+ * result has no conflicts every module is analyzed before processing is considered complete.
+ */
+public class AffectedModuleAnalysis {
+    private static final String UNKNOWN_MODULE = "";
+
+    private final ConvergenceAnalyzer analyzer;
+    private final List<File> pomFiles;
+    // conflicts by module (groupId:artifactId), in the order modules were first reported
+    private final Map<String, List<DependencyConflict>> moduleConflicts = new LinkedHashMap<>();
+    // pom files by module to analyze next (null when every module is to be analyzed)
+    private Map<String, File> affectedModules = null;
+
+    /**
+     * @param analyzer - analyzer to use
+     * @param pomFiles - the project's pom files (root first)
+     */
+    public AffectedModuleAnalysis(ConvergenceAnalyzer analyzer, List<File> pomFiles) {
+        this.analyzer = analyzer;
+        this.pomFiles = pomFiles;
+    }
+
+    /**
+     * @param directoryFile - project directory
+     * @return conflicts of every module (analyzed or cached)
+     */
+    public List<DependencyConflict> analyze(File directoryFile) {
+        Map<String, File> modules = affectedModules;
+        affectedModules = null;
+        if (modules == null) {
+            return analyzeAll(directoryFile);
+        }
+        if (modules.isEmpty()) {
+            System.out.println("No modules affected by changes - analyzing all modules");
+            return analyzeAll(directoryFile);
+        }
+
+        System.out.println(String.format("Analyzing %d of %d modules affected by changes",
+                modules.size(), pomFiles.size()));
+        Map<String, List<DependencyConflict>> analyzedConflicts =
+                groupByModule(analyzer.analyze(directoryFile, modules.values()));
+        for (String module : modules.keySet()) {
+            moduleConflicts.put(module, new ArrayList<>());
+        }
+        // dependencies of the affected modules may have been analyzed too
+        moduleConflicts.putAll(analyzedConflicts);
+
+        List<DependencyConflict> conflicts = new ArrayList<>();
+        moduleConflicts.values().forEach(conflicts::addAll);
+        if (conflicts.isEmpty()) {
+            System.out.println("Affected modules converge - verifying all modules");
+            return analyzeAll(directoryFile);
+        }
+        return conflicts;
+    }
+
+    /**
+     * Determine the modules to analyze next
+     * @param writtenPoms - pom files written since the last analysis
+     * @param changedDependencies - dependencies (groupId / artifactId) changed since the last analysis
+     */
+    public void recordChanges(Collection<File> writtenPoms, Collection<Dependency> changedDependencies) {
+        Set<File> written = new HashSet<>();
+        writtenPoms.forEach(pom -> written.add(canonical(pom)));
+
+        List<ModuleInfo> modules = new ArrayList<>(pomFiles.size());
+        pomFiles.forEach(pomFile -> modules.add(new ModuleInfo(pomFile)));
+
+        Set<String> affected = new HashSet<>();
+        for (int i = 0; i < modules.size(); i++) {
+            ModuleInfo module = modules.get(i);
+            // root is skipped - every module inherits from it
+            if (i > 0 && written.contains(canonical(module.pomFile))) {
+                affected.add(module.key);
+                continue;
+            }
+            for (DependencyConflict conflict : moduleConflicts.getOrDefault(module.key, Collections.emptyList())) {
+                if (usesAny(conflict, changedDependencies)) {
+                    affected.add(module.key);
+                    break;
+                }
+            }
+        }
+
+        // add modules depending on the affected modules until nothing changes
+        boolean added = !affected.isEmpty();
+        while (added) {
+            added = false;
+            for (ModuleInfo module : modules) {
+                if (!affected.contains(module.key) && module.dependsOnAny(affected)) {
+                    affected.add(module.key);
+                    added = true;
+                }
+            }
+        }
+
+        // analyze everything when the root is affected (all modules depend on it)
+        if (modules.isEmpty() || affected.contains(modules.get(0).key)) {
+            affectedModules = null;
+            return;
+        }
+
+        affectedModules = new LinkedHashMap<>();
+        for (ModuleInfo module : modules) {
+            if (affected.contains(module.key)) {
+                affectedModules.put(module.key, module.pomFile);
+            }
+        }
+    }
+
+    private List<DependencyConflict> analyzeAll(File directoryFile) {
+        List<DependencyConflict> conflicts = analyzer.analyze(directoryFile);
+        moduleConflicts.clear();
+        moduleConflicts.putAll(groupByModule(conflicts));
+        return conflicts;
+    }
+
+    private static Map<String, List<DependencyConflict>> groupByModule(List<DependencyConflict> conflicts) {
+        Map<String, List<DependencyConflict>> conflictsByModule = new LinkedHashMap<>();
+        for (DependencyConflict conflict : conflicts) {
+            List<DependencyConflictData> conflictHierarchy = conflict.getConflictHierarchy();
+            String module = (conflictHierarchy.isEmpty()) ? UNKNOWN_MODULE
+                    : ArtifactHelper.getArtifactIdGroupIdString(conflictHierarchy.get(0).getGroupId(),
+                            conflictHierarchy.get(0).getArtifactId());
+            conflictsByModule.computeIfAbsent(module, key -> new ArrayList<>()).add(conflict);
+        }
+        return conflictsByModule;
+    }
+
+    private static boolean usesAny(DependencyConflict conflict, Collection<Dependency> dependencies) {
+        for (Dependency dependency : dependencies) {
+            if (conflict.containsDependency(dependency)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static File canonical(File file) {
+        try {
+            return file.getCanonicalFile();
+        } catch (IOException e) {
+            return file.getAbsoluteFile();
+        }
+    }
+
+    /**
+     * How a module relates to the other modules (read fresh, since poms change between iterations)
+     */
+    private static class ModuleInfo {
+        private final File pomFile;
+        private final String key;
+        private final String parentKey;
+        private final Set<String> dependencyKeys = new HashSet<>();
+
+        ModuleInfo(File pomFile) {
+            this.pomFile = pomFile;
+            RawPom pom = RawPom.from(pomFile);
+            key = ArtifactHelper.getArtifactIdGroupIdString(pom.getGroupId(), pom.getArtifactId());
+            parentKey = (pom.hasParent())
+                    ? ArtifactHelper.getArtifactIdGroupIdString(pom.getParentGroupId(), pom.getParentArtifactId())
+                    : null;
+            for (PomDependency dependency : pom.getDependencies()) {
+                // sibling modules are commonly referenced with ${project.groupId}
+                String groupId = (dependency.getGroupId() == null || dependency.getGroupId().startsWith("${"))
+                        ? pom.getGroupId() : dependency.getGroupId();
+                dependencyKeys.add(ArtifactHelper.getArtifactIdGroupIdString(groupId, dependency.getArtifactId()));
+            }
+        }
+
+        boolean dependsOnAny(Set<String> modules) {
+            if (parentKey != null && modules.contains(parentKey)) {
+                return true;
+            }
+            for (String dependencyKey : dependencyKeys) {
+                if (modules.contains(dependencyKey)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+}
@@ -0,0 +1,248 @@
+package com.unhuman.dependencyangel.analysis;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.unhuman.dependencyangel.convergence.DependencyConflict;
+import com.unhuman.dependencyangel.convergence.DependencyConflictData;
+import com.unhuman.dependencyangel.dependency.Dependency;
+import com.unhuman.dependencyangel.report.RunReport;
+import com.unhuman.dependencyangel.versioning.Version;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.TreeSet;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Caches analysis results in the project directory (next to .angel.conf), keyed by a hash of the contents
+ * of every reactor pom, the modules analyzed, and the configuration that affects analysis.  An unchanged
+ * project state (ex: re-running on a converged project) returns the stored conflicts without analyzing.
+ *
+ * Only the project's poms are hashed - changes outside the project (SNAPSHOT or other remote artifacts,
+ * the local repository) are not detected, so disable the cache when those matter.
+ */
+public class CachingConvergenceAnalyzer implements ConvergenceAnalyzer {
+    public static final String CACHE_DIRECTORY = ".angel.cache";
+    // Changes whenever the stored format changes, so old entries are never read
+    private static final String CACHE_FORMAT = "1";
+    private static final String CACHE_FILE_SUFFIX = ".json";
+    private static final int MAX_ENTRIES = 50;
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+
+    private final ConvergenceAnalyzer analyzer;
+    private final List<File> pomFiles;
+    private final String configuration;
+    private final RunReport report;
+
+    /**
+     * @param analyzer - analyzer to use when results aren't cached
+     * @param pomFiles - the project's pom files (root first)
+     * @param configuration - configuration affecting analysis results (ex: analyzer, environment)
+     * @param report - run report (cache hits and misses are counted)
+     */
+    public CachingConvergenceAnalyzer(ConvergenceAnalyzer analyzer, List<File> pomFiles, String configuration,
+                                      RunReport report) {
+        this.analyzer = analyzer;
+        this.pomFiles = pomFiles;
+        this.configuration = configuration;
+        this.report = report;
+    }
+
+    @Override
+    public List<DependencyConflict> analyze(File directoryFile) {
+        return analyze(directoryFile, null, () -> analyzer.analyze(directoryFile));
+    }
+
+    @Override
+    public List<DependencyConflict> analyze(File directoryFile, Collection<File> modulePoms) {
+        return analyze(directoryFile, modulePoms, () -> analyzer.analyze(directoryFile, modulePoms));
+    }
+
+    private List<DependencyConflict> analyze(File directoryFile, Collection<File> modulePoms,
+                                             Supplier<List<DependencyConflict>> analysis) {
+        File cacheDirectory = new File(directoryFile, CACHE_DIRECTORY);
+        File cacheFile = new File(cacheDirectory, getKey(directoryFile, modulePoms) + CACHE_FILE_SUFFIX);
+        if (cacheFile.isFile()) {
+            try {
+                List<DependencyConflict> conflicts = read(cacheFile);
+                // recently used entries are kept when pruning
+                cacheFile.setLastModified(System.currentTimeMillis());
+                report.increment("analysisCacheHits", 1);
+                System.out.println(String.format("Analyzing: %s (cached: %s)", directoryFile, cacheFile.getName()));
+                return conflicts;
+            } catch (IOException | RuntimeException e) {
+                System.err.println("Ignoring unreadable analysis cache entry: " + cacheFile + ": " + e.getMessage());
+            }
+        }
+
+        report.increment("analysisCacheMisses", 1);
+        List<DependencyConflict> conflicts = analysis.get();
+        try {
+            write(cacheDirectory, cacheFile, conflicts);
+        } catch (IOException ioe) {
+            System.err.println("Could not write analysis cache entry: " + cacheFile + ": " + ioe.getMessage());
+        }
+        return conflicts;
+    }
+
+    /**
+     * @return hash of the reactor poms (path and contents), the modules analyzed and the configuration
+     */
+    String getKey(File directoryFile, Collection<File> modulePoms) {
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new RuntimeException("SHA-256 not available", e);
+        }
+        Path directory = directoryFile.toPath().toAbsolutePath().normalize();
+        update(digest, CACHE_FORMAT);
+        update(digest, configuration);
+        for (File pomFile : pomFiles) {
+            update(digest, getRelativePath(directory, pomFile));
+            try {
+                byte[] contents = Files.readAllBytes(pomFile.toPath());
+                update(digest, String.valueOf(contents.length));
+                digest.update(contents);
+            } catch (IOException ioe) {
+                throw new RuntimeException("Could not read pom: " + pomFile, ioe);
+            }
+        }
+        if (modulePoms != null) {
+            // the order modules are provided in doesn't matter
+            TreeSet<String> modules = new TreeSet<>();
+            modulePoms.forEach(modulePom -> modules.add(getRelativePath(directory, modulePom)));
+            update(digest, "modules");
+            modules.forEach(module -> update(digest, module));
+        }
+
+        StringBuilder key = new StringBuilder();
+        for (byte b : digest.digest()) {
+            key.append(String.format("%02x", b));
+        }
+        return key.toString();
+    }
+
+    private static void update(MessageDigest digest, String value) {
+        digest.update(value.getBytes(StandardCharsets.UTF_8));
+        // separator, so adjacent values can't run together
+        digest.update((byte) 0);
+    }
+
+    private static String getRelativePath(Path directory, File file) {
+        return directory.relativize(file.toPath().toAbsolutePath().normalize()).toString()
+                .replace(File.separatorChar, '/');
+    }
+
+    private static List<DependencyConflict> read(File cacheFile) throws IOException {
+        JsonNode root = OBJECT_MAPPER.readTree(cacheFile);
+        List<DependencyConflict> conflicts = new ArrayList<>();
+        for (JsonNode conflictNode : root.path("conflicts")) {
+            DependencyConflict conflict = new DependencyConflict(readDependency(conflictNode));
+            for (JsonNode pathNode : conflictNode.path("paths")) {
+                conflict.addConflict(readConflictData(null, pathNode));
+            }
+            conflicts.add(conflict);
+        }
+        return conflicts;
+    }
+
+    private static DependencyConflictData readConflictData(DependencyConflictData parent, JsonNode node) {
+        DependencyConflictData data = new DependencyConflictData(parent, readDependency(node));
+        for (JsonNode child : node.path("children")) {
+            data.addChild(readConflictData(data, child));
+        }
+        return data;
+    }
+
+    private static Dependency readDependency(JsonNode node) {
+        String groupId = node.path("groupId").asText();
+        String artifactId = node.path("artifactId").asText();
+        return new Dependency(groupId, artifactId, getText(node, "type"),
+                Version.of(groupId, artifactId, node.path("version").asText()),
+                getText(node, "scope"), getText(node, "classifier"));
+    }
+
+    private static String getText(JsonNode node, String field) {
+        JsonNode value = node.get(field);
+        return (value == null || value.isNull()) ? null : value.asText();
+    }
+
+    /**
+     * Write the entry to a temporary file then move it, so a partially written entry is never read
+     */
+    private static void write(File cacheDirectory, File cacheFile, List<DependencyConflict> conflicts)
+            throws IOException {
+        ObjectNode root = OBJECT_MAPPER.createObjectNode();
+        ArrayNode conflictsNode = root.putArray("conflicts");
+        for (DependencyConflict conflict : conflicts) {
+            ObjectNode conflictNode = writeDependency(conflictsNode.addObject(), conflict);
+            ArrayNode pathsNode = conflictNode.putArray("paths");
+            conflict.getConflictHierarchy().forEach(data -> writeConflictData(pathsNode.addObject(), data));
+        }
+
+        Files.createDirectories(cacheDirectory.toPath());
+        Path tempFile = Files.createTempFile(cacheDirectory.toPath(), "entry-", ".tmp");
+        try {
+            OBJECT_MAPPER.writeValue(tempFile.toFile(), root);
+            Files.move(tempFile, cacheFile.toPath(), StandardCopyOption.REPLACE_EXISTING,
+                    StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(tempFile);
+        }
+        prune(cacheDirectory);
+    }
+
+    private static void writeConflictData(ObjectNode node, DependencyConflictData data) {
+        writeDependency(node, data);
+        if (!data.getChildren().isEmpty()) {
+            ArrayNode childrenNode = node.putArray("children");
+            data.getChildren().forEach(child -> writeConflictData(childrenNode.addObject(), child));
+        }
+    }
+
+    private static ObjectNode writeDependency(ObjectNode node, Dependency dependency) {
+        node.put("groupId", dependency.getGroupId());
+        node.put("artifactId", dependency.getArtifactId());
+        putIfPresent(node, "type", dependency.getType());
+        putIfPresent(node, "classifier", dependency.getClassifier());
+        node.put("version", dependency.getVersion().toString());
+        putIfPresent(node, "scope", dependency.getScope());
+        return node;
+    }
+
+    private static void putIfPresent(ObjectNode node, String field, String value) {
+        if (value != null) {
+            node.put(field, value);
+        }
+    }
+
+    /**
+     * Keep only the most recently used entries
+     */
+    private static void prune(File cacheDirectory) throws IOException {
+        List<Path> entries;
+        try (Stream<Path> files = Files.list(cacheDirectory.toPath())) {
+            entries = files.filter(path -> path.getFileName().toString().endsWith(CACHE_FILE_SUFFIX))
+                    .sorted(Comparator.comparing((Path path) -> path.toFile().lastModified()).reversed())
+                    .collect(Collectors.toList());
+        }
+        for (Path entry : entries.subList(Math.min(MAX_ENTRIES, entries.size()), entries.size())) {
+            Files.deleteIfExists(entry);
+        }
+    }
+}
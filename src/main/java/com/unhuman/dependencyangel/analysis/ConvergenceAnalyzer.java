@@ -0,0 +1,27 @@
+package com.unhuman.dependencyangel.analysis;
+
+import com.unhuman.dependencyangel.convergence.DependencyConflict;
+
+import java.io.File;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Determines the dependency convergence conflicts of a project.
+ */
+public interface ConvergenceAnalyzer {
+    /**
+     * @param directoryFile - project directory
+     * @return conflicts found (empty when the project converges)
+     */
+    List<DependencyConflict> analyze(File directoryFile);
+
+    /**
+     * Analyze only some modules of the project.  Modules the given modules need (ex: upstream reactor
+     * modules) may also be analyzed, and their conflicts returned.
+     * @param directoryFile - project directory
+     * @param modulePoms - pom files of the modules to analyze
+     * @return conflicts found in the analyzed modules
+     */
+    List<DependencyConflict> analyze(File directoryFile, Collection<File> modulePoms);
+}
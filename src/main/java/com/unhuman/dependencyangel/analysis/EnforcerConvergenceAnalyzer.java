@@ -0,0 +1,78 @@
+package com.unhuman.dependencyangel.analysis;
+
+import com.unhuman.dependencyangel.convergence.ConvergenceParser;
+import com.unhuman.dependencyangel.convergence.DependencyConflict;
+import com.unhuman.dependencyangel.execution.BuildExecutor;
+import com.unhuman.dependencyangel.report.RunReport;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.regex.Pattern;
+
+import static com.unhuman.dependencyangel.convergence.ConvergenceParser.CONVERGE_ERROR;
+
+/**
+ * Runs only the enforcer's dependencyConvergence rule (`mvn enforcer:enforce`), provided on the command line
+ * so the project doesn't need to configure the enforcer.  The goal collects dependencies but binds to no
+ * lifecycle phase, so nothing is compiled - unlike `dependency:analyze`, which runs through test-compile.
+ *
+ * The rule is not failed (enforcer.fail=false), so every module is checked and its errors are logged as
+ * warnings.  Log level prefixes are removed before the output is parsed.
+ */
+public class EnforcerConvergenceAnalyzer implements ConvergenceAnalyzer {
+    // rules from the command line (enforcer.rules) require 3.2.1 or later
+    private static final String ENFORCE_GOAL = "org.apache.maven.plugins:maven-enforcer-plugin:3.4.1:enforce";
+    private static final String[] ENFORCE_ARGUMENTS =
+            { ENFORCE_GOAL, "-Denforcer.rules=dependencyConvergence", "-Denforcer.fail=false" };
+    private static final Pattern LOG_LEVEL_PREFIX = Pattern.compile("^\\[(?:INFO|WARNING|WARN|ERROR)\\] ?");
+
+    private final BuildExecutor buildExecutor;
+    private final RunReport report;
+
+    /**
+     * @param buildExecutor - executes Maven
+     * @param report - receives parser timings / line counts
+     */
+    public EnforcerConvergenceAnalyzer(BuildExecutor buildExecutor, RunReport report) {
+        this.buildExecutor = buildExecutor;
+        this.report = report;
+    }
+
+    @Override
+    public List<DependencyConflict> analyze(File directoryFile) {
+        return analyze(directoryFile, new String[0]);
+    }
+
+    /**
+     * Restricts the reactor to the modules (-pl), also making the modules they need (-am) so reactor
+     * dependencies resolve without being installed.
+     */
+    @Override
+    public List<DependencyConflict> analyze(File directoryFile, Collection<File> modulePoms) {
+        return analyze(directoryFile, "-pl", MavenConvergenceAnalyzer.getProjectList(directoryFile, modulePoms),
+                "-am");
+    }
+
+    private List<DependencyConflict> analyze(File directoryFile, String... reactorArguments) {
+        List<String> arguments = new ArrayList<>(List.of(reactorArguments));
+        arguments.addAll(List.of(ENFORCE_ARGUMENTS));
+
+        ConvergenceParser convergenceParser = ConvergenceParser.streaming();
+        try {
+            buildExecutor.execute(directoryFile, CONVERGE_ERROR,
+                    line -> convergenceParser.accept(LOG_LEVEL_PREFIX.matcher(line).replaceFirst("")),
+                    arguments.toArray(new String[0]));
+        } catch (RuntimeException re) {
+            throw re;
+        } catch (Exception e) {
+            throw new RuntimeException("Problem with enforcer", e);
+        }
+        convergenceParser.complete();
+        report.record("convergenceParser", convergenceParser.getParseNanos(), -1L);
+        report.increment("convergenceParserLines", convergenceParser.getLineCount());
+
+        return convergenceParser.getDependencyConflicts();
+    }
+}
@@ -0,0 +1,79 @@
+package com.unhuman.dependencyangel.analysis;
+
+import com.unhuman.dependencyangel.convergence.ConvergenceParser;
+import com.unhuman.dependencyangel.convergence.DependencyConflict;
+import com.unhuman.dependencyangel.execution.BuildExecutor;
+import com.unhuman.dependencyangel.report.RunReport;
+
+import java.io.File;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+import static com.unhuman.dependencyangel.convergence.ConvergenceParser.CONVERGE_ERROR;
+
+/**
+ * Runs `mvn dependency:analyze` (which triggers the project's enforcer dependencyConvergence rule)
+ * and parses the convergence errors from the output.
+ */
+public class MavenConvergenceAnalyzer implements ConvergenceAnalyzer {
+    private static final String ANALYZE_GOAL = "dependency:analyze";
+
+    private final BuildExecutor buildExecutor;
+    private final RunReport report;
+
+    /**
+     * @param buildExecutor - executes Maven
+     * @param report - receives parser timings / line counts
+     */
+    public MavenConvergenceAnalyzer(BuildExecutor buildExecutor, RunReport report) {
+        this.buildExecutor = buildExecutor;
+        this.report = report;
+    }
+
+    @Override
+    public List<DependencyConflict> analyze(File directoryFile) {
+        return analyze(directoryFile, ANALYZE_GOAL);
+    }
+
+    /**
+     * Restricts the reactor to the modules (-pl), also making the modules they need (-am) so reactor
+     * dependencies resolve without being installed.
+     */
+    @Override
+    public List<DependencyConflict> analyze(File directoryFile, Collection<File> modulePoms) {
+        return analyze(directoryFile, "-pl", getProjectList(directoryFile, modulePoms), "-am", ANALYZE_GOAL);
+    }
+
+    /**
+     * @return modules as a -pl project list (directories relative to the project)
+     */
+    static String getProjectList(File directoryFile, Collection<File> modulePoms) {
+        Path projectPath = directoryFile.toPath().toAbsolutePath().normalize();
+        List<String> projects = new ArrayList<>(modulePoms.size());
+        for (File modulePom : modulePoms) {
+            Path modulePath = modulePom.toPath().toAbsolutePath().normalize().getParent();
+            String project = projectPath.relativize(modulePath).toString();
+            projects.add(project.isEmpty() ? "." : project);
+        }
+        return String.join(",", projects);
+    }
+
+    private List<DependencyConflict> analyze(File directoryFile, String... arguments) {
+        // Conflicts are parsed as output arrives - the output itself is not retained
+        ConvergenceParser convergenceParser = ConvergenceParser.streaming();
+        try {
+            buildExecutor.execute(directoryFile, CONVERGE_ERROR, convergenceParser, arguments);
+        } catch (RuntimeException re) {
+            throw re;
+        } catch (Exception e) {
+            throw new RuntimeException("Problem with analyze", e);
+        }
+        convergenceParser.complete();
+        report.record("convergenceParser", convergenceParser.getParseNanos(), -1L);
+        report.increment("convergenceParserLines", convergenceParser.getLineCount());
+
+        return convergenceParser.getDependencyConflicts();
+    }
+}
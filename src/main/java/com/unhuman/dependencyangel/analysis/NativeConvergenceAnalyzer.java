@@ -0,0 +1,84 @@
+package com.unhuman.dependencyangel.analysis;
+
+import com.unhuman.dependencyangel.convergence.ConvergenceCalculator;
+import com.unhuman.dependencyangel.convergence.DependencyConflict;
+import com.unhuman.dependencyangel.resolution.DependencyGraphBuilder;
+import com.unhuman.dependencyangel.resolution.PomModel;
+import com.unhuman.dependencyangel.resolution.PomModelResolver;
+import com.unhuman.dependencyangel.resolution.RawPom;
+import com.unhuman.dependencyangel.resolution.Reactor;
+import com.unhuman.dependencyangel.tree.DependencyNode;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Calculates convergence conflicts in process by resolving each project pom's dependency graph against
+ * the poms in the local repository - no Maven execution is involved.
+ * Artifacts whose poms are not in the local repository cannot be expanded, so the project should
+ * have been built (dependencies downloaded) before using this analyzer.
+ */
+public class NativeConvergenceAnalyzer implements ConvergenceAnalyzer {
+    private final List<File> pomFiles;
+    private final PomModelResolver resolver;
+
+    /**
+     * @param pomFiles - supplies the project's pom files (root first)
+     * @param resolver - resolver (retains local repository models across analyses)
+     */
+    public NativeConvergenceAnalyzer(List<File> pomFiles, PomModelResolver resolver) {
+        this.pomFiles = pomFiles;
+        this.resolver = resolver;
+    }
+
+    @Override
+    public List<DependencyConflict> analyze(File directoryFile) {
+        return analyze(directoryFile, pomFiles);
+    }
+
+    @Override
+    public List<DependencyConflict> analyze(File directoryFile, Collection<File> modulePoms) {
+        System.out.println("Analyzing: " + directoryFile + " (native)");
+        Set<File> analyzePoms = new HashSet<>();
+        for (File modulePom : modulePoms) {
+            analyzePoms.add(canonical(modulePom));
+        }
+        int priorMissing = resolver.getMissingPoms().size();
+
+        // Project poms change between iterations, so the reactor is always re-read
+        Reactor reactor = new Reactor(pomFiles);
+        DependencyGraphBuilder graphBuilder = new DependencyGraphBuilder(resolver, reactor);
+
+        List<DependencyConflict> conflicts = new ArrayList<>();
+        for (RawPom pom : reactor.getPoms()) {
+            // The whole reactor is still read, since analyzed modules may depend on the others
+            if (!analyzePoms.contains(canonical(pom.getFile()))) {
+                continue;
+            }
+            PomModel model = resolver.resolve(pom, reactor);
+            DependencyNode root = graphBuilder.build(model);
+            conflicts.addAll(ConvergenceCalculator.calculate(root));
+        }
+
+        int missing = resolver.getMissingPoms().size() - priorMissing;
+        if (missing > 0) {
+            System.err.println(String.format("Warning: %d pom(s) not found in local repository %s - " +
+                    "build the project first for complete results", missing, resolver.getRepository().getRoot()));
+        }
+
+        return conflicts;
+    }
+
+    private static File canonical(File file) {
+        try {
+            return file.getCanonicalFile();
+        } catch (IOException e) {
+            return file.getAbsoluteFile();
+        }
+    }
+}
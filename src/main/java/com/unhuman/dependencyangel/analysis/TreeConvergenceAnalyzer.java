@@ -0,0 +1,111 @@
+package com.unhuman.dependencyangel.analysis;
+
+import com.unhuman.dependencyangel.convergence.ConvergenceCalculator;
+import com.unhuman.dependencyangel.convergence.DependencyConflict;
+import com.unhuman.dependencyangel.execution.BuildExecutor;
+import com.unhuman.dependencyangel.execution.ParallelTasks;
+import com.unhuman.dependencyangel.report.RunReport;
+import com.unhuman.dependencyangel.tree.DependencyTreeParser;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.Callable;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Runs `mvn dependency:tree` (verbose), having each module write its resolved tree to a temporary file
+ * rather than the console.  The files are parsed in parallel into DependencyNode graphs and the conflicts
+ * calculated in process, so scopes and classifiers are exact and no console output is scraped for data.
+ */
+public class TreeConvergenceAnalyzer implements ConvergenceAnalyzer {
+    // verbose output (the omitted nodes) requires 3.2.0 or later
+    private static final String TREE_GOAL = "org.apache.maven.plugins:maven-dependency-plugin:3.7.0:tree";
+    private static final String TEMP_FILE_PREFIX = "dependency-angel-";
+    private static final String TEMP_FILE_SUFFIX = ".tmp";
+    private static final Pattern GENERATED_EXPECTED_FILE_LINE =
+            Pattern.compile(String.format("Wrote dependency tree to: (.*%s.*%s)",
+                    Pattern.quote(TEMP_FILE_PREFIX), Pattern.quote(TEMP_FILE_SUFFIX)));
+
+    private final BuildExecutor buildExecutor;
+    private final RunReport report;
+
+    /**
+     * @param buildExecutor - executes Maven
+     * @param report - receives parser timings / line counts
+     */
+    public TreeConvergenceAnalyzer(BuildExecutor buildExecutor, RunReport report) {
+        this.buildExecutor = buildExecutor;
+        this.report = report;
+    }
+
+    @Override
+    public List<DependencyConflict> analyze(File directoryFile) {
+        return analyze(directoryFile, new String[0]);
+    }
+
+    /**
+     * Restricts the reactor to the modules (-pl), also making the modules they need (-am) so reactor
+     * dependencies resolve without being installed.
+     */
+    @Override
+    public List<DependencyConflict> analyze(File directoryFile, Collection<File> modulePoms) {
+        return analyze(directoryFile, "-pl", MavenConvergenceAnalyzer.getProjectList(directoryFile, modulePoms),
+                "-am");
+    }
+
+    private List<DependencyConflict> analyze(File directoryFile, String... reactorArguments) {
+        // Relative, so each module writes its own file (in its build directory)
+        String outputFile = "target/" + TEMP_FILE_PREFIX + UUID.randomUUID() + TEMP_FILE_SUFFIX;
+        List<String> arguments = new ArrayList<>(List.of(reactorArguments));
+        arguments.addAll(List.of(TREE_GOAL, "-Dverbose=true", "-DoutputType=text", "-DappendOutput=false",
+                "-DoutputFile=" + outputFile));
+
+        List<File> treeFiles = new ArrayList<>();
+        try {
+            buildExecutor.execute(directoryFile, null, line -> {
+                Matcher matcher = GENERATED_EXPECTED_FILE_LINE.matcher(line);
+                if (matcher.find()) {
+                    treeFiles.add(new File(matcher.group(1).trim()));
+                }
+            }, arguments.toArray(new String[0]));
+        } catch (RuntimeException re) {
+            deleteAll(treeFiles);
+            throw re;
+        } catch (Exception e) {
+            deleteAll(treeFiles);
+            throw new RuntimeException("Problem with dependency tree", e);
+        }
+
+        try {
+            long start = System.nanoTime();
+            List<Callable<DependencyTreeParser>> tasks = new ArrayList<>(treeFiles.size());
+            for (File treeFile : treeFiles) {
+                tasks.add(() -> DependencyTreeParser.parse(treeFile));
+            }
+            List<DependencyTreeParser> trees = ParallelTasks.invokeAll("dependency-tree", tasks);
+
+            List<DependencyConflict> conflicts = new ArrayList<>();
+            for (DependencyTreeParser tree : trees) {
+                conflicts.addAll(ConvergenceCalculator.calculate(tree.getRoot()));
+                report.increment("treeParserLines", tree.getLineCount());
+            }
+            report.record("treeParser", System.nanoTime() - start, -1L);
+            report.increment("treeFiles", treeFiles.size());
+            return conflicts;
+        } finally {
+            deleteAll(treeFiles);
+        }
+    }
+
+    private static void deleteAll(List<File> files) {
+        for (File file : files) {
+            if (file.exists() && !file.delete()) {
+                System.err.println("Could not delete dependency tree: " + file);
+            }
+        }
+    }
+}
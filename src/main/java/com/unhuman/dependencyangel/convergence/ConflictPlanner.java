@@ -0,0 +1,170 @@
+package com.unhuman.dependencyangel.convergence;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.List;
+
+/**
+ * Decides which conflicts can be resolved together in one iteration.
+ *
+ * Resolving a conflict changes the version of its artifact, which invalidates every conflict with that
+ * artifact on one of its paths.  Conflicts are grouped by artifact (groupId:artifactId, interned by the
+ * ConflictWorkQueue), and a graph is built with an edge from each artifact to the artifacts whose conflicts
+ * pass through it.  Strongly connected components (conflicts invalidating each other) are condensed, and
+ * the components nothing else invalidates (topological layer 0) are resolved now:
+ * - a single artifact component is resolved
+ * - a component of several artifacts resolves only its first reported artifact
+ * Only the first reported conflict of each artifact is resolved - other conflicts of the same artifact
+ * (ex: reported by other modules) are deferred, as are all conflicts in later layers.  So the number of
+ * iterations depends on the depth of the graph rather than the number of conflicts.
+ */
+public class ConflictPlanner {
+    private final List<DependencyConflict> conflicts;
+    private final List<DependencyConflict> plannedConflicts;
+
+    private ConflictPlanner(List<DependencyConflict> conflicts) {
+        this.conflicts = conflicts;
+        this.plannedConflicts = new ArrayList<>();
+    }
+
+    /**
+     * @param conflicts - conflicts reported by analysis
+     * @return planner with the conflicts to resolve in this iteration
+     */
+    public static ConflictPlanner plan(List<DependencyConflict> conflicts) {
+        ConflictPlanner planner = new ConflictPlanner(conflicts);
+        planner.plan();
+        return planner;
+    }
+
+    /**
+     * @return conflicts to resolve in this iteration (in the order reported)
+     */
+    public List<DependencyConflict> getPlannedConflicts() {
+        return Collections.unmodifiableList(plannedConflicts);
+    }
+
+    /**
+     * @return number of conflicts deferred to a later iteration
+     */
+    public int getDeferredCount() {
+        return conflicts.size() - plannedConflicts.size();
+    }
+
+    private void plan() {
+        ConflictWorkQueue queue = new ConflictWorkQueue(conflicts);
+        int nodeCount = queue.getConflictArtifactCount();
+
+        // Artifacts (nodes) with the first conflict reported for each, and edges from each artifact to the
+        // artifacts with a conflict passing through it
+        DependencyConflict[] artifactConflicts = new DependencyConflict[nodeCount];
+        List<BitSet> edges = new ArrayList<>(nodeCount);
+        for (int i = 0; i < nodeCount; i++) {
+            edges.add(new BitSet(nodeCount));
+        }
+        while (!queue.isEmpty()) {
+            ConflictWorkQueue.QueuedConflict queuedConflict = queue.poll();
+            int target = queuedConflict.getArtifact();
+            if (artifactConflicts[target] == null) {
+                artifactConflicts[target] = queuedConflict.getConflict();
+            }
+            BitSet pathArtifacts = queuedConflict.getPathArtifacts();
+            for (int source = pathArtifacts.nextSetBit(0); source >= 0 && source < nodeCount;
+                 source = pathArtifacts.nextSetBit(source + 1)) {
+                if (source != target) {
+                    edges.get(source).set(target);
+                }
+            }
+        }
+
+        // condense and find the components without incoming edges from other components
+        int[] components = findComponents(edges);
+        boolean[] invalidated = new boolean[nodeCount];
+        for (int source = 0; source < nodeCount; source++) {
+            BitSet targets = edges.get(source);
+            for (int target = targets.nextSetBit(0); target >= 0; target = targets.nextSetBit(target + 1)) {
+                if (components[source] != components[target]) {
+                    invalidated[components[target]] = true;
+                }
+            }
+        }
+
+        // resolve the first reported artifact of each component in layer 0
+        BitSet plannedComponents = new BitSet(nodeCount);
+        for (int node = 0; node < nodeCount; node++) {
+            if (!invalidated[components[node]] && !plannedComponents.get(components[node])) {
+                plannedComponents.set(components[node]);
+                plannedConflicts.add(artifactConflicts[node]);
+            }
+        }
+    }
+
+    /**
+     * Tarjan's strongly connected components (iterative, so large graphs don't overflow the stack)
+     * @return component number of each node
+     */
+    private static int[] findComponents(List<BitSet> edges) {
+        int nodeCount = edges.size();
+        int[] index = new int[nodeCount];
+        int[] lowLink = new int[nodeCount];
+        int[] components = new int[nodeCount];
+        boolean[] onStack = new boolean[nodeCount];
+        Arrays.fill(index, -1);
+        Deque<Integer> stack = new ArrayDeque<>();
+        int nextIndex = 0;
+        int nextComponent = 0;
+
+        // next edge (target) to visit from each node
+        int[] edgePosition = new int[nodeCount];
+        Deque<Integer> callStack = new ArrayDeque<>();
+
+        for (int start = 0; start < nodeCount; start++) {
+            if (index[start] != -1) {
+                continue;
+            }
+            callStack.push(start);
+            while (!callStack.isEmpty()) {
+                int node = callStack.peek();
+                if (index[node] == -1) {
+                    index[node] = nextIndex;
+                    lowLink[node] = nextIndex;
+                    nextIndex++;
+                    stack.push(node);
+                    onStack[node] = true;
+                }
+
+                int target = edges.get(node).nextSetBit(edgePosition[node]);
+                if (target >= 0) {
+                    edgePosition[node] = target + 1;
+                    if (index[target] == -1) {
+                        callStack.push(target);
+                    } else if (onStack[target]) {
+                        lowLink[node] = Math.min(lowLink[node], index[target]);
+                    }
+                    continue;
+                }
+
+                // all edges visited
+                callStack.pop();
+                if (!callStack.isEmpty()) {
+                    int caller = callStack.peek();
+                    lowLink[caller] = Math.min(lowLink[caller], lowLink[node]);
+                }
+                if (lowLink[node] == index[node]) {
+                    int member;
+                    do {
+                        member = stack.pop();
+                        onStack[member] = false;
+                        components[member] = nextComponent;
+                    } while (member != node);
+                    nextComponent++;
+                }
+            }
+        }
+        return components;
+    }
+}
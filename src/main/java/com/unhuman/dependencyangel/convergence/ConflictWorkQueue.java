@@ -0,0 +1,91 @@
+package com.unhuman.dependencyangel.convergence;
+
+import com.unhuman.dependencyangel.dependency.Dependency;
+
+import java.util.ArrayDeque;
+import java.util.BitSet;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Conflicts waiting to be planned, in the order reported, with their artifacts (groupId:artifactId)
+ * numbered densely (from their CoordinateTable ids).  Each conflict's path artifacts are indexed once as a
+ * bit set, so checking whether a conflict passes through an artifact doesn't walk its conflict trees.
+ *
+ * The artifacts of the conflicts themselves are interned first, so their ids are 0..getConflictArtifactCount()-1.
+ */
+public class ConflictWorkQueue {
+    private final Map<Integer, Integer> artifactIds = new HashMap<>();
+    private final Deque<QueuedConflict> queue = new ArrayDeque<>();
+    private final int conflictArtifactCount;
+
+    public ConflictWorkQueue(List<DependencyConflict> conflicts) {
+        for (DependencyConflict conflict : conflicts) {
+            intern(conflict);
+        }
+        conflictArtifactCount = artifactIds.size();
+
+        Deque<DependencyConflictData> pending = new ArrayDeque<>();
+        for (DependencyConflict conflict : conflicts) {
+            BitSet pathArtifacts = new BitSet(conflictArtifactCount);
+            pending.addAll(conflict.getConflictHierarchy());
+            while (!pending.isEmpty()) {
+                DependencyConflictData data = pending.pop();
+                pathArtifacts.set(intern(data));
+                pending.addAll(data.getChildren());
+            }
+            queue.add(new QueuedConflict(conflict, artifactIds.get(conflict.getArtifactKey()), pathArtifacts));
+        }
+    }
+
+    public boolean isEmpty() {
+        return queue.isEmpty();
+    }
+
+    public QueuedConflict poll() {
+        return queue.poll();
+    }
+
+    /**
+     * @return number of distinct artifacts with conflicts
+     */
+    public int getConflictArtifactCount() {
+        return conflictArtifactCount;
+    }
+
+    private int intern(Dependency dependency) {
+        return artifactIds.computeIfAbsent(dependency.getArtifactKey(), key -> artifactIds.size());
+    }
+
+    public static class QueuedConflict {
+        private final DependencyConflict conflict;
+        private final int artifact;
+        private final BitSet pathArtifacts;
+
+        private QueuedConflict(DependencyConflict conflict, int artifact, BitSet pathArtifacts) {
+            this.conflict = conflict;
+            this.artifact = artifact;
+            this.pathArtifacts = pathArtifacts;
+        }
+
+        public DependencyConflict getConflict() {
+            return conflict;
+        }
+
+        /**
+         * @return id of the conflict's artifact
+         */
+        public int getArtifact() {
+            return artifact;
+        }
+
+        /**
+         * @return ids of every artifact on the conflict's paths (do not modify)
+         */
+        public BitSet getPathArtifacts() {
+            return pathArtifacts;
+        }
+    }
+}
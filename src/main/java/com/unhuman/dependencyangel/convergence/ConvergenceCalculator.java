@@ -0,0 +1,62 @@
+package com.unhuman.dependencyangel.convergence;
+
+import com.unhuman.dependencyangel.tree.DependencyNode;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Calculates convergence conflicts from a dependency graph, producing the same model the
+ * ConvergenceParser builds from the enforcer's "Dependency convergence error" output.
+ */
+public class ConvergenceCalculator {
+    private ConvergenceCalculator() {
+    }
+
+    public static List<DependencyConflict> calculate(DependencyNode root) {
+        // Find every occurrence of each artifact (depth first, in declaration order, like the enforcer)
+        Map<Integer, List<DependencyNode>> occurrences = new LinkedHashMap<>();
+        collectOccurrences(root, occurrences);
+
+        List<DependencyConflict> conflicts = new ArrayList<>();
+        for (List<DependencyNode> nodes : occurrences.values()) {
+            Set<String> versions = new LinkedHashSet<>();
+            nodes.forEach(node -> versions.add(node.getVersion().toString()));
+            if (versions.size() > 1) {
+                conflicts.add(createConflict(nodes));
+            }
+        }
+        return conflicts;
+    }
+
+    private static void collectOccurrences(DependencyNode node, Map<Integer, List<DependencyNode>> occurrences) {
+        for (DependencyNode child : node.getChildren()) {
+            occurrences.computeIfAbsent(child.getArtifactKey(), key -> new ArrayList<>()).add(child);
+            collectOccurrences(child, occurrences);
+        }
+    }
+
+    private static DependencyConflict createConflict(List<DependencyNode> nodes) {
+        DependencyConflict conflict = new DependencyConflict(nodes.get(0));
+        for (DependencyNode node : nodes) {
+            DependencyConflictData top = null;
+            DependencyConflictData parent = null;
+            for (DependencyNode pathNode : node.getPath()) {
+                DependencyConflictData data = new DependencyConflictData(parent, pathNode);
+                if (parent == null) {
+                    top = data;
+                } else {
+                    parent.addChild(data);
+                    conflict.updateConflictInfo(pathNode);
+                }
+                parent = data;
+            }
+            conflict.addConflict(top);
+        }
+        return conflict;
+    }
+}
@@ -0,0 +1,95 @@
+package com.unhuman.dependencyangel.convergence;
+
+import com.unhuman.dependencyangel.exceptions.AngelException;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * Stops processing that will not converge, rather than running analysis until someone kills it.
+ *
+ * The state of the poms is fingerprinted after each iteration's changes are written.  Returning to any
+ * earlier state (not only the previous one) means processing is oscillating and would repeat forever.
+ * Processing also stops when the number of conflicts has not dropped below the best seen for a number of
+ * iterations (patience).
+ */
+public class ConvergenceMonitor {
+    public static final int DEFAULT_PATIENCE = 5;
+    private static final int SUMMARY_CONFLICTS = 10;
+    private static final String FIX_MESSAGE = "Fix the loop and then use Continue or a Process mode.";
+
+    private final int patience;
+    // fingerprint -> iteration the state was reached after (0 is before processing)
+    private final Map<String, Integer> states = new HashMap<>();
+    private final List<Integer> conflictCounts = new ArrayList<>();
+    private List<DependencyConflict> lastConflicts = Collections.emptyList();
+    private int bestConflictCount = Integer.MAX_VALUE;
+    private int iterationsWithoutImprovement = 0;
+
+    /**
+     * @param patience - iterations without fewer conflicts before stopping (0 to never stop for this)
+     */
+    public ConvergenceMonitor(int patience) {
+        this.patience = patience;
+    }
+
+    /**
+     * Record the state before processing
+     * @param fingerprint - fingerprint of the poms
+     */
+    public void recordInitialState(String fingerprint) {
+        states.put(fingerprint, 0);
+    }
+
+    /**
+     * Record the conflicts found by an iteration's analysis
+     * @param conflicts - conflicts found
+     */
+    public void recordConflicts(List<DependencyConflict> conflicts) {
+        conflictCounts.add(conflicts.size());
+        lastConflicts = conflicts;
+        if (conflicts.size() < bestConflictCount) {
+            bestConflictCount = conflicts.size();
+            iterationsWithoutImprovement = 0;
+            return;
+        }
+
+        if (patience > 0 && ++iterationsWithoutImprovement >= patience) {
+            throw new AngelException("No progress - stopping processing.",
+                    String.format("Conflicts have not dropped below %d in %d iteration(s).  %s",
+                            bestConflictCount, iterationsWithoutImprovement, getSummary()), FIX_MESSAGE);
+        }
+    }
+
+    /**
+     * Record the state after an iteration's changes are written
+     * @param fingerprint - fingerprint of the poms
+     */
+    public void recordState(String fingerprint) {
+        int iteration = conflictCounts.size();
+        Integer priorIteration = states.putIfAbsent(fingerprint, iteration);
+        if (priorIteration != null) {
+            throw new AngelException("Loop detected - stopping processing.",
+                    String.format("Iteration %d returned the poms to their state %s (a cycle of %d iteration(s)).  %s",
+                            iteration, (priorIteration == 0) ? "before processing" : "after iteration " + priorIteration,
+                            iteration - priorIteration, getSummary()), FIX_MESSAGE);
+        }
+    }
+
+    /**
+     * @return conflicts found by each iteration, and the most recent conflicts
+     */
+    public String getSummary() {
+        String remaining = lastConflicts.stream().limit(SUMMARY_CONFLICTS)
+                .map(DependencyConflict::getDisplayName).collect(Collectors.joining(", "));
+        if (lastConflicts.size() > SUMMARY_CONFLICTS) {
+            remaining += String.format(" (and %d more)", lastConflicts.size() - SUMMARY_CONFLICTS);
+        }
+        return String.format("Conflicts by iteration: %s.  Remaining conflicts: %s",
+                conflictCounts.stream().map(String::valueOf).collect(Collectors.joining(", ")), remaining);
+    }
+}
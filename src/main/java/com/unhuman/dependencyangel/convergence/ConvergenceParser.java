@@ -2,13 +2,22 @@ package com.unhuman.dependencyangel.convergence;
 
 import com.unhuman.dependencyangel.dependency.Dependency;
 
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.UncheckedIOException;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
+import java.util.function.Consumer;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
-public class ConvergenceParser {
+/**
+ * Parses enforcer dependency convergence errors.  Lines can be pushed as they are produced (see accept()),
+ * so output that isn't part of a convergence error is discarded immediately rather than buffered.
+ */
+public class ConvergenceParser implements Consumer<String> {
     private enum Mode {
         LOOKING,
         FOUND_DEPENDENCY,
@@ -19,14 +28,27 @@ public class ConvergenceParser {
     public static final Pattern CONVERGE_LINE = Pattern.compile(
             "(\\s*)(?:[^\\sa-z]*)(.*)", Pattern.CASE_INSENSITIVE);
     protected static final String AND_LINE = "and";
+    // Cheap check to discard lines before applying CONVERGE_ERROR
+    private static final String CONVERGE_ERROR_PREFIX = "Dependency convergence error for ";
 
     private Mode mode;
     private String indentStep = null;
     private List<DependencyConflict> dependencyConflicts;
+    private int lineNum;
+    private long parseNanos;
 
     private ConvergenceParser() {
         mode = Mode.LOOKING;
         dependencyConflicts = new ArrayList<>();
+        lineNum = 0;
+    }
+
+    /**
+     * Create a parser to push lines to (via accept()).  Call complete() once all lines are provided.
+     * @return
+     */
+    public static ConvergenceParser streaming() {
+        return new ConvergenceParser();
     }
 
     public static ConvergenceParser from(List<String> data) {
@@ -35,22 +57,64 @@ public class ConvergenceParser {
         return parser;
     }
 
+    public static ConvergenceParser from(Reader reader) {
+        ConvergenceParser parser = new ConvergenceParser();
+        try (BufferedReader bufferedReader = new BufferedReader(reader)) {
+            String line;
+            while ((line = bufferedReader.readLine()) != null) {
+                parser.accept(line);
+            }
+        } catch (IOException ioe) {
+            throw new UncheckedIOException(ioe);
+        }
+        parser.complete();
+        return parser;
+    }
+
     protected void process(List<String> data) {
-        int lineNum = 0;
+        for (String line: data) {
+            accept(line);
+        }
+        complete();
+    }
+
+    /**
+     * Process the next line of output
+     * @param line
+     */
+    @Override
+    public void accept(String line) {
+        ++lineNum;
+        long start = System.nanoTime();
         try {
-            for (String line: data) {
-                ++lineNum;
-                processLine(line);
-            }
+            processLine(line);
         } catch (Exception e) {
             throw new RuntimeException("Error Line: " + lineNum + ": " + e.getMessage(), e);
+        } finally {
+            parseNanos += System.nanoTime() - start;
         }
+    }
 
+    /**
+     * Indicate all lines have been provided
+     */
+    public void complete() {
         if (!Mode.LOOKING.equals(mode)) {
             throw new RuntimeException("Convergence data incomplete");
         }
     }
 
+    public int getLineCount() {
+        return lineNum;
+    }
+
+    /**
+     * @return time spent parsing (excluding waiting for lines)
+     */
+    public long getParseNanos() {
+        return parseNanos;
+    }
+
     public List<DependencyConflict> getDependencyConflicts() {
         return Collections.unmodifiableList(dependencyConflicts);
     }
@@ -60,9 +124,12 @@ public class ConvergenceParser {
         DependencyConflictData conflict;
         switch (mode) {
             case LOOKING:
+                if (!line.startsWith(CONVERGE_ERROR_PREFIX)) {
+                    break;
+                }
                 matcher = CONVERGE_ERROR.matcher(line);
                 if (matcher.matches()) {
-                    Dependency dependencyConflict = new Dependency(matcher.group(1));
+                    Dependency dependencyConflict = new Dependency(line, matcher.start(1), matcher.end(1));
                     dependencyConflicts.add(new DependencyConflict(dependencyConflict));
                     mode = Mode.FOUND_DEPENDENCY;
                 }
@@ -72,7 +139,7 @@ public class ConvergenceParser {
                 if (!matcher.matches()) {
                     throw new RuntimeException("Didn't find expected convergence data: " + line);
                 }
-                conflict = new DependencyConflictData(null, new Dependency(matcher.group(2)));
+                conflict = new DependencyConflictData(null, new Dependency(line, matcher.start(2), matcher.end(2)));
                 dependencyConflicts.get(dependencyConflicts.size() - 1).addConflict(conflict);
 
                 mode = Mode.PROCESS_CHILDREN;
@@ -112,7 +179,7 @@ public class ConvergenceParser {
                         .findFindLastChild(indentLevel - 1);
 
                 // create a dependency
-                Dependency newDependency = new Dependency(matcher.group(2));
+                Dependency newDependency = new Dependency(line, matcher.start(2), matcher.end(2));
                 conflict = new DependencyConflictData(parent, newDependency);
                 parent.addChild(conflict);
 
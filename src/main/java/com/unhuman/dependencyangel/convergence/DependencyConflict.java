@@ -31,8 +31,7 @@ public class DependencyConflict extends Dependency {
     }
 
     public void updateConflictInfo(Dependency newDependency) {
-        if (getGroupId().equals(newDependency.getGroupId())
-                && getArtifactId().equals(newDependency.getArtifactId())) {
+        if (matchingArtifact(newDependency)) {
             if (newDependency.getVersion().compareTo(getVersion()) > 0) {
                 setVersion(newDependency.getVersion());
             }
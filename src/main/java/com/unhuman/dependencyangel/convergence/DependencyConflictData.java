@@ -2,6 +2,7 @@ package com.unhuman.dependencyangel.convergence;
 
 import com.unhuman.dependencyangel.dependency.Dependency;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 
 public class DependencyConflictData extends Dependency {
@@ -18,6 +19,10 @@ public class DependencyConflictData extends Dependency {
         this.children.add(child);
     }
 
+    public List<DependencyConflictData> getChildren() {
+        return Collections.unmodifiableList(children);
+    }
+
     DependencyConflictData findFindLastChild(int nestedLevel) {
         if (nestedLevel > 0) {
             return children.get(children.size() - 1).findFindLastChild(nestedLevel - 1);
@@ -27,7 +32,7 @@ public class DependencyConflictData extends Dependency {
     }
 
     public boolean containsDependency(Dependency dependency) {
-        if (getGroupId().equals(dependency.getGroupId()) && getArtifactId().equals(dependency.getArtifactId())) {
+        if (matchingArtifact(dependency)) {
             return true;
         }
 
@@ -0,0 +1,141 @@
+package com.unhuman.dependencyangel.dependency;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Symbol table for the parts of dependency coordinates (groupId, artifactId, type, scope, classifier and
+ * groupId:artifactId), interning each distinct value to a compact int id.  Dependencies store ids, so the
+ * few hundred coordinates repeated across thousands of conflict paths share one String each, and comparing
+ * coordinates is an int comparison.
+ *
+ * Values can be interned from a region of a CharSequence (ex: a line of Maven output), so a String is only
+ * created the first time a value is seen.  Ids are never reused, so a table is only kept as long as the
+ * values it has seen are in use: each session has its own (see AngelSession).  NONE (0) represents null.
+ *
+ * Interning is synchronized; get() is not, so ids can be resolved from any thread without contention.
+ */
+public final class CoordinateTable {
+    public static final int NONE = 0;
+    private static final int INITIAL_CAPACITY = 1024;
+
+    // open addressing (linear probing) - each slot is an id, 0 = empty
+    private int[] slots = new int[INITIAL_CAPACITY * 2];
+    // id -> value (published by the volatile write after each addition)
+    private volatile String[] values = new String[INITIAL_CAPACITY];
+    private int size = 1;
+    // (groupId id << 32 | artifactId id) -> id of groupId:artifactId
+    private final Map<Long, Integer> artifacts = new HashMap<>();
+
+    /**
+     * @param value - value to intern (may be null)
+     * @return id of the value
+     */
+    public int intern(String value) {
+        return (value == null) ? NONE : intern(value, 0, value.length());
+    }
+
+    /**
+     * Intern the characters of text from start (inclusive) to end (exclusive)
+     * @return id of the value
+     */
+    public synchronized int intern(CharSequence text, int start, int end) {
+        int hash = 0;
+        for (int i = start; i < end; i++) {
+            hash = 31 * hash + text.charAt(i);
+        }
+
+        int mask = slots.length - 1;
+        String[] currentValues = values;
+        for (int slot = spread(hash) & mask; ; slot = (slot + 1) & mask) {
+            int id = slots[slot];
+            if (id == NONE) {
+                return add(slot, (text instanceof String && start == 0 && end == text.length())
+                        ? (String) text : text.subSequence(start, end).toString());
+            }
+            if (regionEquals(currentValues[id], text, start, end)) {
+                return id;
+            }
+        }
+    }
+
+    /**
+     * Intern groupId:artifactId (see ArtifactHelper) - only built as a String the first time it is seen
+     * @param groupId - id of the groupId
+     * @param artifactId - id of the artifactId
+     * @return id of groupId:artifactId
+     */
+    public synchronized int internArtifact(int groupId, int artifactId) {
+        Long key = ((long) groupId << 32) | artifactId;
+        Integer id = artifacts.get(key);
+        if (id == null) {
+            id = intern(ArtifactHelper.getArtifactIdGroupIdString(get(groupId), get(artifactId)));
+            artifacts.put(key, id);
+        }
+        return id;
+    }
+
+    /**
+     * @param id - id from intern()
+     * @return the value (null for NONE)
+     */
+    public String get(int id) {
+        return values[id];
+    }
+
+    /**
+     * @return number of distinct values interned
+     */
+    public synchronized int size() {
+        return size - 1;
+    }
+
+    private int add(int slot, String value) {
+        String[] currentValues = values;
+        if (size == currentValues.length) {
+            String[] grown = new String[currentValues.length * 2];
+            System.arraycopy(currentValues, 0, grown, 0, size);
+            currentValues = grown;
+        }
+        int id = size++;
+        currentValues[id] = value;
+        values = currentValues;
+
+        slots[slot] = id;
+        if (size * 2 > slots.length) {
+            rehash();
+        }
+        return id;
+    }
+
+    private void rehash() {
+        int[] rehashed = new int[slots.length * 2];
+        int mask = rehashed.length - 1;
+        String[] currentValues = values;
+        for (int id = 1; id < size; id++) {
+            // String.hashCode() is the same hash calculated by intern()
+            int slot = spread(currentValues[id].hashCode()) & mask;
+            while (rehashed[slot] != NONE) {
+                slot = (slot + 1) & mask;
+            }
+            rehashed[slot] = id;
+        }
+        slots = rehashed;
+    }
+
+    private static int spread(int hash) {
+        return hash ^ (hash >>> 16);
+    }
+
+    private static boolean regionEquals(String value, CharSequence text, int start, int end) {
+        if (value.length() != end - start) {
+            return false;
+        }
+        for (int i = 0; i < value.length(); i++) {
+            if (value.charAt(i) != text.charAt(start + i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
@@ -1,51 +1,92 @@
 package com.unhuman.dependencyangel.dependency;
 
+import com.unhuman.dependencyangel.session.AngelSession;
 import com.unhuman.dependencyangel.versioning.Version;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 
+/**
+ * A dependency's coordinates.  The parts of the coordinates are interned (in the current session's
+ * CoordinateTable) and stored as ids, so the many copies made for conflict hierarchies and dependency graphs
+ * share their Strings and compare artifacts with ints.  Only dependencies created in the same session can be
+ * compared.
+ */
 public class Dependency {
-    private String groupId;
-    private String artifactId;
-    private String classifier;
-    private String scope;
-    private String type;
+    // groupId, artifactId, type, version and scope - parts after these are ignored
+    private static final int MAX_PARTS = 5;
+
+    private final CoordinateTable coordinates;
+    private final int groupId;
+    private final int artifactId;
+    // groupId:artifactId
+    private final int artifact;
+    private final int classifier;
+    private int scope;
+    private final int type;
     private Version version;
 
-    private List<Dependency> exclusions = new ArrayList<>();
+    private List<Dependency> exclusions = null;
 
     public Dependency(String data) {
-        classifier = null;
-        String[] details = data.split(":");
-
-        if (details.length == 3) {
-            int i = 0;
-            groupId = details[i++];
-            artifactId = details[i++];
-            type = null;
-            version = new Version(groupId, artifactId, details[i++]);
-        } else if (details.length < 4) {
-                throw new RuntimeException("Invalid Dependency Data: " + String.join(":", data));
-        } else {
-            int i = 0;
-            groupId = details[i++];
-            artifactId = details[i++];
-            type = details[i++];
-            version = new Version(groupId, artifactId, details[i++]);
-            if (details.length >= 5) {
-                scope = details[i++];
+        this(data, 0, data.length());
+    }
+
+    /**
+     * Parse coordinates (groupId:artifactId:version or groupId:artifactId:type:version[:scope]) from a region
+     * of text, without splitting it - parts are interned directly from the text.
+     * @param text - text containing the coordinates
+     * @param start - start of the coordinates (inclusive)
+     * @param end - end of the coordinates (exclusive)
+     */
+    public Dependency(CharSequence text, int start, int end) {
+        // trailing empty parts are ignored (ex: a:b:1.0:)
+        while (end > start && text.charAt(end - 1) == ':') {
+            --end;
+        }
+
+        // partStarts[i + 1] - 1 is the end of part i
+        int[] partStarts = new int[MAX_PARTS + 1];
+        int parts = 0;
+        for (int i = start; parts < MAX_PARTS; i++) {
+            if (i == end || text.charAt(i) == ':') {
+                partStarts[++parts] = i + 1;
+                if (i == end) {
+                    break;
+                }
             }
         }
+        partStarts[0] = start;
+        if (parts < 3) {
+            throw new RuntimeException("Invalid Dependency Data: " + text.subSequence(start, end));
+        }
+
+        AngelSession session = AngelSession.current();
+        coordinates = session.getCoordinates();
+
+        groupId = coordinates.intern(text, partStarts[0], partStarts[1] - 1);
+        artifactId = coordinates.intern(text, partStarts[1], partStarts[2] - 1);
+        artifact = coordinates.internArtifact(groupId, artifactId);
+        classifier = CoordinateTable.NONE;
+        type = (parts == 3) ? CoordinateTable.NONE : coordinates.intern(text, partStarts[2], partStarts[3] - 1);
+        scope = (parts == MAX_PARTS) ? coordinates.intern(text, partStarts[4], partStarts[5] - 1)
+                : CoordinateTable.NONE;
+
+        int versionPart = (parts == 3) ? 2 : 3;
+        int versionId = coordinates.intern(text, partStarts[versionPart], partStarts[versionPart + 1] - 1);
+        version = session.getVersion(getGroupId(), getArtifactId(), coordinates.get(versionId), artifact, versionId);
     }
 
     protected Dependency(Dependency dependency) {
-        this.groupId = dependency.getGroupId();
-        this.artifactId = dependency.getArtifactId();
-        this.classifier = dependency.getClassifier();
-        this.type = dependency.getType();
-        this.scope = dependency.getScope();
-        this.version = dependency.getVersion();
+        this.coordinates = dependency.coordinates;
+        this.groupId = dependency.groupId;
+        this.artifactId = dependency.artifactId;
+        this.artifact = dependency.artifact;
+        this.classifier = dependency.classifier;
+        this.type = dependency.type;
+        this.scope = dependency.scope;
+        this.version = dependency.version;
     }
 
     public Dependency(String groupId, String artifactId) {
@@ -60,24 +101,26 @@ public class Dependency {
         if (artifactId == null || artifactId.isBlank()) {
             throw new RuntimeException("Missing dependency artifactId");
         }
-        this.groupId = groupId;
-        this.artifactId = artifactId;
-        this.type = type;
+        this.coordinates = AngelSession.current().getCoordinates();
+        this.groupId = coordinates.intern(groupId);
+        this.artifactId = coordinates.intern(artifactId);
+        this.artifact = coordinates.internArtifact(this.groupId, this.artifactId);
+        this.type = coordinates.intern(type);
         this.version = version;
-        this.scope = scope;
-        this.classifier = classifier;
+        this.scope = coordinates.intern(scope);
+        this.classifier = coordinates.intern(classifier);
     }
 
     public String getGroupId() {
-        return groupId;
+        return coordinates.get(groupId);
     }
 
     public String getArtifactId() {
-        return artifactId;
+        return coordinates.get(artifactId);
     }
 
     public String getType() {
-        return type;
+        return coordinates.get(type);
     }
 
     public Version getVersion() {
@@ -89,29 +132,39 @@ public class Dependency {
     }
 
     public String getScope() {
-        return scope;
+        return coordinates.get(scope);
     }
     protected void setScope(String newScope) {
-        this.scope = newScope;
+        this.scope = coordinates.intern(newScope);
     }
 
     public String getClassifier() {
-        return classifier;
+        return coordinates.get(classifier);
+    }
+
+    /**
+     * @return id (see CoordinateTable) of groupId:artifactId
+     */
+    public int getArtifactKey() {
+        return artifact;
     }
 
     public boolean matchingArtifact(Dependency other) {
-        return (this.getGroupId().equals(other.getGroupId()) && this.getArtifactId().equals(other.getArtifactId()));
+        return artifact == other.artifact;
     }
 
     public String getDisplayName() {
-        return ArtifactHelper.getArtifactIdGroupIdString(getGroupId(), getArtifactId());
+        return coordinates.get(artifact);
     }
 
     public List<Dependency> getExclusions() {
-        return exclusions;
+        return (exclusions != null) ? exclusions : Collections.emptyList();
     }
 
     public void setExclusions(List<Dependency> exclusions) {
+        if (this.exclusions == null) {
+            this.exclusions = new ArrayList<>(exclusions.size());
+        }
         this.exclusions.addAll(exclusions);
     }
 }
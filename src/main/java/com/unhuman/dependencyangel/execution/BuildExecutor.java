@@ -0,0 +1,45 @@
+package com.unhuman.dependencyangel.execution;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.regex.Pattern;
+
+/**
+ * Runs build tool (Maven) commands on behalf of Dependency Angel.
+ * Implementations may keep resources (such as a warm build daemon) alive across executions,
+ * so a single instance should be reused for an entire run and closed at the end.
+ */
+public interface BuildExecutor extends AutoCloseable {
+    /**
+     * Execute, streaming each line of output to a consumer as it is produced (output is not retained)
+     * @param directoryFile - directory to execute the build in
+     * @param errorMatchForSuccess - search output for a pattern under error conditions - if found, treat as success
+     * @param outputConsumer - receives each line of output
+     * @param arguments - arguments to the build tool (the build tool command itself is provided by the executor)
+     */
+    void execute(File directoryFile, Pattern errorMatchForSuccess, Consumer<String> outputConsumer,
+                 String... arguments);
+
+    /**
+     *
+     * @param directoryFile - directory to execute the build in
+     * @param errorMatchForSuccess - search output for a pattern under error conditions - if found, treat as success
+     * @param arguments - arguments to the build tool (the build tool command itself is provided by the executor)
+     * @return list of data in the output
+     */
+    default List<String> execute(File directoryFile, Pattern errorMatchForSuccess, String... arguments) {
+        List<String> output = new ArrayList<>(100);
+        execute(directoryFile, errorMatchForSuccess, output::add, arguments);
+        return output;
+    }
+
+    /**
+     * @return timing information for executions performed so far
+     */
+    ExecutionStatistics getStatistics();
+
+    @Override
+    void close();
+}
@@ -0,0 +1,68 @@
+package com.unhuman.dependencyangel.execution;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Tracks wall time of build executions so the cost of cold starts vs warm (reused) executions can be reported.
+ */
+public class ExecutionStatistics {
+    private final String executorName;
+    private final List<Long> executionMillis;
+
+    public ExecutionStatistics(String executorName) {
+        this.executorName = executorName;
+        this.executionMillis = new ArrayList<>();
+    }
+
+    public synchronized void recordExecution(long millis) {
+        executionMillis.add(millis);
+    }
+
+    public synchronized List<Long> getExecutionMillis() {
+        return Collections.unmodifiableList(new ArrayList<>(executionMillis));
+    }
+
+    public synchronized long getLastExecutionMillis() {
+        return (executionMillis.size() > 0) ? executionMillis.get(executionMillis.size() - 1) : 0L;
+    }
+
+    public synchronized long getTotalMillis() {
+        return executionMillis.stream().mapToLong(Long::longValue).sum();
+    }
+
+    /**
+     * The first execution pays for JVM startup and plugin resolution.  Later executions on a warm
+     * executor should not, so the difference is an estimate of what reuse saved.
+     * @return estimated milliseconds saved by the warm executions, or 0 if not determinable
+     */
+    public synchronized long getEstimatedStartupSavingsMillis() {
+        if (executionMillis.size() < 2) {
+            return 0L;
+        }
+        long coldMillis = executionMillis.get(0);
+        long warmAverageMillis = getWarmAverageMillis();
+        return Math.max(0L, (coldMillis - warmAverageMillis) * (executionMillis.size() - 1));
+    }
+
+    private long getWarmAverageMillis() {
+        return (long) executionMillis.subList(1, executionMillis.size()).stream()
+                .mapToLong(Long::longValue).average().orElse(0);
+    }
+
+    public synchronized String getSummary() {
+        StringBuilder sb = new StringBuilder(String.format("Build executor %s: %d execution(s), total %s",
+                executorName, executionMillis.size(), formatMillis(getTotalMillis())));
+        if (executionMillis.size() > 1) {
+            sb.append(String.format("%n  first (cold): %s, warm average: %s, estimated startup savings: %s",
+                    formatMillis(executionMillis.get(0)), formatMillis(getWarmAverageMillis()),
+                    formatMillis(getEstimatedStartupSavingsMillis())));
+        }
+        return sb.toString();
+    }
+
+    public static String formatMillis(long millis) {
+        return String.format("%.1fs", millis / 1000.0);
+    }
+}
@@ -0,0 +1,16 @@
+package com.unhuman.dependencyangel.execution;
+
+import com.unhuman.dependencyangel.DependencyAngelConfig;
+
+import java.util.List;
+
+/**
+ * Runs a fresh `mvn` JVM for every execution.
+ */
+public class MavenBuildExecutor extends ProcessBuildExecutor {
+    private static final String MVN_COMMAND = (IS_WINDOWS) ? "mvn.cmd" : "mvn";
+
+    public MavenBuildExecutor(DependencyAngelConfig config) {
+        super(config, DependencyAngelConfig.Executor.Maven.name(), List.of(MVN_COMMAND));
+    }
+}
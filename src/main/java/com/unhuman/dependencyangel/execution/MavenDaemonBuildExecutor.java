@@ -0,0 +1,23 @@
+package com.unhuman.dependencyangel.execution;
+
+import com.unhuman.dependencyangel.DependencyAngelConfig;
+
+import java.util.List;
+
+/**
+ * Runs executions through the Maven Daemon (mvnd).  The mvnd client is tiny; the daemon it connects to
+ * is a long-lived JVM that keeps Maven, plugin class loaders and JIT-compiled code warm, so only the
+ * first execution of a run pays for JVM startup and plugin resolution.
+ * The daemon is intentionally left running when the run completes so subsequent runs also start warm
+ * (stop it with `mvnd --stop`).
+ */
+public class MavenDaemonBuildExecutor extends ProcessBuildExecutor {
+    private static final String MVND_COMMAND = (IS_WINDOWS) ? "mvnd.cmd" : "mvnd";
+
+    // Batch mode keeps mvnd from using its interactive terminal display, so output is plain log lines
+    private static final String BATCH_MODE = "-B";
+
+    public MavenDaemonBuildExecutor(DependencyAngelConfig config) {
+        super(config, DependencyAngelConfig.Executor.MavenDaemon.name(), List.of(MVND_COMMAND, BATCH_MODE));
+    }
+}
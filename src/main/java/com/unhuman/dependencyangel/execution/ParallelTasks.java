@@ -0,0 +1,85 @@
+package com.unhuman.dependencyangel.execution;
+
+import com.unhuman.dependencyangel.session.AngelSession;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Runs independent in-process tasks on a pool bounded by the number of cores.  Tasks run in the caller's
+ * AngelSession.
+ */
+public class ParallelTasks {
+    private ParallelTasks() { }
+
+    public static int getDefaultParallelism() {
+        return Runtime.getRuntime().availableProcessors();
+    }
+
+    /**
+     * Run tasks concurrently and wait for all of them
+     * @param name used to name the worker threads
+     * @param tasks tasks to run
+     * @return results in the same order as the tasks
+     */
+    public static <T> List<T> invokeAll(String name, List<? extends Callable<T>> tasks) {
+        int threads = Math.min(getDefaultParallelism(), tasks.size());
+        if (threads <= 1) {
+            List<T> results = new ArrayList<>(tasks.size());
+            for (Callable<T> task : tasks) {
+                results.add(call(task));
+            }
+            return results;
+        }
+
+        AtomicInteger threadCounter = new AtomicInteger();
+        ExecutorService executorService = Executors.newFixedThreadPool(threads, runnable -> {
+            Thread thread = new Thread(runnable, name + "-" + threadCounter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        try {
+            AngelSession session = AngelSession.current();
+            List<Future<T>> futures = new ArrayList<>(tasks.size());
+            for (Callable<T> task : tasks) {
+                futures.add(executorService.submit(session.wrap(task)));
+            }
+
+            List<T> results = new ArrayList<>(tasks.size());
+            for (Future<T> future : futures) {
+                results.add(future.get());
+            }
+            return results;
+        } catch (ExecutionException ee) {
+            Throwable cause = ee.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw new RuntimeException(cause);
+        } catch (InterruptedException ie) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Interrupted waiting for: " + name, ie);
+        } finally {
+            executorService.shutdownNow();
+        }
+    }
+
+    private static <T> T call(Callable<T> task) {
+        try {
+            return task.call();
+        } catch (RuntimeException re) {
+            throw re;
+        } catch (Exception e) {
+            throw new RuntimeException(e);
+        }
+    }
+}
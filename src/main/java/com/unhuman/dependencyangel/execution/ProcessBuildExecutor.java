@@ -0,0 +1,216 @@
+package com.unhuman.dependencyangel.execution;
+
+import com.unhuman.dependencyangel.DependencyAngelConfig;
+import com.unhuman.dependencyangel.exceptions.AngelException;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.regex.Pattern;
+
+/**
+ * Executes the build tool as a new external process for every execution.
+ */
+public class ProcessBuildExecutor implements BuildExecutor {
+    protected static final boolean IS_WINDOWS = System.getProperty("os.name").toLowerCase().contains("win");
+    private static final int FAILURE_OUTPUT_LINES = 500;
+    private static final int OUTPUT_BUFFER_LINES = 4096;
+    private static final int ERROR_DRAIN_SECONDS = 5;
+    // Marks the end of output (compared by identity)
+    private static final String END_OF_OUTPUT = new String("");
+
+    private final DependencyAngelConfig config;
+    private final List<String> command;
+    private final long timeoutMillis;
+    private final ExecutionStatistics statistics;
+
+    protected ProcessBuildExecutor(DependencyAngelConfig config, String name, List<String> command) {
+        this(config, name, command, TimeUnit.MINUTES.toMillis(config.getTimeoutMinutes()));
+    }
+
+    /**
+     * @param timeoutMillis - maximum time for each execution (0 = no limit)
+     */
+    ProcessBuildExecutor(DependencyAngelConfig config, String name, List<String> command, long timeoutMillis) {
+        this.config = config;
+        this.command = new ArrayList<>(command);
+        this.timeoutMillis = timeoutMillis;
+        this.statistics = new ExecutionStatistics(name);
+    }
+
+    @Override
+    public void execute(File directoryFile, Pattern errorMatchForSuccess, Consumer<String> outputConsumer,
+                        String... arguments) {
+        List<String> commandAndParams = getCommand(arguments);
+
+        System.out.println("Executing: " + String.join(" ", commandAndParams));
+        long startTime = System.currentTimeMillis();
+        long deadline = (timeoutMillis > 0) ? startTime + timeoutMillis : Long.MAX_VALUE;
+        Process process = null;
+        Thread outputThread = null;
+        try {
+            process = startProcess(createProcessBuilder(directoryFile, commandAndParams));
+
+            // Only the end of the output is retained, for reporting failures
+            Deque<String> recentOutput = new ArrayDeque<>(FAILURE_OUTPUT_LINES);
+
+            // Both streams are drained concurrently so neither pipe can fill up and stall the process.
+            // stdout is handed over through a bounded buffer so it is consumed (parsed) on this thread.
+            BlockingQueue<String> outputLines = new ArrayBlockingQueue<>(OUTPUT_BUFFER_LINES);
+            StreamPump outputPump = new StreamPump(process.getInputStream(),
+                    line -> enqueue(outputLines, line), () -> enqueueEndOfOutput(outputLines));
+            StreamPump errorPump = new StreamPump(process.getErrorStream(), line -> {
+                System.err.println(line);
+                retain(recentOutput, line);
+            }, () -> { });
+            outputThread = outputPump.start(commandAndParams.get(0) + "-stdout");
+            Thread errorThread = errorPump.start(commandAndParams.get(0) + "-stderr");
+
+            boolean foundDesiredValue = false;
+            while (true) {
+                String line = outputLines.poll(getRemainingMillis(deadline), TimeUnit.MILLISECONDS);
+                if (line == null) {
+                    throw timedOut(commandAndParams);
+                }
+                if (line == END_OF_OUTPUT) {
+                    break;
+                }
+
+                retain(recentOutput, line);
+                if (config.isDisplayExecutionOutput()) {
+                    System.out.println(line);
+                }
+                // If there was an error exit value, search to see if we should treat it as success
+                if (errorMatchForSuccess != null && !foundDesiredValue
+                        && errorMatchForSuccess.matcher(line).find()) {
+                    System.out.println("Found desired line: " + errorMatchForSuccess);
+                    foundDesiredValue = true;
+                }
+                outputConsumer.accept(line);
+            }
+
+            if (!process.waitFor(getRemainingMillis(deadline), TimeUnit.MILLISECONDS)) {
+                throw timedOut(commandAndParams);
+            }
+            // the process is done, so stderr is at (or very near) its end
+            errorThread.join(TimeUnit.SECONDS.toMillis(ERROR_DRAIN_SECONDS));
+            if (errorThread.isAlive()) {
+                // error output is still being written (ex: System.err is blocked) - stop waiting for it
+                System.out.println(String.format("Stopped reading error output of %s after %d seconds",
+                        commandAndParams.get(0), ERROR_DRAIN_SECONDS));
+                errorThread.interrupt();
+            }
+            if (outputPump.getFailure() != null) {
+                throw new RuntimeException("Problem reading output", outputPump.getFailure());
+            }
+            if (errorPump.getFailure() != null) {
+                throw new RuntimeException("Problem reading error output", errorPump.getFailure());
+            }
+
+            int processResult = process.exitValue();
+            if (processResult != 0 && !foundDesiredValue) {
+                synchronized (recentOutput) {
+                    for (String errLine : recentOutput) {
+                        System.err.println(errLine);
+                    }
+                }
+                throw new RuntimeException(String.format("Could not find desired value in output: [%s] status code: %d",
+                        errorMatchForSuccess, processResult));
+            }
+        } catch (Exception e) {
+            if (e instanceof RuntimeException) {
+                throw (RuntimeException) e;
+            }
+            throw new RuntimeException(e);
+        } finally {
+            // Don't leave the process behind if we stopped consuming its output early (or timed out)
+            if (process != null && process.isAlive()) {
+                process.descendants().forEach(ProcessHandle::destroyForcibly);
+                process.destroyForcibly();
+            }
+            if (outputThread != null) {
+                outputThread.interrupt();
+            }
+            statistics.recordExecution(System.currentTimeMillis() - startTime);
+        }
+    }
+
+    /**
+     * @return the build tool command, with arguments
+     */
+    List<String> getCommand(String... arguments) {
+        List<String> commandAndParams = new ArrayList<>(command);
+        commandAndParams.addAll(List.of(arguments));
+        return commandAndParams;
+    }
+
+    ProcessBuilder createProcessBuilder(File directoryFile, List<String> commandAndParams) {
+        ProcessBuilder builder = new ProcessBuilder(commandAndParams);
+        builder.environment().putAll(config.getEnvironmentVars());
+        builder.directory(directoryFile);
+        return builder;
+    }
+
+    private static void enqueue(BlockingQueue<String> queue, String line) {
+        try {
+            queue.put(line);
+        } catch (InterruptedException ie) {
+            Thread.currentThread().interrupt();
+            throw new CancellationException("Output is no longer being consumed");
+        }
+    }
+
+    private static void enqueueEndOfOutput(BlockingQueue<String> queue) {
+        try {
+            queue.put(END_OF_OUTPUT);
+        } catch (InterruptedException ie) {
+            // Output is no longer being consumed
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static void retain(Deque<String> recentOutput, String line) {
+        synchronized (recentOutput) {
+            if (recentOutput.size() == FAILURE_OUTPUT_LINES) {
+                recentOutput.removeFirst();
+            }
+            recentOutput.addLast(line);
+        }
+    }
+
+    private static long getRemainingMillis(long deadline) {
+        return (deadline == Long.MAX_VALUE) ? Long.MAX_VALUE : Math.max(0L, deadline - System.currentTimeMillis());
+    }
+
+    private AngelException timedOut(List<String> commandAndParams) {
+        return new AngelException("Execution timed out after " + ExecutionStatistics.formatMillis(timeoutMillis),
+                String.join(" ", commandAndParams), "Increase the timeout or investigate the build.");
+    }
+
+    private Process startProcess(ProcessBuilder builder) {
+        try {
+            return builder.start();
+        } catch (IOException ioe) {
+            throw new AngelException("Could not start: " + builder.command().get(0), ioe.getMessage(),
+                    "Ensure the build tool is installed and available on the PATH.");
+        }
+    }
+
+    @Override
+    public ExecutionStatistics getStatistics() {
+        return statistics;
+    }
+
+    @Override
+    public void close() {
+        // Nothing is retained between executions
+    }
+}
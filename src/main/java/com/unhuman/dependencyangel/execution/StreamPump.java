@@ -0,0 +1,98 @@
+package com.unhuman.dependencyangel.execution;
+
+import com.unhuman.dependencyangel.session.AngelSession;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.lang.reflect.Method;
+import java.util.function.Consumer;
+
+/**
+ * Drains a process stream on its own thread, so neither stdout nor stderr can fill its pipe and stall the process.
+ * Uses a virtual thread when the runtime supports them, otherwise a (daemon) platform thread.
+ */
+public class StreamPump implements Runnable {
+    private static final Method[] VIRTUAL_THREAD_METHODS = findVirtualThreadMethods();
+
+    private final InputStream stream;
+    private final Consumer<String> lineConsumer;
+    private final Runnable onComplete;
+    private volatile Exception failure;
+
+    /**
+     * @param stream - stream to drain
+     * @param lineConsumer - receives every line (on the pump thread)
+     * @param onComplete - invoked (on the pump thread) once the stream is exhausted or fails
+     */
+    public StreamPump(InputStream stream, Consumer<String> lineConsumer, Runnable onComplete) {
+        this.stream = stream;
+        this.lineConsumer = lineConsumer;
+        this.onComplete = onComplete;
+    }
+
+    @Override
+    public void run() {
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(stream))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                lineConsumer.accept(line);
+            }
+        } catch (IOException | RuntimeException e) {
+            // RuntimeExceptions come from the consumer (ex: it is no longer accepting output)
+            failure = e;
+        } finally {
+            onComplete.run();
+        }
+    }
+
+    /**
+     * @return any problem reading the stream
+     */
+    public Exception getFailure() {
+        return failure;
+    }
+
+    /**
+     * Start draining on a new thread (in the caller's AngelSession)
+     */
+    public Thread start(String name) {
+        Thread thread = createThread(AngelSession.current().wrap(this), name);
+        thread.start();
+        return thread;
+    }
+
+    private static Thread createThread(Runnable runnable, String name) {
+        if (VIRTUAL_THREAD_METHODS != null) {
+            try {
+                Object builder = VIRTUAL_THREAD_METHODS[0].invoke(null);
+                builder = VIRTUAL_THREAD_METHODS[1].invoke(builder, name);
+                return (Thread) VIRTUAL_THREAD_METHODS[2].invoke(builder, runnable);
+            } catch (Exception e) {
+                // fall back to a platform thread
+            }
+        }
+        Thread thread = new Thread(runnable, name);
+        thread.setDaemon(true);
+        return thread;
+    }
+
+    /**
+     * Virtual threads are only available on newer runtimes (and were a preview feature on some).
+     * @return Thread.ofVirtual(), Thread.Builder.name(String), Thread.Builder.unstarted(Runnable) if usable
+     */
+    private static Method[] findVirtualThreadMethods() {
+        try {
+            Method ofVirtual = Thread.class.getMethod("ofVirtual");
+            Class<?> builderClass = Class.forName("java.lang.Thread$Builder");
+            Method[] methods = new Method[] { ofVirtual, builderClass.getMethod("name", String.class),
+                    builderClass.getMethod("unstarted", Runnable.class) };
+            // Ensure the feature is enabled (it throws when it is an unenabled preview)
+            ofVirtual.invoke(null);
+            return methods;
+        } catch (Throwable t) {
+            return null;
+        }
+    }
+}
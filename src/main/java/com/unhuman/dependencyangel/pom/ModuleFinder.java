@@ -0,0 +1,250 @@
+package com.unhuman.dependencyangel.pom;
+
+import com.unhuman.dependencyangel.execution.ParallelTasks;
+import com.unhuman.dependencyangel.resolution.RawPom;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.FileSystems;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.PathMatcher;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Finds the nested poms of a project.
+ *
+ * The modules declared in the root pom (recursively, including those in profiles) are preferred.  When the
+ * root pom declares no modules, the directory tree is searched instead, skipping build output (target),
+ * node_modules, hidden directories (ex: .git), directories matching the configured ignore globs and
+ * directories ignored by .gitignore files.
+ */
+public class ModuleFinder {
+    private static final String POM_FILE = "pom.xml";
+    private static final String GIT_IGNORE_FILE = ".gitignore";
+    private static final Set<String> IGNORED_DIRECTORY_NAMES = Set.of("target", "node_modules");
+
+    private final List<PathMatcher> ignoreMatchers;
+    // .gitignore rules by the directory containing the .gitignore
+    private final Map<Path, List<IgnoreRule>> gitIgnoreRules = new ConcurrentHashMap<>();
+    private final AtomicInteger skippedDirectories = new AtomicInteger();
+    private boolean foundModules;
+
+    /**
+     * @param ignoreGlobs globs of directories to skip - matched against the directory name and its path
+     *                    relative to the project directory (ex: generated, frontend/**)
+     */
+    public ModuleFinder(Collection<String> ignoreGlobs) {
+        ignoreMatchers = ignoreGlobs.stream()
+                .map(glob -> FileSystems.getDefault().getPathMatcher("glob:" + glob))
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * @param projectDirectory project directory (containing the root pom)
+     * @return the nested pom files (not including the root pom)
+     */
+    public List<File> findNestedPoms(File projectDirectory) {
+        Path root = projectDirectory.toPath().toAbsolutePath().normalize();
+        skippedDirectories.set(0);
+
+        List<File> modulePoms = new ArrayList<>();
+        Set<Path> visited = new HashSet<>();
+        visited.add(root.resolve(POM_FILE));
+        findModulePoms(root.resolve(POM_FILE), visited, modulePoms);
+        foundModules = !modulePoms.isEmpty();
+        if (foundModules) {
+            return modulePoms;
+        }
+
+        return walk(root);
+    }
+
+    public int getSkippedDirectories() {
+        return skippedDirectories.get();
+    }
+
+    public String getSummary(List<File> nestedPoms) {
+        return (foundModules)
+                ? String.format("Found %d nested pom(s) from <modules>", nestedPoms.size())
+                : String.format("Found %d nested pom(s) (%d directories skipped)",
+                        nestedPoms.size(), getSkippedDirectories());
+    }
+
+    private void findModulePoms(Path pomFile, Set<Path> visited, List<File> modulePoms) {
+        if (!Files.isRegularFile(pomFile)) {
+            return;
+        }
+
+        for (String module : RawPom.from(pomFile.toFile()).getModules()) {
+            Path modulePom = pomFile.getParent().resolve(module).normalize();
+            if (Files.isDirectory(modulePom)) {
+                modulePom = modulePom.resolve(POM_FILE);
+            }
+            if (!Files.isRegularFile(modulePom)) {
+                System.err.println("Could not find module: " + module + " declared in: " + pomFile);
+                continue;
+            }
+            if (visited.add(modulePom)) {
+                modulePoms.add(modulePom.toFile());
+                findModulePoms(modulePom, visited, modulePoms);
+            }
+        }
+    }
+
+    private List<File> walk(Path root) {
+        loadGitIgnore(root);
+
+        // Each top level directory is walked independently
+        List<Path> topLevelDirectories;
+        try (Stream<Path> children = Files.list(root)) {
+            topLevelDirectories = children.filter(Files::isDirectory).sorted().collect(Collectors.toList());
+        } catch (IOException ioe) {
+            throw new RuntimeException("Could not list: " + root, ioe);
+        }
+
+        List<Callable<List<File>>> walkTasks = new ArrayList<>();
+        for (Path directory : topLevelDirectories) {
+            walkTasks.add(() -> walk(root, directory));
+        }
+
+        List<File> nestedPoms = new ArrayList<>();
+        for (List<File> directoryPoms : ParallelTasks.invokeAll("discovery", walkTasks)) {
+            nestedPoms.addAll(directoryPoms);
+        }
+        return nestedPoms;
+    }
+
+    private List<File> walk(Path root, Path start) throws IOException {
+        List<File> nestedPoms = new ArrayList<>();
+        Files.walkFileTree(start, new SimpleFileVisitor<>() {
+            @Override
+            public FileVisitResult preVisitDirectory(Path directory, BasicFileAttributes attributes) {
+                if (isIgnored(root, directory)) {
+                    skippedDirectories.incrementAndGet();
+                    return FileVisitResult.SKIP_SUBTREE;
+                }
+                loadGitIgnore(directory);
+                return FileVisitResult.CONTINUE;
+            }
+
+            @Override
+            public FileVisitResult visitFile(Path file, BasicFileAttributes attributes) {
+                if (POM_FILE.equals(file.getFileName().toString())) {
+                    nestedPoms.add(file.toFile());
+                }
+                return FileVisitResult.CONTINUE;
+            }
+
+            @Override
+            public FileVisitResult visitFileFailed(Path file, IOException exc) {
+                System.err.println("Could not read: " + file + ": " + exc.getMessage());
+                return FileVisitResult.CONTINUE;
+            }
+
+            @Override
+            public FileVisitResult postVisitDirectory(Path directory, IOException exc) {
+                gitIgnoreRules.remove(directory);
+                return FileVisitResult.CONTINUE;
+            }
+        });
+        // visit order depends on the file system - keep results stable
+        nestedPoms.sort(Comparator.comparing(File::getParent));
+        return nestedPoms;
+    }
+
+    private boolean isIgnored(Path root, Path directory) {
+        String name = directory.getFileName().toString();
+        if (name.startsWith(".") || IGNORED_DIRECTORY_NAMES.contains(name)) {
+            return true;
+        }
+
+        Path relativePath = root.relativize(directory);
+        for (PathMatcher ignoreMatcher : ignoreMatchers) {
+            if (ignoreMatcher.matches(directory.getFileName()) || ignoreMatcher.matches(relativePath)) {
+                return true;
+            }
+        }
+
+        // .gitignore rules apply to everything below the directory containing the .gitignore
+        for (Path base = directory.getParent(); base != null && base.startsWith(root); base = base.getParent()) {
+            for (IgnoreRule rule : gitIgnoreRules.getOrDefault(base, Collections.emptyList())) {
+                if (rule.matches(base.relativize(directory))) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    private void loadGitIgnore(Path directory) {
+        Path gitIgnore = directory.resolve(GIT_IGNORE_FILE);
+        if (!Files.isRegularFile(gitIgnore)) {
+            return;
+        }
+
+        try {
+            List<IgnoreRule> rules = new ArrayList<>();
+            for (String line : Files.readAllLines(gitIgnore)) {
+                IgnoreRule rule = IgnoreRule.parse(line);
+                if (rule != null) {
+                    rules.add(rule);
+                }
+            }
+            gitIgnoreRules.put(directory, rules);
+        } catch (IOException ioe) {
+            System.err.println("Could not read: " + gitIgnore + ": " + ioe.getMessage());
+        }
+    }
+
+    /**
+     * A (directory) pattern from a .gitignore.  Negated patterns are not supported and are ignored.
+     */
+    static class IgnoreRule {
+        private final PathMatcher matcher;
+        // anchored patterns match the path relative to the .gitignore, others match any directory name
+        private final boolean anchored;
+
+        private IgnoreRule(PathMatcher matcher, boolean anchored) {
+            this.matcher = matcher;
+            this.anchored = anchored;
+        }
+
+        static IgnoreRule parse(String line) {
+            String pattern = line.trim();
+            if (pattern.isEmpty() || pattern.startsWith("#") || pattern.startsWith("!")) {
+                return null;
+            }
+            while (pattern.endsWith("/")) {
+                pattern = pattern.substring(0, pattern.length() - 1);
+            }
+            boolean anchored = pattern.contains("/");
+            while (pattern.startsWith("/")) {
+                pattern = pattern.substring(1);
+            }
+            if (pattern.isEmpty()) {
+                return null;
+            }
+            return new IgnoreRule(FileSystems.getDefault().getPathMatcher("glob:" + pattern), anchored);
+        }
+
+        boolean matches(Path relativePath) {
+            return (anchored) ? matcher.matches(relativePath) : matcher.matches(relativePath.getFileName());
+        }
+    }
+}
@@ -0,0 +1,250 @@
+package com.unhuman.dependencyangel.pom;
+
+import com.unhuman.dependencyangel.report.RunReport;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Keeps one parsed PomManipulator per pom file for the whole run, so each pom is parsed once instead of
+ * every time it is touched.  Changes accumulate in the cached documents and are written by flush(),
+ * which is called once at the end of each phase (or process iteration).
+ *
+ * Entries are keyed by canonical path and validated against the file's modification time and size, so
+ * a pom changed on disk by someone else is re-parsed.
+ *
+ * The cache may be used from multiple threads (poms are parsed outside of the lock).  Poms are flushed in
+ * directory order (parents before their modules), regardless of the order they were first requested.
+ *
+ * With stream editing, getEditor() provides a PomStreamEditor (targeted text edits) instead of the
+ * PomManipulator.  A pom may be held by both, but only one of them may have unsaved changes.
+ */
+public class PomCache {
+    private static final Comparator<String> DIRECTORY_ORDER = Comparator
+            .comparing((String path) -> new File(path).getParent(), Comparator.nullsFirst(Comparator.naturalOrder()))
+            .thenComparing(Comparator.naturalOrder());
+
+    private final Map<String, CachedPom> poms = new TreeMap<>(DIRECTORY_ORDER);
+    private final RunReport report;
+    private final boolean streamEditing;
+
+    public PomCache() {
+        this(new RunReport());
+    }
+
+    /**
+     * @param report - receives parse and write timings / counts
+     */
+    public PomCache(RunReport report) {
+        this(report, false);
+    }
+
+    /**
+     * @param report - receives parse and write timings / counts
+     * @param streamEditing - true for getEditor() to provide PomStreamEditors
+     */
+    public PomCache(RunReport report, boolean streamEditing) {
+        this.report = report;
+        this.streamEditing = streamEditing;
+    }
+
+    /**
+     * @return the editor used while processing conflicts (see PomEditor)
+     */
+    public PomEditor getEditor(File pomFile) {
+        return (streamEditing) ? getStreamEditor(pomFile) : get(pomFile);
+    }
+
+    public PomManipulator get(String pomFilePath) {
+        return get(new File(pomFilePath));
+    }
+
+    public PomManipulator get(File pomFile) {
+        return getCachedPom(pomFile).getManipulator(pomFile, this);
+    }
+
+    PomStreamEditor getStreamEditor(File pomFile) {
+        return getCachedPom(pomFile).getStreamEditor(pomFile, this);
+    }
+
+    private CachedPom getCachedPom(File pomFile) {
+        String key = canonicalPath(pomFile);
+        synchronized (this) {
+            CachedPom cachedPom = poms.get(key);
+            if (cachedPom != null) {
+                if (cachedPom.matches(pomFile)) {
+                    return cachedPom;
+                }
+                if (cachedPom.isDirty()) {
+                    throw new RuntimeException("Pom file changed on disk with unsaved changes: " + pomFile);
+                }
+            }
+            cachedPom = new CachedPom(pomFile);
+            poms.put(key, cachedPom);
+            return cachedPom;
+        }
+    }
+
+    /**
+     * Write every modified pom (each exactly once)
+     * @param successOperationPerformed message displayed for each file written (or null)
+     * @return the pom files written
+     */
+    public synchronized PomFlushResult flush(String successOperationPerformed) {
+        PomFlushResult result = new PomFlushResult();
+        for (CachedPom cachedPom : poms.values()) {
+            if (cachedPom.isDirty()) {
+                long bytesWritten;
+                try (RunReport.Timer timer = report.time("pomWrite")) {
+                    bytesWritten = cachedPom.writeFile();
+                }
+                cachedPom.stamp();
+                result.add(cachedPom.file, bytesWritten);
+                if (successOperationPerformed != null) {
+                    System.out.println(successOperationPerformed + ": " + cachedPom.file.getPath());
+                }
+            }
+        }
+        report.increment("pomFilesWritten", result.getFiles().size());
+        report.increment("pomBytesWritten", result.getBytes());
+        return result;
+    }
+
+    /**
+     * @return digest (hex) of the dependency state (see PomEditor.getDependencyState()) of every pom
+     */
+    public synchronized String getStateFingerprint() {
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new RuntimeException("Could not create digest", e);
+        }
+        for (Map.Entry<String, CachedPom> entry : poms.entrySet()) {
+            digest.update(entry.getKey().getBytes(StandardCharsets.UTF_8));
+            for (String dependencyState : entry.getValue().getDependencyState()) {
+                digest.update((byte) '\n');
+                digest.update(dependencyState.getBytes(StandardCharsets.UTF_8));
+            }
+            digest.update((byte) 0);
+        }
+
+        StringBuilder fingerprint = new StringBuilder();
+        for (byte value : digest.digest()) {
+            fingerprint.append(String.format("%02x", value));
+        }
+        return fingerprint.toString();
+    }
+
+    public synchronized int size() {
+        return poms.size();
+    }
+
+    private static String canonicalPath(File file) {
+        try {
+            return file.getCanonicalPath();
+        } catch (IOException e) {
+            return file.getAbsolutePath();
+        }
+    }
+
+    /**
+     * A pom's editors - created (parsed) on first use, outside of the cache's lock
+     */
+    private class CachedPom {
+        private final File file;
+        private volatile PomManipulator manipulator;
+        private volatile PomStreamEditor streamEditor;
+        private long lastModified;
+        private long length;
+
+        CachedPom(File file) {
+            this.file = file;
+            stamp();
+        }
+
+        PomManipulator getManipulator(File pomFile, PomCache pomCache) {
+            if (manipulator == null) {
+                PomManipulator parsed;
+                try (RunReport.Timer timer = report.time("pomParse")) {
+                    parsed = new PomManipulator(pomFile.getPath());
+                }
+                report.increment("pomFilesParsed", 1);
+                // lets the pom find its parent (for inherited properties)
+                parsed.setPomCache(pomCache);
+                synchronized (this) {
+                    // another thread may have parsed it at the same time
+                    if (manipulator == null) {
+                        manipulator = parsed;
+                    }
+                }
+            }
+            if (streamEditor != null && streamEditor.isDirty()) {
+                throw new RuntimeException("Pom has unsaved (stream) changes: " + pomFile);
+            }
+            return manipulator;
+        }
+
+        PomStreamEditor getStreamEditor(File pomFile, PomCache pomCache) {
+            if (streamEditor == null) {
+                PomStreamEditor parsed;
+                try (RunReport.Timer timer = report.time("pomParse")) {
+                    parsed = new PomStreamEditor(pomFile.getPath());
+                }
+                report.increment("pomFilesParsed", 1);
+                parsed.setPomCache(pomCache);
+                synchronized (this) {
+                    if (streamEditor == null) {
+                        streamEditor = parsed;
+                    }
+                }
+            }
+            if (manipulator != null && manipulator.isDirty()) {
+                throw new RuntimeException("Pom has unsaved changes: " + pomFile);
+            }
+            return streamEditor;
+        }
+
+        boolean isDirty() {
+            return (manipulator != null && manipulator.isDirty()) || (streamEditor != null && streamEditor.isDirty());
+        }
+
+        /**
+         * Writes the modified editor - the other editor no longer matches the file, so it is dropped
+         * @return bytes written
+         */
+        long writeFile() {
+            if (manipulator != null && manipulator.isDirty()) {
+                if (streamEditor != null && streamEditor.isDirty()) {
+                    throw new RuntimeException("Pom modified by multiple editors: " + file);
+                }
+                streamEditor = null;
+                return manipulator.writeFile();
+            }
+            manipulator = null;
+            return streamEditor.writeFile();
+        }
+
+        List<String> getDependencyState() {
+            PomEditor editor = (streamEditor != null) ? streamEditor : manipulator;
+            return (editor != null) ? editor.getDependencyState() : Collections.emptyList();
+        }
+
+        void stamp() {
+            lastModified = file.lastModified();
+            length = file.length();
+        }
+
+        boolean matches(File check) {
+            return check.lastModified() == lastModified && check.length() == length;
+        }
+    }
+}
@@ -0,0 +1,52 @@
+package com.unhuman.dependencyangel.pom;
+
+import com.unhuman.dependencyangel.dependency.Dependency;
+import com.unhuman.dependencyangel.versioning.Version;
+
+import java.util.List;
+
+/**
+ * The pom edits made while processing conflicts.  Implemented over a DOM (PomManipulator) and as targeted
+ * text edits (PomStreamEditor).  Edits are written by the PomCache.
+ */
+public interface PomEditor {
+    String getGroupId();
+
+    String getArtifactId();
+
+    /**
+     * Updates the existing (managed) dependencies of groupId:artifactId
+     * @return true if an existing dependency was found (not necessarily updated)
+     */
+    boolean updateExplicitVersion(String groupId, String artifactId, String type, Version version, String scope,
+                                  String classifier, List<Dependency> exclusions);
+
+    /**
+     * Adds an exclusion to the existing (managed) dependencies of parentGroupId:parentArtifactId
+     * @return true if a dependency was found
+     */
+    boolean addExclusion(String parentGroupId, String parentArtifactId,
+                         String exclusionGroupId, String exclusionArtifactId);
+
+    /**
+     * Forces the version of a (managed) dependency - adding the version to an existing dependency without
+     * one, or adding a new dependency.  Added content is tracked, so setup can remove it.
+     */
+    void forceVersionDependencyNode(String groupId, String artifactId, String type, Version version,
+                                    String scope, String classifier, List<Dependency> exclusions);
+
+    /**
+     * Removes the version of the first (managed) dependency of groupId:artifactId, so it is inherited
+     * @return true if a version was removed
+     */
+    boolean removeDependencyVersions(String groupId, String artifactId);
+
+    /**
+     * Describes the (managed) dependencies: coordinates, resolved version, scope, type, classifier and
+     * exclusions of each - used to detect when processing returns to a prior state.
+     * @return one line per dependency, sorted
+     */
+    List<String> getDependencyState();
+
+    boolean isDirty();
+}
@@ -0,0 +1,35 @@
+package com.unhuman.dependencyangel.pom;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * The pom files written by a PomCache flush
+ */
+public class PomFlushResult {
+    private final List<File> files = new ArrayList<>();
+    private long bytes;
+
+    void add(File file, long bytesWritten) {
+        files.add(file);
+        bytes += bytesWritten;
+    }
+
+    public List<File> getFiles() {
+        return Collections.unmodifiableList(files);
+    }
+
+    public long getBytes() {
+        return bytes;
+    }
+
+    public boolean isEmpty() {
+        return files.isEmpty();
+    }
+
+    public String getSummary() {
+        return String.format("Wrote %d pom file(s), %d bytes", files.size(), bytes);
+    }
+}
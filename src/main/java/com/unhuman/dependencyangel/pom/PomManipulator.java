@@ -4,6 +4,7 @@ import com.unhuman.dependencyangel.DependencyAngelConfig;
 import com.unhuman.dependencyangel.StorableAngelConfigData;
 import com.unhuman.dependencyangel.dependency.ArtifactHelper;
 import com.unhuman.dependencyangel.dependency.Dependency;
+import com.unhuman.dependencyangel.session.AngelSession;
 import com.unhuman.dependencyangel.versioning.Version;
 import org.w3c.dom.Attr;
 import org.w3c.dom.Document;
@@ -18,28 +19,55 @@ import javax.xml.transform.Transformer;
 import javax.xml.transform.TransformerFactory;
 import javax.xml.transform.dom.DOMSource;
 import javax.xml.transform.stream.StreamResult;
-import javax.xml.xpath.XPath;
 import javax.xml.xpath.XPathConstants;
+import javax.xml.xpath.XPathExpression;
 import javax.xml.xpath.XPathExpressionException;
 import javax.xml.xpath.XPathFactory;
+import java.io.ByteArrayOutputStream;
 import java.io.File;
-import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
+import java.util.function.Function;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
-public class PomManipulator {
+public class PomManipulator implements PomEditor {
     private static final Pattern WHITESPACE_PATTERN = Pattern.compile("\\r?\\n\\s+");
     private static final Pattern WHITESPACE_SINGLE_NEWLINE_PATTERN = Pattern.compile("(?:\\r?\\n)*(\\r?\\n\\s+)");
     public static final Pattern PROPERTIES_VARIABLE = Pattern.compile("\\$\\{(.*)\\}");
-    private static final String ANGEL_TRACKING_ATTRIBUTE = "angel:tracking";
-    private static final String ANGEL_MANAGED_VALUE = "managed";
+    static final Pattern PROPERTY_REFERENCE = Pattern.compile("\\$\\{([^}]+)\\}");
+    // Limits nested property expansion and parent pom chains (guards against cycles)
+    static final int MAX_PROPERTY_DEPTH = 20;
+    // XML factories are expensive to create but not thread safe, so each thread keeps its own
+    private static final ThreadLocal<DocumentBuilderFactory> DOCUMENT_BUILDER_FACTORY =
+            ThreadLocal.withInitial(DocumentBuilderFactory::newInstance);
+    private static final ThreadLocal<TransformerFactory> TRANSFORMER_FACTORY =
+            ThreadLocal.withInitial(TransformerFactory::newInstance);
+    private static final ThreadLocal<XPathExpression> WHITESPACE_TEXT_EXPRESSION = ThreadLocal.withInitial(() -> {
+        try {
+            return XPathFactory.newInstance().newXPath().compile("//text()[normalize-space(.)='']");
+        } catch (XPathExpressionException e) {
+            throw new RuntimeException("Invalid whitespace expression", e);
+        }
+    });
+    static final String ANGEL_NAMESPACE = "http://unhuman.com/angel";
+    static final String ANGEL_TRACKING_ATTRIBUTE = "angel:tracking";
+    static final String ANGEL_MANAGED_VALUE = "managed";
     public static final String ANGEL_PRESERVE_VALUE = "preserve";
-    private static final String COMMENT_DEPENDENCY_ANGEL_START = "DependencyAngel Start";
-    private static final String COMMENT_DEPENDENCY_ANGEL_END = "DependencyAngel End";
+    static final String COMMENT_DEPENDENCY_ANGEL_START = "DependencyAngel Start";
+    static final String COMMENT_DEPENDENCY_ANGEL_END = "DependencyAngel End";
     public static final String PROPERTIES_TAG = "properties";
     public static final String DEPENDENCY_MANAGEMENT_TAG = "dependencyManagement";
     public static final String DEPENDENCIES_TAG = "dependencies";
@@ -53,32 +81,41 @@ public class PomManipulator {
     public static final String EXCLUSIONS_TAG = "exclusions";
     public static final String EXCLUSION_TAG = "exclusion";
     public static final String PARENT_TAG = "parent";
+    public static final String RELATIVE_PATH_TAG = "relativePath";
+    public static final String MODULES_TAG = "modules";
 
     private String filename;
     private Document document;
     private Node dependencyManagementNode;
     private Node dependenciesNode;
     private Node propertiesNode;
+    // property name -> property node (this pom only, see findPropertyOwner() for inherited properties)
+    private Map<String, Node> propertyIndex;
+    // groupId:artifactId -> dependency nodes (in document order) of dependenciesNode
+    private Map<String, List<Node>> dependencyIndex;
 
     private boolean dirty;
 
     // Keep track of this nodes group + artifact
-    private static final HashSet<String> knownArtifacts = new HashSet<>();
     private String groupId;
     private String artifactId;
 
+    // Parent pom (within the project) - resolved through the PomCache, if this pom came from one
+    private PomCache pomCache;
+    private File parentPomFile;
+    private String parentGroupIdArtifactId;
+
     public PomManipulator(String filename) {
         try {
             this.filename = filename;
             dirty = false;
 
-            DocumentBuilderFactory factory = DocumentBuilderFactory.newInstance();
-            DocumentBuilder builder = factory.newDocumentBuilder();
+            DocumentBuilder builder = DOCUMENT_BUILDER_FACTORY.get().newDocumentBuilder();
             document = builder.parse(new File(filename));
 
             // Ensure we have a namespace for our attributes we use to track explicit angel content
             document.getDocumentElement().setAttributeNS("http://www.w3.org/2000/xmlns/",
-                    "xmlns:angel", "http://unhuman.com/angel");
+                    "xmlns:angel", ANGEL_NAMESPACE);
 
             document.getDocumentElement().normalize();
 
@@ -89,24 +126,24 @@ public class PomManipulator {
 
             // Get the groupId (or leverage groupId from parent)
             groupId = getSingleNodeElementText(projectNode, GROUP_ID_TAG, false);
-            if (groupId == null) {
+            Node parentNode = getSingleNodeElement(projectNode, PARENT_TAG, false);
+            if (groupId == null && parentNode != null) {
                 // get the groupId out of the parent
-                Node parentNode = getSingleNodeElement(projectNode, PARENT_TAG, false);
-                if (parentNode != null) {
-                    groupId = getSingleNodeElementText(parentNode, GROUP_ID_TAG, false);
-                }
+                groupId = getSingleNodeElementText(parentNode, GROUP_ID_TAG, false);
             }
-            artifactId = getSingleNodeElementText(projectNode, ARTIFACT_ID_TAG, true);
-            String groupIdArtifactId = ArtifactHelper.getArtifactIdGroupIdString(groupId, artifactId);
-            if (!knownArtifacts.contains(groupIdArtifactId)) {
-                knownArtifacts.add(groupIdArtifactId);
+            if (parentNode != null) {
+                findParentPomFile(parentNode);
             }
+            artifactId = getSingleNodeElementText(projectNode, ARTIFACT_ID_TAG, true);
+            AngelSession.current().addKnownArtifact(groupId, artifactId);
 
             // determine verious nodes
             propertiesNode = findDesiredNode(document.getElementsByTagName(PROPERTIES_TAG), projectNode, projectNode);
+            indexProperties();
             dependencyManagementNode = findSingleElement(DEPENDENCY_MANAGEMENT_TAG, false);
             dependenciesNode = findDesiredNode(document.getElementsByTagName(DEPENDENCIES_TAG),
                     dependencyManagementNode, projectNode);
+            indexDependencies();
 
             if (dependenciesNode != null) {
                 // Find indentations we need to use for child nodes
@@ -122,9 +159,54 @@ public class PomManipulator {
         }
     }
 
-    public static boolean isKnownArtifact(String groupId, String artifactId) {
-        String artifact = ArtifactHelper.getArtifactIdGroupIdString(groupId, artifactId);
-        return knownArtifacts.contains(artifact);
+    private void findParentPomFile(Node parentNode) {
+        parentPomFile = findParentPomFile(filename, getSingleNodeElementText(parentNode, RELATIVE_PATH_TAG, false));
+        if (parentPomFile != null) {
+            parentGroupIdArtifactId = ArtifactHelper.getArtifactIdGroupIdString(
+                    getSingleNodeElementText(parentNode, GROUP_ID_TAG, false),
+                    getSingleNodeElementText(parentNode, ARTIFACT_ID_TAG, false));
+        }
+    }
+
+    /**
+     * @param filename - pom file
+     * @param relativePath - relativePath of the parent (null if not specified)
+     * @return the parent pom file, or null if it is not part of the project
+     */
+    static File findParentPomFile(String filename, String relativePath) {
+        // Same as Maven - an empty relativePath means the parent is not in the project
+        if (relativePath == null) {
+            relativePath = "../pom.xml";
+        } else if (relativePath.isEmpty()) {
+            return null;
+        }
+
+        File checkFile = new File(new File(filename).getAbsoluteFile().getParentFile(), relativePath);
+        if (checkFile.isDirectory()) {
+            checkFile = new File(checkFile, "pom.xml");
+        }
+        return (checkFile.isFile()) ? checkFile : null;
+    }
+
+    void setPomCache(PomCache pomCache) {
+        this.pomCache = pomCache;
+    }
+
+    /**
+     * @return the parent pom, if it is part of the project (and this pom came from a PomCache)
+     */
+    public PomManipulator getParentPom() {
+        if (pomCache == null || parentPomFile == null) {
+            return null;
+        }
+        PomManipulator parentPom = pomCache.get(parentPomFile);
+        // relativePath defaults to ../pom.xml, which may be some other pom
+        return (parentGroupIdArtifactId.equals(ArtifactHelper.getArtifactIdGroupIdString(
+                parentPom.getGroupId(), parentPom.getArtifactId()))) ? parentPom : null;
+    }
+
+    public boolean hasModules() {
+        return getSingleNodeElement(document.getDocumentElement(), MODULES_TAG, false) != null;
     }
 
     /**
@@ -148,9 +230,164 @@ public class PomManipulator {
         if (findChildElement(dependencyManagementNode, DEPENDENCIES_TAG) == null) {
             dependenciesNode = document.createElement(DEPENDENCIES_TAG);
             addLastChild(dependencyManagementNode, dependenciesNode);
+            indexDependencies();
+        }
+    }
+
+    private void indexProperties() {
+        propertyIndex = new HashMap<>();
+        if (propertiesNode != null) {
+            NodeList childNodes = propertiesNode.getChildNodes();
+            for (int i = 0; i < childNodes.getLength(); i++) {
+                if (childNodes.item(i).getNodeType() == Node.ELEMENT_NODE) {
+                    propertyIndex.put(childNodes.item(i).getNodeName(), childNodes.item(i));
+                }
+            }
         }
     }
 
+    /**
+     * Find the pom that defines a property - this pom or the nearest parent pom that defines it
+     * @param name property name
+     * @return the pom or null if the property isn't defined
+     */
+    public PomManipulator findPropertyOwner(String name) {
+        PomManipulator checkPom = this;
+        for (int depth = 0; checkPom != null && depth < MAX_PROPERTY_DEPTH; depth++) {
+            // parent poms may be in use by other threads (ex: setup of nested poms)
+            synchronized (checkPom) {
+                if (checkPom.propertyIndex.containsKey(name)) {
+                    return checkPom;
+                }
+            }
+            checkPom = checkPom.getParentPom();
+        }
+        return null;
+    }
+
+    /**
+     * @param name property name
+     * @return value of the property (possibly inherited) or null if it isn't defined
+     */
+    public String getPropertyValue(String name) {
+        PomManipulator owner = findPropertyOwner(name);
+        if (owner == null) {
+            return null;
+        }
+        synchronized (owner) {
+            Node propertyNode = owner.propertyIndex.get(name);
+            return (propertyNode != null) ? propertyNode.getTextContent().trim() : null;
+        }
+    }
+
+    /**
+     * Resolves all properties in text, including nested (ex: ${a}.${b}) and recursive definitions.
+     * Built-in properties (ex: ${project.version}) are not properties of the pom, so they can't be resolved.
+     * @param text text to resolve
+     * @return resolved text or null if any property could not be resolved
+     */
+    public String resolveProperties(String text) {
+        return resolveProperties(text, this::getPropertyValue);
+    }
+
+    /**
+     * @param text text to resolve
+     * @param propertyValues - property name to value (null if it isn't defined)
+     * @return resolved text or null if any property could not be resolved
+     */
+    static String resolveProperties(String text, Function<String, String> propertyValues) {
+        String resolved = text;
+        for (int depth = 0; resolved.contains("${"); depth++) {
+            if (depth == MAX_PROPERTY_DEPTH) {
+                return null;
+            }
+            Matcher matcher = PROPERTY_REFERENCE.matcher(resolved);
+            StringBuilder builder = new StringBuilder();
+            while (matcher.find()) {
+                String value = propertyValues.apply(matcher.group(1));
+                if (value == null) {
+                    return null;
+                }
+                matcher.appendReplacement(builder, Matcher.quoteReplacement(value));
+            }
+            matcher.appendTail(builder);
+            resolved = builder.toString();
+        }
+        return resolved;
+    }
+
+    /**
+     * @param text text that may contain properties
+     * @return the names of properties referenced directly in the text
+     */
+    public static Set<String> findPropertyReferences(String text) {
+        Set<String> references = new LinkedHashSet<>();
+        Matcher matcher = PROPERTY_REFERENCE.matcher(text);
+        while (matcher.find()) {
+            references.add(matcher.group(1));
+        }
+        return references;
+    }
+
+    /**
+     * Deletes a property defined in this pom if nothing in this pom references it any longer.
+     * Properties of poms with modules are left alone, since modules may reference them.
+     * @param name property name
+     * @return true if the property was deleted
+     */
+    public boolean deleteUnreferencedProperty(String name) {
+        Node propertyNode = propertyIndex.get(name);
+        if (propertyNode == null || hasModules() || isReferenced(document.getDocumentElement(), "${" + name + "}")) {
+            return false;
+        }
+        deleteNode(propertyNode, true);
+        return true;
+    }
+
+    private boolean isReferenced(Node node, String reference) {
+        if (node.getNodeType() == Node.TEXT_NODE) {
+            return node.getTextContent().contains(reference);
+        }
+        NodeList childNodes = node.getChildNodes();
+        for (int i = 0; i < childNodes.getLength(); i++) {
+            if (isReferenced(childNodes.item(i), reference)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void indexDependencies() {
+        dependencyIndex = new HashMap<>();
+        if (dependenciesNode != null) {
+            for (Node dependencyNode: findChildElements(dependenciesNode, DEPENDENCY_TAG)) {
+                String key = getDependencyKey(dependencyNode);
+                if (key != null) {
+                    dependencyIndex.computeIfAbsent(key, k -> new ArrayList<>(1)).add(dependencyNode);
+                }
+            }
+        }
+    }
+
+    private String getDependencyKey(Node dependencyNode) {
+        Node groupIdNode = findChildElement(dependencyNode, GROUP_ID_TAG);
+        Node artifactIdNode = findChildElement(dependencyNode, ARTIFACT_ID_TAG);
+        if (groupIdNode == null || artifactIdNode == null) {
+            return null;
+        }
+        return ArtifactHelper.getArtifactIdGroupIdString(groupIdNode.getTextContent().trim(),
+                artifactIdNode.getTextContent().trim());
+    }
+
+    /**
+     * @return the dependency nodes (of dependenciesNode) for groupId:artifactId - empty if there are none
+     */
+    private List<Node> findIndexedDependencies(String groupId, String artifactId) {
+        List<Node> dependencyNodes =
+                dependencyIndex.get(ArtifactHelper.getArtifactIdGroupIdString(groupId, artifactId));
+        return (dependencyNodes != null) ? dependencyNodes : Collections.emptyList();
+    }
+
     public boolean hasDependencyManagement() {
         return (dependencyManagementNode != null);
     }
@@ -239,38 +476,32 @@ public class PomManipulator {
         return text;
     }
 
+    @Override
     public boolean addExclusion(String parentGroupId, String parentArtifactId,
                              String exclusionGroupId, String exclusionArtifactId) {
         boolean changed = false;
 
-        List<Node> dependencyNodes = findChildElements(dependenciesNode, DEPENDENCY_TAG);
-        for (Node dependencyNode: dependencyNodes) {
-            Node groupIdNode = findChildElement(dependencyNode, GROUP_ID_TAG);
-            Node artifactIdNode = findChildElement(dependencyNode, ARTIFACT_ID_TAG);
-
-            if (parentGroupId.equals(groupIdNode.getTextContent())
-                    && parentArtifactId.equals(artifactIdNode.getTextContent())) {
-                changed = true;
-                // either find or create an <exclusions> node
-                Node exclusionsNode = findChildElement(dependencyNode, EXCLUSIONS_TAG);
-                if (exclusionsNode == null) {
-                    exclusionsNode = document.createElement(EXCLUSIONS_TAG);
-                    addLastChild(dependencyNode, exclusionsNode);
-                }
+        for (Node dependencyNode: findIndexedDependencies(parentGroupId, parentArtifactId)) {
+            changed = true;
+            // either find or create an <exclusions> node
+            Node exclusionsNode = findChildElement(dependencyNode, EXCLUSIONS_TAG);
+            if (exclusionsNode == null) {
+                exclusionsNode = document.createElement(EXCLUSIONS_TAG);
+                addLastChild(dependencyNode, exclusionsNode);
+            }
 
-                // add a new <exclusion>
-                Node newExclusion = document.createElement(EXCLUSION_TAG);
+            // add a new <exclusion>
+            Node newExclusion = document.createElement(EXCLUSION_TAG);
 
-                Node excludeGroupIdNode = document.createElement(GROUP_ID_TAG);
-                excludeGroupIdNode.setTextContent(exclusionGroupId);
-                addLastChild(newExclusion, excludeGroupIdNode);
+            Node excludeGroupIdNode = document.createElement(GROUP_ID_TAG);
+            excludeGroupIdNode.setTextContent(exclusionGroupId);
+            addLastChild(newExclusion, excludeGroupIdNode);
 
-                Node excludeArtifactIdNode = document.createElement(ARTIFACT_ID_TAG);
-                excludeArtifactIdNode.setTextContent(exclusionArtifactId);
-                addLastChild(newExclusion, excludeArtifactIdNode);
+            Node excludeArtifactIdNode = document.createElement(ARTIFACT_ID_TAG);
+            excludeArtifactIdNode.setTextContent(exclusionArtifactId);
+            addLastChild(newExclusion, excludeArtifactIdNode);
 
-                addLastChild(exclusionsNode, newExclusion);
-            }
+            addLastChild(exclusionsNode, newExclusion);
         }
         return changed;
     }
@@ -278,6 +509,13 @@ public class PomManipulator {
     protected void addLastChild(Node parentNode, Node addNode) {
         setDirty();
 
+        if (parentNode == dependenciesNode && DEPENDENCY_TAG.equals(addNode.getNodeName())) {
+            String key = getDependencyKey(addNode);
+            if (key != null) {
+                dependencyIndex.computeIfAbsent(key, k -> new ArrayList<>(1)).add(addNode);
+            }
+        }
+
         Node lastChild = parentNode.getLastChild();
         Node appendPoint = (lastChild != null
                 && lastChild.getNodeType() == Node.TEXT_NODE
@@ -315,82 +553,79 @@ public class PomManipulator {
      * @param exclusions
      * @return true if an existing node was found (not necessarily updated)
      */
+    @Override
     public boolean updateExplicitVersion(String groupId, String artifactId, String type,
                                          Version version, String scope, String classifier,
                                          List<Dependency> exclusions) {
-        List<Node> dependencyNodes = findChildElements(dependenciesNode, DEPENDENCY_TAG);
-
         // Don't allow a value of a version to be a lookup (probably of itself)
         boolean skipVersion = (version != null) ? PROPERTIES_VARIABLE.matcher(version.toString()).matches() : true;
 
         boolean foundExistingNode = false;
-        for (Node dependencyNode: dependencyNodes) {
-            Node groupIdNode = findChildElement(dependencyNode, GROUP_ID_TAG);
-            Node artifactIdNode = findChildElement(dependencyNode, ARTIFACT_ID_TAG);
-
+        for (Node dependencyNode: findIndexedDependencies(groupId, artifactId)) {
             // TODO: When we overwrite a version explicitly, let's choose latest version
-
-            if (groupId.equals(groupIdNode.getTextContent())
-                    && artifactId.equals(artifactIdNode.getTextContent())) {
-                foundExistingNode = true;
-                if (!skipVersion) {
-                    Node versionNode = findChildElement(dependencyNode, VERSION_TAG);
-                    if (versionNode != null) {
-                        String priorVersion = versionNode.getTextContent();
-                        Matcher matcher = PROPERTIES_VARIABLE.matcher(priorVersion);
-                        if (matcher.matches()) {
-                            String key = matcher.group(1);
-                            NodeList versionElements = document.getElementsByTagName(key);
-                            if (versionElements.getLength() == 1) {
-                                versionElements.item(0).setTextContent(version.toString());
-                            } else {
-                                throw new RuntimeException("Couldn't find property: " + key);
-                            }
+            foundExistingNode = true;
+            if (!skipVersion) {
+                Node versionNode = findChildElement(dependencyNode, VERSION_TAG);
+                if (versionNode != null) {
+                    String priorVersion = versionNode.getTextContent().trim();
+                    Matcher matcher = PROPERTY_REFERENCE.matcher(priorVersion);
+                    if (matcher.matches()) {
+                        String key = matcher.group(1);
+                        PomManipulator owner = findPropertyOwner(key);
+                        if (owner == null) {
+                            throw new RuntimeException("Couldn't find property: " + key);
+                        }
+                        if (owner == this) {
+                            propertyIndex.get(key).setTextContent(version.toString());
                         } else {
+                            // Don't change an inherited property (used elsewhere) - just this version
                             versionNode.setTextContent(version.toString());
                         }
+                    } else {
+                        // Composite versions (ex: ${a}.${b}) can't be updated in place, so they are replaced
+                        versionNode.setTextContent(version.toString());
                     }
                 }
+            }
 
-                // TODO: Handle missing version - shouldn't be an issue
+            // TODO: Handle missing version - shouldn't be an issue
 
-                {
-                    Node typeNode = findChildElement(dependencyNode, TYPE_TAG);
-                    if (typeNode != null) {
-                        if (type != null) {
-                            typeNode.setTextContent(type);
-                        } else {
-                            // delete the scope
-                            deleteNode(typeNode, true);
-                        }
+            {
+                Node typeNode = findChildElement(dependencyNode, TYPE_TAG);
+                if (typeNode != null) {
+                    if (type != null) {
+                        typeNode.setTextContent(type);
+                    } else {
+                        // delete the scope
+                        deleteNode(typeNode, true);
                     }
                 }
-                {
-                    Node scopeNode = findChildElement(dependencyNode, SCOPE_TAG);
-                    if (scopeNode != null) {
-                        if (scope != null) {
-                            scopeNode.setTextContent(scope);
-                        } else {
-                            // delete the scope
-                            deleteNode(scopeNode, true);
-                        }
+            }
+            {
+                Node scopeNode = findChildElement(dependencyNode, SCOPE_TAG);
+                if (scopeNode != null) {
+                    if (scope != null) {
+                        scopeNode.setTextContent(scope);
+                    } else {
+                        // delete the scope
+                        deleteNode(scopeNode, true);
                     }
                 }
-                {
-                    Node classifierNode = findChildElement(dependencyNode, CLASSIFIER_TAG);
-                    if (classifierNode != null) {
-                        if (classifier != null) {
-                            classifierNode.setTextContent(classifier);
-                        } else {
-                            // delete the classifier
-                            deleteNode(classifierNode, true);
-                        }
+            }
+            {
+                Node classifierNode = findChildElement(dependencyNode, CLASSIFIER_TAG);
+                if (classifierNode != null) {
+                    if (classifier != null) {
+                        classifierNode.setTextContent(classifier);
+                    } else {
+                        // delete the classifier
+                        deleteNode(classifierNode, true);
                     }
                 }
-
-                // Add / Update exclusions!!!
-                ensureExclusions(dependencyNode, exclusions);
             }
+
+            // Add / Update exclusions!!!
+            ensureExclusions(dependencyNode, exclusions);
         }
         dirty = (foundExistingNode) ? foundExistingNode : dirty;
 
@@ -407,33 +642,29 @@ public class PomManipulator {
         addDependencyNode(groupId, artifactId, type, version, scope, classifier, exclusions, false);
     }
 
+    @Override
     public void forceVersionDependencyNode(String groupId, String artifactId, String type, Version version,
                                            String scope, String classifier, List<Dependency> exclusions) {
         // See if we can find a pre-existing node that has this - without a version specified
         // If so, just update that (and wrap with DA tags).
-        List<Node> childDependencies = findChildElements(dependenciesNode, DEPENDENCY_TAG);
-        for (Node childDependency: childDependencies) {
-            String checkGroupId = getSingleNodeElementText(childDependency, GROUP_ID_TAG, true);
-            String checkArtifactId = getSingleNodeElementText(childDependency, ARTIFACT_ID_TAG, true);
-            if (checkGroupId.equals(groupId) && checkArtifactId.equals(artifactId)) {
-                String checkVersionId = getSingleNodeElementText(childDependency, VERSION_TAG, false);
-                String versionInfo = storeVersionInProperties(groupId, artifactId, version.toString(), true);
-
-                if (checkVersionId == null) {
-                    // Update only the version in an existing item
-                    Node versionNode = document.createElement(VERSION_TAG);
-                    // add an attribute for angel tracking
-                    addDependencyAngelTrackingAnnotation(true, versionNode);
-                    versionNode.setTextContent(versionInfo);
-                    addLastChild(childDependency, versionNode);
-                    return;
-                } else if (checkVersionId.equals(versionInfo)) {
-                    // Prevent duplicate adds of this item
-                    return;
-                } else {
-                    System.err.println(
-                            String.format("You may wind up with duplicate entries of %s:%s", groupId, version));
-                }
+        for (Node childDependency: findIndexedDependencies(groupId, artifactId)) {
+            String checkVersionId = getSingleNodeElementText(childDependency, VERSION_TAG, false);
+            String versionInfo = storeVersionInProperties(groupId, artifactId, version.toString(), true);
+
+            if (checkVersionId == null) {
+                // Update only the version in an existing item
+                Node versionNode = document.createElement(VERSION_TAG);
+                // add an attribute for angel tracking
+                addDependencyAngelTrackingAnnotation(true, versionNode);
+                versionNode.setTextContent(versionInfo);
+                addLastChild(childDependency, versionNode);
+                return;
+            } else if (checkVersionId.equals(versionInfo)) {
+                // Prevent duplicate adds of this item
+                return;
+            } else {
+                System.err.println(
+                        String.format("You may wind up with duplicate entries of %s:%s", groupId, version));
             }
         }
 
@@ -544,19 +775,53 @@ public class PomManipulator {
     }
 
     public Node findDependency(String groupId, String artifactId) {
-        if (dependenciesNode != null) {
-            List<Node> dependencyNodes = findChildElements(dependenciesNode, DEPENDENCY_TAG);
-            for (Node dependencyNode: dependencyNodes) {
-                Node groupIdNode = findChildElement(dependencyNode, GROUP_ID_TAG);
-                Node artifactIdNode = findChildElement(dependencyNode, ARTIFACT_ID_TAG);
-                if (groupIdNode != null && artifactIdNode != null
-                        && groupId.equals(groupIdNode.getTextContent().trim())
-                        && artifactId.equals(artifactIdNode.getTextContent().trim())) {
-                    return dependencyNode;
+        List<Node> dependencyNodes = findIndexedDependencies(groupId, artifactId);
+        return (dependencyNodes.size() > 0) ? dependencyNodes.get(0) : null;
+    }
+
+    @Override
+    public boolean removeDependencyVersions(String groupId, String artifactId) {
+        Node dependencyNode = findDependency(groupId, artifactId);
+        if (dependencyNode == null) {
+            return false;
+        }
+        List<Node> versionNodes = findChildElements(dependencyNode, VERSION_TAG);
+        for (Node versionNode : versionNodes) {
+            deleteNode(versionNode, true);
+        }
+        return !versionNodes.isEmpty();
+    }
+
+    @Override
+    public List<String> getDependencyState() {
+        List<String> state = new ArrayList<>();
+        if (dependenciesNode == null) {
+            return state;
+        }
+        for (Node dependencyNode: findChildElements(dependenciesNode, DEPENDENCY_TAG)) {
+            String version = getSingleNodeElementText(dependencyNode, VERSION_TAG, false);
+            if (version != null) {
+                String resolvedVersion = resolveProperties(version);
+                version = (resolvedVersion != null) ? resolvedVersion : version;
+            }
+
+            List<String> exclusions = new ArrayList<>();
+            Node exclusionsNode = getSingleNodeElement(dependencyNode, EXCLUSIONS_TAG, false);
+            if (exclusionsNode != null) {
+                for (Node exclusionNode: findChildElements(exclusionsNode, EXCLUSION_TAG)) {
+                    exclusions.add(getDependencyKey(exclusionNode));
                 }
+                Collections.sort(exclusions);
             }
+
+            state.add(String.join("|", getDependencyKey(dependencyNode), version,
+                    getSingleNodeElementText(dependencyNode, SCOPE_TAG, false),
+                    getSingleNodeElementText(dependencyNode, TYPE_TAG, false),
+                    getSingleNodeElementText(dependencyNode, CLASSIFIER_TAG, false),
+                    String.join(",", exclusions)));
         }
-        return null;
+        Collections.sort(state);
+        return state;
     }
 
     public void stripExclusions(DependencyAngelConfig config) {
@@ -596,6 +861,64 @@ public class PomManipulator {
         }
     }
 
+    /**
+     * @return groupId:artifactId of each (managed) dependency
+     */
+    public Set<String> getDependencyKeys() {
+        return Collections.unmodifiableSet(dependencyIndex.keySet());
+    }
+
+    /**
+     * Decides if an exclusion of a dependency is redundant (see removeExclusions())
+     */
+    @FunctionalInterface
+    public interface RedundantExclusion {
+        /**
+         * @param groupId - groupId of the dependency
+         * @param artifactId - artifactId of the dependency
+         * @param exclusion - groupId:artifactId of one of its exclusions
+         * @return true if the exclusion should be removed
+         */
+        boolean test(String groupId, String artifactId, String exclusion);
+    }
+
+    /**
+     * Removes redundant exclusions of the (managed) dependencies, reading each dependency and exclusion once.
+     * The exclusions node is removed when all of its exclusions are.
+     * @param redundant - tests each exclusion of each dependency
+     * @return number of exclusions removed
+     */
+    public int removeExclusions(RedundantExclusion redundant) {
+        int removed = 0;
+        for (List<Node> dependencyNodes: dependencyIndex.values()) {
+            for (Node dependencyNode: dependencyNodes) {
+                Node exclusionsNode = findChildElement(dependencyNode, EXCLUSIONS_TAG);
+                if (exclusionsNode == null) {
+                    continue;
+                }
+
+                String groupId = findChildElement(dependencyNode, GROUP_ID_TAG).getTextContent().trim();
+                String artifactId = findChildElement(dependencyNode, ARTIFACT_ID_TAG).getTextContent().trim();
+                List<Node> exclusionNodes = findChildElements(exclusionsNode, EXCLUSION_TAG);
+                List<Node> redundantNodes = new ArrayList<>(exclusionNodes.size());
+                for (Node exclusionNode: exclusionNodes) {
+                    String exclusion = getDependencyKey(exclusionNode);
+                    if (exclusion != null && redundant.test(groupId, artifactId, exclusion)) {
+                        redundantNodes.add(exclusionNode);
+                    }
+                }
+
+                if (!redundantNodes.isEmpty() && redundantNodes.size() == exclusionNodes.size()) {
+                    deleteNode(exclusionsNode, true);
+                } else {
+                    redundantNodes.forEach(exclusionNode -> deleteNode(exclusionNode, true));
+                }
+                removed += redundantNodes.size();
+            }
+        }
+        return removed;
+    }
+
     public void stripDependencyAngelDependencies(StorableAngelConfigData config) {
         stripDependencyAngelDependencies(config, propertiesNode);
         stripDependencyAngelDependencies(config, dependenciesNode);
@@ -687,6 +1010,21 @@ public class PomManipulator {
             }
         }
 
+        // keep the property and dependency indexes consistent
+        if (deleteNode.getParentNode() == propertiesNode
+                && propertyIndex.get(deleteNode.getNodeName()) == deleteNode) {
+            propertyIndex.remove(deleteNode.getNodeName());
+        }
+        if (deleteNode.getParentNode() == dependenciesNode) {
+            String key = (DEPENDENCY_TAG.equals(deleteNode.getNodeName())) ? getDependencyKey(deleteNode) : null;
+            if (key != null && dependencyIndex.containsKey(key)) {
+                dependencyIndex.get(key).remove(deleteNode);
+                if (dependencyIndex.get(key).isEmpty()) {
+                    dependencyIndex.remove(key);
+                }
+            }
+        }
+
         // delete the desired node
         deleteNode.getParentNode().removeChild(deleteNode);
 
@@ -713,15 +1051,16 @@ public class PomManipulator {
         String key = String.format("%s-%s.version", groupId, artifactId);
 
         // Store value in properties
-        NodeList versionElements = document.getElementsByTagName(key);
-        if (versionElements.getLength() == 1) {
-            versionElements.item(0).setTextContent(version);
+        Node existingProperty = propertyIndex.get(key);
+        if (existingProperty != null) {
+            existingProperty.setTextContent(version);
         } else {
             Node versionProperty = document.createElement(key);
             versionProperty.setTextContent(version);
             // add an attribute for angel tracking (if necessary)
             addDependencyAngelTrackingAnnotation(needAngelTracking, versionProperty);
             addLastChild(propertiesNode, versionProperty);
+            propertyIndex.put(key, versionProperty);
         }
         return String.format("${%s}", key);
     }
@@ -758,10 +1097,23 @@ public class PomManipulator {
             return false;
         }
 
+        writeFile();
+
+        if (successOperationPerformed != null) {
+            System.out.println(successOperationPerformed + ": " + filename);
+        }
+        return true;
+    }
+
+    /**
+     * Writes the document (regardless of whether it is dirty).  The file is replaced atomically (when the
+     * file system allows), so an interrupted run never leaves a partially written pom behind.
+     * @return number of bytes written
+     */
+    long writeFile() {
         // Generate list of all empty Nodes, them remove them
         try {
-            XPath xp = XPathFactory.newInstance().newXPath();
-            NodeList nl = (NodeList) xp.evaluate("//text()[normalize-space(.)='']", document, XPathConstants.NODESET);
+            NodeList nl = (NodeList) WHITESPACE_TEXT_EXPRESSION.get().evaluate(document, XPathConstants.NODESET);
             for (int i = 0; i < nl.getLength(); ++i) { // note the position of the '++'
                 Node node = nl.item(i);
                 node.getParentNode().removeChild(node);
@@ -771,33 +1123,65 @@ public class PomManipulator {
         }
 
         try {
-            FileOutputStream output = new FileOutputStream(filename);
-            TransformerFactory transformerFactory = TransformerFactory.newInstance();
-            Transformer transformer = transformerFactory.newTransformer();
+            ByteArrayOutputStream output = new ByteArrayOutputStream();
+            Transformer transformer = TRANSFORMER_FACTORY.get().newTransformer();
             transformer.setOutputProperty(OutputKeys.INDENT, "yes");
             transformer.setOutputProperty("{http://xml.apache.org/xslt}indent-amount", "4");
-            DOMSource source = new DOMSource(document);
-            StreamResult result = new StreamResult(output);
-            transformer.transform(source, result);
+            transformer.transform(new DOMSource(document), new StreamResult(output));
 
-            if (successOperationPerformed != null) {
-                System.out.println(successOperationPerformed + ": " + filename);
-            }
+            writeAtomically(filename, output.toByteArray());
 
-            return true;
+            // the document can continue to be used (ex: from the PomCache)
+            dirty = false;
+            return output.size();
         } catch (Exception e) {
             throw new RuntimeException("Problem saving: " + filename, e);
         }
     }
 
+    /**
+     * Replace a file atomically (when the file system allows), so an interrupted run never leaves a partially
+     * written pom behind.
+     */
+    static void writeAtomically(String filename, byte[] contents) throws IOException {
+        Path target = Paths.get(filename);
+        Path directory = target.toAbsolutePath().getParent();
+        Path tempFile = Files.createTempFile(directory, "." + target.getFileName(), ".tmp");
+        try {
+            try {
+                Files.setPosixFilePermissions(tempFile, Files.getPosixFilePermissions(target));
+            } catch (UnsupportedOperationException | IOException e) {
+                // keep the default permissions
+            }
+            Files.write(tempFile, contents);
+            try {
+                Files.move(tempFile, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } catch (AtomicMoveNotSupportedException amnse) {
+                Files.move(tempFile, target, StandardCopyOption.REPLACE_EXISTING);
+            }
+            tempFile = null;
+        } finally {
+            if (tempFile != null) {
+                Files.deleteIfExists(tempFile);
+            }
+        }
+    }
+
+    @Override
     public String getGroupId() {
         return groupId;
     }
 
+    @Override
     public String getArtifactId() {
         return artifactId;
     }
 
+    @Override
+    public boolean isDirty() {
+        return dirty;
+    }
+
     private void setDirty() {
         dirty = true;
     }
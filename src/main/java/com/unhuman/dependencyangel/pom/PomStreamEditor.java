@@ -0,0 +1,1049 @@
+package com.unhuman.dependencyangel.pom;
+
+import com.unhuman.dependencyangel.dependency.ArtifactHelper;
+import com.unhuman.dependencyangel.dependency.Dependency;
+import com.unhuman.dependencyangel.session.AngelSession;
+import com.unhuman.dependencyangel.versioning.Version;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static com.unhuman.dependencyangel.pom.PomManipulator.ANGEL_MANAGED_VALUE;
+import static com.unhuman.dependencyangel.pom.PomManipulator.ANGEL_NAMESPACE;
+import static com.unhuman.dependencyangel.pom.PomManipulator.ANGEL_TRACKING_ATTRIBUTE;
+import static com.unhuman.dependencyangel.pom.PomManipulator.ARTIFACT_ID_TAG;
+import static com.unhuman.dependencyangel.pom.PomManipulator.CLASSIFIER_TAG;
+import static com.unhuman.dependencyangel.pom.PomManipulator.DEPENDENCIES_TAG;
+import static com.unhuman.dependencyangel.pom.PomManipulator.DEPENDENCY_MANAGEMENT_TAG;
+import static com.unhuman.dependencyangel.pom.PomManipulator.DEPENDENCY_TAG;
+import static com.unhuman.dependencyangel.pom.PomManipulator.EXCLUSIONS_TAG;
+import static com.unhuman.dependencyangel.pom.PomManipulator.EXCLUSION_TAG;
+import static com.unhuman.dependencyangel.pom.PomManipulator.GROUP_ID_TAG;
+import static com.unhuman.dependencyangel.pom.PomManipulator.MAX_PROPERTY_DEPTH;
+import static com.unhuman.dependencyangel.pom.PomManipulator.PARENT_TAG;
+import static com.unhuman.dependencyangel.pom.PomManipulator.PROPERTIES_TAG;
+import static com.unhuman.dependencyangel.pom.PomManipulator.PROPERTIES_VARIABLE;
+import static com.unhuman.dependencyangel.pom.PomManipulator.PROPERTY_REFERENCE;
+import static com.unhuman.dependencyangel.pom.PomManipulator.RELATIVE_PATH_TAG;
+import static com.unhuman.dependencyangel.pom.PomManipulator.SCOPE_TAG;
+import static com.unhuman.dependencyangel.pom.PomManipulator.TYPE_TAG;
+import static com.unhuman.dependencyangel.pom.PomManipulator.VERSION_TAG;
+
+/**
+ * Edits a pom as text, rather than through a DOM.  The pom is scanned once into the offsets of its elements and
+ * comments, and every edit replaces only the characters it changes - so formatting, comments and the rest of the
+ * file are untouched, and diffs show only the actual changes.  An edit only scans the text it inserts, and shifts
+ * the offsets after it, so spans stay valid across edits.  Dependencies are indexed by groupId:artifactId.
+ * Added elements follow the indentation (and line separators) already used by the pom.
+ *
+ * Supports the edits made while processing conflicts (see PomEditor) - setup and exclusion reduction use the
+ * DOM (see PomManipulator).  Poms are expected to be UTF-8.
+ */
+public class PomStreamEditor implements PomEditor {
+    private static final Pattern INDENTATION_PATTERN = Pattern.compile("\\r?\\n\\s+");
+    private static final String DEFAULT_INDENT = "    ";
+
+    private final String filename;
+    private final StringBuilder text;
+    private final String lineSeparator;
+    private Span project;
+    private boolean dirty = false;
+    // the dependencies section edited and its dependencies by groupId:artifactId (null until needed)
+    private Span dependenciesSpan;
+    private Map<String, List<Span>> dependencyIndex;
+
+    private final String groupId;
+    private final String artifactId;
+
+    // Parent pom (within the project) - resolved through the PomCache, if this pom came from one
+    private PomCache pomCache;
+    private File parentPomFile;
+    private String parentGroupIdArtifactId;
+
+    public PomStreamEditor(String filename) {
+        try {
+            this.filename = filename;
+            this.text = new StringBuilder(new String(Files.readAllBytes(new File(filename).toPath()),
+                    StandardCharsets.UTF_8));
+            this.lineSeparator = (text.indexOf("\r\n") >= 0) ? "\r\n" : "\n";
+            scan();
+
+            // Get the groupId (or leverage groupId from parent)
+            Span parent = project.findChild(PARENT_TAG);
+            String checkGroupId = getChildText(project, GROUP_ID_TAG);
+            if (checkGroupId == null && parent != null) {
+                checkGroupId = getChildText(parent, GROUP_ID_TAG);
+            }
+            groupId = checkGroupId;
+            artifactId = getChildText(project, ARTIFACT_ID_TAG);
+            if (artifactId == null || artifactId.isEmpty()) {
+                throw new RuntimeException("Could not find expected required element: " + ARTIFACT_ID_TAG);
+            }
+            AngelSession.current().addKnownArtifact(groupId, artifactId);
+
+            if (parent != null) {
+                parentPomFile = PomManipulator.findParentPomFile(filename, getChildText(parent, RELATIVE_PATH_TAG));
+                if (parentPomFile != null) {
+                    parentGroupIdArtifactId = ArtifactHelper.getArtifactIdGroupIdString(
+                            getChildText(parent, GROUP_ID_TAG), getChildText(parent, ARTIFACT_ID_TAG));
+                }
+            }
+        } catch (Exception e) {
+            throw new RuntimeException("Problem processing pom file: " + filename, e);
+        }
+    }
+
+    void setPomCache(PomCache pomCache) {
+        this.pomCache = pomCache;
+    }
+
+    /**
+     * @return the parent pom, if it is part of the project (and this pom came from a PomCache)
+     */
+    PomStreamEditor getParentPom() {
+        if (pomCache == null || parentPomFile == null) {
+            return null;
+        }
+        PomStreamEditor parentPom = pomCache.getStreamEditor(parentPomFile);
+        // relativePath defaults to ../pom.xml, which may be some other pom
+        return (parentGroupIdArtifactId.equals(ArtifactHelper.getArtifactIdGroupIdString(
+                parentPom.getGroupId(), parentPom.getArtifactId()))) ? parentPom : null;
+    }
+
+    @Override
+    public String getGroupId() {
+        return groupId;
+    }
+
+    @Override
+    public String getArtifactId() {
+        return artifactId;
+    }
+
+    @Override
+    public boolean isDirty() {
+        return dirty;
+    }
+
+    /**
+     * @return the pom's current text
+     */
+    public String getText() {
+        return text.toString();
+    }
+
+    /**
+     * @param name property name
+     * @return value of the property (possibly inherited) or null if it isn't defined
+     */
+    public String getPropertyValue(String name) {
+        PomStreamEditor checkPom = this;
+        for (int depth = 0; checkPom != null && depth < MAX_PROPERTY_DEPTH; depth++) {
+            // parent poms may be in use by other threads
+            synchronized (checkPom) {
+                Span properties = checkPom.getPropertiesSpan();
+                Span property = (properties != null) ? properties.findFirstChild(name) : null;
+                if (property != null) {
+                    return checkPom.getText(property);
+                }
+            }
+            checkPom = checkPom.getParentPom();
+        }
+        return null;
+    }
+
+    /**
+     * Sets a property of this pom, adding it (last) if it doesn't exist.  Nothing is done if the pom has no
+     * properties section.
+     * @param name property name
+     * @param value value
+     * @param needAngelTracking true to track an added property (so setup removes it)
+     * @return true if the property exists
+     */
+    private boolean setProperty(String name, String value, boolean needAngelTracking) {
+        Span properties = getPropertiesSpan();
+        if (properties == null) {
+            return false;
+        }
+        Span property = properties.findFirstChild(name);
+        if (property != null) {
+            setText(property, value);
+        } else {
+            appendChild(properties, new Markup(name).tracked(needAngelTracking).text(value));
+        }
+        return true;
+    }
+
+    @Override
+    public boolean updateExplicitVersion(String groupId, String artifactId, String type, Version version,
+                                         String scope, String classifier, List<Dependency> exclusions) {
+        // Don't allow a value of a version to be a lookup (probably of itself)
+        boolean skipVersion = (version != null) ? PROPERTIES_VARIABLE.matcher(version.toString()).matches() : true;
+
+        List<Span> dependencies = findDependencies(groupId, artifactId);
+        for (Span dependency : dependencies) {
+            if (!skipVersion) {
+                Span versionSpan = dependency.findChild(VERSION_TAG);
+                if (versionSpan != null) {
+                    String priorVersion = getText(versionSpan);
+                    Matcher matcher = PROPERTY_REFERENCE.matcher(priorVersion);
+                    if (matcher.matches() && isOwnProperty(matcher.group(1))) {
+                        setProperty(matcher.group(1), version.toString(), false);
+                    } else {
+                        // inherited properties (used elsewhere) and composite versions (ex: ${a}.${b})
+                        // are replaced in this dependency
+                        setText(versionSpan, version.toString());
+                    }
+                }
+            }
+
+            updateOptionalChild(dependency, TYPE_TAG, type);
+            updateOptionalChild(dependency, SCOPE_TAG, scope);
+            updateOptionalChild(dependency, CLASSIFIER_TAG, classifier);
+            ensureExclusions(dependency, exclusions);
+        }
+        return !dependencies.isEmpty();
+    }
+
+    private boolean isOwnProperty(String name) {
+        if (getPropertiesSpan() != null && getPropertiesSpan().findFirstChild(name) != null) {
+            return true;
+        }
+        if (getPropertyValue(name) == null) {
+            throw new RuntimeException("Couldn't find property: " + name);
+        }
+        return false;
+    }
+
+    /**
+     * Set the text of an existing child element, or delete it if there is no value
+     */
+    private void updateOptionalChild(Span dependency, String name, String value) {
+        Span child = dependency.findChild(name);
+        if (child == null) {
+            return;
+        }
+        if (value != null) {
+            setText(child, value);
+        } else {
+            delete(child);
+        }
+    }
+
+    @Override
+    public boolean addExclusion(String parentGroupId, String parentArtifactId,
+                                String exclusionGroupId, String exclusionArtifactId) {
+        List<Span> dependencies = findDependencies(parentGroupId, parentArtifactId);
+        for (Span dependency : dependencies) {
+            Markup exclusion = new Markup(EXCLUSION_TAG)
+                    .child(GROUP_ID_TAG, exclusionGroupId).child(ARTIFACT_ID_TAG, exclusionArtifactId);
+            Span exclusions = dependency.findChild(EXCLUSIONS_TAG);
+            if (exclusions == null) {
+                appendChild(dependency, new Markup(EXCLUSIONS_TAG).child(exclusion));
+            } else {
+                appendChild(exclusions, exclusion);
+            }
+        }
+        return !dependencies.isEmpty();
+    }
+
+    @Override
+    public void forceVersionDependencyNode(String groupId, String artifactId, String type, Version version,
+                                           String scope, String classifier, List<Dependency> exclusions) {
+        // See if we can find a pre-existing dependency without a version specified - if so, just add the version
+        for (Span dependency : findDependencies(groupId, artifactId)) {
+            String versionInfo = storeVersionInProperties(groupId, artifactId, version.toString(), true);
+            Span versionSpan = dependency.findChild(VERSION_TAG);
+
+            if (versionSpan == null) {
+                appendChild(dependency, new Markup(VERSION_TAG).tracked(true).text(versionInfo));
+                return;
+            } else if (getText(versionSpan).equals(versionInfo)) {
+                // Prevent duplicate adds of this item
+                return;
+            } else {
+                System.err.println(
+                        String.format("You may wind up with duplicate entries of %s:%s", groupId, version));
+            }
+        }
+
+        // default behavior - create a dependency
+        Markup dependency = new Markup(DEPENDENCY_TAG).tracked(true)
+                .child(GROUP_ID_TAG, groupId).child(ARTIFACT_ID_TAG, artifactId);
+        if (type != null && !type.isBlank()) {
+            dependency.child(TYPE_TAG, type);
+        }
+        if (version != null) {
+            dependency.child(VERSION_TAG, storeVersionInProperties(groupId, artifactId, version.toString(), true));
+        }
+        if (scope != null && !scope.isBlank()) {
+            dependency.child(SCOPE_TAG, scope);
+        }
+        if (classifier != null && !classifier.isBlank()) {
+            dependency.child(CLASSIFIER_TAG, classifier);
+        }
+        if (exclusions != null && !exclusions.isEmpty()) {
+            Markup exclusionsMarkup = new Markup(EXCLUSIONS_TAG);
+            for (Dependency exclusion : exclusions) {
+                exclusionsMarkup.child(new Markup(EXCLUSION_TAG).child(GROUP_ID_TAG, exclusion.getGroupId())
+                        .child(ARTIFACT_ID_TAG, exclusion.getArtifactId()));
+            }
+            dependency.child(exclusionsMarkup);
+        }
+
+        Span dependencies = getDependenciesSpan();
+        if (dependencies == null) {
+            throw new RuntimeException("No dependencies to add to: " + filename);
+        }
+        appendChild(dependencies, dependency);
+    }
+
+    @Override
+    public boolean removeDependencyVersions(String groupId, String artifactId) {
+        List<Span> dependencies = findDependencies(groupId, artifactId);
+        if (dependencies.isEmpty()) {
+            return false;
+        }
+        List<Span> versionSpans = dependencies.get(0).findChildren(VERSION_TAG);
+        for (Span versionSpan : versionSpans) {
+            delete(versionSpan);
+        }
+        return !versionSpans.isEmpty();
+    }
+
+    private void ensureExclusions(Span dependency, List<Dependency> exclusions) {
+        if (exclusions == null || exclusions.isEmpty()) {
+            return;
+        }
+
+        Span exclusionsSpan = dependency.findChild(EXCLUSIONS_TAG);
+        Markup missing = new Markup(EXCLUSIONS_TAG);
+        for (Dependency exclusion : exclusions) {
+            boolean found = false;
+            if (exclusionsSpan != null) {
+                for (Span existing : exclusionsSpan.findChildren(EXCLUSION_TAG)) {
+                    if (exclusion.getGroupId().equals(getChildText(existing, GROUP_ID_TAG))
+                            && exclusion.getArtifactId().equals(getChildText(existing, ARTIFACT_ID_TAG))) {
+                        found = true;
+                        break;
+                    }
+                }
+            }
+            if (!found) {
+                missing.child(new Markup(EXCLUSION_TAG).child(GROUP_ID_TAG, exclusion.getGroupId())
+                        .child(ARTIFACT_ID_TAG, exclusion.getArtifactId()));
+            }
+        }
+
+        if (missing.children.isEmpty()) {
+            return;
+        }
+        if (exclusionsSpan == null) {
+            appendChild(dependency, missing);
+            return;
+        }
+        for (Markup exclusion : missing.children) {
+            appendChild(exclusionsSpan, exclusion);
+        }
+    }
+
+    /**
+     * Stores the version in properties and returns a reference to it - or the version, if the pom has no
+     * properties
+     */
+    private String storeVersionInProperties(String groupId, String artifactId, String version,
+                                            boolean needAngelTracking) {
+        // If the value we are receiving here is a property, then we will assume it's already defined
+        if (getPropertiesSpan() == null || PROPERTIES_VARIABLE.matcher(version).matches()) {
+            return version;
+        }
+
+        String key = String.format("%s-%s.version", groupId, artifactId);
+        setProperty(key, version, needAngelTracking);
+        return String.format("${%s}", key);
+    }
+
+    @Override
+    public List<String> getDependencyState() {
+        List<String> state = new ArrayList<>();
+        Span dependencies = getDependenciesSpan();
+        if (dependencies == null) {
+            return state;
+        }
+        for (Span dependency : dependencies.findChildren(DEPENDENCY_TAG)) {
+            String version = getChildText(dependency, VERSION_TAG);
+            if (version != null) {
+                String resolvedVersion = PomManipulator.resolveProperties(version, this::getPropertyValue);
+                version = (resolvedVersion != null) ? resolvedVersion : version;
+            }
+
+            List<String> exclusions = new ArrayList<>();
+            Span exclusionsSpan = dependency.findChild(EXCLUSIONS_TAG);
+            if (exclusionsSpan != null) {
+                for (Span exclusion : exclusionsSpan.findChildren(EXCLUSION_TAG)) {
+                    exclusions.add(getDependencyKey(exclusion));
+                }
+                Collections.sort(exclusions);
+            }
+
+            state.add(String.join("|", getDependencyKey(dependency), version,
+                    getChildText(dependency, SCOPE_TAG), getChildText(dependency, TYPE_TAG),
+                    getChildText(dependency, CLASSIFIER_TAG), String.join(",", exclusions)));
+        }
+        Collections.sort(state);
+        return state;
+    }
+
+    /**
+     * Writes the pom (regardless of whether it is dirty), replacing the file atomically
+     * @return number of bytes written
+     */
+    long writeFile() {
+        byte[] contents = text.toString().getBytes(StandardCharsets.UTF_8);
+        try {
+            PomManipulator.writeAtomically(filename, contents);
+        } catch (IOException ioe) {
+            throw new RuntimeException("Problem saving: " + filename, ioe);
+        }
+        dirty = false;
+        return contents.length;
+    }
+
+    /**
+     * @return the dependencies section edited - dependencyManagement's dependencies, if there are any,
+     * otherwise the project's dependencies (same as PomManipulator)
+     */
+    private Span getDependenciesSpan() {
+        ensureDependencyIndex();
+        return dependenciesSpan;
+    }
+
+    private Span findDependenciesSpan() {
+        List<Span> dependencyManagement = new ArrayList<>();
+        project.findDescendants(DEPENDENCY_MANAGEMENT_TAG, dependencyManagement);
+        if (dependencyManagement.size() > 1) {
+            throw new RuntimeException(String.format("Found too many (%d) elements: %s",
+                    dependencyManagement.size(), DEPENDENCY_MANAGEMENT_TAG));
+        }
+        if (dependencyManagement.size() == 1) {
+            Span managedDependencies = dependencyManagement.get(0).findFirstChild(DEPENDENCIES_TAG);
+            if (managedDependencies != null) {
+                return managedDependencies;
+            }
+        }
+        List<Span> dependencies = project.findChildren(DEPENDENCIES_TAG);
+        return (dependencies.isEmpty()) ? null : dependencies.get(dependencies.size() - 1);
+    }
+
+    private Span getPropertiesSpan() {
+        List<Span> properties = project.findChildren(PROPERTIES_TAG);
+        return (properties.isEmpty()) ? null : properties.get(properties.size() - 1);
+    }
+
+    /**
+     * @return the dependencies (of the dependencies section) for groupId:artifactId, in pom order
+     */
+    private List<Span> findDependencies(String groupId, String artifactId) {
+        ensureDependencyIndex();
+        List<Span> found = dependencyIndex.get(ArtifactHelper.getArtifactIdGroupIdString(groupId, artifactId));
+        return (found != null) ? new ArrayList<>(found) : Collections.emptyList();
+    }
+
+    private void ensureDependencyIndex() {
+        if (dependencyIndex != null) {
+            return;
+        }
+        dependenciesSpan = findDependenciesSpan();
+        dependencyIndex = new HashMap<>();
+        if (dependenciesSpan != null) {
+            for (Span dependency : dependenciesSpan.findChildren(DEPENDENCY_TAG)) {
+                indexDependency(dependency);
+            }
+        }
+    }
+
+    private void indexDependency(Span dependency) {
+        String key = getDependencyKey(dependency);
+        dependency.key = key;
+        if (key != null) {
+            List<Span> dependencies = dependencyIndex.computeIfAbsent(key, k -> new ArrayList<>(1));
+            int index = dependencies.size();
+            while (index > 0 && dependencies.get(index - 1).start > dependency.start) {
+                --index;
+            }
+            dependencies.add(index, dependency);
+        }
+    }
+
+    /**
+     * Keeps the dependency index current after an edit
+     * @param containers - the spans containing the edit (outermost first)
+     * @param aboveSection - true if the edit was within an element enclosing the dependencies section
+     * @param removed - spans replaced by the edit
+     * @param added - spans inserted by the edit
+     */
+    private void updateDependencyIndex(List<Span> containers, boolean aboveSection, List<Span> removed,
+                                       List<Span> added) {
+        if (dependencyIndex == null) {
+            return;
+        }
+        boolean structural = !removed.isEmpty() || !added.isEmpty();
+        int sectionLevel = (dependenciesSpan != null) ? containers.indexOf(dependenciesSpan) : -1;
+        if (sectionLevel < 0) {
+            // the section may have been replaced (or added)
+            if (structural && (dependenciesSpan == null || aboveSection)) {
+                dependencyIndex = null;
+            }
+            return;
+        }
+
+        if (sectionLevel == containers.size() - 1) {
+            // dependencies added or removed
+            for (Span span : removed) {
+                if (DEPENDENCY_TAG.equals(span.name)) {
+                    List<Span> dependencies = (span.key != null) ? dependencyIndex.get(span.key) : null;
+                    if (dependencies != null) {
+                        dependencies.removeIf(dependency -> dependency == span);
+                    }
+                }
+            }
+            for (Span span : added) {
+                if (DEPENDENCY_TAG.equals(span.name)) {
+                    indexDependency(span);
+                }
+            }
+            return;
+        }
+
+        // within a dependency - only changes to its groupId or artifactId change its key
+        List<Span> changed = new ArrayList<>();
+        if (sectionLevel + 2 < containers.size()) {
+            changed.add(containers.get(sectionLevel + 2));
+        } else {
+            changed.addAll(removed);
+            changed.addAll(added);
+        }
+        for (Span span : changed) {
+            if (GROUP_ID_TAG.equals(span.name) || ARTIFACT_ID_TAG.equals(span.name)) {
+                dependencyIndex = null;
+                return;
+            }
+        }
+    }
+
+    private String getDependencyKey(Span dependency) {
+        String groupId = getChildText(dependency, GROUP_ID_TAG);
+        String artifactId = getChildText(dependency, ARTIFACT_ID_TAG);
+        return (groupId == null || artifactId == null) ? null
+                : ArtifactHelper.getArtifactIdGroupIdString(groupId, artifactId);
+    }
+
+    private String getChildText(Span parent, String name) {
+        Span child = parent.findChild(name);
+        return (child != null) ? getText(child) : null;
+    }
+
+    /**
+     * @return the (trimmed) text of an element, without markup (ex: comments) or escapes
+     */
+    String getText(Span element) {
+        if (element.selfClosing) {
+            return "";
+        }
+        StringBuilder value = new StringBuilder();
+        int position = element.startTagEnd;
+        while (position < element.contentEnd) {
+            if (text.charAt(position) != '<') {
+                value.append(text.charAt(position++));
+            } else if (startsWith(position, "<![CDATA[")) {
+                int end = text.indexOf("]]>", position);
+                value.append(text, position + 9, end);
+                position = end + 3;
+            } else if (startsWith(position, "<!--")) {
+                position = text.indexOf("-->", position) + 3;
+            } else {
+                // nested element text (not expected in the values edited)
+                int end = text.indexOf(">", position);
+                position = end + 1;
+            }
+        }
+        return unescape(value.toString()).trim();
+    }
+
+    private void setText(Span element, String value) {
+        if (getText(element).equals(value)) {
+            return;
+        }
+        if (element.selfClosing) {
+            replace(element.start, element.end,
+                    text.substring(element.start, element.startTagEnd - 2).stripTrailing() + ">"
+                            + escape(value) + "</" + element.name + ">");
+        } else {
+            replace(element.startTagEnd, element.contentEnd, escape(value));
+        }
+    }
+
+    /**
+     * Delete an element or comment, with its indentation
+     */
+    private void delete(Span span) {
+        int start = span.start;
+        while (start > 0 && Character.isWhitespace(text.charAt(start - 1))) {
+            --start;
+        }
+        if (!INDENTATION_PATTERN.matcher(text.subSequence(start, span.start)).matches()) {
+            start = span.start;
+        }
+        replace(start, span.end, "");
+    }
+
+    /**
+     * Add an element as the last child of parent, indented like its siblings
+     */
+    private void appendChild(Span parent, Markup markup) {
+        if (markup.tracked) {
+            ensureAngelNamespace();
+        }
+
+        String parentIndent = getIndent(parent);
+        List<Span> siblings = parent.findChildren(null);
+        boolean inline = !siblings.isEmpty() && getIndent(siblings.get(0)).isEmpty();
+        String indent = (!siblings.isEmpty() && !inline) ? getIndent(siblings.get(0)) : parentIndent + getIndentUnit();
+        String rendered = markup.render(indent, getIndentUnit(), lineSeparator);
+
+        if (inline) {
+            // children on the parent's line (ex: <dependency><groupId>...) - keep it that way
+            replace(parent.contentEnd, parent.contentEnd, rendered);
+            return;
+        }
+
+        if (parent.selfClosing) {
+            replace(parent.start, parent.end,
+                    text.substring(parent.start, parent.startTagEnd - 2).stripTrailing() + ">"
+                            + lineSeparator + indent + rendered + lineSeparator + parentIndent
+                            + "</" + parent.name + ">");
+            return;
+        }
+
+        int insert = parent.contentEnd;
+        while (insert > parent.startTagEnd && Character.isWhitespace(text.charAt(insert - 1))) {
+            --insert;
+        }
+        if (text.substring(insert, parent.contentEnd).contains("\n")) {
+            // keep the indentation of the end tag
+            replace(insert, insert, lineSeparator + indent + rendered);
+        } else {
+            replace(parent.contentEnd, parent.contentEnd,
+                    lineSeparator + indent + rendered + lineSeparator + parentIndent);
+        }
+    }
+
+    private void ensureAngelNamespace() {
+        String startTag = text.substring(project.start, project.startTagEnd);
+        if (!startTag.contains("xmlns:angel")) {
+            int insert = project.startTagEnd - 1;
+            replace(insert, insert, " xmlns:angel=\"" + ANGEL_NAMESPACE + "\"");
+        }
+    }
+
+    /**
+     * @return whitespace before the span on its line ("" if there is other content before it)
+     */
+    private String getIndent(Span span) {
+        int lineStart = span.start;
+        while (lineStart > 0 && (text.charAt(lineStart - 1) == ' ' || text.charAt(lineStart - 1) == '\t')) {
+            --lineStart;
+        }
+        return (lineStart == 0 || text.charAt(lineStart - 1) == '\n') ? text.substring(lineStart, span.start) : "";
+    }
+
+    /**
+     * @return indentation of the project's children (one level)
+     */
+    private String getIndentUnit() {
+        List<Span> children = project.findChildren(null);
+        String indent = (children.isEmpty()) ? "" : getIndent(children.get(0));
+        return (indent.isEmpty()) ? DEFAULT_INDENT : indent;
+    }
+
+    /**
+     * Replace text [start, end), which must be within an element's start tag or content and not split any of its
+     * children.  Only the replacement is scanned: spans replaced are removed, the spans after it are shifted, and
+     * all other spans stay as they are.
+     */
+    private void replace(int start, int end, String replacement) {
+        // the elements containing the edit, outermost first
+        List<Span> containers = new ArrayList<>();
+        Span container = project;
+        if (!container.isWithinStartTag(start, end) && !container.isWithinContent(start, end)) {
+            throw new RuntimeException(String.format("Edit (%d-%d) is not within the project", start, end));
+        }
+        while (container != null) {
+            containers.add(container);
+            Span next = null;
+            if (!container.isWithinStartTag(start, end)) {
+                for (Span child : container.children) {
+                    if (child.isWithinStartTag(start, end) || child.isWithinContent(start, end)) {
+                        next = child;
+                        break;
+                    }
+                }
+            }
+            container = next;
+        }
+        container = containers.get(containers.size() - 1);
+        boolean inStartTag = container.isWithinStartTag(start, end);
+
+        // children replaced by the edit
+        List<Span> children = container.children;
+        int first = 0;
+        int last = 0;
+        if (!inStartTag) {
+            while (first < children.size() && children.get(first).end <= start) {
+                ++first;
+            }
+            for (last = first; last < children.size() && children.get(last).start < end; last++) {
+                if (children.get(last).start < start || children.get(last).end > end) {
+                    throw new RuntimeException(String.format("Edit (%d-%d) splits element: %s", start, end,
+                            children.get(last).name));
+                }
+            }
+        }
+        boolean aboveSection = dependenciesSpan != null && container.encloses(dependenciesSpan);
+
+        text.replace(start, end, replacement);
+        dirty = true;
+
+        int delta = replacement.length() - (end - start);
+        List<Span> removed = new ArrayList<>(children.subList(first, last));
+        List<Span> added = Collections.emptyList();
+        if (inStartTag) {
+            container.startTagEnd += delta;
+            first = 0;
+        } else {
+            children.subList(first, last).clear();
+            added = scanSpans(start, start + replacement.length());
+            children.addAll(first, added);
+            first += added.size();
+        }
+        for (int i = first; i < children.size(); i++) {
+            children.get(i).shift(delta);
+        }
+        container.contentEnd += delta;
+        container.end += delta;
+
+        // the containers end later (or earlier), as do the spans after them
+        for (int level = containers.size() - 2; level >= 0; level--) {
+            Span ancestor = containers.get(level);
+            List<Span> siblings = ancestor.children;
+            for (int i = siblings.indexOf(containers.get(level + 1)) + 1; i < siblings.size(); i++) {
+                siblings.get(i).shift(delta);
+            }
+            ancestor.contentEnd += delta;
+            ancestor.end += delta;
+        }
+
+        updateDependencyIndex(containers, aboveSection, removed, added);
+    }
+
+    private boolean startsWith(int position, String prefix) {
+        if (position + prefix.length() > text.length()) {
+            return false;
+        }
+        for (int i = 0; i < prefix.length(); i++) {
+            if (text.charAt(position + i) != prefix.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Scan the whole text for the project element
+     */
+    private void scan() {
+        project = null;
+        for (Span span : scanSpans(0, text.length())) {
+            if (span.isComment()) {
+                continue;
+            }
+            if (project != null) {
+                throw new RuntimeException("Multiple root elements");
+            }
+            project = span;
+        }
+        if (project == null || !"project".equals(project.name)) {
+            throw new RuntimeException("Could not find project node");
+        }
+        dependenciesSpan = null;
+        dependencyIndex = null;
+    }
+
+    /**
+     * Single pass over text [from, to), recording the offsets of elements and comments.  Text, CDATA, processing
+     * instructions and declarations are skipped.
+     * @return the elements and comments (not nested in the text scanned)
+     */
+    private List<Span> scanSpans(int from, int to) {
+        List<Span> spans = new ArrayList<>();
+        List<Span> open = new ArrayList<>();
+        int position = from;
+        while (position < to) {
+            int tagStart = text.indexOf("<", position);
+            if (tagStart < 0 || tagStart >= to) {
+                break;
+            }
+            Span parent = (open.isEmpty()) ? null : open.get(open.size() - 1);
+            if (startsWith(tagStart, "<!--")) {
+                int end = requireIndex(text.indexOf("-->", tagStart + 4), "comment") + 3;
+                Span comment = new Span(null, tagStart, end, end, end, false);
+                ((parent != null) ? parent.children : spans).add(comment);
+                position = end;
+            } else if (startsWith(tagStart, "<![CDATA[")) {
+                position = requireIndex(text.indexOf("]]>", tagStart), "CDATA") + 3;
+            } else if (startsWith(tagStart, "<?")) {
+                position = requireIndex(text.indexOf("?>", tagStart), "processing instruction") + 2;
+            } else if (startsWith(tagStart, "<!")) {
+                position = requireIndex(text.indexOf(">", tagStart), "declaration") + 1;
+            } else if (startsWith(tagStart, "</")) {
+                int tagEnd = requireIndex(text.indexOf(">", tagStart), "end tag");
+                String name = text.substring(tagStart + 2, tagEnd).trim();
+                if (parent == null || !parent.name.equals(name)) {
+                    throw new RuntimeException("Unexpected end tag: " + name + " at offset: " + tagStart);
+                }
+                parent.contentEnd = tagStart;
+                parent.end = tagEnd + 1;
+                open.remove(open.size() - 1);
+                position = tagEnd + 1;
+            } else {
+                int tagEnd = findTagEnd(tagStart);
+                int nameEnd = tagStart + 1;
+                while (nameEnd < tagEnd && !Character.isWhitespace(text.charAt(nameEnd))
+                        && text.charAt(nameEnd) != '/') {
+                    ++nameEnd;
+                }
+                boolean selfClosing = text.charAt(tagEnd - 1) == '/';
+                Span element = new Span(text.substring(tagStart + 1, nameEnd), tagStart, tagEnd + 1,
+                        tagEnd + 1, tagEnd + 1, selfClosing);
+                ((parent != null) ? parent.children : spans).add(element);
+                if (!selfClosing) {
+                    open.add(element);
+                }
+                position = tagEnd + 1;
+            }
+        }
+        if (!open.isEmpty()) {
+            throw new RuntimeException("Missing end tag: " + open.get(open.size() - 1).name);
+        }
+        return spans;
+    }
+
+    /**
+     * @return offset of the '>' closing a start tag (quoted attribute values may contain '>')
+     */
+    private int findTagEnd(int tagStart) {
+        char quote = 0;
+        for (int position = tagStart + 1; position < text.length(); position++) {
+            char c = text.charAt(position);
+            if (quote != 0) {
+                if (c == quote) {
+                    quote = 0;
+                }
+            } else if (c == '"' || c == '\'') {
+                quote = c;
+            } else if (c == '>') {
+                return position;
+            }
+        }
+        throw new RuntimeException("Unterminated start tag at offset: " + tagStart);
+    }
+
+    private static int requireIndex(int index, String description) {
+        if (index < 0) {
+            throw new RuntimeException("Unterminated " + description);
+        }
+        return index;
+    }
+
+    private static String escape(String value) {
+        return value.replace("&", "&amp;").replace("<", "&lt;").replace(">", "&gt;");
+    }
+
+    private static final Map<String, String> ENTITIES = Map.of(
+            "&lt;", "<", "&gt;", ">", "&quot;", "\"", "&apos;", "'");
+
+    private static String unescape(String value) {
+        if (value.indexOf('&') < 0) {
+            return value;
+        }
+        String unescaped = value;
+        for (Map.Entry<String, String> entity : ENTITIES.entrySet()) {
+            unescaped = unescaped.replace(entity.getKey(), entity.getValue());
+        }
+        // last, so escaped entities (ex: &amp;lt;) aren't unescaped twice
+        return unescaped.replace("&amp;", "&");
+    }
+
+    /**
+     * An element (or comment, with no name) and its offsets in the text
+     */
+    static class Span {
+        final String name;
+        int start;
+        int startTagEnd;
+        int contentEnd;
+        int end;
+        final boolean selfClosing;
+        final List<Span> children = new ArrayList<>();
+        // groupId:artifactId of an indexed dependency
+        String key;
+
+        Span(String name, int start, int startTagEnd, int contentEnd, int end, boolean selfClosing) {
+            this.name = name;
+            this.start = start;
+            this.startTagEnd = startTagEnd;
+            this.contentEnd = contentEnd;
+            this.end = end;
+            this.selfClosing = selfClosing;
+        }
+
+        boolean isComment() {
+            return name == null;
+        }
+
+        /**
+         * @return true if [start, end) is within the attributes of the start tag
+         */
+        boolean isWithinStartTag(int start, int end) {
+            return !isComment() && this.start < start && end < startTagEnd;
+        }
+
+        /**
+         * @return true if [start, end) is within the content (between the start and end tags)
+         */
+        boolean isWithinContent(int start, int end) {
+            return !isComment() && !selfClosing && startTagEnd <= start && end <= contentEnd;
+        }
+
+        boolean encloses(Span span) {
+            return start <= span.start && span.end <= end;
+        }
+
+        /**
+         * Move the span (and its children) by delta characters
+         */
+        void shift(int delta) {
+            start += delta;
+            startTagEnd += delta;
+            contentEnd += delta;
+            end += delta;
+            for (Span child : children) {
+                child.shift(delta);
+            }
+        }
+
+        /**
+         * @param name - element name (null for all elements)
+         */
+        List<Span> findChildren(String name) {
+            List<Span> found = new ArrayList<>();
+            for (Span child : children) {
+                if (!child.isComment() && (name == null || name.equals(child.name))) {
+                    found.add(child);
+                }
+            }
+            return found;
+        }
+
+        Span findFirstChild(String name) {
+            List<Span> found = findChildren(name);
+            return (found.isEmpty()) ? null : found.get(0);
+        }
+
+        /**
+         * @return the child element, or null - more than one is an error
+         */
+        Span findChild(String name) {
+            List<Span> found = findChildren(name);
+            if (found.size() > 1) {
+                throw new RuntimeException("Expected 0 or 1 node named: " + name + " but found " + found.size());
+            }
+            return (found.isEmpty()) ? null : found.get(0);
+        }
+
+        void findDescendants(String name, List<Span> found) {
+            for (Span child : children) {
+                if (!child.isComment()) {
+                    if (name.equals(child.name)) {
+                        found.add(child);
+                    }
+                    child.findDescendants(name, found);
+                }
+            }
+        }
+    }
+
+    /**
+     * An element to add: either text, or child elements (rendered one per line)
+     */
+    private static class Markup {
+        private final String name;
+        private boolean tracked = false;
+        private String text;
+        private final List<Markup> children = new ArrayList<>();
+
+        Markup(String name) {
+            this.name = name;
+        }
+
+        Markup tracked(boolean tracked) {
+            this.tracked = tracked;
+            return this;
+        }
+
+        Markup text(String text) {
+            this.text = text;
+            return this;
+        }
+
+        Markup child(String name, String text) {
+            return child(new Markup(name).text(text));
+        }
+
+        Markup child(Markup child) {
+            children.add(child);
+            return this;
+        }
+
+        /**
+         * @param indent - indentation of this element (the first line is not indented)
+         */
+        String render(String indent, String indentUnit, String lineSeparator) {
+            StringBuilder rendered = new StringBuilder("<").append(name);
+            if (tracked) {
+                rendered.append(' ').append(ANGEL_TRACKING_ATTRIBUTE).append("=\"").append(ANGEL_MANAGED_VALUE)
+                        .append('"');
+            }
+            rendered.append('>');
+            if (children.isEmpty()) {
+                rendered.append(escape(text));
+            } else {
+                for (Markup child : children) {
+                    rendered.append(lineSeparator).append(indent).append(indentUnit)
+                            .append(child.render(indent + indentUnit, indentUnit, lineSeparator));
+                }
+                rendered.append(lineSeparator).append(indent);
+            }
+            return rendered.append("</").append(name).append('>').toString();
+        }
+    }
+}
@@ -0,0 +1,20 @@
+package com.unhuman.dependencyangel.report;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Flight Recorder event for a timed phase - only recorded while a recording is running
+ * (ex: java -XX:StartFlightRecording=filename=angel.jfr -jar DependencyAngel.jar ...)
+ */
+@Name("com.unhuman.dependencyangel.Phase")
+@Label("Dependency Angel Phase")
+@Category("Dependency Angel")
+@Description("A timed phase of Dependency Angel processing")
+class PhaseEvent extends Event {
+    @Label("Phase")
+    String phase;
+}
@@ -0,0 +1,160 @@
+package com.unhuman.dependencyangel.report;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+import java.io.File;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Timings (wall and CPU) of each phase of a run, counters (files parsed / written, bytes, ...) and the
+ * results of each process iteration - written as JSON at the end of a run so runs can be compared.
+ *
+ * CPU time is that of the thread timing the phase: work it hands to other threads (ex: nested poms set up
+ * concurrently) is only counted by those threads' own phases (ex: pomParse), so concurrent phases and concurrent
+ * runs (see AngelServer) don't count each other's CPU.  Time spent in Maven processes is only included as wall time.
+ * Phases are also emitted as Flight Recorder events when a recording is running.
+ *
+ * May be used from multiple threads.
+ */
+public class RunReport {
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+    private static final long UNKNOWN = -1L;
+    private static final ThreadMXBean THREADS = ManagementFactory.getThreadMXBean();
+
+    private final Instant start;
+    private final long startNanos;
+    private final Map<String, PhaseStatistics> phases = new LinkedHashMap<>();
+    private final Map<String, Long> counters = new LinkedHashMap<>();
+    private final List<Map<String, Long>> iterations = new ArrayList<>();
+
+    public RunReport() {
+        start = Instant.now();
+        startNanos = System.nanoTime();
+    }
+
+    /**
+     * Start timing a phase - use with try-with-resources
+     * @param phase - phase name
+     * @return timer that records the phase when closed
+     */
+    public Timer time(String phase) {
+        return new Timer(phase);
+    }
+
+    /**
+     * Record a phase timed elsewhere
+     * @param phase - phase name
+     * @param wallNanos - wall time
+     * @param cpuNanos - CPU time (or -1 if unknown)
+     */
+    public synchronized void record(String phase, long wallNanos, long cpuNanos) {
+        phases.computeIfAbsent(phase, name -> new PhaseStatistics()).add(wallNanos, cpuNanos);
+    }
+
+    public synchronized void increment(String counter, long amount) {
+        counters.merge(counter, amount, Long::sum);
+    }
+
+    /**
+     * Record the results of a process iteration
+     * @param values - named values for the iteration (ex: conflicts) - reported in name order
+     */
+    public synchronized void addIteration(Map<String, Long> values) {
+        Map<String, Long> iteration = new LinkedHashMap<>();
+        iteration.put("iteration", (long) iterations.size() + 1);
+        iteration.putAll(new TreeMap<>(values));
+        iterations.add(iteration);
+    }
+
+    public synchronized ObjectNode toJson() {
+        ObjectNode report = OBJECT_MAPPER.createObjectNode();
+        report.put("start", start.toString());
+        report.put("wallMillis", toMillis(System.nanoTime() - startNanos));
+
+        ObjectNode phasesNode = report.putObject("phases");
+        phases.forEach((phase, statistics) -> {
+            ObjectNode phaseNode = phasesNode.putObject(phase);
+            phaseNode.put("count", statistics.count);
+            phaseNode.put("wallMillis", toMillis(statistics.wallNanos));
+            if (statistics.cpuNanos != UNKNOWN) {
+                phaseNode.put("cpuMillis", toMillis(statistics.cpuNanos));
+            }
+        });
+
+        ObjectNode countersNode = report.putObject("counters");
+        counters.forEach(countersNode::put);
+
+        ArrayNode iterationsNode = report.putArray("iterations");
+        for (Map<String, Long> iteration : iterations) {
+            ObjectNode iterationNode = iterationsNode.addObject();
+            iteration.forEach(iterationNode::put);
+        }
+        return report;
+    }
+
+    public void write(File reportFile) throws IOException {
+        OBJECT_MAPPER.writerWithDefaultPrettyPrinter().writeValue(reportFile, toJson());
+    }
+
+    private static double toMillis(long nanos) {
+        return Math.round(nanos / 10_000.0) / 100.0;
+    }
+
+    /**
+     * @return CPU time used by the current thread (or UNKNOWN if that is not available)
+     */
+    private static long getCpuNanos() {
+        return (THREADS.isCurrentThreadCpuTimeSupported() && THREADS.isThreadCpuTimeEnabled())
+                ? THREADS.getCurrentThreadCpuTime() : UNKNOWN;
+    }
+
+    public class Timer implements AutoCloseable {
+        private final String phase;
+        private final Thread thread;
+        private final long startNanos;
+        private final long startCpuNanos;
+        private final PhaseEvent event;
+
+        private Timer(String phase) {
+            this.phase = phase;
+            this.thread = Thread.currentThread();
+            this.event = new PhaseEvent();
+            event.phase = phase;
+            event.begin();
+            this.startCpuNanos = getCpuNanos();
+            this.startNanos = System.nanoTime();
+        }
+
+        @Override
+        public void close() {
+            long wallNanos = System.nanoTime() - startNanos;
+            // CPU time is per thread, so it is unknown if the timer is closed on another thread
+            long cpuNanos = (startCpuNanos != UNKNOWN && thread == Thread.currentThread())
+                    ? getCpuNanos() - startCpuNanos : UNKNOWN;
+            event.commit();
+            record(phase, wallNanos, cpuNanos);
+        }
+    }
+
+    private static class PhaseStatistics {
+        private long count;
+        private long wallNanos;
+        private long cpuNanos;
+
+        void add(long wallNanos, long cpuNanos) {
+            this.count++;
+            this.wallNanos += wallNanos;
+            this.cpuNanos = (cpuNanos == UNKNOWN || (this.cpuNanos == UNKNOWN)) ? UNKNOWN : this.cpuNanos + cpuNanos;
+        }
+    }
+}
@@ -0,0 +1,148 @@
+package com.unhuman.dependencyangel.resolution;
+
+import com.unhuman.dependencyangel.dependency.Dependency;
+import com.unhuman.dependencyangel.tree.DependencyNode;
+import com.unhuman.dependencyangel.versioning.Version;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Builds the (verbose) dependency graph of a project the way Maven resolves it: breadth first, nearest wins,
+ * with the project's dependencyManagement forcing transitive versions.  Nodes that lose to a nearer
+ * declaration are kept in the graph as leaves (like the enforcer's verbose tree) so conflicts can be reported.
+ */
+public class DependencyGraphBuilder {
+    private static final Set<String> NON_TRANSITIVE_SCOPES = Set.of("test", "provided", "system");
+    private static final String COMPILE_SCOPE = "compile";
+    private static final String RUNTIME_SCOPE = "runtime";
+
+    private final PomModelResolver resolver;
+    private final Reactor reactor;
+
+    public DependencyGraphBuilder(PomModelResolver resolver, Reactor reactor) {
+        this.resolver = resolver;
+        this.reactor = reactor;
+    }
+
+    private static class PendingNode {
+        final DependencyNode node;
+        final PomDependency declaration;
+        final Set<String> exclusions;
+
+        PendingNode(DependencyNode node, PomDependency declaration, Set<String> exclusions) {
+            this.node = node;
+            this.declaration = declaration;
+            this.exclusions = exclusions;
+        }
+    }
+
+    public DependencyNode build(PomModel project) {
+        DependencyNode root = new DependencyNode(null, new Dependency(project.getGroupId(), project.getArtifactId(),
+                project.getPackaging(), Version.of(project.getGroupId(), project.getArtifactId(),
+                project.getVersion()), null, null));
+
+        Map<String, DependencyNode> winners = new HashMap<>();
+        winners.put(getKey(project.getGroupId(), project.getArtifactId()), root);
+        Deque<PendingNode> pending = new ArrayDeque<>();
+
+        for (PomDependency declaration : project.getDependencies()) {
+            String version = resolver.resolveVersion(declaration.getGroupId(), declaration.getArtifactId(),
+                    declaration.getVersion());
+            if (version == null || version.contains("${")) {
+                continue;
+            }
+            addNode(root, declaration, version, declaration.getEffectiveScope(), new HashSet<>(), winners, pending);
+        }
+
+        while (!pending.isEmpty()) {
+            PendingNode parent = pending.removeFirst();
+            PomModel model = resolver.resolve(parent.node.getGroupId(), parent.node.getArtifactId(),
+                    parent.node.getVersion().toString(), reactor);
+            if (model == null) {
+                continue;
+            }
+
+            for (PomDependency declaration : model.getDependencies()) {
+                if (declaration.isOptional() || NON_TRANSITIVE_SCOPES.contains(declaration.getEffectiveScope())
+                        || isExcluded(declaration, parent.exclusions)
+                        || isAncestor(parent.node, declaration.getGroupId(), declaration.getArtifactId())) {
+                    continue;
+                }
+
+                PomDependency managed = declaration.withForcedManagement(project.getManagedDependency(declaration));
+                String version = resolver.resolveVersion(managed.getGroupId(), managed.getArtifactId(),
+                        managed.getVersion());
+                if (version == null || version.contains("${")) {
+                    continue;
+                }
+                String scope = deriveScope(parent.node.getScope(), managed.getEffectiveScope());
+                addNode(parent.node, managed, version, scope, parent.exclusions, winners, pending);
+            }
+        }
+
+        return root;
+    }
+
+    private void addNode(DependencyNode parent, PomDependency declaration, String version, String scope,
+                         Set<String> inheritedExclusions, Map<String, DependencyNode> winners,
+                         Deque<PendingNode> pending) {
+        Dependency dependency = new Dependency(declaration.getGroupId(), declaration.getArtifactId(),
+                declaration.getType(), Version.of(declaration.getGroupId(), declaration.getArtifactId(), version),
+                scope, declaration.getClassifier());
+        DependencyNode node = new DependencyNode(parent, dependency);
+        parent.addChild(node);
+
+        // Only the nearest declaration of an artifact contributes its own dependencies
+        String key = getKey(declaration.getGroupId(), declaration.getArtifactId());
+        if (!winners.containsKey(key)) {
+            winners.put(key, node);
+            Set<String> exclusions = new HashSet<>(inheritedExclusions);
+            exclusions.addAll(declaration.getExclusions());
+            pending.addLast(new PendingNode(node, declaration, exclusions));
+        }
+    }
+
+    private static boolean isExcluded(PomDependency declaration, Set<String> exclusions) {
+        for (String exclusion : exclusions) {
+            if (declaration.isExcludedBy(exclusion)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean isAncestor(DependencyNode node, String groupId, String artifactId) {
+        for (DependencyNode check = node; check != null; check = check.getParent()) {
+            if (check.getGroupId().equals(groupId) && check.getArtifactId().equals(artifactId)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Maven's scope propagation table
+     * @param parentScope
+     * @param childScope
+     * @return
+     */
+    static String deriveScope(String parentScope, String childScope) {
+        if (parentScope == null || COMPILE_SCOPE.equals(parentScope)) {
+            return childScope;
+        }
+        if (RUNTIME_SCOPE.equals(parentScope)) {
+            return RUNTIME_SCOPE;
+        }
+        // provided / test propagate as themselves
+        return parentScope;
+    }
+
+    private static String getKey(String groupId, String artifactId) {
+        return String.format("%s:%s", groupId, artifactId);
+    }
+}
@@ -0,0 +1,134 @@
+package com.unhuman.dependencyangel.resolution;
+
+import com.unhuman.dependencyangel.versioning.Version;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Locates artifacts in the local Maven repository (~/.m2/repository by default).
+ */
+public class LocalRepository {
+    private static final String REPO_LOCAL_PROPERTY = "maven.repo.local";
+    private static final Pattern SETTINGS_LOCAL_REPOSITORY =
+            Pattern.compile("<localRepository>\\s*(.*?)\\s*</localRepository>");
+    private static final Pattern VERSION_RANGE = Pattern.compile("([\\[(])\\s*([^,]*?)\\s*(?:,\\s*([^,]*?)\\s*)?([\\])])");
+
+    private final Path root;
+
+    public LocalRepository(Path root) {
+        this.root = root;
+    }
+
+    /**
+     * Determine the local repository the same way Maven does (system property, then settings.xml, then default)
+     * @return
+     */
+    public static LocalRepository fromEnvironment() {
+        String override = System.getProperty(REPO_LOCAL_PROPERTY);
+        if (override != null && !override.isBlank()) {
+            return new LocalRepository(Paths.get(override));
+        }
+
+        Path m2 = Paths.get(System.getProperty("user.home"), ".m2");
+        Path settings = m2.resolve("settings.xml");
+        if (Files.isRegularFile(settings)) {
+            try {
+                Matcher matcher = SETTINGS_LOCAL_REPOSITORY.matcher(Files.readString(settings));
+                if (matcher.find() && !matcher.group(1).isBlank()) {
+                    return new LocalRepository(Paths.get(matcher.group(1)
+                            .replace("${user.home}", System.getProperty("user.home"))));
+                }
+            } catch (Exception e) {
+                // fall through to the default
+            }
+        }
+        return new LocalRepository(m2.resolve("repository"));
+    }
+
+    public Path getRoot() {
+        return root;
+    }
+
+    public File getPomFile(String groupId, String artifactId, String version) {
+        return getVersionDirectory(groupId, artifactId, version)
+                .resolve(String.format("%s-%s.pom", artifactId, version)).toFile();
+    }
+
+    private Path getArtifactDirectory(String groupId, String artifactId) {
+        return root.resolve(groupId.replace('.', File.separatorChar)).resolve(artifactId);
+    }
+
+    private Path getVersionDirectory(String groupId, String artifactId, String version) {
+        return getArtifactDirectory(groupId, artifactId).resolve(version);
+    }
+
+    public static boolean isVersionRange(String version) {
+        return version != null && (version.startsWith("[") || version.startsWith("("));
+    }
+
+    /**
+     * Resolve a version range against the versions available in this repository.
+     * Chooses the latest locally available version satisfying the range, or the range's
+     * lower bound (then upper bound) if nothing local matches.
+     * @return
+     */
+    public String resolveVersionRange(String groupId, String artifactId, String range) {
+        Matcher matcher = VERSION_RANGE.matcher(range);
+        if (!matcher.find()) {
+            return range;
+        }
+        boolean lowerInclusive = "[".equals(matcher.group(1));
+        String lower = matcher.group(2);
+        // [1.0] is an exact version
+        String upper = (matcher.group(3) != null) ? matcher.group(3) : ("]".equals(matcher.group(4)) ? lower : "");
+        boolean upperInclusive = "]".equals(matcher.group(4));
+
+        Version lowerVersion = (lower.isEmpty()) ? null : Version.of(groupId, artifactId, lower);
+        Version upperVersion = (upper.isEmpty()) ? null : Version.of(groupId, artifactId, upper);
+
+        Version best = null;
+        for (String candidate : listVersions(groupId, artifactId)) {
+            Version version = Version.of(groupId, artifactId, candidate);
+            if (lowerVersion != null) {
+                int comparison = version.compareTo(lowerVersion);
+                if (comparison < 0 || (comparison == 0 && !lowerInclusive)) {
+                    continue;
+                }
+            }
+            if (upperVersion != null) {
+                int comparison = version.compareTo(upperVersion);
+                if (comparison > 0 || (comparison == 0 && !upperInclusive)) {
+                    continue;
+                }
+            }
+            if (best == null || version.compareTo(best) > 0) {
+                best = version;
+            }
+        }
+
+        if (best != null) {
+            return best.toString();
+        }
+        return (!lower.isEmpty()) ? lower : upper;
+    }
+
+    private List<String> listVersions(String groupId, String artifactId) {
+        List<String> versions = new ArrayList<>();
+        File[] versionDirectories = getArtifactDirectory(groupId, artifactId).toFile().listFiles(File::isDirectory);
+        if (versionDirectories != null) {
+            for (File versionDirectory : versionDirectories) {
+                if (getPomFile(groupId, artifactId, versionDirectory.getName()).isFile()) {
+                    versions.add(versionDirectory.getName());
+                }
+            }
+        }
+        return versions;
+    }
+}
@@ -0,0 +1,145 @@
+package com.unhuman.dependencyangel.resolution;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.UnaryOperator;
+
+/**
+ * A dependency declaration as written in a pom (either in dependencies or dependencyManagement).
+ * Values may contain unresolved ${...} expressions until interpolated.
+ */
+public class PomDependency {
+    public static final String DEFAULT_TYPE = "jar";
+    public static final String DEFAULT_SCOPE = "compile";
+    private static final String WILDCARD = "*";
+
+    private final String groupId;
+    private final String artifactId;
+    private final String version;
+    private final String type;
+    private final String classifier;
+    private final String scope;
+    private final boolean optional;
+    private final List<String> exclusions;
+
+    public PomDependency(String groupId, String artifactId, String version, String type, String classifier,
+                         String scope, boolean optional, List<String> exclusions) {
+        this.groupId = groupId;
+        this.artifactId = artifactId;
+        this.version = version;
+        this.type = type;
+        this.classifier = classifier;
+        this.scope = scope;
+        this.optional = optional;
+        this.exclusions = (exclusions != null) ? new ArrayList<>(exclusions) : new ArrayList<>();
+    }
+
+    public String getGroupId() {
+        return groupId;
+    }
+
+    public String getArtifactId() {
+        return artifactId;
+    }
+
+    public String getVersion() {
+        return version;
+    }
+
+    public String getType() {
+        return (type != null) ? type : DEFAULT_TYPE;
+    }
+
+    public String getClassifier() {
+        return classifier;
+    }
+
+    public String getScope() {
+        return scope;
+    }
+
+    public String getEffectiveScope() {
+        return (scope != null) ? scope : DEFAULT_SCOPE;
+    }
+
+    public boolean isOptional() {
+        return optional;
+    }
+
+    /**
+     * @return exclusions as groupId:artifactId (either may be a * wildcard)
+     */
+    public List<String> getExclusions() {
+        return Collections.unmodifiableList(exclusions);
+    }
+
+    /**
+     * @return key used by Maven to match dependencies with dependencyManagement
+     */
+    public String getManagementKey() {
+        return String.format("%s:%s:%s:%s", groupId, artifactId, getType(), (classifier != null) ? classifier : "");
+    }
+
+    public boolean isExcludedBy(String exclusion) {
+        return isExcludedBy(exclusion, groupId, artifactId);
+    }
+
+    /**
+     * @param exclusion - groupId:artifactId (either may be a * wildcard)
+     * @return true if the exclusion matches groupId:artifactId
+     */
+    static boolean isExcludedBy(String exclusion, String groupId, String artifactId) {
+        String[] parts = exclusion.split(":", 2);
+        return parts.length == 2
+                && (WILDCARD.equals(parts[0]) || parts[0].equals(groupId))
+                && (WILDCARD.equals(parts[1]) || parts[1].equals(artifactId));
+    }
+
+    PomDependency interpolate(UnaryOperator<String> interpolator) {
+        List<String> interpolatedExclusions = new ArrayList<>(exclusions.size());
+        exclusions.forEach(exclusion -> interpolatedExclusions.add(interpolator.apply(exclusion)));
+        return new PomDependency(interpolator.apply(groupId), interpolator.apply(artifactId),
+                interpolator.apply(version), interpolator.apply(type), interpolator.apply(classifier),
+                interpolator.apply(scope), optional, interpolatedExclusions);
+    }
+
+    /**
+     * Fill in anything not specified by this declaration with information from a managed declaration
+     * @param managed
+     * @return
+     */
+    PomDependency withManagement(PomDependency managed) {
+        if (managed == null) {
+            return this;
+        }
+        List<String> mergedExclusions = new ArrayList<>(exclusions);
+        mergedExclusions.addAll(managed.exclusions);
+        return new PomDependency(groupId, artifactId, (version != null) ? version : managed.version,
+                type, classifier, (scope != null) ? scope : managed.scope, optional, mergedExclusions);
+    }
+
+    /**
+     * Transitive dependencies have their version and scope forced by the project's dependencyManagement
+     * @param managed
+     * @return
+     */
+    PomDependency withForcedManagement(PomDependency managed) {
+        if (managed == null) {
+            return this;
+        }
+        List<String> mergedExclusions = new ArrayList<>(exclusions);
+        mergedExclusions.addAll(managed.exclusions);
+        return new PomDependency(groupId, artifactId, (managed.version != null) ? managed.version : version,
+                type, classifier, (managed.scope != null) ? managed.scope : scope, optional, mergedExclusions);
+    }
+
+    PomDependency withScope(String newScope) {
+        return new PomDependency(groupId, artifactId, version, type, classifier, newScope, optional, exclusions);
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%s:%s:%s:%s", groupId, artifactId, getType(), version);
+    }
+}
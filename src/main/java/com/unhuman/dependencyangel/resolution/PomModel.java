@@ -0,0 +1,68 @@
+package com.unhuman.dependencyangel.resolution;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The effective model of a pom: inheritance, interpolation, imports and dependency management applied.
+ */
+public class PomModel {
+    private final String groupId;
+    private final String artifactId;
+    private final String version;
+    private final String packaging;
+    private final Map<String, String> properties;
+    private final Map<String, PomDependency> managedDependencies;
+    private final List<PomDependency> dependencies;
+
+    PomModel(String groupId, String artifactId, String version, String packaging, Map<String, String> properties,
+             Map<String, PomDependency> managedDependencies, List<PomDependency> dependencies) {
+        this.groupId = groupId;
+        this.artifactId = artifactId;
+        this.version = version;
+        this.packaging = packaging;
+        this.properties = properties;
+        this.managedDependencies = managedDependencies;
+        this.dependencies = dependencies;
+    }
+
+    public String getGroupId() {
+        return groupId;
+    }
+
+    public String getArtifactId() {
+        return artifactId;
+    }
+
+    public String getVersion() {
+        return version;
+    }
+
+    public String getPackaging() {
+        return packaging;
+    }
+
+    public Map<String, String> getProperties() {
+        return Collections.unmodifiableMap(properties);
+    }
+
+    /**
+     * @return managed dependencies keyed by management key (groupId:artifactId:type:classifier)
+     */
+    public Map<String, PomDependency> getManagedDependencies() {
+        return Collections.unmodifiableMap(managedDependencies);
+    }
+
+    public PomDependency getManagedDependency(PomDependency dependency) {
+        return managedDependencies.get(dependency.getManagementKey());
+    }
+
+    public List<PomDependency> getDependencies() {
+        return Collections.unmodifiableList(dependencies);
+    }
+
+    public String getCoordinates() {
+        return String.format("%s:%s:%s", groupId, artifactId, version);
+    }
+}
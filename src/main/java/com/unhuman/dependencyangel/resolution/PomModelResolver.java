@@ -0,0 +1,339 @@
+package com.unhuman.dependencyangel.resolution;
+
+import com.unhuman.dependencyangel.resolution.RepositoryModelCache.CachedModel;
+import com.unhuman.dependencyangel.resolution.RepositoryModelCache.CachedPom;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Builds effective pom models (parent inheritance, property interpolation, BOM imports and dependency management)
+ * from the project's reactor and the local repository.
+ * Models read from the local repository are cached (see RepositoryModelCache, which may be shared with other
+ * resolvers, and drops models whose poms have changed).  Poms missing from the local repository, and models built
+ * without them, are only remembered by this resolver.  A resolver keeps using the models it has resolved, so its
+ * results are consistent while it is in use.
+ */
+public class PomModelResolver {
+    private static final Pattern EXPRESSION = Pattern.compile("\\$\\{([^}]+)}");
+    private static final int MAX_INTERPOLATION_DEPTH = 10;
+    private static final String IMPORT_SCOPE = "import";
+    private static final String POM_TYPE = "pom";
+
+    private final LocalRepository repository;
+    private final RepositoryModelCache cache;
+    // models this resolver has used - not validated again
+    private final Map<String, CachedModel> currentModels;
+    // models that could not be built completely (or at all) - not shared, since a build may add missing poms
+    private final Map<String, Optional<PomModel>> incompleteModels;
+    private final Set<String> missingPoms;
+
+    public PomModelResolver(LocalRepository repository) {
+        this(new RepositoryModelCache(repository));
+    }
+
+    /**
+     * @param cache - poms and models of the local repository (may be shared with other resolvers)
+     */
+    public PomModelResolver(RepositoryModelCache cache) {
+        this.repository = cache.getRepository();
+        this.cache = cache;
+        this.currentModels = new ConcurrentHashMap<>();
+        this.incompleteModels = new ConcurrentHashMap<>();
+        this.missingPoms = ConcurrentHashMap.newKeySet();
+    }
+
+    public LocalRepository getRepository() {
+        return repository;
+    }
+
+    /**
+     * @return coordinates of poms that could not be found in the local repository
+     */
+    public Set<String> getMissingPoms() {
+        return Collections.unmodifiableSet(missingPoms);
+    }
+
+    /**
+     * Resolve a model for a project pom
+     * @param pom
+     * @param reactor
+     * @return
+     */
+    public PomModel resolve(RawPom pom, Reactor reactor) {
+        PomModel model = reactor.getModel(pom);
+        if (model == null) {
+            model = buildModel(pom, reactor, new Build(new HashSet<>()));
+            reactor.putModel(pom, model);
+        }
+        return model;
+    }
+
+    /**
+     * Resolve a model by coordinates (reactor first, then local repository)
+     * @return model or null if it cannot be found
+     */
+    public PomModel resolve(String groupId, String artifactId, String version, Reactor reactor) {
+        return resolve(groupId, artifactId, version, reactor, new Build(new HashSet<>()));
+    }
+
+    /**
+     * A model being built: the repository models being built (to detect cycles), the repository poms it is built
+     * from, and whether anything it is built from is missing
+     */
+    private static class Build {
+        final Set<String> lineage;
+        final Set<CachedPom> sources = new LinkedHashSet<>();
+        boolean incomplete;
+
+        Build(Set<String> lineage) {
+            this.lineage = lineage;
+        }
+    }
+
+    private PomModel resolve(String groupId, String artifactId, String version, Reactor reactor, Build build) {
+        RawPom reactorPom = (reactor != null) ? reactor.findPom(groupId, artifactId, version) : null;
+        if (reactorPom != null) {
+            return resolve(reactorPom, reactor);
+        }
+
+        String coordinates = String.format("%s:%s:%s", groupId, artifactId, version);
+        CachedModel cachedModel = currentModels.get(coordinates);
+        if (cachedModel == null) {
+            cachedModel = cache.getModel(coordinates);
+            if (cachedModel != null) {
+                currentModels.put(coordinates, cachedModel);
+            }
+        }
+        if (cachedModel != null) {
+            build.sources.addAll(cachedModel.getSources());
+            return cachedModel.getModel();
+        }
+        Optional<PomModel> incomplete = incompleteModels.get(coordinates);
+        if (incomplete != null) {
+            build.incomplete = true;
+            return incomplete.orElse(null);
+        }
+
+        Build modelBuild = new Build(build.lineage);
+        RawPom pom = readRepositoryPom(groupId, artifactId, version, modelBuild);
+        PomModel model = null;
+        if (pom != null && !build.lineage.contains(coordinates)) {
+            model = buildModel(pom, null, modelBuild);
+        } else {
+            modelBuild.incomplete = true;
+        }
+
+        build.sources.addAll(modelBuild.sources);
+        if (modelBuild.incomplete) {
+            build.incomplete = true;
+            incompleteModels.put(coordinates, Optional.ofNullable(model));
+        } else {
+            cachedModel = new CachedModel(model, modelBuild.sources);
+            currentModels.put(coordinates, cachedModel);
+            cache.putModel(coordinates, cachedModel);
+        }
+        return model;
+    }
+
+    private RawPom readRepositoryPom(String groupId, String artifactId, String version, Build build) {
+        String coordinates = String.format("%s:%s:%s", groupId, artifactId, version);
+        CachedPom pom = cache.getPom(coordinates);
+        if (pom == null && !missingPoms.contains(coordinates)) {
+            File pomFile = repository.getPomFile(groupId, artifactId, version);
+            if (pomFile.isFile()) {
+                try {
+                    pom = CachedPom.read(pomFile);
+                } catch (RuntimeException re) {
+                    // treat unreadable poms as missing
+                }
+            }
+            if (pom != null) {
+                cache.putPom(coordinates, pom);
+            } else {
+                missingPoms.add(coordinates);
+            }
+        }
+        if (pom == null) {
+            build.incomplete = true;
+            return null;
+        }
+        build.sources.add(pom);
+        return pom.getPom();
+    }
+
+    private RawPom findParent(RawPom pom, Reactor reactor, Build build) {
+        if (!pom.hasParent()) {
+            return null;
+        }
+
+        // Project poms find their parent via the relative path, when it matches
+        if (reactor != null && pom.getFile() != null && !pom.getParentRelativePath().isBlank()) {
+            File parentFile = new File(pom.getFile().getParentFile(), pom.getParentRelativePath());
+            if (parentFile.isDirectory()) {
+                parentFile = new File(parentFile, "pom.xml");
+            }
+            RawPom parent = reactor.findPom(parentFile);
+            if (parent == null && parentFile.isFile()) {
+                parent = RawPom.from(parentFile);
+            }
+            if (parent != null && pom.getParentArtifactId().equals(parent.getArtifactId())
+                    && pom.getParentGroupId().equals(parent.getGroupId())) {
+                return parent;
+            }
+        }
+
+        RawPom reactorParent = (reactor != null)
+                ? reactor.findPom(pom.getParentGroupId(), pom.getParentArtifactId(), pom.getParentVersion()) : null;
+        if (reactorParent != null) {
+            return reactorParent;
+        }
+        return readRepositoryPom(pom.getParentGroupId(), pom.getParentArtifactId(), pom.getParentVersion(), build);
+    }
+
+    /**
+     * Raw (uninterpolated) content accumulated from the parent hierarchy.  Maven interpolates inherited
+     * declarations in the context of the child, so interpolation happens after assembly.
+     */
+    private static class Assembly {
+        final Map<String, String> properties = new LinkedHashMap<>();
+        final Map<String, PomDependency> managedDependencies = new LinkedHashMap<>();
+        final Map<String, PomDependency> dependencies = new LinkedHashMap<>();
+    }
+
+    private Assembly assemble(RawPom pom, Reactor reactor, Set<String> lineage, Build build) {
+        Assembly assembly = new Assembly();
+        if (!lineage.add(pom.getCoordinates())) {
+            throw new RuntimeException("Circular parent hierarchy detected: " + pom.getCoordinates());
+        }
+        try {
+            RawPom parent = findParent(pom, reactor, build);
+            if (parent != null) {
+                Assembly parentAssembly = assemble(parent, reactor, lineage, build);
+                assembly.properties.putAll(parentAssembly.properties);
+                assembly.managedDependencies.putAll(parentAssembly.managedDependencies);
+                assembly.dependencies.putAll(parentAssembly.dependencies);
+                assembly.properties.put("project.parent.groupId", parent.getGroupId());
+                assembly.properties.put("project.parent.artifactId", parent.getArtifactId());
+                assembly.properties.put("project.parent.version", parent.getVersion());
+                assembly.properties.put("parent.version", parent.getVersion());
+            }
+        } finally {
+            lineage.remove(pom.getCoordinates());
+        }
+
+        assembly.properties.putAll(pom.getProperties());
+        pom.getManagedDependencies().forEach(dependency ->
+                assembly.managedDependencies.put(dependency.getManagementKey(), dependency));
+        pom.getDependencies().forEach(dependency ->
+                assembly.dependencies.put(dependency.getManagementKey(), dependency));
+        return assembly;
+    }
+
+    private PomModel buildModel(RawPom pom, Reactor reactor, Build build) {
+        Assembly assembly = assemble(pom, reactor, new HashSet<>(), build);
+
+        Map<String, String> properties = new LinkedHashMap<>();
+        System.getProperties().forEach((key, value) -> properties.put(key.toString(), value.toString()));
+        properties.putAll(assembly.properties);
+        for (String prefix : new String[] { "project.", "pom.", "" }) {
+            properties.put(prefix + "groupId", pom.getGroupId());
+            properties.put(prefix + "artifactId", pom.getArtifactId());
+            properties.put(prefix + "version", pom.getVersion());
+            properties.put(prefix + "packaging", pom.getPackaging());
+        }
+        if (pom.getFile() != null) {
+            properties.put("project.basedir", pom.getFile().getParentFile().getAbsolutePath());
+            properties.put("basedir", pom.getFile().getParentFile().getAbsolutePath());
+        }
+
+        // dependency management: explicit declarations win over anything imported
+        Map<String, PomDependency> managedDependencies = new LinkedHashMap<>();
+        List<PomDependency> imports = new ArrayList<>();
+        for (PomDependency rawDependency : assembly.managedDependencies.values()) {
+            PomDependency dependency = rawDependency.interpolate(value -> interpolate(value, properties));
+            if (IMPORT_SCOPE.equals(dependency.getScope()) && POM_TYPE.equals(dependency.getType())) {
+                imports.add(dependency);
+            } else {
+                managedDependencies.put(dependency.getManagementKey(), dependency);
+            }
+        }
+        build.lineage.add(pom.getCoordinates());
+        try {
+            for (PomDependency bom : imports) {
+                PomModel bomModel = resolve(bom.getGroupId(), bom.getArtifactId(),
+                        resolveVersion(bom.getGroupId(), bom.getArtifactId(), bom.getVersion()), reactor, build);
+                if (bomModel != null) {
+                    bomModel.getManagedDependencies().forEach(managedDependencies::putIfAbsent);
+                }
+            }
+        } finally {
+            build.lineage.remove(pom.getCoordinates());
+        }
+
+        List<PomDependency> dependencies = new ArrayList<>(assembly.dependencies.size());
+        for (PomDependency rawDependency : assembly.dependencies.values()) {
+            PomDependency dependency = rawDependency.interpolate(value -> interpolate(value, properties));
+            dependency = dependency.withManagement(managedDependencies.get(dependency.getManagementKey()));
+            dependencies.add(dependency);
+        }
+
+        return new PomModel(pom.getGroupId(), pom.getArtifactId(), pom.getVersion(), pom.getPackaging(),
+                properties, managedDependencies, dependencies);
+    }
+
+    /**
+     * @return the version to use (resolving version ranges against the local repository)
+     */
+    public String resolveVersion(String groupId, String artifactId, String version) {
+        if (LocalRepository.isVersionRange(version)) {
+            return repository.resolveVersionRange(groupId, artifactId, version);
+        }
+        return version;
+    }
+
+    /**
+     * Replace ${...} expressions (including nested and composite expressions) with property values.
+     * Unknown expressions are left in place.
+     * @param value
+     * @param properties
+     * @return
+     */
+    public static String interpolate(String value, Map<String, String> properties) {
+        if (value == null || !value.contains("${")) {
+            return value;
+        }
+
+        String result = value;
+        for (int depth = 0; depth < MAX_INTERPOLATION_DEPTH && result.contains("${"); depth++) {
+            Matcher matcher = EXPRESSION.matcher(result);
+            StringBuilder sb = new StringBuilder();
+            boolean replaced = false;
+            while (matcher.find()) {
+                String replacement = properties.get(matcher.group(1));
+                if (replacement != null) {
+                    replaced = true;
+                }
+                matcher.appendReplacement(sb, Matcher.quoteReplacement(
+                        (replacement != null) ? replacement : matcher.group()));
+            }
+            matcher.appendTail(sb);
+            result = sb.toString();
+            if (!replaced) {
+                break;
+            }
+        }
+        return result;
+    }
+}
@@ -0,0 +1,232 @@
+package com.unhuman.dependencyangel.resolution;
+
+import org.w3c.dom.Document;
+import org.w3c.dom.Element;
+import org.w3c.dom.Node;
+import org.w3c.dom.NodeList;
+
+import javax.xml.parsers.DocumentBuilderFactory;
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The content of a single pom file, without inheritance or interpolation applied.
+ */
+public class RawPom {
+    private static final String DEFAULT_RELATIVE_PATH = "../pom.xml";
+    private static final String DEFAULT_PACKAGING = "jar";
+
+    private final File file;
+    private String groupId;
+    private String artifactId;
+    private String version;
+    private String packaging;
+    private String parentGroupId;
+    private String parentArtifactId;
+    private String parentVersion;
+    private String parentRelativePath;
+    private final Map<String, String> properties;
+    private final List<PomDependency> managedDependencies;
+    private final List<PomDependency> dependencies;
+    private final List<String> modules;
+
+    private RawPom(File file) {
+        this.file = file;
+        this.properties = new LinkedHashMap<>();
+        this.managedDependencies = new ArrayList<>();
+        this.dependencies = new ArrayList<>();
+        this.modules = new ArrayList<>();
+    }
+
+    public static RawPom from(File file) {
+        try {
+            DocumentBuilderFactory factory = DocumentBuilderFactory.newInstance();
+            Document document = factory.newDocumentBuilder().parse(file);
+            return from(file, document);
+        } catch (Exception e) {
+            throw new RuntimeException("Problem reading pom file: " + file, e);
+        }
+    }
+
+    public static RawPom from(File file, Document document) {
+        RawPom pom = new RawPom(file);
+        Element project = document.getDocumentElement();
+        if (!"project".equals(project.getNodeName())) {
+            throw new RuntimeException("Could not find project node: " + file);
+        }
+
+        Element parent = getChild(project, "parent");
+        if (parent != null) {
+            pom.parentGroupId = getChildText(parent, "groupId");
+            pom.parentArtifactId = getChildText(parent, "artifactId");
+            pom.parentVersion = getChildText(parent, "version");
+            pom.parentRelativePath = getChildText(parent, "relativePath");
+            if (pom.parentRelativePath == null) {
+                pom.parentRelativePath = DEFAULT_RELATIVE_PATH;
+            }
+        }
+
+        pom.groupId = getChildText(project, "groupId");
+        if (pom.groupId == null) {
+            pom.groupId = pom.parentGroupId;
+        }
+        pom.artifactId = getChildText(project, "artifactId");
+        pom.version = getChildText(project, "version");
+        if (pom.version == null) {
+            pom.version = pom.parentVersion;
+        }
+        pom.packaging = getChildText(project, "packaging");
+        if (pom.packaging == null) {
+            pom.packaging = DEFAULT_PACKAGING;
+        }
+
+        Element propertiesElement = getChild(project, "properties");
+        if (propertiesElement != null) {
+            for (Element property : getChildren(propertiesElement, null)) {
+                pom.properties.put(property.getNodeName(), property.getTextContent().trim());
+            }
+        }
+
+        Element dependencyManagement = getChild(project, "dependencyManagement");
+        if (dependencyManagement != null) {
+            pom.managedDependencies.addAll(readDependencies(getChild(dependencyManagement, "dependencies")));
+        }
+        pom.dependencies.addAll(readDependencies(getChild(project, "dependencies")));
+
+        readModules(pom, project);
+        // modules may also be declared in profiles
+        Element profilesElement = getChild(project, "profiles");
+        if (profilesElement != null) {
+            for (Element profile : getChildren(profilesElement, "profile")) {
+                readModules(pom, profile);
+            }
+        }
+
+        return pom;
+    }
+
+    private static void readModules(RawPom pom, Element parent) {
+        Element modulesElement = getChild(parent, "modules");
+        if (modulesElement != null) {
+            for (Element module : getChildren(modulesElement, "module")) {
+                String moduleName = module.getTextContent().trim();
+                if (!pom.modules.contains(moduleName)) {
+                    pom.modules.add(moduleName);
+                }
+            }
+        }
+    }
+
+    private static List<PomDependency> readDependencies(Element dependenciesElement) {
+        List<PomDependency> dependencies = new ArrayList<>();
+        if (dependenciesElement == null) {
+            return dependencies;
+        }
+        for (Element dependency : getChildren(dependenciesElement, "dependency")) {
+            List<String> exclusions = new ArrayList<>();
+            Element exclusionsElement = getChild(dependency, "exclusions");
+            if (exclusionsElement != null) {
+                for (Element exclusion : getChildren(exclusionsElement, "exclusion")) {
+                    exclusions.add(String.format("%s:%s",
+                            getChildText(exclusion, "groupId"), getChildText(exclusion, "artifactId")));
+                }
+            }
+            dependencies.add(new PomDependency(getChildText(dependency, "groupId"),
+                    getChildText(dependency, "artifactId"), getChildText(dependency, "version"),
+                    getChildText(dependency, "type"), getChildText(dependency, "classifier"),
+                    getChildText(dependency, "scope"), Boolean.parseBoolean(getChildText(dependency, "optional")),
+                    exclusions));
+        }
+        return dependencies;
+    }
+
+    private static List<Element> getChildren(Element parent, String name) {
+        List<Element> children = new ArrayList<>();
+        NodeList childNodes = parent.getChildNodes();
+        for (int i = 0; i < childNodes.getLength(); i++) {
+            Node child = childNodes.item(i);
+            if (child.getNodeType() == Node.ELEMENT_NODE && (name == null || name.equals(child.getNodeName()))) {
+                children.add((Element) child);
+            }
+        }
+        return children;
+    }
+
+    private static Element getChild(Element parent, String name) {
+        List<Element> children = getChildren(parent, name);
+        return (children.size() > 0) ? children.get(0) : null;
+    }
+
+    private static String getChildText(Element parent, String name) {
+        Element child = getChild(parent, name);
+        if (child == null) {
+            return null;
+        }
+        String text = child.getTextContent().trim();
+        return (text.isEmpty()) ? null : text;
+    }
+
+    public File getFile() {
+        return file;
+    }
+
+    public String getGroupId() {
+        return groupId;
+    }
+
+    public String getArtifactId() {
+        return artifactId;
+    }
+
+    public String getVersion() {
+        return version;
+    }
+
+    public String getPackaging() {
+        return packaging;
+    }
+
+    public boolean hasParent() {
+        return parentArtifactId != null;
+    }
+
+    public String getParentGroupId() {
+        return parentGroupId;
+    }
+
+    public String getParentArtifactId() {
+        return parentArtifactId;
+    }
+
+    public String getParentVersion() {
+        return parentVersion;
+    }
+
+    public String getParentRelativePath() {
+        return parentRelativePath;
+    }
+
+    public Map<String, String> getProperties() {
+        return Collections.unmodifiableMap(properties);
+    }
+
+    public List<PomDependency> getManagedDependencies() {
+        return Collections.unmodifiableList(managedDependencies);
+    }
+
+    public List<PomDependency> getDependencies() {
+        return Collections.unmodifiableList(dependencies);
+    }
+
+    public List<String> getModules() {
+        return Collections.unmodifiableList(modules);
+    }
+
+    public String getCoordinates() {
+        return String.format("%s:%s:%s", groupId, artifactId, version);
+    }
+}
@@ -0,0 +1,189 @@
+package com.unhuman.dependencyangel.resolution;
+
+import com.unhuman.dependencyangel.dependency.ArtifactHelper;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * The artifacts each dependency of a project brings in transitively - ignoring the exclusions the project
+ * declares (on the dependency or in its dependencyManagement), so an exclusion that matches none of them has
+ * no effect and can be removed.  The project's dependencyManagement still forces transitive versions.
+ *
+ * Conservative: every version of an artifact found is followed, and when any part of a dependency's graph
+ * cannot be resolved (ex: poms missing from the local repository) nothing is considered unreachable.
+ */
+public class ReachableArtifacts {
+    private static final Set<String> NON_TRANSITIVE_SCOPES = Set.of("test", "provided", "system");
+
+    private final PomModelResolver resolver;
+    private final Reactor reactor;
+    private final PomModel project;
+    // groupId:artifactId of a project dependency -> artifacts it brings in (empty if unknown)
+    private final Map<String, Optional<Set<String>>> reachable = new HashMap<>();
+
+    public ReachableArtifacts(PomModelResolver resolver, Reactor reactor, PomModel project) {
+        this.resolver = resolver;
+        this.reactor = reactor;
+        this.project = project;
+    }
+
+    /**
+     * @param groupId - groupId of a dependency (or managed dependency) of the project
+     * @param artifactId - artifactId of the dependency
+     * @param exclusion - groupId:artifactId (either may be a * wildcard)
+     * @return true if the dependency brings in nothing matching the exclusion
+     */
+    public boolean isUnreachable(String groupId, String artifactId, String exclusion) {
+        Optional<Set<String>> artifacts = reachable.computeIfAbsent(
+                ArtifactHelper.getArtifactIdGroupIdString(groupId, artifactId),
+                key -> Optional.ofNullable(findReachable(groupId, artifactId)));
+        if (artifacts.isEmpty()) {
+            return false;
+        }
+
+        if (artifacts.get().contains(exclusion)) {
+            return false;
+        }
+        for (String artifact : artifacts.get()) {
+            String[] parts = artifact.split(":", 2);
+            if (PomDependency.isExcludedBy(exclusion, parts[0], parts[1])) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static class Pending {
+        final String groupId;
+        final String artifactId;
+        final String version;
+        final Set<String> exclusions;
+
+        Pending(String groupId, String artifactId, String version, Set<String> exclusions) {
+            this.groupId = groupId;
+            this.artifactId = artifactId;
+            this.version = version;
+            this.exclusions = exclusions;
+        }
+    }
+
+    /**
+     * @return groupId:artifactIds below the dependency, or null if they cannot all be determined
+     */
+    private Set<String> findReachable(String groupId, String artifactId) {
+        Deque<Pending> pending = new ArrayDeque<>();
+        for (PomDependency declaration : findDeclarations(groupId, artifactId)) {
+            String version = resolveVersion(declaration);
+            if (version == null) {
+                return null;
+            }
+            // the dependency's own exclusions are what is being checked
+            pending.add(new Pending(groupId, artifactId, version, Set.of()));
+        }
+        if (pending.isEmpty()) {
+            return null;
+        }
+
+        Set<String> artifacts = new HashSet<>();
+        // groupId:artifactId:version -> exclusions in effect when it was (last) followed
+        Map<String, Set<String>> followed = new HashMap<>();
+        while (!pending.isEmpty()) {
+            Pending current = pending.removeFirst();
+            String coordinates = String.format("%s:%s:%s", current.groupId, current.artifactId, current.version);
+            Set<String> exclusions = current.exclusions;
+            Set<String> previous = followed.get(coordinates);
+            if (previous != null) {
+                if (exclusions.containsAll(previous)) {
+                    // already followed with no more exclusions - nothing new can be reached
+                    continue;
+                }
+                // follow again with only the exclusions common to both paths
+                exclusions = new HashSet<>(exclusions);
+                exclusions.retainAll(previous);
+            }
+            followed.put(coordinates, exclusions);
+
+            PomModel model = resolver.resolve(current.groupId, current.artifactId, current.version, reactor);
+            if (model == null) {
+                return null;
+            }
+
+            for (PomDependency declaration : model.getDependencies()) {
+                if (declaration.isOptional() || NON_TRANSITIVE_SCOPES.contains(declaration.getEffectiveScope())
+                        || isExcluded(declaration, exclusions)) {
+                    continue;
+                }
+
+                // versions are forced by the project's dependencyManagement (but its exclusions are ignored)
+                PomDependency managed = project.getManagedDependency(declaration);
+                if (managed != null && managed.getVersion() != null) {
+                    declaration = new PomDependency(declaration.getGroupId(), declaration.getArtifactId(),
+                            managed.getVersion(), declaration.getType(), declaration.getClassifier(),
+                            declaration.getScope(), false, declaration.getExclusions());
+                }
+                String version = resolveVersion(declaration);
+                if (version == null) {
+                    return null;
+                }
+
+                artifacts.add(ArtifactHelper.getArtifactIdGroupIdString(declaration.getGroupId(),
+                        declaration.getArtifactId()));
+                Set<String> childExclusions = exclusions;
+                if (!declaration.getExclusions().isEmpty()) {
+                    childExclusions = new HashSet<>(exclusions);
+                    childExclusions.addAll(declaration.getExclusions());
+                }
+                pending.addLast(new Pending(declaration.getGroupId(), declaration.getArtifactId(), version,
+                        childExclusions));
+            }
+        }
+        return artifacts;
+    }
+
+    /**
+     * @return the project's declarations (dependencies and managed dependencies) of groupId:artifactId
+     */
+    private List<PomDependency> findDeclarations(String groupId, String artifactId) {
+        List<PomDependency> declarations = new ArrayList<>();
+        for (PomDependency dependency : project.getDependencies()) {
+            if (dependency.getGroupId().equals(groupId) && dependency.getArtifactId().equals(artifactId)) {
+                declarations.add(dependency);
+            }
+        }
+        for (PomDependency dependency : project.getManagedDependencies().values()) {
+            if (dependency.getGroupId().equals(groupId) && dependency.getArtifactId().equals(artifactId)) {
+                declarations.add(dependency);
+            }
+        }
+        return declarations;
+    }
+
+    /**
+     * @return the version (ranges resolved), or null if it is not known
+     */
+    private String resolveVersion(PomDependency declaration) {
+        if (declaration.getVersion() == null) {
+            return null;
+        }
+        String version = resolver.resolveVersion(declaration.getGroupId(), declaration.getArtifactId(),
+                declaration.getVersion());
+        return (version == null || version.contains("${")) ? null : version;
+    }
+
+    private static boolean isExcluded(PomDependency declaration, Set<String> exclusions) {
+        for (String exclusion : exclusions) {
+            if (declaration.isExcludedBy(exclusion)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,61 @@
+package com.unhuman.dependencyangel.resolution;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The pom files of the project being processed.  These take precedence over the local repository
+ * and, since they change between iterations, their models are never cached beyond this instance.
+ */
+public class Reactor {
+    private final List<RawPom> poms;
+    private final Map<String, RawPom> pomsByCoordinates;
+    private final Map<File, RawPom> pomsByFile;
+    private final Map<String, PomModel> models;
+
+    public Reactor(List<File> pomFiles) {
+        poms = new ArrayList<>(pomFiles.size());
+        pomsByCoordinates = new HashMap<>();
+        pomsByFile = new HashMap<>();
+        models = new HashMap<>();
+        for (File pomFile : pomFiles) {
+            RawPom pom = RawPom.from(pomFile);
+            poms.add(pom);
+            pomsByCoordinates.put(pom.getCoordinates(), pom);
+            pomsByFile.put(canonical(pomFile), pom);
+        }
+    }
+
+    public List<RawPom> getPoms() {
+        return Collections.unmodifiableList(poms);
+    }
+
+    RawPom findPom(String groupId, String artifactId, String version) {
+        return pomsByCoordinates.get(String.format("%s:%s:%s", groupId, artifactId, version));
+    }
+
+    public RawPom findPom(File pomFile) {
+        return pomsByFile.get(canonical(pomFile));
+    }
+
+    PomModel getModel(RawPom pom) {
+        return models.get(pom.getCoordinates());
+    }
+
+    void putModel(RawPom pom, PomModel model) {
+        models.put(pom.getCoordinates(), model);
+    }
+
+    private static File canonical(File file) {
+        try {
+            return file.getCanonicalFile();
+        } catch (IOException e) {
+            return file.getAbsoluteFile();
+        }
+    }
+}
@@ -0,0 +1,137 @@
+package com.unhuman.dependencyangel.resolution;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Poms read from a local repository, and the models built from them, that can be shared by resolvers.
+ * Only what was found is kept: a pom missing from the repository may be downloaded by a later build, so each
+ * resolver tracks its own missing poms (and the models built without them).
+ * Poms in the repository may also be replaced (ex: a SNAPSHOT or parent is installed again), so poms are
+ * validated against their file's modification time and size, and models against every pom they were built from.
+ *
+ * May be used from multiple threads.
+ */
+public class RepositoryModelCache {
+    private final LocalRepository repository;
+    // groupId:artifactId:version -> pom / complete model
+    private final Map<String, CachedPom> poms = new ConcurrentHashMap<>();
+    private final Map<String, CachedModel> models = new ConcurrentHashMap<>();
+
+    public RepositoryModelCache(LocalRepository repository) {
+        this.repository = repository;
+    }
+
+    public LocalRepository getRepository() {
+        return repository;
+    }
+
+    /**
+     * @return number of models cached
+     */
+    public int getModelCount() {
+        return models.size();
+    }
+
+    /**
+     * @return the pom, or null if it isn't cached or its file has changed since it was read
+     */
+    CachedPom getPom(String coordinates) {
+        CachedPom pom = poms.get(coordinates);
+        if (pom != null && !pom.isCurrent()) {
+            poms.remove(coordinates, pom);
+            return null;
+        }
+        return pom;
+    }
+
+    void putPom(String coordinates, CachedPom pom) {
+        poms.put(coordinates, pom);
+    }
+
+    /**
+     * @return the model, or null if it isn't cached or any pom it was built from has changed
+     */
+    CachedModel getModel(String coordinates) {
+        CachedModel model = models.get(coordinates);
+        if (model != null && !model.isCurrent()) {
+            models.remove(coordinates, model);
+            return null;
+        }
+        return model;
+    }
+
+    void putModel(String coordinates, CachedModel model) {
+        models.put(coordinates, model);
+    }
+
+    /**
+     * A repository pom, with the state of its file when it was read
+     */
+    static class CachedPom {
+        private final RawPom pom;
+        private final File file;
+        private final long lastModified;
+        private final long length;
+
+        private CachedPom(RawPom pom, File file, long lastModified, long length) {
+            this.pom = pom;
+            this.file = file;
+            this.lastModified = lastModified;
+            this.length = length;
+        }
+
+        /**
+         * @throws RuntimeException if the pom cannot be read
+         */
+        static CachedPom read(File file) {
+            // stamped before reading, so a change while it is read is seen as a change
+            long lastModified = file.lastModified();
+            long length = file.length();
+            return new CachedPom(RawPom.from(file), file, lastModified, length);
+        }
+
+        RawPom getPom() {
+            return pom;
+        }
+
+        boolean isCurrent() {
+            return file.lastModified() == lastModified && file.length() == length;
+        }
+    }
+
+    /**
+     * A model, with the repository poms it was built from (its own, parents and imported BOMs)
+     */
+    static class CachedModel {
+        private final PomModel model;
+        private final List<CachedPom> sources;
+
+        CachedModel(PomModel model, Collection<CachedPom> sources) {
+            this.model = model;
+            this.sources = Collections.unmodifiableList(new ArrayList<>(sources));
+        }
+
+        PomModel getModel() {
+            return model;
+        }
+
+        List<CachedPom> getSources() {
+            return sources;
+        }
+
+        boolean isCurrent() {
+            for (CachedPom source : sources) {
+                if (!source.isCurrent()) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+}
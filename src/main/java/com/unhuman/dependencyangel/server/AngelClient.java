@@ -0,0 +1,70 @@
+package com.unhuman.dependencyangel.server;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.Socket;
+
+/**
+ * Thin client for AngelServer: forwards its arguments (the DependencyAngel arguments) and working directory
+ * to the server, relays the run's output and exits with the run's status.
+ *
+ * The port is set with -DdependencyAngel.port=<port> (default AngelServer.DEFAULT_PORT).
+ */
+public class AngelClient {
+    public static final String PORT_PROPERTY = "dependencyAngel.port";
+
+    private AngelClient() { }
+
+    /**
+     * Request a run
+     * @param port - port of the server
+     * @param workingDirectory - directory relative paths in the arguments are relative to
+     * @param args - DependencyAngel arguments
+     * @param out - receives the run's standard output
+     * @param err - receives the run's error output
+     * @return exit status of the run
+     */
+    public static int run(int port, File workingDirectory, String[] args, OutputStream out, OutputStream err)
+            throws IOException {
+        try (Socket socket = new Socket(InetAddress.getLoopbackAddress(), port)) {
+            DataOutputStream request = new DataOutputStream(new BufferedOutputStream(socket.getOutputStream()));
+            request.writeUTF(workingDirectory.getAbsolutePath());
+            request.writeInt(args.length);
+            for (String arg : args) {
+                request.writeUTF(arg);
+            }
+            request.flush();
+
+            DataInputStream response = new DataInputStream(new BufferedInputStream(socket.getInputStream()));
+            while (true) {
+                byte type = response.readByte();
+                if (type == AngelServer.EXIT) {
+                    return response.readInt();
+                }
+
+                byte[] data = new byte[response.readInt()];
+                response.readFully(data);
+                OutputStream target = (type == AngelServer.ERROR) ? err : out;
+                target.write(data);
+                target.flush();
+            }
+        }
+    }
+
+    public static void main(String[] args) {
+        int port = Integer.getInteger(PORT_PROPERTY, AngelServer.DEFAULT_PORT);
+        try {
+            System.exit(run(port, new File(System.getProperty("user.dir")), args, System.out, System.err));
+        } catch (IOException ioe) {
+            System.err.println(String.format("Error: No Dependency Angel server on port %d: %s", port,
+                    ioe.getMessage()));
+            System.exit(-1);
+        }
+    }
+}
@@ -0,0 +1,331 @@
+package com.unhuman.dependencyangel.server;
+
+import com.unhuman.dependencyangel.DependencyAngel;
+import com.unhuman.dependencyangel.DependencyAngelConfig;
+import com.unhuman.dependencyangel.exceptions.AngelException;
+import com.unhuman.dependencyangel.session.AngelCaches;
+import com.unhuman.dependencyangel.session.AngelSession;
+import net.sourceforge.argparse4j.ArgumentParsers;
+import net.sourceforge.argparse4j.inf.ArgumentParser;
+import net.sourceforge.argparse4j.inf.ArgumentParserException;
+import net.sourceforge.argparse4j.inf.Namespace;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.util.Collections;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Long-running Dependency Angel: performs runs requested by AngelClient on a pool of workers, so runs don't
+ * pay for JVM startup, class loading or JIT compilation, and share warm caches (see AngelCaches).
+ *
+ * Listens on the loopback interface only.  Each connection is one request:
+ *   request:  working directory (UTF), argument count (int), arguments (UTF each) - the DependencyAngel arguments
+ *   response: OUTPUT / ERROR frames (length (int), bytes) with the run's console output, then EXIT (status (int))
+ *
+ * Runs cannot prompt (-s is required), and a project is only processed by one run at a time.
+ */
+public class AngelServer implements Closeable {
+    public static final int DEFAULT_PORT = 7273;
+    public static final int DEFAULT_WORKERS = 2;
+    // reading a request (not performing it) - a connection that never sends one must not hold a worker
+    static final int DEFAULT_REQUEST_TIMEOUT_MILLIS = 10_000;
+    static final byte OUTPUT = 1;
+    static final byte ERROR = 2;
+    static final byte EXIT = 3;
+
+    private final ServerSocket serverSocket;
+    private final ExecutorService workers;
+    private final int requestTimeoutMillis;
+    private final Thread acceptThread;
+    private final AngelCaches caches = new AngelCaches();
+    // canonical paths of the projects being processed
+    private final Set<String> activeDirectories = ConcurrentHashMap.newKeySet();
+    private final PrintStream originalOut;
+    private final PrintStream originalErr;
+    private final SessionPrintStream sessionOut;
+    private final SessionPrintStream sessionErr;
+
+    /**
+     * Start the server
+     * @param port - port to listen on (0 for any free port)
+     * @param workerCount - maximum concurrent runs (further requests wait)
+     */
+    public AngelServer(int port, int workerCount) throws IOException {
+        this(port, workerCount, DEFAULT_REQUEST_TIMEOUT_MILLIS);
+    }
+
+    /**
+     * Start the server
+     * @param port - port to listen on (0 for any free port)
+     * @param workerCount - maximum concurrent runs (further requests wait)
+     * @param requestTimeoutMillis - time allowed to receive a request
+     */
+    AngelServer(int port, int workerCount, int requestTimeoutMillis) throws IOException {
+        this.requestTimeoutMillis = requestTimeoutMillis;
+        serverSocket = new ServerSocket(port, 50, InetAddress.getLoopbackAddress());
+
+        AtomicInteger threadCounter = new AtomicInteger();
+        workers = Executors.newFixedThreadPool(workerCount, runnable -> {
+            Thread thread = new Thread(runnable, "angel-worker-" + threadCounter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        // Route each run's console output to its client
+        originalOut = System.out;
+        originalErr = System.err;
+        sessionOut = new SessionPrintStream(originalOut);
+        sessionErr = new SessionPrintStream(originalErr);
+        System.setOut(sessionOut);
+        System.setErr(sessionErr);
+
+        acceptThread = new Thread(this::acceptRequests, "angel-server");
+        acceptThread.start();
+    }
+
+    public int getPort() {
+        return serverSocket.getLocalPort();
+    }
+
+    public AngelCaches getCaches() {
+        return caches;
+    }
+
+    /**
+     * Wait until the server is closed
+     */
+    public void awaitClose() throws InterruptedException {
+        acceptThread.join();
+    }
+
+    /**
+     * Stop accepting requests and wait for runs in progress to complete
+     */
+    @Override
+    public void close() throws IOException {
+        serverSocket.close();
+        workers.shutdown();
+        try {
+            workers.awaitTermination(Long.MAX_VALUE, TimeUnit.MILLISECONDS);
+            acceptThread.join();
+        } catch (InterruptedException ie) {
+            Thread.currentThread().interrupt();
+        } finally {
+            System.setOut(originalOut);
+            System.setErr(originalErr);
+        }
+    }
+
+    private void acceptRequests() {
+        while (!serverSocket.isClosed()) {
+            Socket socket;
+            try {
+                socket = serverSocket.accept();
+            } catch (IOException ioe) {
+                if (!serverSocket.isClosed()) {
+                    originalErr.println("Could not accept request: " + ioe.getMessage());
+                }
+                continue;
+            }
+
+            try {
+                workers.execute(() -> handleRequest(socket));
+            } catch (RejectedExecutionException ree) {
+                // closing
+                closeQuietly(socket);
+            }
+        }
+    }
+
+    private void handleRequest(Socket socket) {
+        try (Socket requestSocket = socket) {
+            requestSocket.setSoTimeout(requestTimeoutMillis);
+            DataInputStream request = new DataInputStream(new BufferedInputStream(requestSocket.getInputStream()));
+            File workingDirectory = new File(request.readUTF());
+            String[] args = new String[request.readInt()];
+            for (int i = 0; i < args.length; i++) {
+                args[i] = request.readUTF();
+            }
+            // runs may take a long time
+            requestSocket.setSoTimeout(0);
+
+            Response response = new Response(requestSocket.getOutputStream());
+            response.exit(run(workingDirectory, args, response));
+        } catch (IOException ioe) {
+            originalErr.println("Request failed: " + ioe.getMessage());
+        }
+    }
+
+    /**
+     * Perform a run, with its output sent to the response
+     * @return exit status (as the command line would exit)
+     */
+    private int run(File workingDirectory, String[] args, Response response) {
+        // output from before the run's session exists (ex: argument errors)
+        AngelSession requestSession = caches.createSession(Collections.emptySet());
+        register(requestSession, response);
+        try (AngelSession.Scope scope = requestSession.enter()) {
+            return performRun(workingDirectory, args, response);
+        } finally {
+            unregister(requestSession);
+        }
+    }
+
+    private int performRun(File workingDirectory, String[] args, Response response) {
+        try {
+            DependencyAngelConfig config;
+            try {
+                config = new DependencyAngelConfig(args, workingDirectory);
+            } catch (ArgumentParserException e) {
+                e.getParser().handleError(e);
+                return 1;
+            }
+
+            if (!config.isSkipPrompts()) {
+                throw new AngelException("Runs on the server cannot prompt", null,
+                        "Specify -s (--skipPrompts) to run on the server");
+            }
+
+            String directory = new File(config.getDirectory()).getCanonicalPath();
+            if (!activeDirectories.add(directory)) {
+                throw new AngelException("Project is already being processed", directory, null);
+            }
+
+            AngelSession session = caches.createSession(config.getNonSemanticVersioning());
+            register(session, response);
+            try {
+                DependencyAngel.run(config, session);
+                return 0;
+            } finally {
+                unregister(session);
+                activeDirectories.remove(directory);
+            }
+        } catch (AngelException ae) {
+            System.err.println(ae.getMessage());
+            return -1;
+        } catch (Exception e) {
+            System.err.println("Error: " + e.getMessage());
+            e.printStackTrace(System.err);
+            return -1;
+        }
+    }
+
+    private void register(AngelSession session, Response response) {
+        // each session has its own print streams, so writing to one client never holds a lock shared by others
+        sessionOut.register(session, new PrintStream(response.getStream(OUTPUT), true));
+        sessionErr.register(session, new PrintStream(response.getStream(ERROR), true));
+    }
+
+    private void unregister(AngelSession session) {
+        sessionOut.unregister(session);
+        sessionErr.unregister(session);
+    }
+
+    private static void closeQuietly(Socket socket) {
+        try {
+            socket.close();
+        } catch (IOException ioe) {
+            // nothing to do
+        }
+    }
+
+    /**
+     * Response to a client - frames may be written from any of the run's threads
+     */
+    private static class Response {
+        private final DataOutputStream stream;
+
+        Response(OutputStream stream) {
+            this.stream = new DataOutputStream(new BufferedOutputStream(stream));
+        }
+
+        synchronized void write(byte type, byte[] bytes, int offset, int length) throws IOException {
+            stream.writeByte(type);
+            stream.writeInt(length);
+            stream.write(bytes, offset, length);
+        }
+
+        synchronized void flush() throws IOException {
+            stream.flush();
+        }
+
+        synchronized void exit(int status) throws IOException {
+            stream.writeByte(EXIT);
+            stream.writeInt(status);
+            stream.flush();
+        }
+
+        OutputStream getStream(byte type) {
+            return new OutputStream() {
+                @Override
+                public void write(int b) throws IOException {
+                    write(new byte[] { (byte) b }, 0, 1);
+                }
+
+                @Override
+                public void write(byte[] bytes, int offset, int length) throws IOException {
+                    Response.this.write(type, bytes, offset, length);
+                }
+
+                @Override
+                public void flush() throws IOException {
+                    Response.this.flush();
+                }
+            };
+        }
+    }
+
+    public static void main(String[] args) {
+        ArgumentParser parser = ArgumentParsers.newFor(AngelServer.class.getSimpleName()).build()
+                .defaultHelp(true)
+                .description("Dependency Angel server - performs runs requested by " +
+                        AngelClient.class.getSimpleName() + " with warm caches.");
+        parser.addArgument("-p", "--port")
+                .type(Integer.class)
+                .required(false)
+                .setDefault(DEFAULT_PORT)
+                .help("Port to listen on (loopback interface only).");
+        parser.addArgument("-w", "--workers")
+                .type(Integer.class)
+                .required(false)
+                .setDefault(DEFAULT_WORKERS)
+                .help("Maximum concurrent runs (further requests wait).");
+        try {
+            Namespace ns = parser.parseArgs(args);
+            AngelServer server = new AngelServer(ns.getInt("port"), ns.getInt("workers"));
+            Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+                try {
+                    server.close();
+                } catch (IOException ioe) {
+                    // exiting
+                }
+            }));
+            System.out.println(String.format("Dependency Angel server listening on port %d (%d workers)",
+                    server.getPort(), ns.getInt("workers")));
+            server.awaitClose();
+        } catch (ArgumentParserException e) {
+            parser.handleError(e);
+            System.exit(1);
+        } catch (Exception e) {
+            System.err.println("Error: " + e.getMessage());
+            System.exit(-1);
+        }
+    }
+}
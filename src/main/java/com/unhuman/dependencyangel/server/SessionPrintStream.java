@@ -0,0 +1,212 @@
+package com.unhuman.dependencyangel.server;
+
+import com.unhuman.dependencyangel.session.AngelSession;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Console stream (System.out or System.err) shared by concurrent sessions: output written in a session that
+ * has a target goes to that target, other output goes to the original stream.  Since sessions follow their
+ * work onto other threads (see ParallelTasks, StreamPump), all of a run's output reaches its target.
+ *
+ * Every call is passed on to the target without locking this stream, so a run whose client is slow to read its
+ * output only blocks (on its own target) the threads writing that run's output.
+ */
+class SessionPrintStream extends PrintStream {
+    private final PrintStream fallback;
+    private final Map<AngelSession, PrintStream> targets = new ConcurrentHashMap<>();
+
+    SessionPrintStream(PrintStream fallback) {
+        super(fallback, true);
+        this.fallback = fallback;
+    }
+
+    void register(AngelSession session, PrintStream target) {
+        targets.put(session, target);
+    }
+
+    void unregister(AngelSession session) {
+        PrintStream target = targets.remove(session);
+        if (target != null) {
+            target.flush();
+        }
+    }
+
+    private PrintStream getTarget() {
+        AngelSession session = AngelSession.findCurrent();
+        PrintStream target = (session != null) ? targets.get(session) : null;
+        return (target != null) ? target : fallback;
+    }
+
+    @Override
+    public void write(int b) {
+        getTarget().write(b);
+    }
+
+    @Override
+    public void write(byte[] bytes) throws IOException {
+        getTarget().write(bytes);
+    }
+
+    @Override
+    public void write(byte[] bytes, int offset, int length) {
+        getTarget().write(bytes, offset, length);
+    }
+
+    @Override
+    public void flush() {
+        getTarget().flush();
+    }
+
+    @Override
+    public void close() {
+        // shared by every session - the targets are closed by their owners
+        flush();
+    }
+
+    @Override
+    public boolean checkError() {
+        return getTarget().checkError();
+    }
+
+    @Override
+    public void print(boolean b) {
+        getTarget().print(b);
+    }
+
+    @Override
+    public void print(char c) {
+        getTarget().print(c);
+    }
+
+    @Override
+    public void print(int i) {
+        getTarget().print(i);
+    }
+
+    @Override
+    public void print(long l) {
+        getTarget().print(l);
+    }
+
+    @Override
+    public void print(float f) {
+        getTarget().print(f);
+    }
+
+    @Override
+    public void print(double d) {
+        getTarget().print(d);
+    }
+
+    @Override
+    public void print(char[] s) {
+        getTarget().print(s);
+    }
+
+    @Override
+    public void print(String s) {
+        getTarget().print(s);
+    }
+
+    @Override
+    public void print(Object obj) {
+        getTarget().print(obj);
+    }
+
+    @Override
+    public void println() {
+        getTarget().println();
+    }
+
+    @Override
+    public void println(boolean x) {
+        getTarget().println(x);
+    }
+
+    @Override
+    public void println(char x) {
+        getTarget().println(x);
+    }
+
+    @Override
+    public void println(int x) {
+        getTarget().println(x);
+    }
+
+    @Override
+    public void println(long x) {
+        getTarget().println(x);
+    }
+
+    @Override
+    public void println(float x) {
+        getTarget().println(x);
+    }
+
+    @Override
+    public void println(double x) {
+        getTarget().println(x);
+    }
+
+    @Override
+    public void println(char[] x) {
+        getTarget().println(x);
+    }
+
+    @Override
+    public void println(String x) {
+        getTarget().println(x);
+    }
+
+    @Override
+    public void println(Object x) {
+        getTarget().println(x);
+    }
+
+    @Override
+    public PrintStream printf(String format, Object... args) {
+        getTarget().printf(format, args);
+        return this;
+    }
+
+    @Override
+    public PrintStream printf(Locale l, String format, Object... args) {
+        getTarget().printf(l, format, args);
+        return this;
+    }
+
+    @Override
+    public PrintStream format(String format, Object... args) {
+        getTarget().format(format, args);
+        return this;
+    }
+
+    @Override
+    public PrintStream format(Locale l, String format, Object... args) {
+        getTarget().format(l, format, args);
+        return this;
+    }
+
+    @Override
+    public PrintStream append(CharSequence csq) {
+        getTarget().append(csq);
+        return this;
+    }
+
+    @Override
+    public PrintStream append(CharSequence csq, int start, int end) {
+        getTarget().append(csq, start, end);
+        return this;
+    }
+
+    @Override
+    public PrintStream append(char c) {
+        getTarget().append(c);
+        return this;
+    }
+}
@@ -0,0 +1,62 @@
+package com.unhuman.dependencyangel.session;
+
+import com.unhuman.dependencyangel.resolution.LocalRepository;
+import com.unhuman.dependencyangel.resolution.PomModelResolver;
+import com.unhuman.dependencyangel.resolution.RepositoryModelCache;
+import com.unhuman.dependencyangel.versioning.VersionHelper;
+import com.unhuman.dependencyangel.versioning.VersionTable;
+
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Caches that outlive a session: Versions (per version policy) and local repository models (per local
+ * repository).  Neither depends on the project being processed, so a long-running process (see AngelServer)
+ * shares one AngelCaches across its sessions and each run starts warm.
+ *
+ * May be used from multiple threads.
+ */
+public class AngelCaches {
+    // sorted non-semantic groupId:artifactIds -> Versions created with that policy
+    private final Map<Set<String>, VersionTable> versionTables = new ConcurrentHashMap<>();
+    // local repository root -> poms and models found in it
+    private final Map<Path, RepositoryModelCache> repositoryCaches = new ConcurrentHashMap<>();
+
+    /**
+     * @param nonSemanticVersioning - groupId:artifactIds that do not use semantic versioning
+     * @return a new session using these caches
+     */
+    public AngelSession createSession(Set<String> nonSemanticVersioning) {
+        Set<String> policy = new TreeSet<>(nonSemanticVersioning);
+        VersionTable versions = versionTables.computeIfAbsent(policy,
+                key -> new VersionTable(new VersionHelper(key)));
+        return new AngelSession(versions, this);
+    }
+
+    /**
+     * The resolver tracks its own missing poms, so they are looked for again by each caller (a build since the
+     * last run may have downloaded them) without disturbing resolvers in use by other sessions.
+     * @return a new resolver for the local repository, sharing the models found by earlier resolvers
+     */
+    public PomModelResolver createResolver(LocalRepository repository) {
+        return new PomModelResolver(repositoryCaches.computeIfAbsent(repository.getRoot().toAbsolutePath(),
+                root -> new RepositoryModelCache(repository)));
+    }
+
+    /**
+     * @return number of version policies cached
+     */
+    public int getVersionTableCount() {
+        return versionTables.size();
+    }
+
+    /**
+     * @return number of local repositories cached
+     */
+    public int getRepositoryCount() {
+        return repositoryCaches.size();
+    }
+}
@@ -0,0 +1,191 @@
+package com.unhuman.dependencyangel.session;
+
+import com.unhuman.dependencyangel.dependency.ArtifactHelper;
+import com.unhuman.dependencyangel.dependency.CoordinateTable;
+import com.unhuman.dependencyangel.report.RunReport;
+import com.unhuman.dependencyangel.resolution.LocalRepository;
+import com.unhuman.dependencyangel.resolution.PomModelResolver;
+import com.unhuman.dependencyangel.versioning.Version;
+import com.unhuman.dependencyangel.versioning.VersionHelper;
+import com.unhuman.dependencyangel.versioning.VersionTable;
+
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * State of one run (one project): the version policy (VersionHelper) and the Versions created with it, the
+ * coordinates interned by its Dependencies, the artifacts of the project's poms, and the run report.  Nothing about the project is shared between sessions,
+ * so one JVM can process several projects concurrently - each on its own session.  Project independent
+ * caches (see AngelCaches) may be shared.
+ *
+ * A session is bound to the threads working on it (see enter()), so code deep in the engine (ex: parsing a
+ * Version) uses it without it being passed through every call.  ParallelTasks binds the caller's session
+ * to its workers.  There is no default session - code that needs one fails if it runs outside of a session,
+ * rather than sharing state between runs.
+ *
+ * May be used from multiple threads.
+ */
+public class AngelSession {
+    private static final ThreadLocal<AngelSession> CURRENT = new ThreadLocal<>();
+
+    private final VersionTable versions;
+    private final AngelCaches caches;
+    private final RunReport report = new RunReport();
+    private final CoordinateTable coordinates = new CoordinateTable();
+    // (groupId:artifactId id << 32 | version id) -> Version, for coordinates interned in this session
+    private final Map<Long, Version> internedVersions = new ConcurrentHashMap<>();
+    // groupId:artifactId of the project's poms
+    private final Set<String> knownArtifacts = ConcurrentHashMap.newKeySet();
+    // local repository root -> the session's resolver
+    private final Map<Path, PomModelResolver> resolvers = new ConcurrentHashMap<>();
+
+    /**
+     * @param versionHelper - version policy (null to treat no versions as semantic)
+     */
+    public AngelSession(VersionHelper versionHelper) {
+        this(new VersionTable(versionHelper), new AngelCaches());
+    }
+
+    /**
+     * @param versions - Versions for the session's version policy
+     * @param caches - caches shared with other sessions
+     */
+    public AngelSession(VersionTable versions, AngelCaches caches) {
+        this.versions = versions;
+        this.caches = caches;
+    }
+
+    /**
+     * @return the session bound to this thread
+     * @throws IllegalStateException if no session is bound to this thread
+     */
+    public static AngelSession current() {
+        AngelSession session = CURRENT.get();
+        if (session == null) {
+            throw new IllegalStateException("No session bound to thread: " + Thread.currentThread().getName());
+        }
+        return session;
+    }
+
+    /**
+     * @return the session bound to this thread, or null if there is none
+     */
+    public static AngelSession findCurrent() {
+        return CURRENT.get();
+    }
+
+    /**
+     * Bind this session to the current thread, until the returned scope is closed
+     */
+    public Scope enter() {
+        AngelSession previous = CURRENT.get();
+        CURRENT.set(this);
+        return new Scope(previous);
+    }
+
+    /**
+     * @return task that runs in this session (on whatever thread runs it)
+     */
+    public <T> Callable<T> wrap(Callable<T> task) {
+        return () -> {
+            try (Scope scope = enter()) {
+                return task.call();
+            }
+        };
+    }
+
+    /**
+     * @return task that runs in this session (on whatever thread runs it)
+     */
+    public Runnable wrap(Runnable task) {
+        return () -> {
+            try (Scope scope = enter()) {
+                task.run();
+            }
+        };
+    }
+
+    public VersionHelper getVersionHelper() {
+        return versions.getVersionHelper();
+    }
+
+    public RunReport getReport() {
+        return report;
+    }
+
+    /**
+     * @return the table Dependencies created in this session intern their coordinates in
+     */
+    public CoordinateTable getCoordinates() {
+        return coordinates;
+    }
+
+    /**
+     * @return the (shared) Version
+     */
+    public Version getVersion(String groupId, String artifactId, String versionInfo) {
+        return versions.getVersion(groupId, artifactId, versionInfo);
+    }
+
+    /**
+     * @param artifact - id (in this session's CoordinateTable) of groupId:artifactId
+     * @param versionId - id of versionInfo
+     * @return the (shared) Version, without building a key string
+     */
+    public Version getVersion(String groupId, String artifactId, String versionInfo, int artifact, int versionId) {
+        Long key = ((long) artifact << 32) | versionId;
+        Version cached = internedVersions.get(key);
+        if (cached == null) {
+            cached = internedVersions.computeIfAbsent(key,
+                    k -> versions.getVersion(groupId, artifactId, versionInfo));
+        }
+        return cached;
+    }
+
+    /**
+     * @return the session's resolver for the local repository (see AngelCaches)
+     */
+    public PomModelResolver getResolver(LocalRepository repository) {
+        return resolvers.computeIfAbsent(repository.getRoot().toAbsolutePath(),
+                root -> caches.createResolver(repository));
+    }
+
+    public void addKnownArtifact(String groupId, String artifactId) {
+        knownArtifacts.add(ArtifactHelper.getArtifactIdGroupIdString(groupId, artifactId));
+    }
+
+    /**
+     * @return true if groupId:artifactId is one of the project's poms
+     */
+    public boolean isKnownArtifact(String groupId, String artifactId) {
+        return knownArtifacts.contains(ArtifactHelper.getArtifactIdGroupIdString(groupId, artifactId));
+    }
+
+    public Set<String> getKnownArtifacts() {
+        return Collections.unmodifiableSet(knownArtifacts);
+    }
+
+    /**
+     * Restores the thread's previous session when closed
+     */
+    public static class Scope implements AutoCloseable {
+        private final AngelSession previous;
+
+        private Scope(AngelSession previous) {
+            this.previous = previous;
+        }
+
+        @Override
+        public void close() {
+            if (previous != null) {
+                CURRENT.set(previous);
+            } else {
+                CURRENT.remove();
+            }
+        }
+    }
+}
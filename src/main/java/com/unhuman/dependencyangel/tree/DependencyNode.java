@@ -30,4 +30,15 @@ public class DependencyNode extends Dependency {
     public List<DependencyNode> getChildren() {
         return Collections.unmodifiableList(children);
     }
+
+    /**
+     * @return the nodes from the root of the tree to this node (inclusive)
+     */
+    public List<DependencyNode> getPath() {
+        List<DependencyNode> path = new ArrayList<>();
+        for (DependencyNode node = this; node != null; node = node.getParent()) {
+            path.add(0, node);
+        }
+        return path;
+    }
 }
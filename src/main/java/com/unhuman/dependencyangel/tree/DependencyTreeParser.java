@@ -0,0 +1,141 @@
+package com.unhuman.dependencyangel.tree;
+
+import com.unhuman.dependencyangel.dependency.Dependency;
+import com.unhuman.dependencyangel.versioning.Version;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Parses the text output of `mvn dependency:tree -Dverbose=true -DoutputFile=...` into a DependencyNode graph.
+ *
+ * Each line is a node, indented three characters per level with `|`, `+-` and `\-`.  The root line is
+ * groupId:artifactId:packaging:version, other lines are groupId:artifactId:type[:classifier]:version:scope.
+ * Verbose output includes the nodes Maven omitted (in parentheses, ex: "omitted for conflict with 2.0") -
+ * these are leaves, but are occurrences of their artifact, so conflicts can be calculated from the graph.
+ * Any annotation after the coordinates (ex: "(version managed from 1.0)") is ignored.
+ */
+public class DependencyTreeParser {
+    private static final int INDENT = 3;
+    private static final String OMITTED_SEPARATOR = " - ";
+    private static final String ANNOTATION_START = " (";
+
+    private final List<DependencyNode> path = new ArrayList<>();
+    private DependencyNode root;
+    private int lineNum = 0;
+
+    private DependencyTreeParser() {
+    }
+
+    /**
+     * Parse a tree file, a line at a time (so the file's text is never held in memory)
+     * @param treeFile - file written by dependency:tree
+     * @return parser with the parsed tree
+     */
+    public static DependencyTreeParser parse(File treeFile) {
+        DependencyTreeParser parser = new DependencyTreeParser();
+        try (BufferedReader reader = Files.newBufferedReader(treeFile.toPath(), StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                parser.processLine(line);
+            }
+        } catch (IOException ioe) {
+            throw new UncheckedIOException("Could not read dependency tree: " + treeFile, ioe);
+        }
+        return parser.complete();
+    }
+
+    private DependencyTreeParser complete() {
+        if (root == null) {
+            throw new RuntimeException("Dependency tree is empty");
+        }
+        return this;
+    }
+
+    /**
+     * @return the root (project) node
+     */
+    public DependencyNode getRoot() {
+        return root;
+    }
+
+    public int getLineCount() {
+        return lineNum;
+    }
+
+    private void processLine(String line) {
+        ++lineNum;
+        // find where the tree characters end
+        int start = 0;
+        while (start < line.length() && isTreeCharacter(line.charAt(start))) {
+            ++start;
+        }
+        if (start == line.length()) {
+            return;
+        }
+        int depth = start / INDENT;
+
+        String coordinates = getCoordinates(line, start);
+        try {
+            if (depth == 0) {
+                if (root != null) {
+                    throw new RuntimeException("Multiple trees found");
+                }
+                root = new DependencyNode(null, createDependency(coordinates));
+                path.add(root);
+                return;
+            }
+            if (root == null || depth > path.size()) {
+                throw new RuntimeException("Unexpected indent");
+            }
+
+            DependencyNode parent = path.get(depth - 1);
+            DependencyNode node = new DependencyNode(parent, createDependency(coordinates));
+            parent.addChild(node);
+            path.subList(depth, path.size()).clear();
+            path.add(node);
+        } catch (RuntimeException re) {
+            throw new RuntimeException("Error Line: " + lineNum + ": " + re.getMessage() + ": " + line, re);
+        }
+    }
+
+    private static boolean isTreeCharacter(char c) {
+        return c == ' ' || c == '|' || c == '+' || c == '-' || c == '\\';
+    }
+
+    private static String getCoordinates(String line, int start) {
+        String content = line.substring(start);
+        if (content.startsWith("(")) {
+            // omitted node: (coordinates - omitted for ...)
+            int end = content.indexOf(OMITTED_SEPARATOR);
+            return content.substring(1, (end > 0) ? end : content.lastIndexOf(')'));
+        }
+        int end = content.indexOf(ANNOTATION_START);
+        return (end > 0) ? content.substring(0, end) : content;
+    }
+
+    private static Dependency createDependency(String coordinates) {
+        String[] details = coordinates.split(":");
+        String groupId = details[0];
+        String artifactId = (details.length > 1) ? details[1] : null;
+        switch (details.length) {
+            case 4:
+                return new Dependency(groupId, artifactId, details[2],
+                        Version.of(groupId, artifactId, details[3]), null, null);
+            case 5:
+                return new Dependency(groupId, artifactId, details[2],
+                        Version.of(groupId, artifactId, details[3]), details[4], null);
+            case 6:
+                return new Dependency(groupId, artifactId, details[2],
+                        Version.of(groupId, artifactId, details[4]), details[5], details[3]);
+            default:
+                throw new RuntimeException("Invalid Dependency Data: " + coordinates);
+        }
+    }
+}
@@ -1,20 +1,41 @@
 package com.unhuman.dependencyangel.versioning;
 
+import com.unhuman.dependencyangel.session.AngelSession;
+
 import java.util.Objects;
 
-public class Version implements Comparable {
+/**
+ * An immutable version.  The version is tokenized once (segments split on "." with their numeric values,
+ * and an optional suffix after the first "-"), so comparisons never re-parse or throw.
+ *
+ * Prefer Version.of(), which shares instances for the same groupId, artifactId and version (per session -
+ * whether a version is semantic depends on the session's VersionHelper).
+ */
+public class Version implements Comparable<Version> {
     private static final int LEFT_GREATER = 1;
     private static final int RIGHT_GREATER = -1;
     private static final int EQUALS = 0;
+    // segment value for segments that are not numbers (numbers are never negative)
+    private static final long NOT_NUMERIC = -1L;
 
-    private static VersionHelper versionHelper = null;
-
-    private String version;
-    private String[] versionData;
-    private String suffix;
-    private boolean isSemVer;
+    private final String version;
+    private final String[] versionData;
+    private final long[] versionNumbers;
+    private final String suffix;
+    private final boolean isSemVer;
+    private final int hashCode;
 
+    /**
+     * Create a Version using the current session's VersionHelper
+     */
     public Version(String groupId, String artifactId, String versionInfo) {
+        this(groupId, artifactId, versionInfo, AngelSession.current().getVersionHelper());
+    }
+
+    /**
+     * @param helper - version policy (null to treat the version as not semantic)
+     */
+    public Version(String groupId, String artifactId, String versionInfo, VersionHelper helper) {
         version = versionInfo;
 
         // find a suffix
@@ -22,58 +43,75 @@ public class Version implements Comparable {
 
         // update the versionInfo
         versionInfo = versionParts[0];
-        if (versionParts.length > 1) {
-            suffix = versionParts[1];
-        }
+        suffix = (versionParts.length > 1) ? versionParts[1] : null;
 
         versionData = versionInfo.split("\\.");
+        versionNumbers = new long[versionData.length];
+        for (int i = 0; i < versionData.length; i++) {
+            versionNumbers[i] = parseNumber(versionData[i]);
+        }
 
         // Handle semantic versioning
-        isSemVer = false;
-        if (versionHelper == null || !versionHelper.useSemanticVersioning(groupId, artifactId)) {
-            return;
-        }
-        if (versionData.length >= 3) {
-            isSemVer = true;
+        boolean semVer = false;
+        if (helper != null && helper.useSemanticVersioning(groupId, artifactId) && versionData.length >= 3) {
+            semVer = true;
             for (int i = 0; i < 3; i++) {
-                if (!checkNumber(versionData[i])) {
-                    isSemVer = false;
+                if (versionNumbers[i] == NOT_NUMERIC) {
+                    semVer = false;
                 }
             }
         }
+        isSemVer = semVer;
+
+        // consistent with compareTo() (and so equals()) - ex: 1.01 and 1.1 are equal
+        int hash = Boolean.hashCode(isSemVer);
+        for (int i = 0; i < versionData.length; i++) {
+            hash = 31 * hash + ((versionNumbers[i] != NOT_NUMERIC)
+                    ? Long.hashCode(versionNumbers[i]) : versionData[i].hashCode());
+        }
+        hashCode = 31 * hash + Objects.hashCode(suffix);
     }
 
-    public static void setVersionHelper(VersionHelper useVersionHelper) {
-        versionHelper = useVersionHelper;
+    /**
+     * Get a (shared) Version from the current session
+     */
+    public static Version of(String groupId, String artifactId, String versionInfo) {
+        return AngelSession.current().getVersion(groupId, artifactId, versionInfo);
     }
 
     /**
-     * Checks to see if a segment is a number
+     * Parses a segment as a number (the same values Long.parseLong() accepts), without exceptions
      * @param value
-     * @return
+     * @return the number or NOT_NUMERIC
      */
-    private boolean checkNumber(String value) {
-        try {
-            Long.parseLong(value);
-            return true;
-        } catch (Exception e) {
-            return false;
+    private static long parseNumber(String value) {
+        int start = (value.length() > 1 && value.charAt(0) == '+') ? 1 : 0;
+        if (value.length() == start) {
+            return NOT_NUMERIC;
+        }
+
+        long result = 0;
+        for (int i = start; i < value.length(); i++) {
+            int digit = value.charAt(i) - '0';
+            if (digit < 0 || digit > 9 || result > (Long.MAX_VALUE - digit) / 10) {
+                return NOT_NUMERIC;
+            }
+            result = result * 10 + digit;
         }
+        return result;
     }
 
     /**
      * Compares versions
-     * @param o
+     * @param other
      * @return
      */
     @Override
-    public int compareTo(Object o) {
-        if (!(o instanceof Version)) {
-            throw new RuntimeException("Cannot compare Version with " + o.getClass().getSimpleName());
+    public int compareTo(Version other) {
+        if (this == other) {
+            return EQUALS;
         }
 
-        Version other = (Version) o;
-
         // Semantic versioning is better than all other versions
         if (isSemVer && !other.isSemVer) {
             return LEFT_GREATER;
@@ -88,7 +126,7 @@ public class Version implements Comparable {
                 return LEFT_GREATER;
             }
 
-            int segmentCompare = compareSegment(versionData[i], other.versionData[i]);
+            int segmentCompare = compareSegment(other, i);
             if (segmentCompare != EQUALS) {
                 return segmentCompare;
             }
@@ -123,49 +161,44 @@ public class Version implements Comparable {
             return RIGHT_GREATER;
         }
 
-        int compareResult = left.compareTo(right);
-        return (compareResult == 0) ? 0 : compareResult / Math.abs(compareResult);
+        return Integer.signum(left.compareTo(right));
     }
 
     /**
-     * Compares version information per segment
-     * @param left
-     * @param right
+     * Compares version information for a segment
+     * @param other
+     * @param index segment
      * @return
      */
-    protected int compareSegment(String left, String right) {
-        boolean leftNumber = checkNumber(left);
-        boolean rightNumber = checkNumber(right);
+    private int compareSegment(Version other, int index) {
+        long left = versionNumbers[index];
+        long right = other.versionNumbers[index];
 
-        if (leftNumber) {
-            if (!rightNumber) {
+        if (left != NOT_NUMERIC) {
+            if (right == NOT_NUMERIC) {
                 return LEFT_GREATER;
             }
 
             // both versions are numbers - compare this
-            Long leftLong = Long.parseLong(left);
-
-            int compareResult = leftLong.compareTo(Long.parseLong(right));
-            return (compareResult == 0) ? 0 : compareResult / Math.abs(compareResult);
+            return Long.compare(left, right);
         }
 
-        if (!leftNumber && rightNumber) {
+        if (right != NOT_NUMERIC) {
             return RIGHT_GREATER;
         }
 
         // We have to use something for this element, so...  Just string compare
-        int compareResult = left.compareTo(right);
-        return (compareResult == 0) ? 0 : compareResult / Math.abs(compareResult);
+        return Integer.signum(versionData[index].compareTo(other.versionData[index]));
     }
 
     @Override
     public boolean equals(Object obj) {
-        return (this.compareTo(obj) == 0);
+        return (obj instanceof Version) && (this.compareTo((Version) obj) == 0);
     }
 
     @Override
     public int hashCode() {
-        return Objects.hash(version);
+        return hashCode;
     }
 
     public String toString() {
@@ -0,0 +1,47 @@
+package com.unhuman.dependencyangel.versioning;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Shared Versions created with one version policy (VersionHelper).  Versions are immutable, so a table may be
+ * used by any number of sessions with the same policy.
+ *
+ * May be used from multiple threads.
+ */
+public class VersionTable {
+    private final VersionHelper versionHelper;
+    // groupId:artifactId:version -> Version
+    private final Map<String, Version> versions = new ConcurrentHashMap<>();
+
+    /**
+     * @param versionHelper - version policy (null to treat no versions as semantic)
+     */
+    public VersionTable(VersionHelper versionHelper) {
+        this.versionHelper = versionHelper;
+    }
+
+    public VersionHelper getVersionHelper() {
+        return versionHelper;
+    }
+
+    /**
+     * @return the (shared) Version
+     */
+    public Version getVersion(String groupId, String artifactId, String versionInfo) {
+        String key = groupId + ':' + artifactId + ':' + versionInfo;
+        Version cached = versions.get(key);
+        if (cached == null) {
+            cached = versions.computeIfAbsent(key,
+                    k -> new Version(groupId, artifactId, versionInfo, versionHelper));
+        }
+        return cached;
+    }
+
+    /**
+     * @return number of distinct versions
+     */
+    public int size() {
+        return versions.size();
+    }
+}
@@ -0,0 +1,152 @@
+package com.unhuman.dependencyangel;
+
+import com.unhuman.dependencyangel.resolution.TestRepository;
+import com.unhuman.dependencyangel.session.AngelCaches;
+import net.sourceforge.argparse4j.inf.ArgumentParserException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static com.unhuman.dependencyangel.resolution.TestRepository.dependency;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class DependencyAngelTest {
+    private static final String REPO_LOCAL_PROPERTY = "maven.repo.local";
+    private static final String EXCLUSION = "<exclusion><groupId>%s</groupId><artifactId>%s</artifactId>"
+            + "</exclusion>";
+    // nested poms under one parent, set up concurrently (with several cores)
+    private static final int SETUP_MODULES = 8;
+    private static final Pattern MANAGED_ARTIFACT =
+            Pattern.compile("<dependency><groupId>ext</groupId><artifactId>([^<]+)</artifactId>");
+
+    @TempDir
+    Path tempDir;
+
+    @AfterEach
+    public void clearLocalRepository() {
+        System.clearProperty(REPO_LOCAL_PROPERTY);
+    }
+
+    @Test
+    public void testExclusionReduction() throws Exception {
+        // test:a -> commons-logging:commons-logging
+        TestRepository repository = new TestRepository(tempDir.resolve("repository"));
+        repository.writePom("test", "a", "1.0", "", dependency("commons-logging", "commons-logging", "1.2"));
+        repository.writePom("commons-logging", "commons-logging", "1.2", "", "");
+        System.setProperty(REPO_LOCAL_PROPERTY, repository.getRoot().toString());
+
+        Path project = Files.createDirectories(tempDir.resolve("project"));
+        Files.writeString(project.resolve("pom.xml"), "<project><groupId>test</groupId>"
+                + "<artifactId>parent</artifactId><version>1.0</version><packaging>pom</packaging>"
+                + "<modules><module>module</module></modules><dependencyManagement><dependencies>"
+                + "<dependency><groupId>test</groupId><artifactId>a</artifactId><version>1.0</version>"
+                + "<exclusions>" + exclusion("commons-logging", "commons-logging") + "</exclusions></dependency>"
+                + "<dependency><groupId>commons-logging</groupId><artifactId>commons-logging</artifactId>"
+                + "<version>1.2</version></dependency></dependencies></dependencyManagement></project>");
+        Path module = Files.createDirectories(project.resolve("module"));
+        Files.writeString(module.resolve("pom.xml"), "<project><parent><groupId>test</groupId>"
+                + "<artifactId>parent</artifactId><version>1.0</version></parent><artifactId>module</artifactId>"
+                + "<dependencies><dependency><groupId>test</groupId><artifactId>a</artifactId><exclusions>"
+                + exclusion("commons-logging", "commons-logging") + exclusion("test", "unused")
+                + "</exclusions></dependency></dependencies></project>");
+
+        run(project, "ExclusionReduction");
+
+        // managed (in the root's dependencyManagement)
+        assertFalse(Files.readString(project.resolve("pom.xml")).contains("<exclusion>"));
+        // a user exclusion of a managed artifact is kept in the module - managing it doesn't remove it
+        String modulePom = Files.readString(module.resolve("pom.xml")).replaceAll("\\s", "");
+        assertTrue(modulePom.contains(exclusion("commons-logging", "commons-logging")), modulePom);
+        // not brought in by test:a
+        assertFalse(modulePom.contains("unused"), modulePom);
+    }
+
+    @Test
+    public void testSetupMultiModule() throws Exception {
+        // root -> a -> b0..b7 (all inheriting a's nested version property), root -> c
+        Path project = Files.createDirectories(tempDir.resolve("project"));
+        Files.writeString(project.resolve("pom.xml"), "<project><groupId>test</groupId>"
+                + "<artifactId>root</artifactId><version>1.0</version><packaging>pom</packaging>"
+                + "<modules><module>a</module><module>c</module></modules>"
+                + "<properties><shared.version>3.1</shared.version></properties></project>");
+        Path a = Files.createDirectories(project.resolve("a"));
+        StringBuilder aModules = new StringBuilder();
+        for (int i = 0; i < SETUP_MODULES; i++) {
+            aModules.append("<module>b").append(i).append("</module>");
+            Path b = Files.createDirectories(a.resolve("b" + i));
+            Files.writeString(b.resolve("pom.xml"), "<project>" + parent("a") + "<artifactId>b" + i + "</artifactId>"
+                    + "<dependencies>" + dependency("ext", "lib-b" + i, "${lib.version}")
+                    + dependency("ext", "shared", "${shared.version}")
+                    + dependency("test", "c", "${project.version}") + "</dependencies></project>");
+        }
+        Files.writeString(a.resolve("pom.xml"), "<project>" + parent("root") + "<artifactId>a</artifactId>"
+                + "<packaging>pom</packaging><modules>" + aModules + "</modules><properties>"
+                + "<lib.major>2</lib.major><lib.version>${lib.major}.5</lib.version></properties>"
+                + "<dependencies>" + dependency("ext", "z-lib", "${lib.version}") + "</dependencies></project>");
+        Path c = Files.createDirectories(project.resolve("c"));
+        Files.writeString(c.resolve("pom.xml"), "<project>" + parent("root") + "<artifactId>c</artifactId>"
+                + "<dependencies>" + dependency("ext", "x-lib", "1.0") + dependency("ext", "shared", "3.1")
+                + "</dependencies></project>");
+
+        run(project, "SetupOnly");
+
+        // managed in the order the modules are found (a, b0..b7, c), as a sequential setup would
+        String rootPom = Files.readString(project.resolve("pom.xml")).replaceAll("\\s", "");
+        List<String> expectedManaged = new ArrayList<>();
+        expectedManaged.add("z-lib");
+        for (int i = 0; i < SETUP_MODULES; i++) {
+            expectedManaged.add("lib-b" + i);
+            if (i == 0) {
+                expectedManaged.add("shared");
+            }
+        }
+        expectedManaged.add("x-lib");
+        List<String> managed = new ArrayList<>();
+        Matcher matcher = MANAGED_ARTIFACT.matcher(rootPom);
+        while (matcher.find()) {
+            managed.add(matcher.group(1));
+        }
+        assertEquals(expectedManaged, managed);
+
+        // properties inherited through a (which is set up at the same time) are resolved
+        assertTrue(rootPom.contains("<ext-z-lib.version>2.5</ext-z-lib.version>"), rootPom);
+        for (int i = 0; i < SETUP_MODULES; i++) {
+            assertTrue(rootPom.contains("<ext-lib-b" + i + ".version>2.5</ext-lib-b" + i + ".version>"), rootPom);
+            String bPom = Files.readString(a.resolve("b" + i).resolve("pom.xml")).replaceAll("\\s", "");
+            // versions are managed by the root, except the project's own
+            assertFalse(bPom.contains("${lib.version}") || bPom.contains("${shared.version}"), bPom);
+            assertTrue(bPom.contains("<version>${project.version}</version>"), bPom);
+        }
+        assertTrue(rootPom.contains("<ext-shared.version>3.1</ext-shared.version>"), rootPom);
+        assertTrue(rootPom.contains("<ext-x-lib.version>1.0</ext-x-lib.version>"), rootPom);
+        assertTrue(Files.readString(a.resolve("pom.xml")).contains("<lib.version>${lib.major}.5</lib.version>"));
+    }
+
+    private static String parent(String artifactId) {
+        return "<parent><groupId>test</groupId><artifactId>" + artifactId + "</artifactId><version>1.0</version>"
+                + "</parent>";
+    }
+
+    private static String exclusion(String groupId, String artifactId) {
+        return String.format(EXCLUSION, groupId, artifactId);
+    }
+
+    private static void run(Path project, String mode) throws Exception {
+        DependencyAngel.run(config(project, mode), new AngelCaches().createSession(Collections.emptySet()));
+    }
+
+    private static DependencyAngelConfig config(Path project, String mode) throws ArgumentParserException {
+        return new DependencyAngelConfig(new String[] { "-s", "-k", "-a", "Native", "-m", mode,
+                project.toString() }, project.toFile());
+    }
+}
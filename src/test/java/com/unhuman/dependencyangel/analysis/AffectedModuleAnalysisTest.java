@@ -0,0 +1,128 @@
+package com.unhuman.dependencyangel.analysis;
+
+import com.unhuman.dependencyangel.convergence.ConvergenceParser;
+import com.unhuman.dependencyangel.convergence.DependencyConflict;
+import com.unhuman.dependencyangel.dependency.Dependency;
+import com.unhuman.dependencyangel.session.AngelSessionExtension;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+@ExtendWith(AngelSessionExtension.class)
+public class AffectedModuleAnalysisTest {
+    private static final String POM = "<project><parent><groupId>test</groupId><artifactId>root</artifactId>"
+            + "<version>1.0</version></parent><artifactId>%s</artifactId><dependencies>%s</dependencies></project>";
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    public void testOnlyAffectedModulesAnalyzed() throws IOException {
+        List<File> pomFiles = writeProject();
+        StubAnalyzer analyzer = new StubAnalyzer();
+        analyzer.conflicts.put("a", conflict("a", "x"));
+        analyzer.conflicts.put("c", conflict("c", "y"));
+        AffectedModuleAnalysis analysis = new AffectedModuleAnalysis(analyzer, pomFiles);
+
+        assertEquals(2, analysis.analyze(tempDir.toFile()).size());
+        assertNull(analyzer.analyzedModules);
+
+        // x was changed in the root pom - a uses it, and b depends on a
+        analyzer.conflicts.remove("a");
+        analysis.recordChanges(List.of(pomFiles.get(0)), List.of(new Dependency("test", "x")));
+        List<DependencyConflict> conflicts = analysis.analyze(tempDir.toFile());
+        assertEquals(List.of("a", "b"), analyzer.analyzedModules);
+
+        // c was not analyzed - its conflict is retained
+        assertEquals(1, conflicts.size());
+        assertEquals("y", conflicts.get(0).getArtifactId());
+    }
+
+    @Test
+    public void testConvergenceVerifiedWithAllModules() throws IOException {
+        List<File> pomFiles = writeProject();
+        StubAnalyzer analyzer = new StubAnalyzer();
+        analyzer.conflicts.put("c", conflict("c", "y"));
+        AffectedModuleAnalysis analysis = new AffectedModuleAnalysis(analyzer, pomFiles);
+        assertEquals(1, analysis.analyze(tempDir.toFile()).size());
+
+        // c converges, but a (not re-analyzed) gained a conflict
+        analyzer.conflicts.remove("c");
+        analyzer.conflicts.put("a", conflict("a", "x"));
+        analysis.recordChanges(List.of(pomFiles.get(3)), List.of(new Dependency("test", "y")));
+        List<DependencyConflict> conflicts = analysis.analyze(tempDir.toFile());
+        assertNull(analyzer.analyzedModules);
+        assertEquals(1, conflicts.size());
+        assertEquals("x", conflicts.get(0).getArtifactId());
+    }
+
+    /**
+     * root, a, b (depends on a), c
+     */
+    private List<File> writeProject() throws IOException {
+        List<File> pomFiles = new ArrayList<>();
+        pomFiles.add(writePom(tempDir, "<project><groupId>test</groupId><artifactId>root</artifactId>"
+                + "<version>1.0</version><packaging>pom</packaging><modules><module>a</module>"
+                + "<module>b</module><module>c</module></modules></project>"));
+        pomFiles.add(writePom(tempDir.resolve("a"), String.format(POM, "a", "")));
+        pomFiles.add(writePom(tempDir.resolve("b"), String.format(POM, "b",
+                "<dependency><groupId>${project.groupId}</groupId><artifactId>a</artifactId></dependency>")));
+        pomFiles.add(writePom(tempDir.resolve("c"), String.format(POM, "c", "")));
+        return pomFiles;
+    }
+
+    private static File writePom(Path directory, String content) throws IOException {
+        Files.createDirectories(directory);
+        Path pomFile = directory.resolve("pom.xml");
+        Files.writeString(pomFile, content);
+        return pomFile.toFile();
+    }
+
+    private static DependencyConflict conflict(String module, String artifactId) {
+        return ConvergenceParser.from(List.of(
+                "Dependency convergence error for test:" + artifactId + ":jar:2.0:compile paths to dependency are:",
+                "+-test:" + module + ":jar:1.0",
+                "  +-test:" + artifactId + ":jar:1.0:compile",
+                "and",
+                "+-test:" + module + ":jar:1.0",
+                "  +-test:z:jar:1.0:compile",
+                "    +-test:" + artifactId + ":jar:2.0:compile",
+                "")).getDependencyConflicts().get(0);
+    }
+
+    /**
+     * Reports conflicts by module (artifactId) - for the modules analyzed
+     */
+    private static class StubAnalyzer implements ConvergenceAnalyzer {
+        private final Map<String, DependencyConflict> conflicts = new HashMap<>();
+        private List<String> analyzedModules;
+
+        @Override
+        public List<DependencyConflict> analyze(File directoryFile) {
+            analyzedModules = null;
+            return new ArrayList<>(conflicts.values());
+        }
+
+        @Override
+        public List<DependencyConflict> analyze(File directoryFile, Collection<File> modulePoms) {
+            analyzedModules = modulePoms.stream().map(pom -> pom.getParentFile().getName())
+                    .collect(Collectors.toList());
+            return analyzedModules.stream().filter(conflicts::containsKey).map(conflicts::get)
+                    .collect(Collectors.toList());
+        }
+    }
+}
@@ -0,0 +1,117 @@
+package com.unhuman.dependencyangel.analysis;
+
+import com.unhuman.dependencyangel.convergence.ConvergenceParser;
+import com.unhuman.dependencyangel.convergence.DependencyConflict;
+import com.unhuman.dependencyangel.convergence.DependencyConflictData;
+import com.unhuman.dependencyangel.dependency.Dependency;
+import com.unhuman.dependencyangel.report.RunReport;
+import com.unhuman.dependencyangel.session.AngelSessionExtension;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collection;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@ExtendWith(AngelSessionExtension.class)
+public class CachingConvergenceAnalyzerTest {
+    private static final List<String> CONFLICT = List.of(
+            "Dependency convergence error for test:a:jar:2.0:compile paths to dependency are:",
+            "+-test:project:pom:1.0",
+            "  +-test:a:jar:1.0:compile",
+            "and",
+            "+-test:project:pom:1.0",
+            "  +-test:b:jar:1.0:compile",
+            "    +-test:a:jar:2.0:runtime",
+            "");
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    public void testUnchangedPomsSkipAnalysis() throws IOException {
+        File pomFile = writePom("<project/>");
+        StubAnalyzer stub = new StubAnalyzer();
+        CachingConvergenceAnalyzer analyzer = new CachingConvergenceAnalyzer(stub, List.of(pomFile), "Maven",
+                new RunReport());
+
+        assertEquals(1, analyzer.analyze(tempDir.toFile()).size());
+        assertEquals(1, analyzer.analyze(tempDir.toFile()).size());
+        assertEquals(1, stub.analyses);
+
+        // analyzing some modules is cached separately
+        analyzer.analyze(tempDir.toFile(), List.of(pomFile));
+        assertEquals(2, stub.analyses);
+
+        writePom("<project><!-- changed --></project>");
+        analyzer.analyze(tempDir.toFile());
+        assertEquals(3, stub.analyses);
+    }
+
+    @Test
+    public void testConfigurationChangesKey() throws IOException {
+        File pomFile = writePom("<project/>");
+        CachingConvergenceAnalyzer maven = new CachingConvergenceAnalyzer(new StubAnalyzer(), List.of(pomFile),
+                "Maven", new RunReport());
+        CachingConvergenceAnalyzer nativeAnalyzer = new CachingConvergenceAnalyzer(new StubAnalyzer(),
+                List.of(pomFile), "Native", new RunReport());
+
+        assertEquals(maven.getKey(tempDir.toFile(), null), maven.getKey(tempDir.toFile(), null));
+        assertNotEquals(maven.getKey(tempDir.toFile(), null), nativeAnalyzer.getKey(tempDir.toFile(), null));
+    }
+
+    @Test
+    public void testCachedConflictsMatch() throws IOException {
+        File pomFile = writePom("<project/>");
+        CachingConvergenceAnalyzer analyzer = new CachingConvergenceAnalyzer(new StubAnalyzer(), List.of(pomFile),
+                "Maven", new RunReport());
+        analyzer.analyze(tempDir.toFile());
+        DependencyConflict conflict = analyzer.analyze(tempDir.toFile()).get(0);
+
+        assertEquals("test:a", conflict.getDisplayName());
+        assertEquals("2.0", conflict.getVersion().toString());
+        assertEquals("compile", conflict.getScope());
+        assertEquals(2, conflict.getConflictHierarchy().size());
+
+        DependencyConflictData project = conflict.getConflictHierarchy().get(1);
+        assertEquals("pom", project.getType());
+        DependencyConflictData b = project.getChildren().get(0);
+        assertEquals("test:b", b.getDisplayName());
+        DependencyConflictData a = b.getChildren().get(0);
+        assertEquals("2.0", a.getVersion().toString());
+        assertEquals("runtime", a.getScope());
+        assertNull(a.getClassifier());
+        assertEquals(0, a.getChildren().size());
+        assertTrue(conflict.containsDependency(new Dependency("test", "b")));
+    }
+
+    private File writePom(String contents) throws IOException {
+        Path pom = tempDir.resolve("pom.xml");
+        Files.writeString(pom, contents);
+        return pom.toFile();
+    }
+
+    private static class StubAnalyzer implements ConvergenceAnalyzer {
+        int analyses = 0;
+
+        @Override
+        public List<DependencyConflict> analyze(File directoryFile) {
+            ++analyses;
+            return ConvergenceParser.from(CONFLICT).getDependencyConflicts();
+        }
+
+        @Override
+        public List<DependencyConflict> analyze(File directoryFile, Collection<File> modulePoms) {
+            return analyze(directoryFile);
+        }
+    }
+}
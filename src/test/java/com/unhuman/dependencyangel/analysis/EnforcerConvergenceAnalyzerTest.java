@@ -0,0 +1,72 @@
+package com.unhuman.dependencyangel.analysis;
+
+import com.unhuman.dependencyangel.convergence.DependencyConflict;
+import com.unhuman.dependencyangel.execution.BuildExecutor;
+import com.unhuman.dependencyangel.execution.ExecutionStatistics;
+import com.unhuman.dependencyangel.report.RunReport;
+import com.unhuman.dependencyangel.session.AngelSessionExtension;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.regex.Pattern;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@ExtendWith(AngelSessionExtension.class)
+public class EnforcerConvergenceAnalyzerTest {
+    private static final List<String> OUTPUT = List.of(
+            "[INFO] --- enforcer:3.4.1:enforce (default-cli) @ a ---",
+            "[WARNING] Rule 0: org.apache.maven.enforcer.rules.dependency.DependencyConvergence failed with message:",
+            "Failed while enforcing releasability.",
+            "",
+            "[WARNING] Dependency convergence error for test:c:jar:2.0 paths to dependency are:",
+            "[WARNING] +-test:a:jar:1.0",
+            "[WARNING]   +-test:b:jar:1.0:compile",
+            "[WARNING]     +-test:c:jar:2.0:compile",
+            "[WARNING] and",
+            "[WARNING] +-test:a:jar:1.0",
+            "[WARNING]   +-test:c:jar:1.0:compile",
+            "[WARNING]",
+            "[INFO] BUILD SUCCESS");
+
+    @Test
+    public void testAnalyzeWithoutCompiling() {
+        List<String> arguments = new ArrayList<>();
+        BuildExecutor executor = new BuildExecutor() {
+            @Override
+            public void execute(File directoryFile, Pattern errorMatchForSuccess, Consumer<String> outputConsumer,
+                                String... executeArguments) {
+                arguments.addAll(List.of(executeArguments));
+                OUTPUT.forEach(outputConsumer);
+            }
+
+            @Override
+            public ExecutionStatistics getStatistics() {
+                return null;
+            }
+
+            @Override
+            public void close() {
+            }
+        };
+
+        File directory = new File("project");
+        List<DependencyConflict> conflicts = new EnforcerConvergenceAnalyzer(executor, new RunReport())
+                .analyze(directory, List.of(new File(directory, "a/pom.xml")));
+
+        assertEquals(1, conflicts.size());
+        assertEquals("test:c", conflicts.get(0).getDisplayName());
+        assertEquals("2.0", conflicts.get(0).getVersion().toString());
+        assertEquals(2, conflicts.get(0).getConflictHierarchy().size());
+
+        assertEquals(List.of("-pl", "a", "-am"), arguments.subList(0, 3));
+        assertTrue(arguments.contains("-Denforcer.rules=dependencyConvergence"));
+        assertFalse(arguments.stream().anyMatch(argument -> argument.contains("compile")));
+    }
+}
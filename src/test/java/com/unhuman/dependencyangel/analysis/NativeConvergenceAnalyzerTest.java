@@ -0,0 +1,92 @@
+package com.unhuman.dependencyangel.analysis;
+
+import com.unhuman.dependencyangel.convergence.DependencyConflict;
+import com.unhuman.dependencyangel.convergence.DependencyConflictData;
+import com.unhuman.dependencyangel.resolution.PomModelResolver;
+import com.unhuman.dependencyangel.resolution.TestRepository;
+import com.unhuman.dependencyangel.session.AngelSessionExtension;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.List;
+
+import static com.unhuman.dependencyangel.resolution.TestRepository.dependency;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+@ExtendWith(AngelSessionExtension.class)
+public class NativeConvergenceAnalyzerTest {
+    @TempDir
+    Path tempDir;
+
+    @Test
+    public void testTransitiveConflict() throws IOException {
+        TestRepository repository = createRepository();
+        File project = writeProject("", dependency("test", "a", "1.0") + dependency("test", "b", "1.0"));
+
+        List<DependencyConflict> conflicts = analyze(repository, project);
+        assertEquals(1, conflicts.size());
+
+        DependencyConflict conflict = conflicts.get(0);
+        assertEquals("test", conflict.getGroupId());
+        assertEquals("c", conflict.getArtifactId());
+        assertEquals("2.0", conflict.getVersion().toString());
+        assertEquals("compile", conflict.getScope());
+
+        List<DependencyConflictData> conflictHierarchy = conflict.getConflictHierarchy();
+        assertEquals(2, conflictHierarchy.size());
+        assertEquals("project", conflictHierarchy.get(0).getArtifactId());
+        assertEquals("a", conflictHierarchy.get(0).getEndDependencyInfo().getInitialDependency().getArtifactId());
+        assertEquals("1.0", conflictHierarchy.get(0).getEndDependencyInfo().get(0).getVersion().toString());
+        assertEquals("b", conflictHierarchy.get(1).getEndDependencyInfo().getInitialDependency().getArtifactId());
+        assertEquals("2.0", conflictHierarchy.get(1).getEndDependencyInfo().get(0).getVersion().toString());
+    }
+
+    @Test
+    public void testManagedVersionConverges() throws IOException {
+        TestRepository repository = createRepository();
+        File project = writeProject(dependency("test", "c", "2.0"),
+                dependency("test", "a", "1.0") + dependency("test", "b", "1.0"));
+
+        assertEquals(0, analyze(repository, project).size());
+    }
+
+    @Test
+    public void testExclusionConverges() throws IOException {
+        TestRepository repository = createRepository();
+        File project = writeProject("", dependency("test", "a", "1.0",
+                "<exclusions><exclusion><groupId>test</groupId><artifactId>c</artifactId></exclusion></exclusions>")
+                + dependency("test", "b", "1.0"));
+
+        assertEquals(0, analyze(repository, project).size());
+    }
+
+    private List<DependencyConflict> analyze(TestRepository repository, File project) {
+        NativeConvergenceAnalyzer analyzer = new NativeConvergenceAnalyzer(List.of(project),
+                new PomModelResolver(repository.getLocalRepository()));
+        return analyzer.analyze(project.getParentFile());
+    }
+
+    /**
+     * a:1.0 -> c:1.0
+     * b:1.0 (parent b-parent:1.0 defines c.version) -> c:${c.version} (2.0)
+     */
+    private TestRepository createRepository() throws IOException {
+        TestRepository repository = new TestRepository(tempDir.resolve("repository"));
+        repository.writePom("test", "a", "1.0", "", dependency("test", "c", "1.0"));
+        repository.writePom("test", "b-parent", "1.0", "<properties><c.version>2.0</c.version></properties>", "");
+        repository.writePom("test", "b", "1.0",
+                "<parent><groupId>test</groupId><artifactId>b-parent</artifactId><version>1.0</version></parent>",
+                dependency("test", "c", "${c.version}"));
+        repository.writePom("test", "c", "1.0", "", "");
+        repository.writePom("test", "c", "2.0", "", "");
+        return repository;
+    }
+
+    private File writeProject(String managedDependencies, String dependencies) throws IOException {
+        return TestRepository.writeProject(tempDir.resolve("project"), managedDependencies, dependencies);
+    }
+}
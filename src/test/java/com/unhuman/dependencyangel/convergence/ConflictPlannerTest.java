@@ -0,0 +1,89 @@
+package com.unhuman.dependencyangel.convergence;
+
+import com.unhuman.dependencyangel.session.AngelSessionExtension;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+@ExtendWith(AngelSessionExtension.class)
+public class ConflictPlannerTest {
+    @Test
+    public void testIndependentConflictsPlannedTogether() {
+        ConflictPlanner planner = ConflictPlanner.plan(parse(
+                conflict("project", "a", "x"),
+                conflict("project", "b", "y"),
+                conflict("project", "c", "z")));
+
+        assertEquals(List.of("a", "b", "c"), getArtifactIds(planner.getPlannedConflicts()));
+        assertEquals(0, planner.getDeferredCount());
+    }
+
+    @Test
+    public void testDependentConflictsDeferred() {
+        // b's paths pass through a, so b waits for a - even when b is reported first
+        ConflictPlanner planner = ConflictPlanner.plan(parse(
+                conflict("project", "b", "a"),
+                conflict("project", "a", "x"),
+                conflict("project", "c", "y")));
+
+        assertEquals(List.of("a", "c"), getArtifactIds(planner.getPlannedConflicts()));
+        assertEquals(1, planner.getDeferredCount());
+    }
+
+    @Test
+    public void testCycleResolvesFirstReported() {
+        // a and b pass through each other - one is resolved, c (through b) waits
+        ConflictPlanner planner = ConflictPlanner.plan(parse(
+                conflict("project", "a", "b"),
+                conflict("project", "b", "a"),
+                conflict("project", "c", "b")));
+
+        assertEquals(List.of("a"), getArtifactIds(planner.getPlannedConflicts()));
+        assertEquals(2, planner.getDeferredCount());
+    }
+
+    @Test
+    public void testDuplicateArtifactsDeferred() {
+        ConflictPlanner planner = ConflictPlanner.plan(parse(
+                conflict("module1", "a", "x"),
+                conflict("module2", "a", "y")));
+
+        assertEquals(1, planner.getPlannedConflicts().size());
+        assertEquals("module1",
+                planner.getPlannedConflicts().get(0).getConflictHierarchy().get(0).getArtifactId());
+        assertEquals(1, planner.getDeferredCount());
+    }
+
+    /**
+     * Conflict for artifactId, reached directly and through a dependency (via)
+     */
+    private static List<String> conflict(String module, String artifactId, String via) {
+        return List.of(
+                "Dependency convergence error for test:" + artifactId + ":jar:2.0:compile paths to dependency are:",
+                "+-test:" + module + ":jar:1.0",
+                "  +-test:" + artifactId + ":jar:1.0:compile",
+                "and",
+                "+-test:" + module + ":jar:1.0",
+                "  +-test:" + via + ":jar:1.0:compile",
+                "    +-test:" + artifactId + ":jar:2.0:compile",
+                "");
+    }
+
+    @SafeVarargs
+    private static List<DependencyConflict> parse(List<String>... conflicts) {
+        List<String> lines = new ArrayList<>();
+        for (List<String> conflict : conflicts) {
+            lines.addAll(conflict);
+        }
+        return ConvergenceParser.from(lines).getDependencyConflicts();
+    }
+
+    private static List<String> getArtifactIds(List<DependencyConflict> conflicts) {
+        return conflicts.stream().map(DependencyConflict::getArtifactId).collect(Collectors.toList());
+    }
+}
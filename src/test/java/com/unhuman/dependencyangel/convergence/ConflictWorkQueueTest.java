@@ -0,0 +1,53 @@
+package com.unhuman.dependencyangel.convergence;
+
+import com.unhuman.dependencyangel.session.AngelSessionExtension;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+
+import java.util.BitSet;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@ExtendWith(AngelSessionExtension.class)
+public class ConflictWorkQueueTest {
+    @Test
+    public void testConflictArtifactsInternedFirst() {
+        ConflictWorkQueue queue = new ConflictWorkQueue(ConvergenceParser.from(List.of(
+                "Dependency convergence error for test:a:jar:2.0:compile paths to dependency are:",
+                "+-test:project:jar:1.0",
+                "  +-test:b:jar:1.0:compile",
+                "    +-test:a:jar:1.0:compile",
+                "and",
+                "+-test:project:jar:1.0",
+                "  +-test:a:jar:2.0:compile",
+                "",
+                "Dependency convergence error for test:b:jar:2.0:compile paths to dependency are:",
+                "+-test:project:jar:1.0",
+                "  +-test:b:jar:1.0:compile",
+                "and",
+                "+-test:project:jar:1.0",
+                "  +-test:c:jar:1.0:compile",
+                "    +-test:b:jar:2.0:compile",
+                "")).getDependencyConflicts());
+
+        assertEquals(2, queue.getConflictArtifactCount());
+
+        ConflictWorkQueue.QueuedConflict first = queue.poll();
+        assertEquals("a", first.getConflict().getArtifactId());
+        assertEquals(0, first.getArtifact());
+        BitSet firstPath = first.getPathArtifacts();
+        // a, b, and project (c isn't on a's paths)
+        assertEquals(3, firstPath.cardinality());
+        assertTrue(firstPath.get(0));
+        assertTrue(firstPath.get(1));
+
+        ConflictWorkQueue.QueuedConflict second = queue.poll();
+        assertEquals(1, second.getArtifact());
+        assertFalse(second.getPathArtifacts().get(0));
+        assertEquals(3, second.getPathArtifacts().cardinality());
+        assertTrue(queue.isEmpty());
+    }
+}
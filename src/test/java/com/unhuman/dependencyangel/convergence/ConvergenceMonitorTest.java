@@ -0,0 +1,54 @@
+package com.unhuman.dependencyangel.convergence;
+
+import com.unhuman.dependencyangel.exceptions.AngelException;
+import com.unhuman.dependencyangel.session.AngelSessionExtension;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@ExtendWith(AngelSessionExtension.class)
+public class ConvergenceMonitorTest {
+    @Test
+    public void testOscillationDetected() {
+        ConvergenceMonitor monitor = new ConvergenceMonitor(0);
+        monitor.recordInitialState("initial");
+
+        monitor.recordConflicts(Collections.emptyList());
+        monitor.recordState("a");
+        monitor.recordConflicts(Collections.emptyList());
+        monitor.recordState("b");
+        monitor.recordConflicts(Collections.emptyList());
+
+        // back to the state after iteration 1 (not the previous iteration)
+        AngelException exception = assertThrows(AngelException.class, () -> monitor.recordState("a"));
+        assertTrue(exception.getMessage().contains("after iteration 1 (a cycle of 2 iteration(s))"),
+                exception.getMessage());
+    }
+
+    @Test
+    public void testNoProgressDetected() {
+        List<DependencyConflict> conflicts = ConvergenceParser.from(List.of(
+                "Dependency convergence error for test:a:jar:2.0:compile paths to dependency are:",
+                "+-test:project:jar:1.0",
+                "  +-test:a:jar:1.0:compile",
+                "and",
+                "+-test:project:jar:1.0",
+                "  +-test:b:jar:1.0:compile",
+                "    +-test:a:jar:2.0:compile",
+                "")).getDependencyConflicts();
+        ConvergenceMonitor monitor = new ConvergenceMonitor(2);
+        monitor.recordConflicts(conflicts);
+        monitor.recordState("1");
+        monitor.recordConflicts(conflicts);
+        monitor.recordState("2");
+
+        AngelException exception = assertThrows(AngelException.class, () -> monitor.recordConflicts(conflicts));
+        assertTrue(exception.getMessage().contains("Conflicts by iteration: 1, 1, 1"), exception.getMessage());
+        assertTrue(exception.getMessage().contains("test:a"), exception.getMessage());
+    }
+}
@@ -1,9 +1,12 @@
 package com.unhuman.dependencyangel.convergence;
 
+import com.unhuman.dependencyangel.session.AngelSessionExtension;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
 
 import java.io.File;
 import java.io.IOException;
+import java.io.Reader;
 import java.net.URISyntaxException;
 import java.nio.file.Files;
 import java.nio.file.Paths;
@@ -12,7 +15,9 @@ import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 
+@ExtendWith(AngelSessionExtension.class)
 public class ConvergenceParserTest {
     ClassLoader classLoader = this.getClass().getClassLoader();
 
@@ -149,6 +154,35 @@ public class ConvergenceParserTest {
 //        assertEquals("jackson-json-crypto", conflictHierarchy.get(3).getArtifact());
     }
 
+    @Test
+    public void testStreamingMatchesList() throws IOException, URISyntaxException {
+        ConvergenceParser listParser = ConvergenceParser.from(readFileToList("analyzeFull.txt"));
+
+        String filepath = new File(classLoader.getResource("analyzeFull.txt").getPath()).getAbsolutePath();
+        ConvergenceParser streamingParser;
+        try (Reader reader = Files.newBufferedReader(Paths.get(filepath))) {
+            streamingParser = ConvergenceParser.from(reader);
+        }
+
+        List<DependencyConflict> expected = listParser.getDependencyConflicts();
+        List<DependencyConflict> actual = streamingParser.getDependencyConflicts();
+        assertEquals(expected.size(), actual.size());
+        for (int i = 0; i < expected.size(); i++) {
+            assertEquals(expected.get(i).getDisplayName(), actual.get(i).getDisplayName());
+            assertEquals(expected.get(i).getVersion(), actual.get(i).getVersion());
+            assertEquals(expected.get(i).getConflictHierarchy().size(), actual.get(i).getConflictHierarchy().size());
+        }
+    }
+
+    @Test
+    public void testStreamingIncomplete() throws IOException, URISyntaxException {
+        List<String> strings = readFileToList("analyzeSingle.txt");
+        ConvergenceParser parser = ConvergenceParser.streaming();
+        // stop part way through the conflict
+        strings.subList(0, 12).forEach(parser);
+        assertThrows(RuntimeException.class, parser::complete);
+    }
+
     private List<String> readFileToList(String filename) throws IOException, URISyntaxException {
         String filepath = new File(classLoader.getResource(filename).getPath()).getAbsolutePath();
         try (Stream<String> lines = Files.lines(Paths.get(filepath))) {
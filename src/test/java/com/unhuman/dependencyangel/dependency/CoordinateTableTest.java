@@ -0,0 +1,63 @@
+package com.unhuman.dependencyangel.dependency;
+
+import com.unhuman.dependencyangel.session.AngelSessionExtension;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@ExtendWith(AngelSessionExtension.class)
+public class CoordinateTableTest {
+    @Test
+    public void testIntern() {
+        CoordinateTable table = new CoordinateTable();
+        assertEquals(CoordinateTable.NONE, table.intern(null));
+        assertNull(table.get(CoordinateTable.NONE));
+
+        int id = table.intern("compile");
+        assertEquals(id, table.intern("+- test:a:jar:1.0:compile", 18, 25));
+        assertNotEquals(id, table.intern("test"));
+        assertEquals(2, table.size());
+
+        // ids survive growth of the table
+        for (int i = 0; i < 5000; i++) {
+            table.intern("value" + i);
+        }
+        assertEquals("compile", table.get(id));
+        assertEquals(id, table.intern("compile"));
+        assertEquals(5002, table.size());
+
+        int artifact = table.internArtifact(table.intern("test"), table.intern("a"));
+        assertEquals("test:a", table.get(artifact));
+        assertEquals(artifact, table.intern("test:a"));
+    }
+
+    @Test
+    public void testParseDependency() {
+        String line = "  +-test:a:jar:1.0:compile (managed)";
+        Dependency dependency = new Dependency(line, 4, 26);
+        assertEquals("test", dependency.getGroupId());
+        assertEquals("a", dependency.getArtifactId());
+        assertEquals("jar", dependency.getType());
+        assertEquals("1.0", dependency.getVersion().toString());
+        assertEquals("compile", dependency.getScope());
+        assertEquals("test:a", dependency.getDisplayName());
+
+        Dependency other = new Dependency("test:a:2.0:");
+        assertNull(other.getType());
+        assertNull(other.getScope());
+        assertEquals("2.0", other.getVersion().toString());
+        assertTrue(dependency.matchingArtifact(other));
+        assertEquals(dependency.getArtifactKey(), new Dependency("test", "a").getArtifactKey());
+        // same coordinates share the same strings and versions
+        assertSame(dependency.getScope(), new Dependency("test:b:jar:1.0:compile").getScope());
+        assertSame(dependency.getVersion(), new Dependency("test:a:pom:1.0").getVersion());
+
+        assertThrows(RuntimeException.class, () -> new Dependency("test:a"));
+    }
+}
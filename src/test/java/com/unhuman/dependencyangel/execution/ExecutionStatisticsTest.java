@@ -0,0 +1,57 @@
+package com.unhuman.dependencyangel.execution;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class ExecutionStatisticsTest {
+    @Test
+    public void testSingleExecution() {
+        ExecutionStatistics statistics = new ExecutionStatistics("Maven");
+        assertEquals(0L, statistics.getLastExecutionMillis());
+        statistics.recordExecution(4321L);
+
+        assertEquals(List.of(4321L), statistics.getExecutionMillis());
+        assertEquals(4321L, statistics.getLastExecutionMillis());
+        assertEquals(4321L, statistics.getTotalMillis());
+        // nothing warm to compare with
+        assertEquals(0L, statistics.getEstimatedStartupSavingsMillis());
+        assertEquals("Build executor Maven: 1 execution(s), total 4.3s", statistics.getSummary());
+    }
+
+    @Test
+    public void testWarmExecutions() {
+        ExecutionStatistics statistics = new ExecutionStatistics("MavenDaemon");
+        statistics.recordExecution(5000L);
+        statistics.recordExecution(1000L);
+        statistics.recordExecution(2000L);
+
+        assertEquals(2000L, statistics.getLastExecutionMillis());
+        assertEquals(8000L, statistics.getTotalMillis());
+        // (5000 - 1500) for each of the 2 warm executions
+        assertEquals(7000L, statistics.getEstimatedStartupSavingsMillis());
+        assertEquals(String.format("Build executor MavenDaemon: 3 execution(s), total 8.0s%n"
+                + "  first (cold): 5.0s, warm average: 1.5s, estimated startup savings: 7.0s"),
+                statistics.getSummary());
+        assertThrows(UnsupportedOperationException.class, () -> statistics.getExecutionMillis().add(1L));
+    }
+
+    @Test
+    public void testNoSavingsWhenWarmIsSlower() {
+        ExecutionStatistics statistics = new ExecutionStatistics("Maven");
+        statistics.recordExecution(1000L);
+        statistics.recordExecution(3000L);
+        assertEquals(0L, statistics.getEstimatedStartupSavingsMillis());
+    }
+
+    @Test
+    public void testFormatMillis() {
+        assertEquals("0.0s", ExecutionStatistics.formatMillis(0L));
+        assertEquals("0.1s", ExecutionStatistics.formatMillis(50L));
+        assertEquals("1.2s", ExecutionStatistics.formatMillis(1234L));
+        assertEquals("61.0s", ExecutionStatistics.formatMillis(61_000L));
+    }
+}
@@ -0,0 +1,36 @@
+package com.unhuman.dependencyangel.execution;
+
+import com.unhuman.dependencyangel.DependencyAngelConfig;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class MavenDaemonBuildExecutorTest {
+    @TempDir
+    Path tempDir;
+
+    @Test
+    public void testCommand() throws Exception {
+        DependencyAngelConfig config = new DependencyAngelConfig(new String[] { "-s", "-x", "MavenDaemon",
+                "-e", "MAVEN_OPTS=-Xmx1g,ANGEL_TEST=value", tempDir.toString() }, tempDir.toFile());
+        try (MavenDaemonBuildExecutor executor = new MavenDaemonBuildExecutor(config)) {
+            String mvnd = ProcessBuildExecutor.IS_WINDOWS ? "mvnd.cmd" : "mvnd";
+            // always in batch mode, so the output is plain log lines
+            List<String> command = executor.getCommand("dependency:tree", "-Dverbose=true");
+            assertEquals(List.of(mvnd, "-B", "dependency:tree", "-Dverbose=true"), command);
+
+            ProcessBuilder builder = executor.createProcessBuilder(tempDir.toFile(), command);
+            assertEquals(command, builder.command());
+            assertEquals(tempDir.toFile(), builder.directory());
+            assertEquals("-Xmx1g", builder.environment().get("MAVEN_OPTS"));
+            assertEquals("value", builder.environment().get("ANGEL_TEST"));
+
+            assertEquals("Build executor MavenDaemon: 0 execution(s), total 0.0s",
+                    executor.getStatistics().getSummary());
+        }
+    }
+}
@@ -0,0 +1,185 @@
+package com.unhuman.dependencyangel.execution;
+
+import com.unhuman.dependencyangel.DependencyAngelConfig;
+import com.unhuman.dependencyangel.exceptions.AngelException;
+import com.unhuman.dependencyangel.session.AngelSessionExtension;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.Timeout;
+import org.junit.jupiter.api.condition.DisabledOnOs;
+import org.junit.jupiter.api.condition.OS;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayOutputStream;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Runs scripts with `sh -c`, so the executor drives real processes (and their pipes)
+ */
+@DisabledOnOs(OS.WINDOWS)
+@ExtendWith(AngelSessionExtension.class)
+public class ProcessBuildExecutorTest {
+    // more than the executor buffers, so the stdout pump blocks while the consumer is stalled
+    private static final int OUTPUT_LINES = 5000;
+    // more than a pipe holds, so the process stalls unless stderr is drained
+    private static final int ERROR_LINES = 2000;
+
+    @TempDir
+    Path tempDir;
+
+    private PrintStream originalErr;
+    private ByteArrayOutputStream errors;
+
+    @BeforeEach
+    public void captureErrors() {
+        originalErr = System.err;
+        errors = new ByteArrayOutputStream();
+        System.setErr(new PrintStream(errors, true));
+    }
+
+    @AfterEach
+    public void restoreErrors() {
+        System.setErr(originalErr);
+    }
+
+    @Test
+    @Timeout(30)
+    public void testOutputHandoff() throws Exception {
+        ProcessBuildExecutor executor = executor(0L);
+        // an empty line must not be mistaken for the end of output
+        List<String> output = executor.execute(tempDir.toFile(), null, "printf 'first\\n\\nlast\\n'");
+        assertEquals(List.of("first", "", "last"), output);
+        assertEquals(1, executor.getStatistics().getExecutionMillis().size());
+
+        // everything is consumed before a failure is reported
+        List<String> failedOutput = new ArrayList<>();
+        assertThrows(RuntimeException.class,
+                () -> executor.execute(tempDir.toFile(), null, failedOutput::add, "echo partial; exit 3"));
+        assertEquals(List.of("partial"), failedOutput);
+
+        // unless the failure is expected
+        assertEquals(List.of("BUILD FAILURE"),
+                executor.execute(tempDir.toFile(), Pattern.compile("FAILURE"), "echo 'BUILD FAILURE'; exit 1"));
+    }
+
+    @Test
+    @Timeout(60)
+    public void testErrorsDrainedWhileOutputStalled() throws Exception {
+        Path stderrDone = tempDir.resolve("stderr-done");
+        String script = String.format("i=0; while [ $i -lt %d ]; do echo out$i; i=$((i+1)); done; "
+                + "i=0; while [ $i -lt %d ]; do echo err$i-%s >&2; i=$((i+1)); done; touch %s",
+                OUTPUT_LINES, ERROR_LINES, "x".repeat(100), stderrDone);
+
+        List<String> output = new ArrayList<>();
+        executor(0L).execute(tempDir.toFile(), null, line -> {
+            // stall on the first line, until the process has written all of stderr
+            while (output.isEmpty() && !Files.exists(stderrDone)) {
+                sleep(10L);
+            }
+            output.add(line);
+        }, script);
+
+        assertEquals(OUTPUT_LINES, output.size());
+        assertEquals("out" + (OUTPUT_LINES - 1), output.get(OUTPUT_LINES - 1));
+        assertTrue(errors.toString().contains("err" + (ERROR_LINES - 1) + "-"));
+    }
+
+    @Test
+    @Timeout(60)
+    public void testTimeoutKillsProcessTree() throws Exception {
+        // the shell, then a child that would outlive it
+        List<String> pids = new ArrayList<>();
+        AngelException timeout = assertThrows(AngelException.class, () -> executor(500L).execute(
+                tempDir.toFile(), null, pids::add, "echo $$; sleep 300 & echo $!; wait"));
+        assertTrue(timeout.getMessage().contains("timed out"), timeout.getMessage());
+
+        assertEquals(2, pids.size());
+        for (String pid : pids) {
+            assertTerminated(Long.parseLong(pid));
+        }
+    }
+
+    @Test
+    @Timeout(60)
+    public void testConsumerFailureStopsProcess() throws Exception {
+        RuntimeException failure = new IllegalStateException("consumer failed");
+        List<String> pids = new ArrayList<>();
+        // output never ends, so only stopping the pump (and the process) ends the execution
+        RuntimeException thrown = assertThrows(RuntimeException.class, () -> executor(0L).execute(
+                tempDir.toFile(), null, line -> {
+                    pids.add(line);
+                    throw failure;
+                }, "echo $$; exec yes"));
+        assertSame(failure, thrown);
+
+        assertEquals(1, pids.size());
+        assertTerminated(Long.parseLong(pids.get(0)));
+    }
+
+    @Test
+    @Timeout(60)
+    public void testErrorOutputBlocked() throws Exception {
+        // error output can't be written (ex: System.err is a client that has stopped reading)
+        CountDownLatch release = new CountDownLatch(1);
+        System.setErr(new PrintStream(new OutputStream() {
+            @Override
+            public void write(int b) {
+                try {
+                    release.await();
+                } catch (InterruptedException ie) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        }, true));
+        PrintStream originalOut = System.out;
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        System.setOut(new PrintStream(output, true));
+        try {
+            assertEquals(List.of("last"), executor(0L).execute(tempDir.toFile(), null, "echo error >&2; echo last"));
+            assertTrue(output.toString().contains("Stopped reading error output of sh"), output.toString());
+        } finally {
+            System.setOut(originalOut);
+            release.countDown();
+        }
+    }
+
+    private ProcessBuildExecutor executor(long timeoutMillis) throws Exception {
+        DependencyAngelConfig config = new DependencyAngelConfig(new String[] { "-s", tempDir.toString() },
+                tempDir.toFile());
+        return new ProcessBuildExecutor(config, "sh", List.of("sh", "-c"), timeoutMillis);
+    }
+
+    private static void assertTerminated(long pid) throws Exception {
+        ProcessHandle process = ProcessHandle.of(pid).orElse(null);
+        if (process != null) {
+            // killing is asynchronous
+            process.onExit().get(10, TimeUnit.SECONDS);
+            assertFalse(process.isAlive());
+        }
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException ie) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException(ie);
+        }
+    }
+}
@@ -0,0 +1,117 @@
+package com.unhuman.dependencyangel.execution;
+
+import com.unhuman.dependencyangel.session.AngelSession;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.Timeout;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class StreamPumpTest {
+    @Test
+    public void testDrainsThenCompletes() {
+        List<String> lines = new ArrayList<>();
+        StreamPump pump = new StreamPump(stream("a\r\n\nb"), lines::add, () -> lines.add("<complete>"));
+        pump.run();
+
+        assertEquals(List.of("a", "", "b", "<complete>"), lines);
+        assertNull(pump.getFailure());
+    }
+
+    @Test
+    public void testConsumerFailure() {
+        RuntimeException failure = new IllegalStateException("consumer failed");
+        List<String> lines = new ArrayList<>();
+        StreamPump pump = new StreamPump(stream("a\nb\nc\n"), line -> {
+            if (line.equals("b")) {
+                throw failure;
+            }
+            lines.add(line);
+        }, () -> lines.add("<complete>"));
+        pump.run();
+
+        // the rest of the stream is abandoned, but completion is still signalled
+        assertEquals(List.of("a", "<complete>"), lines);
+        assertSame(failure, pump.getFailure());
+    }
+
+    @Test
+    @Timeout(30)
+    public void testInterruptStopsBlockedConsumer() throws Exception {
+        // the consumer blocks once the queue is full, as ProcessBuildExecutor's does
+        BlockingQueue<String> queue = new ArrayBlockingQueue<>(10);
+        CountDownLatch complete = new CountDownLatch(1);
+        StreamPump pump = new StreamPump(endlessStream(), line -> {
+            try {
+                queue.put(line);
+            } catch (InterruptedException ie) {
+                Thread.currentThread().interrupt();
+                throw new CancellationException("Output is no longer being consumed");
+            }
+        }, complete::countDown);
+
+        AngelSession session = new AngelSession(null);
+        Thread thread;
+        try (AngelSession.Scope scope = session.enter()) {
+            thread = pump.start("pump-test");
+        }
+        while (queue.remainingCapacity() > 0) {
+            Thread.sleep(10L);
+        }
+        thread.interrupt();
+
+        assertTrue(complete.await(10, TimeUnit.SECONDS));
+        thread.join(TimeUnit.SECONDS.toMillis(10));
+        assertFalse(thread.isAlive());
+        assertTrue(pump.getFailure() instanceof CancellationException, String.valueOf(pump.getFailure()));
+    }
+
+    @Test
+    @Timeout(30)
+    public void testRunsInCallersSession() throws Exception {
+        AtomicReference<AngelSession> pumpSession = new AtomicReference<>();
+        StreamPump pump = new StreamPump(stream("a\n"), line -> pumpSession.set(AngelSession.current()), () -> { });
+
+        AngelSession session = new AngelSession(null);
+        Thread thread;
+        try (AngelSession.Scope scope = session.enter()) {
+            thread = pump.start("pump-test");
+        }
+        thread.join();
+        assertSame(session, pumpSession.get());
+    }
+
+    private static InputStream stream(String text) {
+        return new ByteArrayInputStream(text.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * @return stream of "x" lines that never ends
+     */
+    private static InputStream endlessStream() {
+        return new InputStream() {
+            private boolean newline;
+
+            @Override
+            public int read() {
+                newline = !newline;
+                return newline ? 'x' : '\n';
+            }
+        };
+    }
+}
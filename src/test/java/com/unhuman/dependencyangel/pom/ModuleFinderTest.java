@@ -0,0 +1,67 @@
+package com.unhuman.dependencyangel.pom;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class ModuleFinderTest {
+    private static final String POM = "<project><groupId>test</groupId><artifactId>%s</artifactId>"
+            + "<version>1.0</version>%s</project>";
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    public void testDeclaredModules() throws IOException {
+        writePom("", "<modules><module>a</module></modules>"
+                + "<profiles><profile><modules><module>b/pom.xml</module></modules></profile></profiles>");
+        writePom("a", "<modules><module>nested</module></modules>");
+        writePom("a/nested", "");
+        writePom("b", "");
+        writePom("undeclared", "");
+
+        ModuleFinder moduleFinder = new ModuleFinder(Set.of());
+        assertEquals(List.of("a", "a/nested", "b"), relativeDirectories(moduleFinder.findNestedPoms(tempDir.toFile())));
+    }
+
+    @Test
+    public void testSearchSkipsIgnoredDirectories() throws IOException {
+        writePom("", "");
+        writePom("a", "");
+        writePom("a/target/classes", "");
+        writePom("b", "");
+        writePom("b/node_modules/x", "");
+        writePom(".git/x", "");
+        writePom("generated/x", "");
+        writePom("c/build", "");
+        writePom("c/keep", "");
+        Files.writeString(tempDir.resolve(".gitignore"), "# comment\n/c/build/\n!keep\n");
+
+        ModuleFinder moduleFinder = new ModuleFinder(Set.of("gen*"));
+        assertEquals(List.of("a", "b", "c/keep"), relativeDirectories(moduleFinder.findNestedPoms(tempDir.toFile())));
+        assertEquals(5, moduleFinder.getSkippedDirectories());
+    }
+
+    private void writePom(String directory, String content) throws IOException {
+        Path pomDirectory = tempDir.resolve(directory);
+        Files.createDirectories(pomDirectory);
+        Files.writeString(pomDirectory.resolve("pom.xml"),
+                String.format(POM, pomDirectory.getFileName(), content));
+    }
+
+    private List<String> relativeDirectories(List<File> pomFiles) {
+        return pomFiles.stream()
+                .map(pomFile -> tempDir.toAbsolutePath().relativize(pomFile.toPath().getParent()).toString())
+                .map(path -> path.replace(File.separatorChar, '/'))
+                .collect(Collectors.toList());
+    }
+}
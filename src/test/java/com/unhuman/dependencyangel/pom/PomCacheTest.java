@@ -0,0 +1,102 @@
+package com.unhuman.dependencyangel.pom;
+
+import com.unhuman.dependencyangel.session.AngelSessionExtension;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@ExtendWith(AngelSessionExtension.class)
+public class PomCacheTest {
+    private static final String POM = "<project><groupId>test</groupId><artifactId>%s</artifactId>"
+            + "<version>1.0</version><dependencies><dependency><groupId>test</groupId><artifactId>a</artifactId>"
+            + "<version>1.0</version></dependency></dependencies></project>";
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    public void testParsedOnce() throws IOException {
+        File pomFile = writePom("project");
+        PomCache cache = new PomCache();
+
+        PomManipulator manipulator = cache.get(pomFile);
+        assertSame(manipulator, cache.get(pomFile.getAbsolutePath()));
+        assertSame(manipulator, cache.get(new File(pomFile.getParentFile(), "./pom.xml")));
+        assertEquals(1, cache.size());
+    }
+
+    @Test
+    public void testFlushWritesChangesOnce() throws IOException {
+        File pomFile = writePom("project");
+        PomCache cache = new PomCache();
+
+        assertEquals(0, cache.flush(null).getFiles().size());
+
+        PomManipulator manipulator = cache.get(pomFile);
+        manipulator.deleteNode(manipulator.findDependency("test", "a"), true);
+        assertTrue(manipulator.isDirty());
+
+        PomFlushResult result = cache.flush(null);
+        assertEquals(1, result.getFiles().size());
+        assertEquals(Files.size(pomFile.toPath()), result.getBytes());
+        assertFalse(manipulator.isDirty());
+        assertFalse(Files.readString(pomFile.toPath()).contains("<artifactId>a</artifactId>"));
+
+        // still cached after writing
+        assertSame(manipulator, cache.get(pomFile));
+        assertEquals(0, cache.flush(null).getFiles().size());
+    }
+
+    @Test
+    public void testReloadedWhenChangedOnDisk() throws IOException {
+        File pomFile = writePom("project");
+        PomCache cache = new PomCache();
+
+        PomManipulator manipulator = cache.get(pomFile);
+        assertNotNull(manipulator.findDependency("test", "a"));
+
+        Files.writeString(pomFile.toPath(), String.format(POM, "changed").replace("<artifactId>a<", "<artifactId>b<"));
+        PomManipulator reloaded = cache.get(pomFile);
+        assertNotSame(manipulator, reloaded);
+        assertEquals("changed", reloaded.getArtifactId());
+        assertNull(reloaded.findDependency("test", "a"));
+    }
+
+    @Test
+    public void testStateFingerprint() throws IOException {
+        File pomFile = writePom("project");
+        PomCache cache = new PomCache();
+
+        PomManipulator manipulator = cache.get(pomFile);
+        String fingerprint = cache.getStateFingerprint();
+        assertEquals(fingerprint, cache.getStateFingerprint());
+
+        manipulator.addExclusion("test", "a", "test", "b");
+        String excluded = cache.getStateFingerprint();
+        assertNotEquals(fingerprint, excluded);
+
+        // same state, regardless of how it was reached
+        manipulator.deleteNode(manipulator.findSingleElement("exclusions", true), true);
+        assertEquals(fingerprint, cache.getStateFingerprint());
+    }
+
+    private File writePom(String artifactId) throws IOException {
+        Path pomFile = tempDir.resolve("pom.xml");
+        Files.writeString(pomFile, String.format(POM, artifactId));
+        return pomFile.toFile();
+    }
+}
@@ -0,0 +1,107 @@
+package com.unhuman.dependencyangel.pom;
+
+import com.unhuman.dependencyangel.session.AngelSessionExtension;
+import com.unhuman.dependencyangel.versioning.Version;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.w3c.dom.Node;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@ExtendWith(AngelSessionExtension.class)
+public class PomManipulatorTest {
+    private static final String POM = "<project><groupId>test</groupId><artifactId>project</artifactId>"
+            + "<version>1.0</version><dependencyManagement><dependencies>"
+            + "<dependency><groupId>test</groupId><artifactId>a</artifactId><version>1.0</version></dependency>"
+            + "<dependency><groupId> test </groupId><artifactId> b </artifactId><version>1.0</version></dependency>"
+            + "</dependencies></dependencyManagement></project>";
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    public void testDependencyIndexTracksChanges() throws IOException {
+        PomManipulator manipulator = createManipulator();
+
+        assertNotNull(manipulator.findDependency("test", "a"));
+        assertNotNull(manipulator.findDependency("test", "b"));
+        assertNull(manipulator.findDependency("test", "c"));
+
+        manipulator.addDependencyNode("test", "c", null, new Version("test", "c", "2.0"), null, null, null);
+        Node added = manipulator.findDependency("test", "c");
+        assertNotNull(added);
+        assertTrue(manipulator.updateExplicitVersion("test", "c", null, new Version("test", "c", "3.0"),
+                null, null, null));
+        assertEquals("3.0", manipulator.getSingleNodeElementText(added, PomManipulator.VERSION_TAG, true));
+
+        manipulator.deleteNode(manipulator.findDependency("test", "a"), true);
+        assertNull(manipulator.findDependency("test", "a"));
+        assertFalse(manipulator.updateExplicitVersion("test", "a", null, new Version("test", "a", "3.0"),
+                null, null, null));
+        assertFalse(manipulator.addExclusion("test", "a", "test", "c"));
+        assertTrue(manipulator.addExclusion("test", "b", "test", "c"));
+    }
+
+    @Test
+    public void testPropertyResolution() throws IOException {
+        Files.writeString(tempDir.resolve("pom.xml"), "<project><groupId>test</groupId>"
+                + "<artifactId>parent</artifactId><version>1.0</version><properties><major>2</major>"
+                + "<minor>${patch.minor}</minor><patch.minor>5</patch.minor></properties></project>");
+        Path modulePom = tempDir.resolve("module").resolve("pom.xml");
+        Files.createDirectories(modulePom.getParent());
+        Files.writeString(modulePom, "<project><parent><groupId>test</groupId><artifactId>parent</artifactId>"
+                + "<version>1.0</version></parent><artifactId>module</artifactId><properties>"
+                + "<major>3</major><unused>1</unused><used>1</used></properties><dependencies><dependency>"
+                + "<groupId>test</groupId><artifactId>a</artifactId><version>${used}</version></dependency>"
+                + "</dependencies></project>");
+
+        PomManipulator module = new PomCache().get(modulePom.toFile());
+        assertNotNull(module.getParentPom());
+        assertEquals("3.5", module.resolveProperties("${major}.${minor}"));
+        assertEquals("2.5", module.getParentPom().resolveProperties("${major}.${minor}"));
+        assertEquals(module.getParentPom(), module.findPropertyOwner("minor"));
+        assertNull(module.resolveProperties("${project.version}"));
+        assertNull(module.resolveProperties("${major}.${missing}"));
+
+        // parent isn't found without a cache
+        assertNull(new PomManipulator(modulePom.toString()).resolveProperties("${minor}"));
+
+        assertTrue(module.deleteUnreferencedProperty("unused"));
+        assertFalse(module.deleteUnreferencedProperty("used"));
+        assertFalse(module.deleteUnreferencedProperty("minor"));
+        assertNull(module.getPropertyValue("unused"));
+    }
+
+    @Test
+    public void testRemoveExclusions() throws IOException {
+        PomManipulator manipulator = createManipulator();
+        assertEquals(Set.of("test:a", "test:b"), manipulator.getDependencyKeys());
+        manipulator.addExclusion("test", "a", "test", "c");
+        manipulator.addExclusion("test", "a", "test", "d");
+        manipulator.addExclusion("test", "b", "test", "c");
+
+        assertEquals(2, manipulator.removeExclusions((groupId, artifactId, exclusion) -> exclusion.equals("test:c")));
+        Node exclusionsNode = manipulator.getSingleNodeElement(manipulator.findDependency("test", "a"),
+                PomManipulator.EXCLUSIONS_TAG, true);
+        assertEquals(1, manipulator.findChildElements(exclusionsNode, PomManipulator.EXCLUSION_TAG).size());
+        // exclusions node is removed with its last exclusion
+        assertNull(manipulator.getSingleNodeElement(manipulator.findDependency("test", "b"),
+                PomManipulator.EXCLUSIONS_TAG, false));
+    }
+
+    private PomManipulator createManipulator() throws IOException {
+        Path pomFile = tempDir.resolve("pom.xml");
+        Files.writeString(pomFile, POM);
+        return new PomManipulator(pomFile.toString());
+    }
+}
@@ -0,0 +1,173 @@
+package com.unhuman.dependencyangel.pom;
+
+import com.unhuman.dependencyangel.session.AngelSessionExtension;
+import com.unhuman.dependencyangel.versioning.Version;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@ExtendWith(AngelSessionExtension.class)
+public class PomStreamEditorTest {
+    private static final String POM = String.join("\n",
+            "<?xml version='1.0' encoding='UTF-8'?>",
+            "<project xmlns=\"http://maven.apache.org/POM/4.0.0\">",
+            "  <groupId>test</groupId>",
+            "  <artifactId>project</artifactId>  <!-- formatting is kept -->",
+            "  <version>1.0</version>",
+            "  <properties>",
+            "    <a.version>1.0</a.version>",
+            "  </properties>",
+            "  <dependencyManagement>",
+            "    <dependencies>",
+            "      <dependency>",
+            "        <groupId>test</groupId>",
+            "        <artifactId>a</artifactId>",
+            "        <version>${a.version}</version>",
+            "      </dependency>",
+            "      <dependency>",
+            "        <groupId>test</groupId>",
+            "        <artifactId>b</artifactId>",
+            "        <version>1.0</version>",
+            "        <scope>test</scope>",
+            "      </dependency>",
+            "      <dependency><groupId>test</groupId><artifactId>c</artifactId></dependency>",
+            "    </dependencies>",
+            "  </dependencyManagement>",
+            "</project>",
+            "");
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    public void testEditsOnlyChangedText() throws IOException {
+        PomStreamEditor editor = createEditor();
+        assertEquals("project", editor.getArtifactId());
+        assertFalse(editor.isDirty());
+
+        // unchanged values don't modify the pom
+        assertTrue(editor.updateExplicitVersion("test", "b", null, new Version("test", "b", "1.0"),
+                "test", null, null));
+        assertFalse(editor.isDirty());
+        assertFalse(editor.updateExplicitVersion("test", "d", null, new Version("test", "d", "1.0"),
+                null, null, null));
+
+        assertTrue(editor.updateExplicitVersion("test", "a", null, new Version("test", "a", "2.0"),
+                null, null, null));
+        assertTrue(editor.updateExplicitVersion("test", "b", null, new Version("test", "b", "2.0"),
+                null, null, null));
+        assertTrue(editor.isDirty());
+        assertEquals(POM.replace("<a.version>1.0", "<a.version>2.0")
+                        .replace("<version>1.0</version>\n        <scope>test</scope>\n", "<version>2.0</version>\n"),
+                editor.getText());
+    }
+
+    @Test
+    public void testAddExclusion() throws IOException {
+        PomStreamEditor editor = createEditor();
+        assertTrue(editor.addExclusion("test", "a", "test", "x"));
+        assertTrue(editor.addExclusion("test", "a", "test", "y"));
+        assertFalse(editor.addExclusion("test", "d", "test", "x"));
+
+        assertEquals(POM.replace("<version>${a.version}</version>\n", String.join("\n",
+                "<version>${a.version}</version>",
+                "        <exclusions>",
+                "          <exclusion>",
+                "            <groupId>test</groupId>",
+                "            <artifactId>x</artifactId>",
+                "          </exclusion>",
+                "          <exclusion>",
+                "            <groupId>test</groupId>",
+                "            <artifactId>y</artifactId>",
+                "          </exclusion>",
+                "        </exclusions>",
+                "")), editor.getText());
+    }
+
+    @Test
+    public void testForceVersion() throws IOException {
+        PomStreamEditor editor = createEditor();
+        editor.forceVersionDependencyNode("test", "c", null, new Version("test", "c", "3.0"), null, null, null);
+        editor.forceVersionDependencyNode("test", "d", "pom", new Version("test", "d", "4.0"), "import", null, null);
+
+        String text = editor.getText();
+        assertTrue(text.contains("<project xmlns=\"http://maven.apache.org/POM/4.0.0\" xmlns:angel="));
+        assertTrue(text.contains("<test-c.version angel:tracking=\"managed\">3.0</test-c.version>"));
+        assertTrue(text.contains("<artifactId>c</artifactId><version angel:tracking=\"managed\">"
+                + "${test-c.version}</version></dependency>"));
+        assertTrue(text.contains(String.join("\n",
+                "</version></dependency>",
+                "      <dependency angel:tracking=\"managed\">",
+                "        <groupId>test</groupId>",
+                "        <artifactId>d</artifactId>",
+                "        <type>pom</type>",
+                "        <version>${test-d.version}</version>",
+                "        <scope>import</scope>",
+                "      </dependency>",
+                "    </dependencies>")));
+        // forcing the same version again does nothing
+        editor.forceVersionDependencyNode("test", "d", "pom", new Version("test", "d", "4.0"), "import", null, null);
+        assertEquals(text, editor.getText());
+    }
+
+    @Test
+    public void testRemoveDependencyVersions() throws IOException {
+        PomStreamEditor editor = createEditor();
+        assertTrue(editor.removeDependencyVersions("test", "b"));
+        assertFalse(editor.removeDependencyVersions("test", "b"));
+        assertFalse(editor.removeDependencyVersions("test", "c"));
+        assertEquals(POM.replace("<version>1.0</version>\n        <scope>", "<scope>"), editor.getText());
+    }
+
+    @Test
+    public void testWriteAndDependencyStateMatchesDom() throws IOException {
+        PomStreamEditor editor = createEditor();
+        editor.addExclusion("test", "b", "test", "x");
+        editor.forceVersionDependencyNode("test", "d", null, new Version("test", "d", "4.0"), null, null, null);
+        editor.writeFile();
+        assertFalse(editor.isDirty());
+        assertEquals(editor.getText(), Files.readString(tempDir.resolve("pom.xml")));
+
+        PomManipulator manipulator = new PomManipulator(tempDir.resolve("pom.xml").toString());
+        assertEquals(manipulator.getDependencyState(), editor.getDependencyState());
+    }
+
+    @Test
+    public void testEditsKeepSpansCurrent() throws IOException {
+        PomStreamEditor editor = createEditor();
+        // edits before, within and after other edits (and the namespace added to the project's start tag)
+        editor.forceVersionDependencyNode("test", "d", null, new Version("test", "d", "4.0"), null, null, null);
+        editor.updateExplicitVersion("test", "a", null, new Version("test", "a", "2.0"), null, null, null);
+        editor.addExclusion("test", "d", "test", "x");
+        editor.addExclusion("test", "c", "test", "x");
+        editor.removeDependencyVersions("test", "b");
+        editor.updateExplicitVersion("test", "d", null, new Version("test", "d", "5.0"), null, null, null);
+        editor.forceVersionDependencyNode("test", "e", null, new Version("test", "e", "1.0"), null, null, null);
+        editor.writeFile();
+
+        // the same as scanning the edited text
+        PomStreamEditor scanned = new PomStreamEditor(tempDir.resolve("pom.xml").toString());
+        assertEquals(scanned.getDependencyState(), editor.getDependencyState());
+        for (PomStreamEditor check : List.of(editor, scanned)) {
+            check.addExclusion("test", "e", "test", "y");
+            check.updateExplicitVersion("test", "b", null, new Version("test", "b", "3.0"), null, null, null);
+        }
+        assertEquals(scanned.getText(), editor.getText());
+        assertEquals(scanned.getDependencyState(), editor.getDependencyState());
+    }
+
+    private PomStreamEditor createEditor() throws IOException {
+        Path pom = tempDir.resolve("pom.xml");
+        Files.writeString(pom, POM);
+        return new PomStreamEditor(pom.toString());
+    }
+}
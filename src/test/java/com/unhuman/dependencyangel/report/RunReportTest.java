@@ -0,0 +1,83 @@
+package com.unhuman.dependencyangel.report;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+public class RunReportTest {
+    @TempDir
+    Path tempDir;
+
+    @Test
+    public void testReportWritten() throws IOException {
+        RunReport report = new RunReport();
+        try (RunReport.Timer timer = report.time("process")) {
+            report.increment("pomFilesWritten", 2);
+            report.increment("pomFilesWritten", 1);
+        }
+        try (RunReport.Timer timer = report.time("process")) {
+            report.record("execute", 2_000_000L, -1L);
+        }
+        report.addIteration(Map.of("conflicts", 3L, "analysisMillis", 10L));
+
+        File reportFile = tempDir.resolve("report.json").toFile();
+        report.write(reportFile);
+        JsonNode json = new ObjectMapper().readTree(reportFile);
+
+        assertEquals(2, json.get("phases").get("process").get("count").asInt());
+        assertTrue(json.get("phases").get("process").has("cpuMillis"));
+        assertEquals(2.0, json.get("phases").get("execute").get("wallMillis").asDouble());
+        assertFalse(json.get("phases").get("execute").has("cpuMillis"));
+        assertEquals(3, json.get("counters").get("pomFilesWritten").asLong());
+
+        JsonNode iteration = json.get("iterations").get(0);
+        List<String> fieldNames = new ArrayList<>();
+        iteration.fieldNames().forEachRemaining(fieldNames::add);
+        assertEquals(List.of("iteration", "analysisMillis", "conflicts"), fieldNames);
+        assertEquals(3, iteration.get("conflicts").asLong());
+    }
+
+    @Test
+    public void testCpuIsTimingThreadsOwn() throws Exception {
+        ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+        assumeTrue(threads.isCurrentThreadCpuTimeSupported() && threads.isThreadCpuTimeEnabled());
+
+        RunReport report = new RunReport();
+        try (RunReport.Timer timer = report.time("waiting")) {
+            // another thread (ex: another run) is busy while this one waits
+            Thread busy = new Thread(() -> {
+                long start = threads.getCurrentThreadCpuTime();
+                while (threads.getCurrentThreadCpuTime() - start < 500_000_000L) {
+                    Thread.onSpinWait();
+                }
+            });
+            busy.start();
+            busy.join();
+        }
+
+        // closed on another thread
+        RunReport.Timer handedOver = report.time("handedOver");
+        Thread closer = new Thread(handedOver::close);
+        closer.start();
+        closer.join();
+
+        JsonNode phases = report.toJson().get("phases");
+        assertTrue(phases.get("waiting").get("cpuMillis").asDouble() < 250.0, phases.toString());
+        assertFalse(phases.get("handedOver").has("cpuMillis"));
+    }
+}
@@ -0,0 +1,81 @@
+package com.unhuman.dependencyangel.resolution;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class ReachableArtifactsTest {
+    private static final String EXCLUDE_D = "<exclusions><exclusion><groupId>test</groupId>"
+            + "<artifactId>d</artifactId></exclusion></exclusions>";
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    public void testReachable() throws IOException {
+        ReachableArtifacts reachable = createReachableArtifacts("",
+                dependency("a", "1.0", EXCLUDE_D) + dependency("b", "1.0", "") + dependency("missing", "1.0", ""));
+
+        // the project's own exclusions are ignored
+        assertFalse(reachable.isUnreachable("test", "a", "test:c"));
+        assertFalse(reachable.isUnreachable("test", "a", "test:d"));
+        assertFalse(reachable.isUnreachable("test", "a", "test:*"));
+        assertTrue(reachable.isUnreachable("test", "a", "test:x"));
+        assertTrue(reachable.isUnreachable("test", "a", "other:*"));
+
+        // excluded by b itself, optional, and not transitive
+        assertFalse(reachable.isUnreachable("test", "b", "test:c"));
+        assertTrue(reachable.isUnreachable("test", "b", "test:d"));
+        assertTrue(reachable.isUnreachable("test", "b", "test:e"));
+        assertTrue(reachable.isUnreachable("test", "b", "test:f"));
+
+        // can't tell
+        assertFalse(reachable.isUnreachable("test", "missing", "test:x"));
+        assertFalse(reachable.isUnreachable("test", "undeclared", "test:x"));
+    }
+
+    @Test
+    public void testManagedVersions() throws IOException {
+        ReachableArtifacts reachable = createReachableArtifacts(dependency("c", "2.0", ""),
+                dependency("a", "1.0", ""));
+
+        // c 2.0 does not depend on d
+        assertFalse(reachable.isUnreachable("test", "a", "test:c"));
+        assertTrue(reachable.isUnreachable("test", "a", "test:d"));
+    }
+
+    /**
+     * a:1.0 -> c:1.0 -> d:1.0
+     * b:1.0 -> c:1.0 (excluding d), e:1.0 (optional), f:1.0 (test)
+     * c:2.0
+     */
+    private ReachableArtifacts createReachableArtifacts(String managedDependencies, String dependencies)
+            throws IOException {
+        TestRepository repository = new TestRepository(tempDir.resolve("repository"));
+        repository.writePom("test", "a", "1.0", "", dependency("c", "1.0", ""));
+        repository.writePom("test", "b", "1.0", "", dependency("c", "1.0", EXCLUDE_D)
+                + dependency("e", "1.0", "<optional>true</optional>")
+                + dependency("f", "1.0", "<scope>test</scope>"));
+        repository.writePom("test", "c", "1.0", "", dependency("d", "1.0", ""));
+        repository.writePom("test", "c", "2.0", "", "");
+        for (String artifactId : List.of("d", "e", "f")) {
+            repository.writePom("test", artifactId, "1.0", "", "");
+        }
+
+        File pomFile = TestRepository.writeProject(tempDir.resolve("project"), managedDependencies, dependencies);
+        PomModelResolver resolver = new PomModelResolver(repository.getLocalRepository());
+        Reactor reactor = new Reactor(List.of(pomFile));
+        return new ReachableArtifacts(resolver, reactor, resolver.resolve(reactor.findPom(pomFile), reactor));
+    }
+
+    private static String dependency(String artifactId, String version, String extra) {
+        return TestRepository.dependency("test", artifactId, version, extra);
+    }
+}
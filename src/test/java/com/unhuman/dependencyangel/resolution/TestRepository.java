@@ -0,0 +1,68 @@
+package com.unhuman.dependencyangel.resolution;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Local repository of poms written by tests (and the project poms that use them)
+ */
+public class TestRepository {
+    private static final String DEPENDENCY = "<dependency><groupId>%s</groupId><artifactId>%s</artifactId>"
+            + "<version>%s</version>%s</dependency>";
+
+    private final Path root;
+
+    public TestRepository(Path root) {
+        this.root = root;
+    }
+
+    public Path getRoot() {
+        return root;
+    }
+
+    public LocalRepository getLocalRepository() {
+        return new LocalRepository(root);
+    }
+
+    /**
+     * Write (or replace) a pom in the repository
+     * @param extra - elements ahead of the coordinates (ex: parent, properties)
+     * @param dependencies - dependency elements
+     * @return the pom written
+     */
+    public Path writePom(String groupId, String artifactId, String version, String extra, String dependencies)
+            throws IOException {
+        Path directory = Files.createDirectories(root.resolve(groupId).resolve(artifactId).resolve(version));
+        return Files.writeString(directory.resolve(artifactId + "-" + version + ".pom"), String.format(
+                "<project>%s<groupId>%s</groupId><artifactId>%s</artifactId><version>%s</version>"
+                        + "<dependencies>%s</dependencies></project>",
+                extra, groupId, artifactId, version, dependencies));
+    }
+
+    /**
+     * Write test:project:1.0-SNAPSHOT's pom
+     * @return the pom written
+     */
+    public static File writeProject(Path directory, String managedDependencies, String dependencies)
+            throws IOException {
+        Path pom = Files.createDirectories(directory).resolve("pom.xml");
+        Files.writeString(pom, String.format("<project><groupId>test</groupId><artifactId>project</artifactId>"
+                + "<version>1.0-SNAPSHOT</version>"
+                + "<dependencyManagement><dependencies>%s</dependencies></dependencyManagement>"
+                + "<dependencies>%s</dependencies></project>", managedDependencies, dependencies));
+        return pom.toFile();
+    }
+
+    public static String dependency(String groupId, String artifactId, String version) {
+        return dependency(groupId, artifactId, version, "");
+    }
+
+    /**
+     * @param extra - elements following the version (ex: exclusions, scope)
+     */
+    public static String dependency(String groupId, String artifactId, String version, String extra) {
+        return String.format(DEPENDENCY, groupId, artifactId, version, extra);
+    }
+}
@@ -0,0 +1,137 @@
+package com.unhuman.dependencyangel.server;
+
+import com.unhuman.dependencyangel.resolution.TestRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.Timeout;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.net.InetAddress;
+import java.net.Socket;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class AngelServerTest {
+    private static final String POM = "<project><groupId>test</groupId><artifactId>project</artifactId>"
+            + "<version>1.0</version><dependencies><dependency><groupId>test</groupId><artifactId>a</artifactId>"
+            + "<version>1.0</version></dependency></dependencies></project>";
+
+    private static final String REPO_LOCAL_PROPERTY = "maven.repo.local";
+
+    @TempDir
+    Path tempDir;
+
+    @AfterEach
+    public void clearLocalRepository() {
+        System.clearProperty(REPO_LOCAL_PROPERTY);
+    }
+
+    @Test
+    public void testRunsRequests() throws IOException {
+        Files.writeString(tempDir.resolve("pom.xml"), POM);
+        PrintStream originalOut = System.out;
+
+        try (AngelServer server = new AngelServer(0, 1)) {
+            // invalid arguments
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            ByteArrayOutputStream err = new ByteArrayOutputStream();
+            assertEquals(1, AngelClient.run(server.getPort(), tempDir.toFile(), new String[] { "-m", "Bogus" },
+                    out, err));
+            assertTrue(err.toString().contains("usage: DependencyAngel"));
+
+            // runs cannot prompt
+            err.reset();
+            assertEquals(-1, AngelClient.run(server.getPort(), tempDir.toFile(), new String[] { "." }, out, err));
+            assertTrue(err.toString().contains("cannot prompt"), err.toString());
+
+            // the project directory is relative to the client's working directory, output goes to the client
+            out.reset();
+            err.reset();
+            assertEquals(0, AngelClient.run(server.getPort(), tempDir.toFile(),
+                    new String[] { "-s", "-m", "SetupOnly", "." }, out, err), err.toString());
+            assertTrue(out.toString().contains("Dependency management handled"), out.toString());
+            assertTrue(Files.readString(tempDir.resolve("pom.xml")).contains("<dependencyManagement>"));
+
+            // runs with the same version policy share Versions
+            assertEquals(1, server.getCaches().getVersionTableCount());
+        }
+
+        // console restored
+        assertSame(originalOut, System.out);
+    }
+
+    @Test
+    @Timeout(60)
+    public void testConcurrentRuns() throws Exception {
+        // test:a 1.0 (no dependencies) is in the local repository
+        TestRepository repository = new TestRepository(tempDir.resolve("repository"));
+        repository.writePom("test", "a", "1.0", "", "");
+        System.setProperty(REPO_LOCAL_PROPERTY, repository.getRoot().toString());
+
+        List<Path> projects = new ArrayList<>();
+        for (String name : List.of("first", "second")) {
+            Path project = Files.createDirectories(tempDir.resolve(name));
+            Files.writeString(project.resolve("pom.xml"), POM);
+            projects.add(project);
+        }
+
+        ExecutorService clients = Executors.newFixedThreadPool(projects.size());
+        try (AngelServer server = new AngelServer(0, projects.size())) {
+            // both runs (with the Native analyzer, sharing the local repository's models) at the same time
+            CyclicBarrier barrier = new CyclicBarrier(projects.size());
+            List<Future<String>> outputs = new ArrayList<>();
+            for (Path project : projects) {
+                outputs.add(clients.submit(() -> {
+                    ByteArrayOutputStream out = new ByteArrayOutputStream();
+                    ByteArrayOutputStream err = new ByteArrayOutputStream();
+                    barrier.await();
+                    assertEquals(0, AngelClient.run(server.getPort(), project.toFile(),
+                            new String[] { "-s", "-k", "-a", "Native", "." }, out, err), err.toString());
+                    assertEquals("", err.toString());
+                    return out.toString();
+                }));
+            }
+
+            for (int i = 0; i < projects.size(); i++) {
+                String output = outputs.get(i).get();
+                // each client only receives the output of its own run
+                assertTrue(output.contains("Analyzing: " + projects.get(i)), output);
+                assertFalse(output.contains(projects.get(1 - i).toString()), output);
+                assertTrue(output.contains("0 conflicts remaining"), output);
+                assertTrue(Files.readString(projects.get(i).resolve("pom.xml")).contains("<dependencyManagement>"));
+            }
+            assertEquals(1, server.getCaches().getRepositoryCount());
+        } finally {
+            clients.shutdownNow();
+        }
+    }
+
+    @Test
+    @Timeout(30)
+    public void testIdleConnectionsTimeOut() throws IOException {
+        Files.writeString(tempDir.resolve("pom.xml"), POM);
+
+        try (AngelServer server = new AngelServer(0, 1, 100);
+             Socket idle = new Socket(InetAddress.getLoopbackAddress(), server.getPort())) {
+            // the only worker is released when the idle connection times out
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            ByteArrayOutputStream err = new ByteArrayOutputStream();
+            assertEquals(0, AngelClient.run(server.getPort(), tempDir.toFile(),
+                    new String[] { "-s", "-m", "SetupOnly", "." }, out, err), err.toString());
+        }
+    }
+}
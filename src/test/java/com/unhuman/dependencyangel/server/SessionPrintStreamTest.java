@@ -0,0 +1,82 @@
+package com.unhuman.dependencyangel.server;
+
+import com.unhuman.dependencyangel.session.AngelSession;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.Timeout;
+
+import java.io.ByteArrayOutputStream;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class SessionPrintStreamTest {
+    @Test
+    public void testRoutesBySession() {
+        ByteArrayOutputStream fallback = new ByteArrayOutputStream();
+        ByteArrayOutputStream target = new ByteArrayOutputStream();
+        SessionPrintStream stream = new SessionPrintStream(new PrintStream(fallback, true));
+        AngelSession session = new AngelSession(null);
+        stream.register(session, new PrintStream(target, true));
+
+        stream.print("no session");
+        try (AngelSession.Scope scope = session.enter()) {
+            stream.printf("%s-%d", "session", 1);
+            stream.println();
+        }
+        stream.unregister(session);
+        try (AngelSession.Scope scope = session.enter()) {
+            stream.print(" unregistered");
+        }
+
+        assertEquals("no session unregistered", fallback.toString(StandardCharsets.UTF_8));
+        assertEquals("session-1" + System.lineSeparator(), target.toString(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    @Timeout(30)
+    public void testBlockedTargetDoesNotBlockOtherSessions() throws Exception {
+        // a client that has stopped reading
+        CountDownLatch writing = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        OutputStream stalled = new OutputStream() {
+            @Override
+            public void write(int b) {
+                write(new byte[] { (byte) b }, 0, 1);
+            }
+
+            @Override
+            public void write(byte[] bytes, int offset, int length) {
+                writing.countDown();
+                try {
+                    release.await();
+                } catch (InterruptedException ie) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        };
+        ByteArrayOutputStream other = new ByteArrayOutputStream();
+        SessionPrintStream stream = new SessionPrintStream(new PrintStream(new ByteArrayOutputStream(), true));
+        AngelSession stalledSession = new AngelSession(null);
+        AngelSession otherSession = new AngelSession(null);
+        stream.register(stalledSession, new PrintStream(stalled, true));
+        stream.register(otherSession, new PrintStream(other, true));
+
+        Thread stalledThread = new Thread(stalledSession.wrap(() -> stream.println("stalled")));
+        stalledThread.start();
+        try {
+            assertTrue(writing.await(10, TimeUnit.SECONDS));
+            try (AngelSession.Scope scope = otherSession.enter()) {
+                stream.println("other");
+            }
+            assertEquals("other" + System.lineSeparator(), other.toString(StandardCharsets.UTF_8));
+        } finally {
+            release.countDown();
+            stalledThread.join();
+        }
+    }
+}
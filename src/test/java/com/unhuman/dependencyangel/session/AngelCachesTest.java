@@ -0,0 +1,75 @@
+package com.unhuman.dependencyangel.session;
+
+import com.unhuman.dependencyangel.resolution.LocalRepository;
+import com.unhuman.dependencyangel.resolution.PomModelResolver;
+import com.unhuman.dependencyangel.resolution.TestRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class AngelCachesTest {
+    @TempDir
+    Path tempDir;
+
+    @Test
+    public void testResolversShareOnlyFoundModels() throws IOException {
+        TestRepository poms = new TestRepository(tempDir);
+        LocalRepository repository = poms.getLocalRepository();
+        poms.writePom("test", "a", "1.0", "", "");
+        // b's parent is missing
+        poms.writePom("test", "b", "1.0", "<parent><groupId>test</groupId><artifactId>parent</artifactId>"
+                + "<version>1.0</version></parent>", "");
+
+        AngelCaches caches = new AngelCaches();
+        PomModelResolver first = caches.createResolver(repository);
+        assertNotNull(first.resolve("test", "a", "1.0", null));
+        assertNotNull(first.resolve("test", "b", "1.0", null));
+        assertNull(first.resolve("test", "c", "1.0", null));
+        assertEquals(Set.of("test:parent:1.0", "test:c:1.0"), first.getMissingPoms());
+
+        // a build downloads the missing poms while the first resolver is in use
+        poms.writePom("test", "parent", "1.0", "", "");
+        poms.writePom("test", "c", "1.0", "", "");
+        PomModelResolver second = caches.createResolver(repository);
+        assertSame(first.resolve("test", "a", "1.0", null), second.resolve("test", "a", "1.0", null));
+        assertNotNull(second.resolve("test", "c", "1.0", null));
+        assertTrue(second.getMissingPoms().isEmpty());
+
+        // the first resolver uses models found since, but what it found missing is not reset under it
+        assertNotNull(first.resolve("test", "c", "1.0", null));
+        assertEquals(Set.of("test:parent:1.0", "test:c:1.0"), first.getMissingPoms());
+        assertEquals(1, caches.getRepositoryCount());
+    }
+
+    @Test
+    public void testRewrittenPomsAreReadAgain() throws IOException {
+        TestRepository poms = new TestRepository(tempDir);
+        LocalRepository repository = poms.getLocalRepository();
+        poms.writePom("test", "parent", "1.0", "<properties><lib.version>1.0</lib.version></properties>", "");
+        poms.writePom("test", "b", "1.0", "<parent><groupId>test</groupId><artifactId>parent</artifactId>"
+                + "<version>1.0</version></parent>", "");
+
+        AngelCaches caches = new AngelCaches();
+        PomModelResolver first = caches.createSession(Collections.emptySet()).getResolver(repository);
+        assertEquals("1.0", first.resolve("test", "b", "1.0", null).getProperties().get("lib.version"));
+
+        // the parent is installed again (ex: a SNAPSHOT) between runs
+        poms.writePom("test", "parent", "1.0", "<properties><lib.version>1.0.1</lib.version></properties>", "");
+        PomModelResolver second = caches.createSession(Collections.emptySet()).getResolver(repository);
+        assertEquals("1.0.1", second.resolve("test", "b", "1.0", null).getProperties().get("lib.version"));
+        assertEquals("1.0.1", second.resolve("test", "parent", "1.0", null).getProperties().get("lib.version"));
+
+        // a run in progress keeps the models it has used
+        assertEquals("1.0", first.resolve("test", "b", "1.0", null).getProperties().get("lib.version"));
+    }
+}
@@ -0,0 +1,27 @@
+package com.unhuman.dependencyangel.session;
+
+import org.junit.jupiter.api.extension.AfterEachCallback;
+import org.junit.jupiter.api.extension.BeforeEachCallback;
+import org.junit.jupiter.api.extension.ExtensionContext;
+
+/**
+ * Runs each test in its own session (with no version policy)
+ */
+public class AngelSessionExtension implements BeforeEachCallback, AfterEachCallback {
+    private static final ExtensionContext.Namespace NAMESPACE =
+            ExtensionContext.Namespace.create(AngelSessionExtension.class);
+
+    @Override
+    public void beforeEach(ExtensionContext context) {
+        context.getStore(NAMESPACE).put(AngelSession.Scope.class, new AngelSession(null).enter());
+    }
+
+    @Override
+    public void afterEach(ExtensionContext context) {
+        AngelSession.Scope scope = context.getStore(NAMESPACE).remove(AngelSession.Scope.class,
+                AngelSession.Scope.class);
+        if (scope != null) {
+            scope.close();
+        }
+    }
+}
@@ -0,0 +1,121 @@
+package com.unhuman.dependencyangel.session;
+
+import com.unhuman.dependencyangel.dependency.Dependency;
+import com.unhuman.dependencyangel.execution.ParallelTasks;
+import com.unhuman.dependencyangel.versioning.Version;
+import com.unhuman.dependencyangel.versioning.VersionHelper;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.Timeout;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class AngelSessionTest {
+    @Test
+    public void testSessionsAreIsolated() {
+        AngelSession first = new AngelSession(new VersionHelper(Collections.emptySet()));
+        AngelSession second = new AngelSession(new VersionHelper(Collections.singleton("test:a")));
+
+        try (AngelSession.Scope outer = first.enter()) {
+            first.addKnownArtifact("test", "a");
+            Version version = Version.of("test", "a", "2.0.0");
+
+            try (AngelSession.Scope inner = second.enter()) {
+                assertSame(second, AngelSession.current());
+                assertFalse(AngelSession.current().isKnownArtifact("test", "a"));
+                // test:a is not semantic in the second session, so is lower than any semantic version
+                assertTrue(Version.of("test", "a", "2.0.0").compareTo(Version.of("test", "b", "1.0.0")) < 0);
+            }
+
+            // the outer session is restored
+            assertSame(first, AngelSession.current());
+            assertTrue(AngelSession.current().isKnownArtifact("test", "a"));
+            assertSame(version, Version.of("test", "a", "2.0.0"));
+            assertTrue(version.compareTo(Version.of("test", "b", "1.0.0")) > 0);
+        }
+        // no session is bound once the outer one is closed
+        assertNull(AngelSession.findCurrent());
+        assertThrows(IllegalStateException.class, AngelSession::current);
+    }
+
+    @Test
+    @Timeout(30)
+    public void testConcurrentSessions() throws Exception {
+        AngelSession first = new AngelSession(new VersionHelper(Collections.emptySet()));
+        AngelSession second = new AngelSession(new VersionHelper(Collections.singleton("test:a")));
+        // both sessions are bound (on their own threads) while each checks its state
+        CyclicBarrier barrier = new CyclicBarrier(2);
+
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            Future<Boolean> firstResult = executor.submit(first.wrap(() -> run(barrier, "first")));
+            Future<Boolean> secondResult = executor.submit(second.wrap(() -> run(barrier, "second")));
+
+            // test:a is semantic in the first session only (else lower than any semantic version)
+            assertTrue(firstResult.get());
+            assertFalse(secondResult.get());
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertTrue(first.isKnownArtifact("test", "first"));
+        assertFalse(first.isKnownArtifact("test", "second"));
+        assertTrue(second.isKnownArtifact("test", "second"));
+        assertFalse(second.isKnownArtifact("test", "first"));
+    }
+
+    private static boolean run(CyclicBarrier barrier, String artifactId) throws Exception {
+        AngelSession session = AngelSession.current();
+        session.addKnownArtifact("test", artifactId);
+        barrier.await();
+        Version version = Version.of("test", "a", "2.0.0");
+        barrier.await();
+        assertSame(session, AngelSession.current());
+        assertSame(version, Version.of("test", "a", "2.0.0"));
+        return version.compareTo(Version.of("test", "b", "1.0.0")) > 0;
+    }
+
+    @Test
+    public void testSessionsHaveOwnCoordinates() {
+        AngelSession first = new AngelSession(null);
+        AngelSession second = new AngelSession(null);
+
+        Dependency dependency;
+        try (AngelSession.Scope scope = first.enter()) {
+            dependency = new Dependency("test:a:jar:1.0:compile");
+        }
+        int firstSize = first.getCoordinates().size();
+        assertEquals(0, second.getCoordinates().size());
+        try (AngelSession.Scope scope = second.enter()) {
+            Dependency other = new Dependency("test:b:jar:2.0:compile");
+            assertEquals("test:b", other.getDisplayName());
+            // what the first session interned is still its own
+            assertEquals("test:a", dependency.getDisplayName());
+            assertEquals("1.0", dependency.getVersion().toString());
+        }
+        assertEquals(firstSize, first.getCoordinates().size());
+    }
+
+    @Test
+    public void testParallelTasksRunInCallersSession() {
+        AngelSession session = new AngelSession(null);
+        try (AngelSession.Scope scope = session.enter()) {
+            Callable<AngelSession> task = AngelSession::current;
+            for (AngelSession result : ParallelTasks.invokeAll("session", List.of(task, task, task))) {
+                assertSame(session, result);
+            }
+        }
+    }
+}
@@ -0,0 +1,91 @@
+package com.unhuman.dependencyangel.tree;
+
+import com.unhuman.dependencyangel.convergence.ConvergenceCalculator;
+import com.unhuman.dependencyangel.convergence.DependencyConflict;
+import com.unhuman.dependencyangel.session.AngelSessionExtension;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+@ExtendWith(AngelSessionExtension.class)
+public class DependencyTreeParserTest {
+    private static final String TREE = String.join("\n",
+            "test:project:jar:1.0",
+            "+- test:a:jar:1.0:compile",
+            "|  +- test:c:jar:tests:2.0:test",
+            "|  \\- (test:b:jar:1.0:compile - omitted for conflict with 2.0)",
+            "+- test:d:jar:1.5:runtime (version managed from 1.0)",
+            "\\- test:b:jar:2.0:compile",
+            "   \\- test:e:jar:1.0:compile",
+            "");
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    public void testParseTree() throws IOException {
+        DependencyTreeParser parser = parse(TREE);
+        assertEquals(7, parser.getLineCount());
+        // Windows line endings, and no final line ending
+        assertEquals(7, parse(TREE.trim().replace("\n", "\r\n")).getLineCount());
+
+        DependencyNode root = parser.getRoot();
+        assertEquals("test:project", root.getDisplayName());
+        assertEquals("jar", root.getType());
+        assertNull(root.getScope());
+        assertEquals(3, root.getChildren().size());
+
+        DependencyNode a = root.getChildren().get(0);
+        DependencyNode c = a.getChildren().get(0);
+        assertEquals("tests", c.getClassifier());
+        assertEquals("2.0", c.getVersion().toString());
+        assertEquals("test", c.getScope());
+        DependencyNode omitted = a.getChildren().get(1);
+        assertEquals("test:b", omitted.getDisplayName());
+        assertEquals("1.0", omitted.getVersion().toString());
+        assertEquals(a, omitted.getParent());
+
+        DependencyNode d = root.getChildren().get(1);
+        assertEquals("1.5", d.getVersion().toString());
+        assertEquals("runtime", d.getScope());
+        assertEquals("test:e", root.getChildren().get(2).getChildren().get(0).getDisplayName());
+    }
+
+    @Test
+    public void testConflictsFromOmittedVersions() throws IOException {
+        List<DependencyConflict> conflicts = ConvergenceCalculator.calculate(parse(TREE).getRoot());
+
+        assertEquals(1, conflicts.size());
+        assertEquals("test:b", conflicts.get(0).getDisplayName());
+        assertEquals("2.0", conflicts.get(0).getVersion().toString());
+        assertEquals(2, conflicts.get(0).getConflictHierarchy().size());
+    }
+
+    @Test
+    public void testInvalidTree() throws IOException {
+        File empty = writeTree("");
+        assertThrows(RuntimeException.class, () -> DependencyTreeParser.parse(empty));
+        File badIndent = writeTree("test:project:jar:1.0\n      +- test:a:jar:1.0:compile");
+        assertThrows(RuntimeException.class, () -> DependencyTreeParser.parse(badIndent));
+    }
+
+    private DependencyTreeParser parse(String tree) throws IOException {
+        return DependencyTreeParser.parse(writeTree(tree));
+    }
+
+    private File writeTree(String tree) throws IOException {
+        Path treeFile = Files.createTempFile(tempDir, "tree", ".tmp");
+        Files.writeString(treeFile, tree);
+        return treeFile.toFile();
+    }
+}
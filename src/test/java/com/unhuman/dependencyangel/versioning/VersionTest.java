@@ -1,5 +1,6 @@
 package com.unhuman.dependencyangel.versioning;
 
+import com.unhuman.dependencyangel.session.AngelSession;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.Test;
 
@@ -12,29 +13,30 @@ public class VersionTest {
 
     private static final VersionHelper nonSemanticVersionHelper =
             new VersionHelper(Set.of(GROUP_NON_SEMANTIC + ":" + ARTIFACT));
-    static {
-        Version.setVersionHelper(nonSemanticVersionHelper);
+
+    private static Version version(String groupId, String versionInfo) {
+        return new Version(groupId, ARTIFACT, versionInfo, nonSemanticVersionHelper);
     }
 
-    private static final Version VERSION_ONE = new Version(GROUP, ARTIFACT, "1");
-    private static final Version VERSION_ONE_EXTRA = new Version(GROUP, ARTIFACT, "1.extra");
-    private static final Version VERSION_TWO =  new Version(GROUP, ARTIFACT, "2");
+    private static final Version VERSION_ONE = version(GROUP, "1");
+    private static final Version VERSION_ONE_EXTRA = version(GROUP, "1.extra");
+    private static final Version VERSION_TWO =  version(GROUP, "2");
 
-    private static final Version SEMANTIC_VERSION_ONE = new Version(GROUP, ARTIFACT, "0.0.1");
-    private static final Version SEMANTIC_VERSION_TWO = new Version(GROUP, ARTIFACT, "0.0.2");
-    private static final Version SEMANTIC_VERSION_THREE = new Version(GROUP, ARTIFACT, "0.1.0");
-    private static final Version SEMANTIC_VERSION_THREE_HOTFIX_TEXT = new Version(GROUP, ARTIFACT, "0.1.0.0text");
-    private static final Version SEMANTIC_VERSION_THREE_HOTFIX = new Version(GROUP, ARTIFACT, "0.1.0.1");
-    private static final Version SEMANTIC_VERSION_THREE_HOTFIX_TWO = new Version(GROUP, ARTIFACT, "0.1.0.2");
+    private static final Version SEMANTIC_VERSION_ONE = version(GROUP, "0.0.1");
+    private static final Version SEMANTIC_VERSION_TWO = version(GROUP, "0.0.2");
+    private static final Version SEMANTIC_VERSION_THREE = version(GROUP, "0.1.0");
+    private static final Version SEMANTIC_VERSION_THREE_HOTFIX_TEXT = version(GROUP, "0.1.0.0text");
+    private static final Version SEMANTIC_VERSION_THREE_HOTFIX = version(GROUP, "0.1.0.1");
+    private static final Version SEMANTIC_VERSION_THREE_HOTFIX_TWO = version(GROUP, "0.1.0.2");
 
-    private static final Version VERSION_ONE_SUFFIX_1 = new Version(GROUP, ARTIFACT, "1-1");
-    private static final Version VERSION_ONE_SUFFIX_2 = new Version(GROUP, ARTIFACT, "1-2");
-    private static final Version VERSION_ONE_SUFFIX_TEXT = new Version(GROUP, ARTIFACT, "1-SNAPSHOT");
+    private static final Version VERSION_ONE_SUFFIX_1 = version(GROUP, "1-1");
+    private static final Version VERSION_ONE_SUFFIX_2 = version(GROUP, "1-2");
+    private static final Version VERSION_ONE_SUFFIX_TEXT = version(GROUP, "1-SNAPSHOT");
 
-    private static final Version VERSION_ONE_NS = new Version(GROUP_NON_SEMANTIC, ARTIFACT, "1");
-    private static final Version VERSION_ONE_EXTRA_NS = new Version(GROUP_NON_SEMANTIC, ARTIFACT, "1.extra");
-    private static final Version VERSION_TWO_NS =  new Version(GROUP_NON_SEMANTIC, ARTIFACT, "2");
-    private static final Version SEMANTIC_VERSION_ONE_NS = new Version(GROUP_NON_SEMANTIC, ARTIFACT, "0.0.1");
+    private static final Version VERSION_ONE_NS = version(GROUP_NON_SEMANTIC, "1");
+    private static final Version VERSION_ONE_EXTRA_NS = version(GROUP_NON_SEMANTIC, "1.extra");
+    private static final Version VERSION_TWO_NS =  version(GROUP_NON_SEMANTIC, "2");
+    private static final Version SEMANTIC_VERSION_ONE_NS = version(GROUP_NON_SEMANTIC, "0.0.1");
 
 
     @Test
@@ -142,4 +144,43 @@ public class VersionTest {
         // This is a weird test.  Should never occur (b/c we should never compare differing groupId:artifactId
         Assertions.assertEquals(0, VERSION_ONE_NS.compareTo(VERSION_ONE));
     }
+
+    @Test
+    public void testEqualsConsistentWithHashCode() {
+        Version leadingZero = version(GROUP, "1.01.0");
+        Version plain = version(GROUP, "1.1.0");
+        Assertions.assertEquals(0, leadingZero.compareTo(plain));
+        Assertions.assertEquals(leadingZero, plain);
+        Assertions.assertEquals(leadingZero.hashCode(), plain.hashCode());
+        Assertions.assertNotEquals(plain, version(GROUP, "1.1.0-SNAPSHOT"));
+        Assertions.assertNotEquals(plain, "1.1.0");
+    }
+
+    @Test
+    public void testNonNumericSegments() {
+        // too large to be a number, so it is compared as text (and is lower than any number)
+        Version huge = version(GROUP, "1.99999999999999999999");
+        Assertions.assertEquals(-1, huge.compareTo(version(GROUP, "1.0")));
+        Assertions.assertEquals(0, version(GROUP, "1.+2").compareTo(version(GROUP, "1.2")));
+        Assertions.assertEquals(1, version(GROUP, "1.b").compareTo(version(GROUP, "1.a")));
+    }
+
+    @Test
+    public void testSharedInstances() {
+        Version version;
+        try (AngelSession.Scope scope = new AngelSession(nonSemanticVersionHelper).enter()) {
+            version = Version.of(GROUP, ARTIFACT, "3.2.1");
+            Assertions.assertSame(version, Version.of(GROUP, ARTIFACT, "3.2.1"));
+            Assertions.assertNotSame(version, Version.of(GROUP_NON_SEMANTIC, ARTIFACT, "3.2.1"));
+            Assertions.assertTrue(version.isSemVer());
+            Assertions.assertFalse(Version.of(GROUP_NON_SEMANTIC, ARTIFACT, "3.2.1").isSemVer());
+        }
+
+        // Each session has its own instances
+        try (AngelSession.Scope scope = new AngelSession(nonSemanticVersionHelper).enter()) {
+            Assertions.assertNotSame(version, Version.of(GROUP, ARTIFACT, "3.2.1"));
+        }
+        // Outside of a session, there are no shared instances
+        Assertions.assertThrows(IllegalStateException.class, () -> Version.of(GROUP, ARTIFACT, "3.2.1"));
+    }
 }